@@ -0,0 +1,21 @@
+#!/bin/sh
+# Builds the application jar and a class data sharing (AppCDS) archive of the classes loaded by a training run, which
+# runs scripts/cds-training.txt in batch mode. Requires JDK 13 or later.
+#
+# Usage: scripts/build-cds-archive.sh [BUILD_DIR]
+# Then:  java -XX:SharedArchiveFile=BUILD_DIR/hotel-reservation.jsa -jar BUILD_DIR/hotel-reservation.jar
+#
+# The archive is only valid for the jar and the JDK it was made with: rebuild both together.
+set -e
+
+root=$(cd "$(dirname "$0")/.." && pwd)
+build=${1:-$root/build}
+
+rm -rf "$build/classes"
+mkdir -p "$build/classes"
+javac -d "$build/classes" $(find "$root/src" -name '*.java')
+jar --create --file "$build/hotel-reservation.jar" --main-class hotelreservation.HotelApplication -C "$build/classes" .
+
+java -XX:ArchiveClassesAtExit="$build/hotel-reservation.jsa" -jar "$build/hotel-reservation.jar" \
+  --batch "$root/scripts/cds-training.txt" > /dev/null
+echo "Archive written to $build/hotel-reservation.jsa"
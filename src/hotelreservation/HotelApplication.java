@@ -1,11 +1,60 @@
 package hotelreservation;
 
+import hotelreservation.api.HotelResource;
+import hotelreservation.menu.BatchDriver;
 import hotelreservation.menu.MainMenu;
+import hotelreservation.model.Reservation;
+import hotelreservation.model.RoomTypeReservation;
+import hotelreservation.model.WaitlistEntry;
+import hotelreservation.service.ServiceWarmUp;
+import hotelreservation.service.WaitlistListener;
 
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Scanner;
 
 public class HotelApplication {
-  public static void main(String[] args) {
+  private static final String BATCH_FLAG = "--batch";
+  private static final int OUTPUT_BUFFER_SIZE = 1 << 16;
+
+  /**
+   * Runs the interactive menus, or with {@code --batch [SCRIPT]} the commands of the script (or of the standard input)
+   * without prompts; see {@link BatchDriver}. Batch mode exits with status 1 if a command failed.
+   * <p>
+   * The interactive mode first warms up the services if enabled, see {@link ServiceWarmUp}; e.g.
+   * {@code -Dhotelreservation.warmUpRounds=1000}. Batch runs are short-lived, so they never do.
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length > 0 && HotelApplication.BATCH_FLAG.equals(args[0])) {
+      final int errors;
+      try (
+        final BufferedReader reader = args.length > 1
+          ? Files.newBufferedReader(Path.of(args[1]))
+          : new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+        final Writer writer = new BufferedWriter(
+          new OutputStreamWriter(System.out, StandardCharsets.UTF_8), HotelApplication.OUTPUT_BUFFER_SIZE
+        )
+      ) {
+        errors = new BatchDriver(reader, writer).run();
+      }
+      System.exit(0 == errors ? 0 : 1);
+    }
+
+    ServiceWarmUp.run(ServiceWarmUp.getConfiguredRounds());
+    HotelResource.getInstance().addWaitlistListener(new WaitlistListener() {
+      @Override
+      public void onReservation(WaitlistEntry entry, Reservation reservation) {
+        System.out.println("Booked from the waitlist: " + reservation);
+      }
+
+      @Override
+      public void onRoomTypeReservation(WaitlistEntry entry, RoomTypeReservation reservation) {
+        System.out.println("Booked from the waitlist: " + reservation);
+      }
+    });
+
     final Scanner scanner = new Scanner(System.in);
     new MainMenu(scanner).displayMenu();
     scanner.close();
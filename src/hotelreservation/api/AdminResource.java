@@ -1,18 +1,40 @@
 package hotelreservation.api;
 
+import hotelreservation.exception.PropertyAlreadyExistsException;
+import hotelreservation.exception.PropertyNotFoundException;
 import hotelreservation.exception.RoomAlreadyExistsException;
 import hotelreservation.model.Customer;
 import hotelreservation.model.IRoom;
+import hotelreservation.model.InventoryMode;
+import hotelreservation.model.Money;
+import hotelreservation.model.RatePlan;
+import hotelreservation.model.RoomAssignmentReport;
+import hotelreservation.model.RoomType;
+import hotelreservation.model.RoomTypeReservation;
+import hotelreservation.model.WaitlistEntry;
+import hotelreservation.model.WaitlistOrder;
+import hotelreservation.service.AnalyticsService;
 import hotelreservation.service.CustomerService;
+import hotelreservation.service.ExportService;
+import hotelreservation.service.HotelChainService;
+import hotelreservation.service.PropertyStore;
 import hotelreservation.service.ReservationService;
+import hotelreservation.util.EpochDays;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Collection;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
 
 public class AdminResource {
   private static final AdminResource instance = new AdminResource();
   private final CustomerService customerService = CustomerService.getInstance();
   private final ReservationService reservationService = ReservationService.getInstance();
+  private final AnalyticsService analyticsService = AnalyticsService.getInstance();
+  private final ExportService exportService = ExportService.getInstance();
+  private final HotelChainService hotelChainService = HotelChainService.getInstance();
 
   private AdminResource() {}
 
@@ -24,10 +46,29 @@ public class AdminResource {
     return this.customerService.getCustomer(email);
   }
 
+  /**
+   * @return Up to {@code limit} customers whose names or email addresses match the query, best matches first.
+   */
+  public List<Customer> searchCustomers(String query, int limit) {
+    return this.customerService.searchCustomers(query, limit);
+  }
+
+  public void addRoom(IRoom room) throws RoomAlreadyExistsException {
+    this.reservationService.addRoom(room);
+  }
+
   public void addRooms(List<IRoom> rooms) {
+    this.addRooms(this.reservationService, rooms);
+  }
+
+  public void addRooms(String propertyId, List<IRoom> rooms) throws PropertyNotFoundException {
+    this.addRooms(this.hotelChainService.getProperty(propertyId), rooms);
+  }
+
+  private void addRooms(ReservationService property, List<IRoom> rooms) {
     for (final IRoom room : rooms) {
       try {
-        this.reservationService.addRoom(room);
+        property.addRoom(room);
       } catch (RoomAlreadyExistsException raee) {
         System.out.println("Room " + room.getRoomNumber() + " already exists. Skipping.");
         continue;
@@ -36,6 +77,54 @@ public class AdminResource {
     }
   }
 
+  public void setRatePlan(RoomType roomType, RatePlan ratePlan) {
+    this.reservationService.setRatePlan(roomType, ratePlan);
+  }
+
+  public void setInventoryMode(InventoryMode inventoryMode) {
+    this.reservationService.setInventoryMode(inventoryMode);
+  }
+
+  public void setOverbookingRatio(RoomType roomType, double ratio) {
+    this.reservationService.setOverbookingRatio(roomType, ratio);
+  }
+
+  public Collection<RoomTypeReservation> getRoomTypeReservations() {
+    return this.reservationService.getRoomTypeReservations();
+  }
+
+  /**
+   * Assigns rooms to the room type reservations, e.g. nightly.
+   *
+   * @return Outcome of the assignment for each room type.
+   */
+  public Map<RoomType, RoomAssignmentReport> assignRooms() {
+    return this.reservationService.assignRoomTypeReservations();
+  }
+
+  /**
+   * @return Customers waiting for a room, in order of joining.
+   */
+  public Collection<WaitlistEntry> getWaitlist() {
+    return this.reservationService.getWaitlist();
+  }
+
+  public void setWaitlistOrder(WaitlistOrder waitlistOrder) {
+    this.reservationService.setWaitlistOrder(waitlistOrder);
+  }
+
+  public void registerProperty(String propertyId, PropertyStore propertyStore) throws PropertyAlreadyExistsException {
+    this.hotelChainService.registerProperty(propertyId, propertyStore);
+  }
+
+  public void unloadProperty(String propertyId) throws PropertyNotFoundException {
+    this.hotelChainService.unloadProperty(propertyId);
+  }
+
+  public Collection<String> getPropertyIds() {
+    return this.hotelChainService.getPropertyIds();
+  }
+
   public Collection<IRoom> getAllRooms() {
     return this.reservationService.getAllRooms();
   }
@@ -47,4 +136,77 @@ public class AdminResource {
   public void displayAllReservations() {
     this.reservationService.printAllReservations();
   }
+
+  /**
+   * Writes every reservation with its room and customer fields as a row of a CSV file, e.g. for a nightly extract.
+   *
+   * @return Number of reservations written.
+   */
+  public long exportReservations(Path file) throws IOException {
+    return this.exportService.exportReservations(file);
+  }
+
+  /**
+   * Writes the reservations as CSV files in the directory, one per month of check-in, in parallel.
+   *
+   * @return Number of reservations written.
+   */
+  public long exportReservationsByMonth(Path directory) throws IOException {
+    return this.exportService.exportReservationsByMonth(directory);
+  }
+
+  /**
+   * @return Number of booked rooms of the chain on each night from the start date (inclusive) to the end date
+   * (exclusive). Unloaded properties are not counted.
+   */
+  public int[] getOccupancyPerNight(Date startDate, Date endDate) {
+    return this.analyticsService.getOccupancyPerNight(EpochDays.of(startDate), EpochDays.of(endDate));
+  }
+
+  /**
+   * @return Number of booked rooms of each type on each night from the start date (inclusive) to the end date
+   * (exclusive).
+   */
+  public Map<RoomType, int[]> getOccupancyPerRoomType(Date startDate, Date endDate) {
+    return this.analyticsService.getOccupancyPerRoomType(EpochDays.of(startDate), EpochDays.of(endDate));
+  }
+
+  public Money getRevenue(Date startDate, Date endDate) {
+    return this.analyticsService.getRevenue(EpochDays.of(startDate), EpochDays.of(endDate));
+  }
+
+  public double getAverageLengthOfStay() {
+    return this.analyticsService.getAverageLengthOfStay();
+  }
+
+  /**
+   * @return Number of booked rooms of the property on each night from the start date (inclusive) to the end date
+   * (exclusive).
+   */
+  public int[] getOccupancyPerNight(String propertyId, Date startDate, Date endDate) throws PropertyNotFoundException {
+    return AnalyticsService.forProperty(propertyId)
+      .getOccupancyPerNight(EpochDays.of(startDate), EpochDays.of(endDate));
+  }
+
+  public Map<RoomType, int[]> getOccupancyPerRoomType(String propertyId, Date startDate, Date endDate)
+    throws PropertyNotFoundException {
+    return AnalyticsService.forProperty(propertyId)
+      .getOccupancyPerRoomType(EpochDays.of(startDate), EpochDays.of(endDate));
+  }
+
+  public Money getRevenue(String propertyId, Date startDate, Date endDate) throws PropertyNotFoundException {
+    return AnalyticsService.forProperty(propertyId).getRevenue(EpochDays.of(startDate), EpochDays.of(endDate));
+  }
+
+  public double getAverageLengthOfStay(String propertyId) throws PropertyNotFoundException {
+    return AnalyticsService.forProperty(propertyId).getAverageLengthOfStay();
+  }
+
+  /**
+   * @return Number of free rooms of the given type on each night from the start date (inclusive) to the end date
+   * (exclusive).
+   */
+  public int[] getFreeRoomsPerNight(RoomType roomType, Date startDate, Date endDate) {
+    return this.reservationService.getFreeRoomsPerNight(roomType, EpochDays.of(startDate), EpochDays.of(endDate));
+  }
 }
@@ -0,0 +1,164 @@
+package hotelreservation.api;
+
+import hotelreservation.model.Customer;
+import hotelreservation.model.IRoom;
+import hotelreservation.model.Reservation;
+import hotelreservation.model.RoomQuote;
+import hotelreservation.service.HotelChainService;
+import hotelreservation.service.ReservationService;
+import hotelreservation.util.KeyedSerialExecutor;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Non-blocking counterpart of {@link HotelResource}: every call returns at once, with a future completed by a worker
+ * thread, or with a publisher streaming results as they are found. Futures complete exceptionally with the exceptions
+ * the synchronous methods would throw.
+ * <p>
+ * Bookings and cancellations of the same room run one at a time in submission order, so that they never contend for a
+ * room on worker threads; other calls run concurrently.
+ */
+public class AsyncHotelResource {
+  private static final AsyncHotelResource instance = new AsyncHotelResource();
+
+  private final HotelResource hotelResource = HotelResource.getInstance();
+  private final HotelChainService hotelChainService = HotelChainService.getInstance();
+  private final ExecutorService executor;
+  private final KeyedSerialExecutor<String> roomExecutor;
+
+  private AsyncHotelResource() {
+    final AtomicInteger threadCount = new AtomicInteger();
+    this.executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), runnable -> {
+      final Thread thread = new Thread(runnable, "hotel-resource-" + threadCount.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.roomExecutor = new KeyedSerialExecutor<>(this.executor);
+  }
+
+  public static AsyncHotelResource getInstance() {
+    return AsyncHotelResource.instance;
+  }
+
+  public CompletableFuture<Customer> getCustomer(String email) {
+    return this.call(() -> this.hotelResource.getCustomer(email));
+  }
+
+  public CompletableFuture<Void> createACustomer(String email, String firstName, String lastName) {
+    return this.call(() -> {
+      this.hotelResource.createACustomer(email, firstName, lastName);
+      return null;
+    });
+  }
+
+  public CompletableFuture<Reservation> bookARoom(
+    String customerEmail,
+    IRoom room,
+    Date checkInDate,
+    Date checkOutDate
+  ) {
+    return this.callForRoom(
+      ReservationService.DEFAULT_PROPERTY_ID,
+      room,
+      () -> this.hotelResource.bookARoom(customerEmail, room, checkInDate, checkOutDate)
+    );
+  }
+
+  public CompletableFuture<Reservation> bookARoom(
+    String propertyId,
+    String customerEmail,
+    IRoom room,
+    Date checkInDate,
+    Date checkOutDate
+  ) {
+    return this.callForRoom(
+      propertyId,
+      room,
+      () -> this.hotelResource.bookARoom(propertyId, customerEmail, room, checkInDate, checkOutDate)
+    );
+  }
+
+  /**
+   * Books a room at most once per idempotency key; see {@link HotelResource}.
+   */
+  public CompletableFuture<Reservation> bookARoom(
+    String customerEmail,
+    IRoom room,
+    Date checkInDate,
+    Date checkOutDate,
+    String idempotencyKey
+  ) {
+    return this.callForRoom(
+      ReservationService.DEFAULT_PROPERTY_ID,
+      room,
+      () -> this.hotelResource.bookARoom(customerEmail, room, checkInDate, checkOutDate, idempotencyKey)
+    );
+  }
+
+  public CompletableFuture<Reservation> bookARoom(
+    String propertyId,
+    String customerEmail,
+    IRoom room,
+    Date checkInDate,
+    Date checkOutDate,
+    String idempotencyKey
+  ) {
+    return this.callForRoom(
+      propertyId,
+      room,
+      () -> this.hotelResource.bookARoom(propertyId, customerEmail, room, checkInDate, checkOutDate, idempotencyKey)
+    );
+  }
+
+  public CompletableFuture<Collection<Reservation>> getCustomerReservations(String customerEmail) {
+    return this.call(() -> this.hotelResource.getCustomerReservations(customerEmail));
+  }
+
+  public CompletableFuture<Void> cancelReservation(String customerEmail, Reservation reservation) {
+    return this.callForRoom(ReservationService.DEFAULT_PROPERTY_ID, reservation.getRoom(), () -> {
+      this.hotelResource.cancelReservation(customerEmail, reservation);
+      return null;
+    });
+  }
+
+  /**
+   * @return Cold publisher of the default property's available rooms: the search starts on subscription.
+   */
+  public Flow.Publisher<IRoom> findRooms(Date checkIn, Date checkOut) {
+    return new ShardedRoomPublisher(List.of(ReservationService.getInstance()), checkIn, checkOut, this.executor);
+  }
+
+  /**
+   * @return Cold publisher of the available rooms of all loaded properties, streaming the rooms of each property as
+   * soon as its search is done.
+   */
+  public Flow.Publisher<IRoom> findRoomsInAllProperties(Date checkIn, Date checkOut) {
+    return new ShardedRoomPublisher(this.hotelChainService.getLoadedProperties(), checkIn, checkOut, this.executor);
+  }
+
+  public CompletableFuture<Collection<RoomQuote>> findRoomQuotes(Date checkIn, Date checkOut) {
+    return this.call(() -> this.hotelResource.findRoomQuotes(checkIn, checkOut));
+  }
+
+  private <T> CompletableFuture<T> call(Callable<T> task) {
+    final CompletableFuture<T> result = new CompletableFuture<>();
+    this.executor.execute(() -> {
+      try {
+        result.complete(task.call());
+      } catch (Throwable throwable) {
+        result.completeExceptionally(throwable);
+      }
+    });
+    return result;
+  }
+
+  private <T> CompletableFuture<T> callForRoom(String propertyId, IRoom room, Callable<T> task) {
+    final String roomKey = Objects.requireNonNull(propertyId) + '/' + Objects.requireNonNull(room).getRoomNumber();
+    return this.roomExecutor.submit(roomKey, task);
+  }
+}
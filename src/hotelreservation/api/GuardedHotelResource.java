@@ -0,0 +1,159 @@
+package hotelreservation.api;
+
+import hotelreservation.exception.CustomerNotFoundException;
+import hotelreservation.exception.RateLimitExceededException;
+import hotelreservation.exception.RoomAlreadyReservedException;
+import hotelreservation.exception.ServiceOverloadedException;
+import hotelreservation.model.IRoom;
+import hotelreservation.model.Reservation;
+import hotelreservation.model.RoomQuote;
+import hotelreservation.model.RoomQuoteSearch;
+import hotelreservation.model.RoomRanking;
+import hotelreservation.service.CustomerService;
+import hotelreservation.util.AdaptiveConcurrencyLimiter;
+import hotelreservation.util.EpochDays;
+import hotelreservation.util.TokenBucketRateLimiter;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Admission-controlled front of {@link HotelResource} for untrusted clients, such as a public web API.
+ * <p>
+ * Calls are only accepted from registered customers, each of whom may make a burst of {@value #CUSTOMER_BURST} calls,
+ * refilled at {@value #CUSTOMER_CALLS_PER_SECOND} calls per second. Searches also take a slot of a global limit on
+ * concurrent searches, adapted to their latency. When the limit is reached, a search is answered from the last results
+ * for the same dates if recent enough (marked as possibly stale), else rejected at once, so that overload sheds
+ * searches instead of slowing everything down. Bookings are never shed.
+ */
+public class GuardedHotelResource {
+  private static final GuardedHotelResource instance = new GuardedHotelResource(
+    HotelResource.getInstance(), CustomerService.getInstance(), System::nanoTime
+  );
+
+  private static final int CUSTOMER_BURST = 20;
+  private static final int CUSTOMER_CALLS_PER_SECOND = 5;
+  private static final int INITIAL_SEARCH_LIMIT = 16;
+  private static final int MIN_SEARCH_LIMIT = 2;
+  private static final int MAX_SEARCH_LIMIT = 256;
+  private static final long SEARCH_RESULT_MAX_AGE_NANOS = 30_000_000_000L;
+  private static final int SEARCH_RESULT_CAPACITY = 10_000;
+
+  private static final class SearchResult {
+    private final Collection<RoomQuote> quotes;
+    private final long computedAtNanos;
+
+    private SearchResult(Collection<RoomQuote> quotes, long computedAtNanos) {
+      this.quotes = quotes;
+      this.computedAtNanos = computedAtNanos;
+    }
+  }
+
+  private final HotelResource hotelResource;
+  private final CustomerService customerService;
+  private final LongSupplier clock;
+  // Keyed by email: unknown emails are rejected before taking a token, so new emails cannot get new buckets, and an
+  // email with a bucket is known to be registered without looking it up again.
+  private final TokenBucketRateLimiter<String> customerRateLimiter;
+  private final AdaptiveConcurrencyLimiter searchLimiter;
+  // Last search results by check-in and check-out days, served when searches are shed. Past the capacity, stale
+  // results are dropped first, then arbitrary ones.
+  private final Map<Long, SearchResult> searchResults = new ConcurrentHashMap<>();
+
+  /**
+   * @param clock Current time in nanoseconds, e.g. {@link System#nanoTime()}.
+   */
+  GuardedHotelResource(HotelResource hotelResource, CustomerService customerService, LongSupplier clock) {
+    this.hotelResource = Objects.requireNonNull(hotelResource);
+    this.customerService = Objects.requireNonNull(customerService);
+    this.clock = Objects.requireNonNull(clock);
+    this.customerRateLimiter = new TokenBucketRateLimiter<>(
+      GuardedHotelResource.CUSTOMER_BURST, GuardedHotelResource.CUSTOMER_CALLS_PER_SECOND, clock
+    );
+    this.searchLimiter = new AdaptiveConcurrencyLimiter(
+      GuardedHotelResource.INITIAL_SEARCH_LIMIT,
+      GuardedHotelResource.MIN_SEARCH_LIMIT,
+      GuardedHotelResource.MAX_SEARCH_LIMIT,
+      clock
+    );
+  }
+
+  public static GuardedHotelResource getInstance() {
+    return GuardedHotelResource.instance;
+  }
+
+  /**
+   * @return Available rooms with their prices, best fitting first; possibly a few seconds old under overload.
+   */
+  public RoomQuoteSearch findRoomQuotes(String customerEmail, Date checkIn, Date checkOut)
+    throws CustomerNotFoundException, RateLimitExceededException, ServiceOverloadedException {
+    this.checkRateLimit(customerEmail);
+    final Long searchKey = EpochDays.of(checkIn) << 32 | (EpochDays.of(checkOut) & 0xFFFF_FFFFL);
+
+    try (final AdaptiveConcurrencyLimiter.Permit permit = this.searchLimiter.tryAcquire()) {
+      if (null == permit) {
+        final SearchResult lastResult = this.searchResults.get(searchKey);
+        if (
+          null == lastResult ||
+            this.clock.getAsLong() - lastResult.computedAtNanos > GuardedHotelResource.SEARCH_RESULT_MAX_AGE_NANOS
+        ) {
+          throw new ServiceOverloadedException();
+        }
+        return new RoomQuoteSearch(lastResult.quotes, true);
+      }
+
+      final Collection<RoomQuote> quotes = this.hotelResource.findRoomQuotes(checkIn, checkOut, RoomRanking.BEST_FIT);
+      final long nowNanos = this.clock.getAsLong();
+      this.searchResults.put(searchKey, new SearchResult(quotes, nowNanos));
+      if (this.searchResults.size() > GuardedHotelResource.SEARCH_RESULT_CAPACITY) {
+        this.evictSearchResults(nowNanos);
+      }
+      return new RoomQuoteSearch(quotes, false);
+    }
+  }
+
+  public Reservation bookARoom(
+    String customerEmail,
+    IRoom room,
+    Date checkInDate,
+    Date checkOutDate,
+    String idempotencyKey
+  ) throws CustomerNotFoundException, RateLimitExceededException, RoomAlreadyReservedException {
+    this.checkRateLimit(customerEmail);
+    return this.hotelResource.bookARoom(customerEmail, room, checkInDate, checkOutDate, idempotencyKey);
+  }
+
+  /**
+   * @return Current limit on concurrent searches.
+   */
+  public int getSearchLimit() {
+    return this.searchLimiter.getLimit();
+  }
+
+  private void checkRateLimit(String customerEmail) throws CustomerNotFoundException, RateLimitExceededException {
+    Objects.requireNonNull(customerEmail);
+    // Only emails without a bucket are looked up in the customer directory.
+    if (!this.customerRateLimiter.isTracked(customerEmail) && null == this.customerService.getCustomer(customerEmail)) {
+      throw new CustomerNotFoundException();
+    }
+    if (!this.customerRateLimiter.tryAcquire(customerEmail)) {
+      throw new RateLimitExceededException();
+    }
+  }
+
+  private void evictSearchResults(long nowNanos) {
+    this.searchResults.values().removeIf(
+      result -> nowNanos - result.computedAtNanos > GuardedHotelResource.SEARCH_RESULT_MAX_AGE_NANOS
+    );
+    final Iterator<Long> searchKeys = this.searchResults.keySet().iterator();
+    while (this.searchResults.size() > GuardedHotelResource.SEARCH_RESULT_CAPACITY && searchKeys.hasNext()) {
+      searchKeys.next();
+      searchKeys.remove();
+    }
+  }
+}
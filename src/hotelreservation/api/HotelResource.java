@@ -2,21 +2,43 @@ package hotelreservation.api;
 
 import hotelreservation.exception.CustomerAlreadyExistsException;
 import hotelreservation.exception.CustomerNotFoundException;
+import hotelreservation.exception.PropertyNotFoundException;
+import hotelreservation.exception.ReservationNotFoundException;
 import hotelreservation.exception.RoomAlreadyReservedException;
+import hotelreservation.model.AvailabilityCalendar;
 import hotelreservation.model.Customer;
 import hotelreservation.model.IRoom;
 import hotelreservation.model.Reservation;
+import hotelreservation.model.RoomFilter;
+import hotelreservation.model.RoomQuote;
+import hotelreservation.model.RoomRanking;
+import hotelreservation.model.RoomType;
+import hotelreservation.model.RoomTypeReservation;
+import hotelreservation.model.WaitlistEntry;
 import hotelreservation.service.CustomerService;
+import hotelreservation.service.HotelChainService;
 import hotelreservation.service.ReservationService;
+import hotelreservation.service.WaitlistListener;
+import hotelreservation.util.EpochDays;
+import hotelreservation.util.IdempotencyCache;
 
 import java.util.Collection;
 import java.util.Date;
+import java.util.List;
 import java.util.Optional;
+import java.util.SortedMap;
 
 public class HotelResource {
   private static final HotelResource instance = new HotelResource();
+  private static final int BOOKING_REQUESTS_CAPACITY = 100_000;
+  private static final long BOOKING_REQUESTS_TIME_TO_LIVE_MILLIS = 24 * 60 * 60 * 1000L;
+
   private final CustomerService customerService = CustomerService.getInstance();
   private final ReservationService reservationService = ReservationService.getInstance();
+  private final HotelChainService hotelChainService = HotelChainService.getInstance();
+  private final IdempotencyCache<Reservation> bookingRequests = new IdempotencyCache<>(
+    HotelResource.BOOKING_REQUESTS_CAPACITY, HotelResource.BOOKING_REQUESTS_TIME_TO_LIVE_MILLIS
+  );
 
   private HotelResource() {}
 
@@ -36,23 +58,186 @@ public class HotelResource {
     return this.reservationService.getARoom(roomNumber);
   }
 
+  public IRoom getRoom(String propertyId, String roomNumber) throws PropertyNotFoundException {
+    return this.hotelChainService.getProperty(propertyId).getARoom(roomNumber);
+  }
+
   public Reservation bookARoom(String customerEmail, IRoom room, Date checkInDate, Date checkOutDate)
     throws CustomerNotFoundException, RoomAlreadyReservedException {
     final Customer customer = this.getCustomerOrThrow(customerEmail);
     return this.reservationService.reserveARoom(customer, room, checkInDate, checkOutDate);
   }
 
+  public Reservation bookARoom(
+    String propertyId,
+    String customerEmail,
+    IRoom room,
+    Date checkInDate,
+    Date checkOutDate
+  ) throws PropertyNotFoundException, CustomerNotFoundException, RoomAlreadyReservedException {
+    final Customer customer = this.getCustomerOrThrow(customerEmail);
+    return this.hotelChainService.getProperty(propertyId).reserveARoom(customer, room, checkInDate, checkOutDate);
+  }
+
+  /**
+   * Books a room at most once per idempotency key, e.g. when a client retries after a timeout.
+   *
+   * @return The new reservation, or the reservation made by the first request with the same key.
+   * @throws IllegalArgumentException If the key was used for another booking.
+   */
+  public Reservation bookARoom(
+    String customerEmail,
+    IRoom room,
+    Date checkInDate,
+    Date checkOutDate,
+    String idempotencyKey
+  ) throws CustomerNotFoundException, RoomAlreadyReservedException {
+    try {
+      return this.bookingRequests.execute(
+        idempotencyKey,
+        List.of(ReservationService.DEFAULT_PROPERTY_ID, customerEmail, room.getRoomNumber(), checkInDate, checkOutDate),
+        () -> this.bookARoom(customerEmail, room, checkInDate, checkOutDate)
+      );
+    } catch (CustomerNotFoundException | RoomAlreadyReservedException | RuntimeException exception) {
+      throw exception;
+    } catch (Exception exception) {
+      throw new IllegalStateException(exception); // Not thrown by the booking
+    }
+  }
+
+  /**
+   * Books a room in the given property at most once per idempotency key.
+   *
+   * @return The new reservation, or the reservation made by the first request with the same key.
+   * @throws IllegalArgumentException If the key was used for another booking.
+   */
+  public Reservation bookARoom(
+    String propertyId,
+    String customerEmail,
+    IRoom room,
+    Date checkInDate,
+    Date checkOutDate,
+    String idempotencyKey
+  ) throws PropertyNotFoundException, CustomerNotFoundException, RoomAlreadyReservedException {
+    try {
+      return this.bookingRequests.execute(
+        idempotencyKey,
+        List.of(propertyId, customerEmail, room.getRoomNumber(), checkInDate, checkOutDate),
+        () -> this.bookARoom(propertyId, customerEmail, room, checkInDate, checkOutDate)
+      );
+    } catch (
+      PropertyNotFoundException | CustomerNotFoundException | RoomAlreadyReservedException | RuntimeException exception
+    ) {
+      throw exception;
+    } catch (Exception exception) {
+      throw new IllegalStateException(exception); // Not thrown by the booking
+    }
+  }
+
+  /**
+   * Books a room of the given type, to be assigned later; the property must sell room types.
+   */
+  public RoomTypeReservation bookARoomType(String customerEmail, RoomType roomType, Date checkInDate, Date checkOutDate)
+    throws CustomerNotFoundException, RoomAlreadyReservedException {
+    final Customer customer = this.getCustomerOrThrow(customerEmail);
+    return this.reservationService.reserveARoomType(customer, roomType, checkInDate, checkOutDate);
+  }
+
+  /**
+   * Puts the customer on the waitlist of the room type, to be booked as soon as a room is freed for the stay.
+   */
+  public WaitlistEntry joinWaitlist(String customerEmail, RoomType roomType, Date checkInDate, Date checkOutDate)
+    throws CustomerNotFoundException {
+    return this.joinWaitlist(customerEmail, roomType, checkInDate, checkOutDate, 0);
+  }
+
+  /**
+   * @param priority Rank among the waiting customers when the waitlist is ordered by priority, highest first.
+   */
+  public WaitlistEntry joinWaitlist(
+    String customerEmail,
+    RoomType roomType,
+    Date checkInDate,
+    Date checkOutDate,
+    int priority
+  ) throws CustomerNotFoundException {
+    final Customer customer = this.getCustomerOrThrow(customerEmail);
+    return this.reservationService.joinWaitlist(customer, roomType, checkInDate, checkOutDate, priority);
+  }
+
+  /**
+   * @return Whether the entry was still waiting.
+   */
+  public boolean leaveWaitlist(WaitlistEntry entry) {
+    return this.reservationService.leaveWaitlist(entry);
+  }
+
+  public void addWaitlistListener(WaitlistListener listener) {
+    this.reservationService.addWaitlistListener(listener);
+  }
+
+  /**
+   * @return Reservations of the customer in all loaded properties, ordered by property ID.
+   */
   public Collection<Reservation> getCustomerReservations(String customerEmail)
     throws CustomerNotFoundException {
-    return this.reservationService.getCustomerReservations(
-      this.getCustomerOrThrow(customerEmail)
-    );
+    return this.hotelChainService.getCustomerReservations(this.getCustomerOrThrow(customerEmail))
+      .values()
+      .stream()
+      .flatMap(Collection::stream)
+      .toList();
+  }
+
+  public void cancelReservation(String customerEmail, Reservation reservation)
+    throws CustomerNotFoundException, ReservationNotFoundException {
+    if (!this.getCustomerOrThrow(customerEmail).equals(reservation.getCustomer())) {
+      throw new ReservationNotFoundException();
+    }
+    this.hotelChainService.cancelReservation(reservation);
   }
 
   public Collection<IRoom> findRooms(Date checkIn, Date checkOut) {
     return this.reservationService.findRooms(checkIn, checkOut);
   }
 
+  public Collection<IRoom> findRooms(Date checkIn, Date checkOut, RoomRanking ranking) {
+    return this.reservationService.findRooms(checkIn, checkOut, ranking);
+  }
+
+  /**
+   * @return Available rooms having the attributes required by the filter, e.g. a sea view and accessibility.
+   */
+  public Collection<IRoom> findRooms(Date checkIn, Date checkOut, RoomFilter filter, RoomRanking ranking) {
+    return this.reservationService.findRooms(checkIn, checkOut, filter, ranking);
+  }
+
+  /**
+   * @return Available rooms by property ID, for loaded properties having at least one available room.
+   */
+  public SortedMap<String, Collection<IRoom>> findRoomsInAllProperties(Date checkIn, Date checkOut) {
+    return this.hotelChainService.findRooms(checkIn, checkOut);
+  }
+
+  public Collection<RoomQuote> findRoomQuotes(Date checkIn, Date checkOut) {
+    return this.reservationService.findRoomQuotes(checkIn, checkOut);
+  }
+
+  public Collection<RoomQuote> findRoomQuotes(Date checkIn, Date checkOut, RoomRanking ranking) {
+    return this.reservationService.findRoomQuotes(checkIn, checkOut, ranking);
+  }
+
+  public Collection<RoomQuote> findRoomQuotes(Date checkIn, Date checkOut, RoomFilter filter, RoomRanking ranking) {
+    return this.reservationService.findRoomQuotes(checkIn, checkOut, filter, ranking);
+  }
+
+  /**
+   * @return Booked nights of every room, and free rooms of every type per night, for the given number of nights from
+   * the start date.
+   */
+  public AvailabilityCalendar getAvailabilityCalendar(Date startDate, int days) throws IllegalArgumentException {
+    return this.reservationService.getAvailabilityCalendar(EpochDays.of(startDate), days);
+  }
+
   private Customer getCustomerOrThrow(String customerEmail) throws CustomerNotFoundException {
     return Optional.ofNullable(this.getCustomer(customerEmail)).orElseThrow(CustomerNotFoundException::new);
   }
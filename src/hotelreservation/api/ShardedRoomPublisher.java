@@ -0,0 +1,113 @@
+package hotelreservation.api;
+
+import hotelreservation.model.IRoom;
+import hotelreservation.service.ReservationService;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes the available rooms of several properties, searching each property (shard) as a separate task when
+ * subscribed to, and emitting a property's rooms as soon as its search is done. Rooms are emitted on demand only;
+ * rooms found ahead of demand are queued, so that no search task waits for the subscriber.
+ */
+final class ShardedRoomPublisher implements Flow.Publisher<IRoom> {
+  private final Collection<ReservationService> properties;
+  private final Date checkInDate;
+  private final Date checkOutDate;
+  private final Executor executor;
+
+  ShardedRoomPublisher(
+    Collection<ReservationService> properties,
+    Date checkInDate,
+    Date checkOutDate,
+    Executor executor
+  ) {
+    this.properties = List.copyOf(properties);
+    this.checkInDate = Objects.requireNonNull(checkInDate);
+    this.checkOutDate = Objects.requireNonNull(checkOutDate);
+    this.executor = Objects.requireNonNull(executor);
+  }
+
+  @Override
+  public void subscribe(Flow.Subscriber<? super IRoom> subscriber) {
+    final RoomSubscription subscription = new RoomSubscription(Objects.requireNonNull(subscriber));
+    subscriber.onSubscribe(subscription);
+    for (final ReservationService property : this.properties) {
+      CompletableFuture
+        .supplyAsync(() -> property.findRooms(this.checkInDate, this.checkOutDate), this.executor)
+        .whenComplete(subscription::onShardDone);
+    }
+    subscription.drain(); // Completes the subscription right away when there are no properties.
+  }
+
+  private final class RoomSubscription implements Flow.Subscription {
+    private final Flow.Subscriber<? super IRoom> subscriber;
+    private final Queue<IRoom> foundRooms = new ConcurrentLinkedQueue<>();
+    private final AtomicLong demand = new AtomicLong();
+    private final AtomicInteger pendingShards = new AtomicInteger(ShardedRoomPublisher.this.properties.size());
+    // Number of drain requests: only the caller that raises it from 0 emits, for the others as well.
+    private final AtomicInteger drainRequests = new AtomicInteger();
+    private final AtomicBoolean isDone = new AtomicBoolean();
+    private volatile Throwable failure;
+
+    private RoomSubscription(Flow.Subscriber<? super IRoom> subscriber) {
+      this.subscriber = subscriber;
+    }
+
+    @Override
+    public void request(long n) {
+      if (n <= 0) {
+        this.failure = new IllegalArgumentException("Number of requested rooms must be positive!");
+      } else {
+        // Demand saturates at Long.MAX_VALUE, which stands for unbounded demand.
+        this.demand.getAndAccumulate(
+          n, (current, added) -> current > Long.MAX_VALUE - added ? Long.MAX_VALUE : current + added
+        );
+      }
+      this.drain();
+    }
+
+    @Override
+    public void cancel() {
+      this.isDone.set(true);
+      this.foundRooms.clear();
+    }
+
+    private void onShardDone(Collection<IRoom> rooms, Throwable throwable) {
+      if (null != throwable) {
+        this.failure = throwable;
+      } else if (!this.isDone.get()) {
+        this.foundRooms.addAll(rooms);
+      }
+      this.pendingShards.decrementAndGet();
+      this.drain();
+    }
+
+    private void drain() {
+      if (0 != this.drainRequests.getAndIncrement()) {
+        return;
+      }
+      do {
+        while (!this.isDone.get() && null == this.failure && this.demand.get() > 0 && !this.foundRooms.isEmpty()) {
+          this.demand.decrementAndGet();
+          this.subscriber.onNext(this.foundRooms.poll());
+        }
+        if (null != this.failure && this.isDone.compareAndSet(false, true)) {
+          this.foundRooms.clear();
+          this.subscriber.onError(this.failure);
+        } else if (
+          0 == this.pendingShards.get() && this.foundRooms.isEmpty() && this.isDone.compareAndSet(false, true)
+        ) {
+          this.subscriber.onComplete();
+        }
+      } while (0 != this.drainRequests.decrementAndGet());
+    }
+  }
+}
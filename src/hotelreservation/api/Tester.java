@@ -0,0 +1,87 @@
+package hotelreservation.api;
+
+import hotelreservation.exception.CustomerNotFoundException;
+import hotelreservation.exception.RateLimitExceededException;
+import hotelreservation.exception.RoomAlreadyReservedException;
+import hotelreservation.model.IRoom;
+import hotelreservation.model.Money;
+import hotelreservation.model.Reservation;
+import hotelreservation.model.Room;
+import hotelreservation.model.RoomType;
+import hotelreservation.service.CustomerService;
+import hotelreservation.util.EpochDays;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+public class Tester {
+  public static void main(String[] args) throws Exception {
+    Tester.checkRateLimitIsPerRegisteredCustomer();
+    Tester.checkAsyncBookingsOfARoom();
+  }
+
+  private static void check(boolean condition, String message) {
+    if (!condition) {
+      throw new IllegalStateException(message);
+    }
+    System.out.println(message);
+  }
+
+  private static void checkRateLimitIsPerRegisteredCustomer() throws Exception {
+    final CustomerService customerService = CustomerService.getInstance();
+    customerService.addCustomer("first", "second", "guarded@domain.com");
+    final GuardedHotelResource guardedHotelResource = new GuardedHotelResource(
+      HotelResource.getInstance(), customerService, () -> 0L
+    );
+    final Date checkIn = EpochDays.toDate(EpochDays.today() + 10);
+    final Date checkOut = EpochDays.toDate(EpochDays.today() + 12);
+
+    try {
+      guardedHotelResource.findRoomQuotes("unknown@domain.com", checkIn, checkOut);
+      throw new IllegalStateException("Search of an unknown customer has been accepted!");
+    } catch (CustomerNotFoundException cnfe) {
+      System.out.println("Search of an unknown customer has been correctly rejected!");
+    }
+
+    int searches = 0;
+    try {
+      while (searches < 1000) {
+        guardedHotelResource.findRoomQuotes("guarded@domain.com", checkIn, checkOut);
+        searches++;
+      }
+      throw new IllegalStateException("Searches of a customer have not been rate limited!");
+    } catch (RateLimitExceededException rlee) {
+      System.out.println("Search number " + (searches + 1) + " of a customer has been correctly rate limited!");
+    }
+  }
+
+  private static void checkAsyncBookingsOfARoom() throws Exception {
+    final AsyncHotelResource asyncHotelResource = AsyncHotelResource.getInstance();
+    final IRoom room = new Room("901", Money.ofCents(10000), RoomType.SINGLE);
+    AdminResource.getInstance().addRoom(room);
+    final Date checkIn = EpochDays.toDate(EpochDays.today() + 10);
+    final Date checkOut = EpochDays.toDate(EpochDays.today() + 12);
+    final List<CompletableFuture<Reservation>> bookings = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      final String email = "async" + i + "@domain.com";
+      asyncHotelResource.createACustomer(email, "first", "second").join();
+      bookings.add(asyncHotelResource.bookARoom(email, room, checkIn, checkOut));
+    }
+
+    int booked = 0;
+    for (final CompletableFuture<Reservation> booking : bookings) {
+      try {
+        booking.join();
+        booked++;
+      } catch (CompletionException ce) {
+        if (!(ce.getCause() instanceof RoomAlreadyReservedException)) {
+          throw ce;
+        }
+      }
+    }
+    Tester.check(1 == booked, "Concurrent async bookings of a room have booked it once!");
+  }
+}
@@ -0,0 +1,125 @@
+package hotelreservation.benchmark;
+
+import hotelreservation.model.*;
+import hotelreservation.service.OffHeapReservationStore;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.function.IntConsumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Compares heap usage and garbage collection pauses of reservations kept as objects in a linked list (as
+ * {@link hotelreservation.service.ReservationService} used to) and in an {@link OffHeapReservationStore}.
+ * <p>
+ * Usage: {@code java -Xmx4g hotelreservation.benchmark.ReservationStoreBenchmark [reservations]}
+ */
+public class ReservationStoreBenchmark {
+  private static final int DEFAULT_RESERVATIONS = 5_000_000;
+  private static final int ROOMS = 1000;
+  private static final int CUSTOMERS = 100_000;
+  private static final long MILLIS_PER_DAY = 86_400_000L;
+
+  public static void main(String[] args) {
+    final int reservationCount = args.length > 0
+      ? Integer.parseInt(args[0])
+      : ReservationStoreBenchmark.DEFAULT_RESERVATIONS;
+
+    final IRoom[] rooms = new IRoom[ReservationStoreBenchmark.ROOMS];
+    for (int i = 0; i < rooms.length; i++) {
+      rooms[i] = new Room(String.valueOf(i), Money.ofCents(10_000), i % 2 == 0 ? RoomType.SINGLE : RoomType.DOUBLE);
+    }
+    final Customer[] customers = new Customer[ReservationStoreBenchmark.CUSTOMERS];
+    for (int i = 0; i < customers.length; i++) {
+      customers[i] = new Customer("First" + i, "Last" + i, "customer" + i + "@example.com");
+    }
+
+    System.out.println("Reservations: " + reservationCount);
+    final List<Reservation> linkedList = new LinkedList<>();
+    ReservationStoreBenchmark.measure(
+      "LinkedList<Reservation>",
+      reservationCount,
+      i -> linkedList.add(
+        new Reservation(
+          customers[i % customers.length],
+          rooms[i % rooms.length],
+          ReservationStoreBenchmark.checkInDate(i),
+          ReservationStoreBenchmark.checkOutDate(i)
+        )
+      ),
+      () -> 0L
+    );
+    linkedList.clear();
+
+    // Rooms and customers are referred to by their index, as a property refers to them by their ID.
+    final OffHeapReservationStore offHeapStore = new OffHeapReservationStore(
+      reservationCount, roomId -> rooms[roomId], customerId -> customers[customerId]
+    );
+    ReservationStoreBenchmark.measure(
+      "OffHeapReservationStore",
+      reservationCount,
+      i -> offHeapStore.add(
+        i % rooms.length,
+        i % customers.length,
+        ReservationStoreBenchmark.checkInDate(i),
+        ReservationStoreBenchmark.checkOutDate(i)
+      ),
+      offHeapStore::getOffHeapBytes
+    );
+    System.out.println("Off-heap store still holds " + offHeapStore.size() + " reservations.");
+  }
+
+  private static Date checkInDate(int i) {
+    return new Date((long) (i / ReservationStoreBenchmark.ROOMS) * 3 * ReservationStoreBenchmark.MILLIS_PER_DAY);
+  }
+
+  private static Date checkOutDate(int i) {
+    return new Date(ReservationStoreBenchmark.checkInDate(i).getTime() + 2 * ReservationStoreBenchmark.MILLIS_PER_DAY);
+  }
+
+  /**
+   * @param store Stores the reservation of the given number.
+   */
+  private static void measure(String name, int reservationCount, IntConsumer store, LongSupplier offHeapBytes) {
+    final long heapBefore = ReservationStoreBenchmark.usedHeapAfterGc();
+    final long[] gcBefore = ReservationStoreBenchmark.gcCountAndMillis();
+    final long startNanos = System.nanoTime();
+
+    for (int i = 0; i < reservationCount; i++) {
+      store.accept(i);
+    }
+
+    final long elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000;
+    final long[] gcAfterInsert = ReservationStoreBenchmark.gcCountAndMillis();
+    final long fullGcStartNanos = System.nanoTime();
+    final long heapAfter = ReservationStoreBenchmark.usedHeapAfterGc();
+    final long fullGcMillis = (System.nanoTime() - fullGcStartNanos) / 1_000_000;
+
+    System.out.println(name + ":");
+    System.out.println("  insert time:        " + elapsedMillis + " ms");
+    System.out.println("  retained heap:      " + (heapAfter - heapBefore) / 1024 / 1024 + " MiB");
+    System.out.println("  off-heap:           " + offHeapBytes.getAsLong() / 1024 / 1024 + " MiB");
+    System.out.println(
+      "  GC during insert:   " + (gcAfterInsert[0] - gcBefore[0]) + " collections, " +
+        (gcAfterInsert[1] - gcBefore[1]) + " ms"
+    );
+    System.out.println("  full GC afterwards: " + fullGcMillis + " ms");
+  }
+
+  private static long usedHeapAfterGc() {
+    System.gc();
+    final Runtime runtime = Runtime.getRuntime();
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+
+  private static long[] gcCountAndMillis() {
+    long count = 0;
+    long millis = 0;
+    for (final GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+      count += Math.max(0, bean.getCollectionCount());
+      millis += Math.max(0, bean.getCollectionTime());
+    }
+    return new long[] { count, millis };
+  }
+}
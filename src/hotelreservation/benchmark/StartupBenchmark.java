@@ -0,0 +1,126 @@
+package hotelreservation.benchmark;
+
+import hotelreservation.api.AdminResource;
+import hotelreservation.api.HotelResource;
+import hotelreservation.model.IRoom;
+import hotelreservation.model.Money;
+import hotelreservation.model.Room;
+import hotelreservation.model.RoomType;
+import hotelreservation.service.ServiceWarmUp;
+import hotelreservation.util.EpochDays;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Measures the time from launching a JVM to its first booking, and the latency of that first booking, with and without
+ * the warm-up of {@link ServiceWarmUp} and a class data sharing archive made by {@code scripts/build-cds-archive.sh}.
+ * <p>
+ * Each run is a new JVM, launched with the same Java binary and class path as the benchmark. Class data sharing
+ * archives only hold classes loaded from jars, so the class path must be the application jar to measure them.
+ * <p>
+ * Usage: {@code java -cp build/hotel-reservation.jar hotelreservation.benchmark.StartupBenchmark [runs] [archive]}
+ */
+public class StartupBenchmark {
+  private static final int DEFAULT_RUNS = 10;
+  private static final String FIRST_BOOKING_FLAG = "--first-booking";
+  private static final int ROOMS = 100;
+  private static final String WARM_UP_OPTION =
+    "-D" + ServiceWarmUp.ROUNDS_PROPERTY + "=" + ServiceWarmUp.RECOMMENDED_ROUNDS;
+
+  public static void main(String[] args) throws IOException, InterruptedException {
+    if (args.length > 0 && StartupBenchmark.FIRST_BOOKING_FLAG.equals(args[0])) {
+      StartupBenchmark.bookFirstRoom();
+      return;
+    }
+
+    final int runs = args.length > 0 ? Integer.parseInt(args[0]) : StartupBenchmark.DEFAULT_RUNS;
+    final String archive = args.length > 1 ? args[1] : null;
+    System.out.println("Runs per variant: " + runs);
+    StartupBenchmark.measure("cold start", runs);
+    StartupBenchmark.measure("warm-up", runs, StartupBenchmark.WARM_UP_OPTION);
+    if (null != archive) {
+      final String archiveOption = "-XX:SharedArchiveFile=" + archive;
+      StartupBenchmark.measure("CDS archive", runs, archiveOption);
+      StartupBenchmark.measure("CDS archive and warm-up", runs, archiveOption, StartupBenchmark.WARM_UP_OPTION);
+    }
+  }
+
+  private static void measure(String name, int runs, String... jvmOptions) throws IOException, InterruptedException {
+    final long[] startupMillis = new long[runs];
+    final long[] firstBookingMicros = new long[runs];
+    for (int run = 0; run < runs; run++) {
+      final List<String> command = new ArrayList<>();
+      command.add(ProcessHandle.current().info().command().orElse("java"));
+      command.addAll(Arrays.asList(jvmOptions));
+      command.addAll(List.of("-cp", System.getProperty("java.class.path")));
+      command.addAll(List.of(StartupBenchmark.class.getName(), StartupBenchmark.FIRST_BOOKING_FLAG));
+
+      final long startNanos = System.nanoTime();
+      final Process process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+      final String result;
+      try (
+        final BufferedReader reader = new BufferedReader(
+          new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8)
+        )
+      ) {
+        result = reader.readLine();
+        startupMillis[run] = (System.nanoTime() - startNanos) / 1_000_000;
+        reader.transferTo(Writer.nullWriter());
+      }
+      if (0 != process.waitFor() || null == result) {
+        throw new IllegalStateException("First booking failed: " + result);
+      }
+      firstBookingMicros[run] = Long.parseLong(result.strip());
+    }
+
+    System.out.println(name + ":");
+    System.out.println("  startup to first booking: " + StartupBenchmark.summarize(startupMillis) + " ms");
+    System.out.println("  first booking:            " + StartupBenchmark.summarize(firstBookingMicros) + " us");
+  }
+
+  /**
+   * Runs in the launched JVM: starts like {@link hotelreservation.HotelApplication}, then finds and books a room as
+   * its first request and prints how long that took in microseconds.
+   */
+  private static void bookFirstRoom() {
+    ServiceWarmUp.run(ServiceWarmUp.getConfiguredRounds());
+
+    final HotelResource hotelResource = HotelResource.getInstance();
+    final AdminResource adminResource = AdminResource.getInstance();
+    try {
+      hotelResource.createACustomer("first@example.com", "First", "Customer");
+      for (int i = 0; i < StartupBenchmark.ROOMS; i++) {
+        adminResource.addRoom(
+          new Room(String.valueOf(100 + i), Money.ofCents(10_000), i % 2 == 0 ? RoomType.SINGLE : RoomType.DOUBLE)
+        );
+      }
+
+      final long checkInDay = EpochDays.today() + 1;
+      final Date checkInDate = EpochDays.toDate(checkInDay);
+      final Date checkOutDate = EpochDays.toDate(checkInDay + 2);
+      final long startNanos = System.nanoTime();
+      final IRoom room = hotelResource.findRooms(checkInDate, checkOutDate).iterator().next();
+      hotelResource.bookARoom("first@example.com", room, checkInDate, checkOutDate);
+      System.out.println((System.nanoTime() - startNanos) / 1000);
+    } catch (Exception exception) {
+      throw new IllegalStateException(exception);
+    }
+  }
+
+  /**
+   * @return Median, minimum and maximum of the values.
+   */
+  private static String summarize(long[] values) {
+    final long[] sorted = values.clone();
+    Arrays.sort(sorted);
+    return "median " + sorted[sorted.length / 2] + ", min " + sorted[0] + ", max " + sorted[sorted.length - 1];
+  }
+}
@@ -0,0 +1,161 @@
+package hotelreservation.concurrency;
+
+import hotelreservation.exception.ReservationNotFoundException;
+import hotelreservation.exception.RoomAlreadyReservedException;
+import hotelreservation.model.Customer;
+import hotelreservation.model.IRoom;
+import hotelreservation.model.Reservation;
+import hotelreservation.model.RoomType;
+import hotelreservation.service.ReservationService;
+import hotelreservation.util.EpochDays;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Booking operations exercised by the concurrency testers, so that any concurrent variant of
+ * {@link ReservationService} can be checked through an adapter.
+ */
+interface BookingTarget {
+  void addRoom(IRoom room);
+
+  /**
+   * @return The reservation, or null if the room is already reserved.
+   */
+  Reservation reserve(Customer customer, IRoom room, Date checkInDate, Date checkOutDate);
+
+  /**
+   * @return Whether the reservation was found and cancelled.
+   */
+  boolean cancel(Reservation reservation);
+
+  Collection<IRoom> findRooms(Date checkInDate, Date checkOutDate);
+
+  Collection<Reservation> getAllReservations();
+
+  int[] getFreeRoomsPerNight(RoomType roomType, long fromDay, long toDay);
+
+  /**
+   * @return The target backed by a new standalone property, which publishes no events.
+   */
+  static BookingTarget newReservationService() {
+    final ReservationService property = new ReservationService("concurrency-test", null);
+    return new BookingTarget() {
+      @Override
+      public void addRoom(IRoom room) {
+        try {
+          property.addRoom(room);
+        } catch (Exception exception) {
+          throw new IllegalStateException(exception);
+        }
+      }
+
+      @Override
+      public Reservation reserve(Customer customer, IRoom room, Date checkInDate, Date checkOutDate) {
+        try {
+          return property.reserveARoom(customer, room, checkInDate, checkOutDate);
+        } catch (RoomAlreadyReservedException rare) {
+          return null;
+        }
+      }
+
+      @Override
+      public boolean cancel(Reservation reservation) {
+        try {
+          property.cancelReservation(reservation);
+          return true;
+        } catch (ReservationNotFoundException rnfe) {
+          return false;
+        }
+      }
+
+      @Override
+      public Collection<IRoom> findRooms(Date checkInDate, Date checkOutDate) {
+        return property.findRooms(checkInDate, checkOutDate);
+      }
+
+      @Override
+      public Collection<Reservation> getAllReservations() {
+        return property.getAllReservations();
+      }
+
+      @Override
+      public int[] getFreeRoomsPerNight(RoomType roomType, long fromDay, long toDay) {
+        return property.getFreeRoomsPerNight(roomType, fromDay, toDay);
+      }
+    };
+  }
+
+  /**
+   * @return A deliberately unsafe target, which checks that a room is free and books it in two critical sections, with
+   * a {@link DeterministicScheduler} yield point between them: scheduled runs can interleave two reservations there and
+   * double-book the room. For checking that the testers find such races.
+   */
+  static BookingTarget newUnsafeCheckThenAct() {
+    final List<IRoom> rooms = new ArrayList<>();
+    final List<Reservation> reservations = new ArrayList<>();
+    return new BookingTarget() {
+      @Override
+      public synchronized void addRoom(IRoom room) {
+        rooms.add(room);
+      }
+
+      @Override
+      public Reservation reserve(Customer customer, IRoom room, Date checkInDate, Date checkOutDate) {
+        synchronized (this) {
+          if (this.isReserved(room, checkInDate, checkOutDate)) {
+            return null;
+          }
+        }
+        DeterministicScheduler.yieldIfScheduled();
+        final Reservation reservation = new Reservation(customer, room, checkInDate, checkOutDate);
+        synchronized (this) {
+          reservations.add(reservation);
+        }
+        return reservation;
+      }
+
+      @Override
+      public synchronized boolean cancel(Reservation reservation) {
+        return reservations.remove(reservation);
+      }
+
+      @Override
+      public synchronized Collection<IRoom> findRooms(Date checkInDate, Date checkOutDate) {
+        return rooms.stream().filter(room -> !this.isReserved(room, checkInDate, checkOutDate)).toList();
+      }
+
+      @Override
+      public synchronized Collection<Reservation> getAllReservations() {
+        return List.copyOf(reservations);
+      }
+
+      @Override
+      public synchronized int[] getFreeRoomsPerNight(RoomType roomType, long fromDay, long toDay) {
+        final int[] freeRooms = new int[(int) (toDay - fromDay)];
+        for (int night = 0; night < freeRooms.length; night++) {
+          final Date checkInDate = EpochDays.toDate(fromDay + night);
+          final Date checkOutDate = EpochDays.toDate(fromDay + night + 1);
+          freeRooms[night] = (int) rooms.stream()
+            .filter(room -> roomType == room.getRoomType() && !this.isReserved(room, checkInDate, checkOutDate))
+            .count();
+        }
+        return freeRooms;
+      }
+
+      private boolean isReserved(IRoom room, Date checkInDate, Date checkOutDate) {
+        final long startDay = EpochDays.of(checkInDate);
+        final long endDay = EpochDays.endOfStay(startDay, EpochDays.of(checkOutDate));
+        return reservations.stream().anyMatch(reservation -> {
+          final long reservedStartDay = EpochDays.of(reservation.getCheckInDate());
+          final long reservedEndDay = EpochDays.endOfStay(
+            reservedStartDay, EpochDays.of(reservation.getCheckOutDate())
+          );
+          return room.equals(reservation.getRoom()) && reservedStartDay < endDay && startDay < reservedEndDay;
+        });
+      }
+    };
+  }
+}
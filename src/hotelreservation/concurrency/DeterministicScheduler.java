@@ -0,0 +1,135 @@
+package hotelreservation.concurrency;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Runs tasks in threads of their own, but one at a time: the running task only hands over to another one at a yield
+ * point, and the task to resume is drawn from a seeded random generator. Runs with the same seed and deterministic
+ * tasks therefore go through the same interleaving, so that a failure found with a seed can be reproduced with it.
+ * <p>
+ * Code under test may call {@link #yieldIfScheduled()} where an interleaving matters; it does nothing outside of a
+ * scheduler. Yield points must not be inside critical sections: a task blocked on a lock held by a task waiting for
+ * its turn would never run again.
+ */
+public final class DeterministicScheduler {
+  private static final ThreadLocal<DeterministicScheduler> currentScheduler = new ThreadLocal<>();
+  private static final ThreadLocal<Integer> currentTaskIndex = new ThreadLocal<>();
+  private static final int NOT_RUNNING = -1;
+
+  private final Random random;
+  private boolean[] finished;
+  private int runningTaskIndex = DeterministicScheduler.NOT_RUNNING;
+  private Throwable failure;
+
+  public DeterministicScheduler(long seed) {
+    this.random = new Random(seed);
+  }
+
+  /**
+   * Lets the task of the calling thread hand over to another task, if the thread is run by a scheduler.
+   */
+  public static void yieldIfScheduled() {
+    final DeterministicScheduler scheduler = DeterministicScheduler.currentScheduler.get();
+    if (null != scheduler) {
+      scheduler.yieldPoint();
+    }
+  }
+
+  /**
+   * Runs the tasks to their end.
+   *
+   * @throws IllegalStateException If a task failed, with the first failure as cause.
+   */
+  public void run(List<Runnable> tasks) throws InterruptedException {
+    final List<Thread> threads = new ArrayList<>(tasks.size());
+    synchronized (this) {
+      this.finished = new boolean[tasks.size()];
+      this.failure = null;
+    }
+    for (int i = 0; i < tasks.size(); i++) {
+      final int taskIndex = i;
+      final Runnable task = tasks.get(i);
+      final Thread thread = new Thread(() -> this.runTask(taskIndex, task), "scheduled-task-" + i);
+      thread.start();
+      threads.add(thread);
+    }
+
+    synchronized (this) {
+      this.runningTaskIndex = this.drawNextTask();
+      this.notifyAll();
+    }
+    for (final Thread thread : threads) {
+      thread.join();
+    }
+
+    synchronized (this) {
+      if (null != this.failure) {
+        throw new IllegalStateException("Scheduled task failed!", this.failure);
+      }
+    }
+  }
+
+  /**
+   * Hands over to a task drawn among the unfinished ones, possibly the calling one, and waits for the turn of the
+   * calling task.
+   */
+  public void yieldPoint() {
+    final int taskIndex = DeterministicScheduler.currentTaskIndex.get();
+    synchronized (this) {
+      this.runningTaskIndex = this.drawNextTask();
+      this.notifyAll();
+      this.awaitTurn(taskIndex);
+    }
+  }
+
+  private void runTask(int taskIndex, Runnable task) {
+    DeterministicScheduler.currentScheduler.set(this);
+    DeterministicScheduler.currentTaskIndex.set(taskIndex);
+    try {
+      synchronized (this) {
+        this.awaitTurn(taskIndex);
+      }
+      task.run();
+    } catch (Throwable throwable) {
+      synchronized (this) {
+        if (null == this.failure) {
+          this.failure = throwable;
+        }
+      }
+    } finally {
+      synchronized (this) {
+        this.finished[taskIndex] = true;
+        this.runningTaskIndex = this.drawNextTask();
+        this.notifyAll();
+      }
+      DeterministicScheduler.currentScheduler.remove();
+      DeterministicScheduler.currentTaskIndex.remove();
+    }
+  }
+
+  private void awaitTurn(int taskIndex) {
+    while (this.runningTaskIndex != taskIndex) {
+      try {
+        this.wait();
+      } catch (InterruptedException ie) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException(ie);
+      }
+    }
+  }
+
+  private int drawNextTask() {
+    final List<Integer> unfinished = new ArrayList<>();
+    for (int i = 0; i < this.finished.length; i++) {
+      if (!this.finished[i]) {
+        unfinished.add(i);
+      }
+    }
+    if (unfinished.isEmpty()) {
+      return DeterministicScheduler.NOT_RUNNING;
+    }
+    return unfinished.get(this.random.nextInt(unfinished.size()));
+  }
+}
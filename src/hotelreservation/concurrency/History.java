@@ -0,0 +1,37 @@
+package hotelreservation.concurrency;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Calls made by several threads, each stamped with a logical clock when invoked and when it responded, so that two
+ * calls are known to be concurrent exactly when their intervals overlap.
+ */
+final class History {
+  private final AtomicLong clock = new AtomicLong();
+  private final List<Operation> operations = new ArrayList<>();
+
+  Operation invoke(int threadIndex, Operation.Kind kind, int roomIndex, long checkInDay, long checkOutDay) {
+    return new Operation(threadIndex, kind, roomIndex, checkInDay, checkOutDay, this.clock.incrementAndGet());
+  }
+
+  void respond(Operation operation, boolean reserved, long freeRoomMask) {
+    operation.respond(this.clock.incrementAndGet(), reserved, freeRoomMask);
+    synchronized (this.operations) {
+      this.operations.add(operation);
+    }
+  }
+
+  /**
+   * @return Completed calls in order of invocation.
+   */
+  List<Operation> getOperations() {
+    synchronized (this.operations) {
+      final List<Operation> operations = new ArrayList<>(this.operations);
+      operations.sort(Comparator.comparingLong(Operation::getInvokedAt));
+      return operations;
+    }
+  }
+}
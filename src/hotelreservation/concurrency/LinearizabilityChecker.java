@@ -0,0 +1,112 @@
+package hotelreservation.concurrency;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Checks that a {@link History} of reservations and searches is linearizable: that each call can be given an instant
+ * between its invocation and its response such that, in the order of these instants, every result is the one of a
+ * sequential property (reservations succeed exactly when no reserved stay of the room overlaps them, searches find
+ * exactly the rooms with no overlapping stay).
+ * <p>
+ * Linearizations are searched depth first as by Wing and Gong: the next call is any call invoked before the first
+ * response among the remaining calls, and backtracking undoes it. Since failed calls and searches change nothing, the
+ * state of the sequential property only depends on the set of calls already ordered, so sets found to lead nowhere
+ * are memoized and never explored twice (as by Lowe).
+ */
+final class LinearizabilityChecker {
+  private final List<Operation> operations;
+  private final int roomCount;
+  private final List<List<Operation>> reservedStaysByRoom = new ArrayList<>();
+  private final BitSet ordered = new BitSet();
+  private final Set<BitSet> deadEnds = new HashSet<>();
+  private final List<Operation> linearization = new ArrayList<>();
+
+  private LinearizabilityChecker(List<Operation> operations, int roomCount) {
+    if (roomCount > Long.SIZE) {
+      throw new IllegalArgumentException("At most " + Long.SIZE + " rooms can be checked!");
+    }
+    this.operations = operations;
+    this.roomCount = roomCount;
+    for (int i = 0; i < roomCount; i++) {
+      this.reservedStaysByRoom.add(new ArrayList<>());
+    }
+  }
+
+  /**
+   * @param operations Completed calls in order of invocation, see {@link History#getOperations()}.
+   * @return Calls in the order of a linearization, or null if the history is not linearizable.
+   */
+  static List<Operation> findLinearization(List<Operation> operations, int roomCount) {
+    final LinearizabilityChecker checker = new LinearizabilityChecker(operations, roomCount);
+    return checker.search() ? checker.linearization : null;
+  }
+
+  private boolean search() {
+    if (this.linearization.size() == this.operations.size()) {
+      return true;
+    }
+    if (!this.deadEnds.add((BitSet) this.ordered.clone())) {
+      return false;
+    }
+
+    long firstResponse = Long.MAX_VALUE;
+    for (int i = this.ordered.nextClearBit(0); i < this.operations.size(); i = this.ordered.nextClearBit(i + 1)) {
+      firstResponse = Math.min(firstResponse, this.operations.get(i).getRespondedAt());
+    }
+
+    // Calls are in order of invocation, so the candidates are the first remaining ones.
+    for (
+      int i = this.ordered.nextClearBit(0);
+      i < this.operations.size() && this.operations.get(i).getInvokedAt() < firstResponse;
+      i = this.ordered.nextClearBit(i + 1)
+    ) {
+      final Operation operation = this.operations.get(i);
+      if (!this.isResultExpected(operation)) {
+        continue;
+      }
+
+      final boolean addsStay = Operation.Kind.RESERVE == operation.getKind() && operation.isReserved();
+      if (addsStay) {
+        this.reservedStaysByRoom.get(operation.getRoomIndex()).add(operation);
+      }
+      this.ordered.set(i);
+      this.linearization.add(operation);
+      if (this.search()) {
+        return true;
+      }
+      this.linearization.remove(this.linearization.size() - 1);
+      this.ordered.clear(i);
+      if (addsStay) {
+        final List<Operation> stays = this.reservedStaysByRoom.get(operation.getRoomIndex());
+        stays.remove(stays.size() - 1);
+      }
+    }
+    return false;
+  }
+
+  private boolean isResultExpected(Operation operation) {
+    if (Operation.Kind.RESERVE == operation.getKind()) {
+      return this.isFree(operation) == operation.isReserved();
+    }
+
+    long freeRoomMask = 0;
+    for (int roomIndex = 0; roomIndex < this.roomCount; roomIndex++) {
+      if (
+        this.reservedStaysByRoom.get(roomIndex).stream().noneMatch(
+          stay -> stay.overlapsStay(operation.getCheckInDay(), operation.getCheckOutDay())
+        )
+      ) {
+        freeRoomMask |= 1L << roomIndex;
+      }
+    }
+    return freeRoomMask == operation.getFreeRoomMask();
+  }
+
+  private boolean isFree(Operation reservation) {
+    return this.reservedStaysByRoom.get(reservation.getRoomIndex()).stream().noneMatch(reservation::overlaps);
+  }
+}
@@ -0,0 +1,218 @@
+package hotelreservation.concurrency;
+
+import hotelreservation.model.Customer;
+import hotelreservation.model.IRoom;
+import hotelreservation.model.Money;
+import hotelreservation.model.Reservation;
+import hotelreservation.model.Room;
+import hotelreservation.model.RoomType;
+import hotelreservation.util.EpochDays;
+
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Checks that concurrent reservations and searches of a property are linearizable (no room is ever double-booked,
+ * and searches see a consistent state), and that no successful reservation is lost.
+ * <p>
+ * Threads run random reservations and searches on a few rooms over a few days, first interleaved by a
+ * {@link DeterministicScheduler} (one schedule per seed), then freely. Each run's {@link History} is checked with the
+ * {@link LinearizabilityChecker}. A failed scheduled run is reported with its seed and reproduced with
+ * {@code java hotelreservation.concurrency.LinearizabilityTester SEED}.
+ * <p>
+ * Usage: {@code java hotelreservation.concurrency.LinearizabilityTester [SEED | SCHEDULED_RUNS FREE_RUNS]}
+ */
+public class LinearizabilityTester {
+  private static final int DEFAULT_SCHEDULED_RUNS = 200;
+  private static final int DEFAULT_FREE_RUNS = 200;
+  private static final int THREADS = 4;
+  private static final int OPERATIONS_PER_THREAD = 25;
+  private static final int ROOMS = 4;
+  private static final long FIRST_DAY = 20_000;
+  private static final int DAYS = 10;
+  private static final int MAX_NIGHTS = 2;
+  private static final int RESERVATIONS_PER_TEN_OPERATIONS = 7;
+
+  public static void main(String[] args) throws InterruptedException {
+    if (1 == args.length) {
+      final long seed = Long.parseLong(args[0]);
+      final String failure = LinearizabilityTester.runScheduled(seed, true);
+      System.out.println(null == failure ? "Seed " + seed + " passed." : failure);
+      System.exit(null == failure ? 0 : 1);
+    }
+
+    final int scheduledRuns = args.length > 1
+      ? Integer.parseInt(args[0])
+      : LinearizabilityTester.DEFAULT_SCHEDULED_RUNS;
+    final int freeRuns = args.length > 1 ? Integer.parseInt(args[1]) : LinearizabilityTester.DEFAULT_FREE_RUNS;
+    for (long seed = 1; seed <= scheduledRuns; seed++) {
+      final String failure = LinearizabilityTester.runScheduled(seed, false);
+      if (null != failure) {
+        System.out.println(failure);
+        System.out.println("Reproduce with: java " + LinearizabilityTester.class.getName() + " " + seed);
+        System.exit(1);
+      }
+    }
+    System.out.println(scheduledRuns + " scheduled histories are linearizable.");
+
+    for (long seed = 1; seed <= freeRuns; seed++) {
+      final String failure = LinearizabilityTester.runFree(seed);
+      if (null != failure) {
+        System.out.println(failure);
+        System.exit(1);
+      }
+    }
+    System.out.println(freeRuns + " free-running histories are linearizable.");
+  }
+
+  /**
+   * @return Description of the failure, or null if the run passed.
+   */
+  private static String runScheduled(long seed, boolean printsHistory) throws InterruptedException {
+    final Run run = new Run(seed);
+    final List<Runnable> tasks = new ArrayList<>();
+    for (int i = 0; i < LinearizabilityTester.THREADS; i++) {
+      final int threadIndex = i;
+      tasks.add(() -> run.runThread(threadIndex, DeterministicScheduler::yieldIfScheduled));
+    }
+    new DeterministicScheduler(seed).run(tasks);
+    if (printsHistory) {
+      run.history.getOperations().forEach(System.out::println);
+    }
+    return run.check("Seed " + seed);
+  }
+
+  /**
+   * @return Description of the failure, or null if the run passed.
+   */
+  private static String runFree(long seed) throws InterruptedException {
+    final Run run = new Run(seed);
+    final CountDownLatch start = new CountDownLatch(1);
+    final List<Thread> threads = new ArrayList<>();
+    for (int i = 0; i < LinearizabilityTester.THREADS; i++) {
+      final int threadIndex = i;
+      final Thread thread = new Thread(() -> {
+        try {
+          start.await();
+        } catch (InterruptedException ie) {
+          return;
+        }
+        run.runThread(threadIndex, Thread::yield);
+      });
+      thread.start();
+      threads.add(thread);
+    }
+    start.countDown();
+    for (final Thread thread : threads) {
+      thread.join();
+    }
+    return run.check("Free run " + seed);
+  }
+
+  /**
+   * Property, rooms and history of one run. The calls of each thread only depend on the seed, not on interleavings.
+   */
+  private static final class Run {
+    private final long seed;
+    private final BookingTarget target = BookingTarget.newReservationService();
+    private final List<IRoom> rooms = new ArrayList<>();
+    private final History history = new History();
+
+    private Run(long seed) {
+      this.seed = seed;
+      for (int i = 0; i < LinearizabilityTester.ROOMS; i++) {
+        final IRoom room = new Room("L" + i, Money.ofCents(10_000), RoomType.SINGLE);
+        this.rooms.add(room);
+        this.target.addRoom(room);
+      }
+    }
+
+    private void runThread(int threadIndex, Runnable yieldPoint) {
+      final Random random = new Random(31 * this.seed + threadIndex);
+      final Customer customer = new Customer(
+        "Thread" + threadIndex, "Tester", "thread" + threadIndex + "@example.com"
+      );
+      for (int i = 0; i < LinearizabilityTester.OPERATIONS_PER_THREAD; i++) {
+        final long checkInDay = LinearizabilityTester.FIRST_DAY + random.nextInt(LinearizabilityTester.DAYS);
+        final long checkOutDay = checkInDay + random.nextInt(LinearizabilityTester.MAX_NIGHTS + 1);
+        final Date checkInDate = EpochDays.toDate(checkInDay);
+        final Date checkOutDate = EpochDays.toDate(checkOutDay);
+
+        if (random.nextInt(10) < LinearizabilityTester.RESERVATIONS_PER_TEN_OPERATIONS) {
+          final int roomIndex = random.nextInt(this.rooms.size());
+          yieldPoint.run();
+          final Operation operation = this.history.invoke(
+            threadIndex, Operation.Kind.RESERVE, roomIndex, checkInDay, checkOutDay
+          );
+          yieldPoint.run();
+          final Reservation reservation = this.target.reserve(
+            customer, this.rooms.get(roomIndex), checkInDate, checkOutDate
+          );
+          yieldPoint.run();
+          this.history.respond(operation, null != reservation, 0);
+        } else {
+          yieldPoint.run();
+          final Operation operation = this.history.invoke(
+            threadIndex, Operation.Kind.FIND, -1, checkInDay, checkOutDay
+          );
+          yieldPoint.run();
+          long freeRoomMask = 0;
+          for (final IRoom room : this.target.findRooms(checkInDate, checkOutDate)) {
+            freeRoomMask |= 1L << this.rooms.indexOf(room);
+          }
+          yieldPoint.run();
+          this.history.respond(operation, false, freeRoomMask);
+        }
+      }
+    }
+
+    /**
+     * @return Description of the failure, or null if the history is linearizable and every successful reservation is
+     * kept by the property.
+     */
+    private String check(String name) {
+      final List<Operation> operations = this.history.getOperations();
+      if (null == LinearizabilityChecker.findLinearization(operations, this.rooms.size())) {
+        return name + ": history is not linearizable:\n" + LinearizabilityTester.describe(operations);
+      }
+
+      final List<String> reservedStays = new ArrayList<>();
+      for (final Operation operation : operations) {
+        if (Operation.Kind.RESERVE == operation.getKind() && operation.isReserved()) {
+          reservedStays.add(
+            LinearizabilityTester.describeStay(
+              operation.getRoomIndex(), operation.getCheckInDay(), operation.getCheckOutDay()
+            )
+          );
+        }
+      }
+      final List<String> keptStays = new ArrayList<>();
+      for (final Reservation reservation : this.target.getAllReservations()) {
+        keptStays.add(
+          LinearizabilityTester.describeStay(
+            this.rooms.indexOf(reservation.getRoom()),
+            EpochDays.of(reservation.getCheckInDate()),
+            EpochDays.of(reservation.getCheckOutDate())
+          )
+        );
+      }
+      Collections.sort(reservedStays);
+      Collections.sort(keptStays);
+      if (!reservedStays.equals(keptStays)) {
+        return name + ": reservations " + reservedStays + " succeeded, but the property has " + keptStays + ":\n" +
+          LinearizabilityTester.describe(operations);
+      }
+      return null;
+    }
+  }
+
+  private static String describeStay(int roomIndex, long checkInDay, long checkOutDay) {
+    return "room " + roomIndex + " " + checkInDay + ".." + checkOutDay;
+  }
+
+  private static String describe(List<Operation> operations) {
+    final StringBuilder description = new StringBuilder();
+    operations.forEach(operation -> description.append("  ").append(operation).append('\n'));
+    return description.toString();
+  }
+}
@@ -0,0 +1,96 @@
+package hotelreservation.concurrency;
+
+/**
+ * Completed call recorded in a {@link History}: a room reservation, or a search of free rooms, with its result.
+ * <p>
+ * Stays are day numbers compared as closed ranges, as {@link hotelreservation.service.ReservationService} does.
+ */
+final class Operation {
+  enum Kind {
+    RESERVE,
+    FIND
+  }
+
+  private final int threadIndex;
+  private final Kind kind;
+  private final int roomIndex;
+  private final long checkInDay;
+  private final long checkOutDay;
+  private final long invokedAt;
+  private long respondedAt;
+  private boolean reserved;
+  private long freeRoomMask;
+
+  Operation(int threadIndex, Kind kind, int roomIndex, long checkInDay, long checkOutDay, long invokedAt) {
+    this.threadIndex = threadIndex;
+    this.kind = kind;
+    this.roomIndex = roomIndex;
+    this.checkInDay = checkInDay;
+    this.checkOutDay = checkOutDay;
+    this.invokedAt = invokedAt;
+  }
+
+  int getThreadIndex() {
+    return this.threadIndex;
+  }
+
+  Kind getKind() {
+    return this.kind;
+  }
+
+  int getRoomIndex() {
+    return this.roomIndex;
+  }
+
+  long getCheckInDay() {
+    return this.checkInDay;
+  }
+
+  long getCheckOutDay() {
+    return this.checkOutDay;
+  }
+
+  long getInvokedAt() {
+    return this.invokedAt;
+  }
+
+  long getRespondedAt() {
+    return this.respondedAt;
+  }
+
+  /**
+   * @return For reservations, whether the room was reserved.
+   */
+  boolean isReserved() {
+    return this.reserved;
+  }
+
+  /**
+   * @return For searches, the indexes of the rooms found free as bits.
+   */
+  long getFreeRoomMask() {
+    return this.freeRoomMask;
+  }
+
+  void respond(long respondedAt, boolean reserved, long freeRoomMask) {
+    this.respondedAt = respondedAt;
+    this.reserved = reserved;
+    this.freeRoomMask = freeRoomMask;
+  }
+
+  boolean overlaps(Operation other) {
+    return this.roomIndex == other.roomIndex && this.overlapsStay(other.checkInDay, other.checkOutDay);
+  }
+
+  boolean overlapsStay(long checkInDay, long checkOutDay) {
+    return this.checkInDay <= checkOutDay && checkInDay <= this.checkOutDay;
+  }
+
+  @Override
+  public String toString() {
+    final String call = Kind.RESERVE == this.kind
+      ? "reserve(room " + this.roomIndex + ", " + this.checkInDay + ".." + this.checkOutDay + ") = " + this.reserved
+      : "find(" + this.checkInDay + ".." + this.checkOutDay + ") = " + Long.toBinaryString(this.freeRoomMask);
+    return "[" + this.invokedAt + ", " + this.respondedAt + "] thread " + this.threadIndex + ": " + call;
+  }
+}
@@ -0,0 +1,217 @@
+package hotelreservation.concurrency;
+
+import hotelreservation.model.Customer;
+import hotelreservation.model.IRoom;
+import hotelreservation.model.Money;
+import hotelreservation.model.Reservation;
+import hotelreservation.model.Room;
+import hotelreservation.model.RoomType;
+import hotelreservation.util.EpochDays;
+
+import java.util.*;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Stress tests of the room ledger in the style of jcstress: two actors race on a new property in every iteration, an
+ * arbiter then inspects the ledger, and the outcomes (results of both actors and of the arbiter) are counted and
+ * checked against the acceptable ones. The arbiter also checks that the occupancy counted per night matches the
+ * reservations.
+ * <p>
+ * Usage: {@code java hotelreservation.concurrency.RoomLedgerStressTester [ITERATIONS]}; exits with status 1 if a
+ * forbidden outcome was seen.
+ */
+public class RoomLedgerStressTester {
+  private static final int DEFAULT_ITERATIONS = 10_000;
+  private static final int ROOMS = 2;
+  private static final long FIRST_DAY = 20_000;
+  private static final int DAYS = 8;
+  private static final Customer FIRST_CUSTOMER = new Customer("First", "Actor", "first.actor@example.com");
+  private static final Customer SECOND_CUSTOMER = new Customer("Second", "Actor", "second.actor@example.com");
+
+  public static void main(String[] args) throws InterruptedException {
+    final int iterations = args.length > 0 ? Integer.parseInt(args[0]) : RoomLedgerStressTester.DEFAULT_ITERATIONS;
+    final List<StressTest> tests = List.of(
+      new StressTest(
+        "Overlapping stays of a room",
+        ledger -> {},
+        ledger -> ledger.reserve(RoomLedgerStressTester.FIRST_CUSTOMER, 0, 2, 4),
+        ledger -> ledger.reserve(RoomLedgerStressTester.SECOND_CUSTOMER, 0, 4, 6),
+        Set.of("OK, FAILED, 1 reserved", "FAILED, OK, 1 reserved")
+      ),
+      new StressTest(
+        "Disjoint stays of a room",
+        ledger -> {},
+        ledger -> ledger.reserve(RoomLedgerStressTester.FIRST_CUSTOMER, 0, 2, 3),
+        ledger -> ledger.reserve(RoomLedgerStressTester.SECOND_CUSTOMER, 0, 4, 5),
+        Set.of("OK, OK, 2 reserved")
+      ),
+      new StressTest(
+        "Cancellation racing a reservation of the freed nights",
+        ledger -> ledger.reserve(RoomLedgerStressTester.FIRST_CUSTOMER, 0, 2, 4),
+        ledger -> ledger.cancelFirst(),
+        ledger -> ledger.reserve(RoomLedgerStressTester.SECOND_CUSTOMER, 0, 3, 5),
+        Set.of("CANCELLED, OK, 1 reserved", "CANCELLED, FAILED, 0 reserved")
+      ),
+      new StressTest(
+        "Search racing a reservation",
+        ledger -> {},
+        ledger -> ledger.reserve(RoomLedgerStressTester.FIRST_CUSTOMER, 0, 2, 4),
+        ledger -> ledger.find(0, 2, 4),
+        Set.of("OK, FREE, 1 reserved", "OK, TAKEN, 1 reserved")
+      )
+    );
+
+    boolean forbiddenSeen = false;
+    for (final StressTest test : tests) {
+      forbiddenSeen |= !test.run(iterations);
+    }
+    System.exit(forbiddenSeen ? 1 : 0);
+  }
+
+  /**
+   * Property under test, with the results of its actors.
+   */
+  private static final class Ledger {
+    private final BookingTarget target = BookingTarget.newReservationService();
+    private final List<IRoom> rooms = new ArrayList<>();
+    private final List<Reservation> reservations = Collections.synchronizedList(new ArrayList<>());
+
+    private Ledger() {
+      for (int i = 0; i < RoomLedgerStressTester.ROOMS; i++) {
+        final IRoom room = new Room("S" + i, Money.ofCents(10_000), RoomType.SINGLE);
+        this.rooms.add(room);
+        this.target.addRoom(room);
+      }
+    }
+
+    private String reserve(Customer customer, int roomIndex, int checkInDay, int checkOutDay) {
+      final Reservation reservation = this.target.reserve(
+        customer,
+        this.rooms.get(roomIndex),
+        EpochDays.toDate(RoomLedgerStressTester.FIRST_DAY + checkInDay),
+        EpochDays.toDate(RoomLedgerStressTester.FIRST_DAY + checkOutDay)
+      );
+      if (null == reservation) {
+        return "FAILED";
+      }
+      this.reservations.add(reservation);
+      return "OK";
+    }
+
+    private String cancelFirst() {
+      return this.target.cancel(this.reservations.get(0)) ? "CANCELLED" : "NOT FOUND";
+    }
+
+    private String find(int roomIndex, int checkInDay, int checkOutDay) {
+      final Collection<IRoom> foundRooms = this.target.findRooms(
+        EpochDays.toDate(RoomLedgerStressTester.FIRST_DAY + checkInDay),
+        EpochDays.toDate(RoomLedgerStressTester.FIRST_DAY + checkOutDay)
+      );
+      return foundRooms.contains(this.rooms.get(roomIndex)) ? "FREE" : "TAKEN";
+    }
+
+    /**
+     * @return Number of reservations, and whether the free rooms per night disagree with them.
+     */
+    private String arbitrate() {
+      final Collection<Reservation> kept = this.target.getAllReservations();
+      final int[] expectedFreeRooms = new int[RoomLedgerStressTester.DAYS];
+      Arrays.fill(expectedFreeRooms, RoomLedgerStressTester.ROOMS);
+      for (final Reservation reservation : kept) {
+        final long checkInDay = EpochDays.of(reservation.getCheckInDate());
+        final long endDay = EpochDays.endOfStay(checkInDay, EpochDays.of(reservation.getCheckOutDate()));
+        for (long day = checkInDay; day < endDay; day++) {
+          expectedFreeRooms[(int) (day - RoomLedgerStressTester.FIRST_DAY)]--;
+        }
+      }
+      final int[] freeRooms = this.target.getFreeRoomsPerNight(
+        RoomType.SINGLE,
+        RoomLedgerStressTester.FIRST_DAY,
+        RoomLedgerStressTester.FIRST_DAY + RoomLedgerStressTester.DAYS
+      );
+      return kept.size() + " reserved" + (Arrays.equals(expectedFreeRooms, freeRooms) ? "" : ", occupancy mismatch");
+    }
+  }
+
+  private static final class StressTest {
+    private final String name;
+    private final Consumer<Ledger> setUp;
+    private final Function<Ledger, String> firstActor;
+    private final Function<Ledger, String> secondActor;
+    private final Set<String> acceptableOutcomes;
+
+    private StressTest(
+      String name,
+      Consumer<Ledger> setUp,
+      Function<Ledger, String> firstActor,
+      Function<Ledger, String> secondActor,
+      Set<String> acceptableOutcomes
+    ) {
+      this.name = name;
+      this.setUp = setUp;
+      this.firstActor = firstActor;
+      this.secondActor = secondActor;
+      this.acceptableOutcomes = acceptableOutcomes;
+    }
+
+    /**
+     * Both actors run in long-lived threads, released together by a barrier in every iteration.
+     *
+     * @return Whether only acceptable outcomes were seen.
+     */
+    private boolean run(int iterations) throws InterruptedException {
+      final CyclicBarrier start = new CyclicBarrier(3);
+      final CyclicBarrier end = new CyclicBarrier(3);
+      final Ledger[] ledger = new Ledger[1];
+      final String[] results = new String[2];
+      final List<Thread> actors = new ArrayList<>();
+      for (int i = 0; i < 2; i++) {
+        final int actorIndex = i;
+        final Function<Ledger, String> actor = 0 == i ? this.firstActor : this.secondActor;
+        final Thread thread = new Thread(() -> {
+          try {
+            for (int iteration = 0; iteration < iterations; iteration++) {
+              start.await();
+              results[actorIndex] = actor.apply(ledger[0]);
+              end.await();
+            }
+          } catch (InterruptedException | BrokenBarrierException exception) {
+            Thread.currentThread().interrupt();
+          }
+        });
+        thread.start();
+        actors.add(thread);
+      }
+
+      final Map<String, Integer> outcomeCounts = new TreeMap<>();
+      try {
+        for (int iteration = 0; iteration < iterations; iteration++) {
+          ledger[0] = new Ledger();
+          this.setUp.accept(ledger[0]);
+          start.await();
+          end.await();
+          outcomeCounts.merge(results[0] + ", " + results[1] + ", " + ledger[0].arbitrate(), 1, Integer::sum);
+        }
+      } catch (BrokenBarrierException bbe) {
+        throw new IllegalStateException(bbe);
+      }
+      for (final Thread actor : actors) {
+        actor.join();
+      }
+
+      boolean acceptable = true;
+      System.out.println(this.name + ":");
+      for (final Map.Entry<String, Integer> outcome : outcomeCounts.entrySet()) {
+        final boolean isAcceptable = this.acceptableOutcomes.contains(outcome.getKey());
+        acceptable &= isAcceptable;
+        System.out.printf(
+          "  %-40s %10d  %s%n", outcome.getKey(), outcome.getValue(), isAcceptable ? "ACCEPTABLE" : "FORBIDDEN"
+        );
+      }
+      return acceptable;
+    }
+  }
+}
@@ -0,0 +1,128 @@
+package hotelreservation.concurrency;
+
+import hotelreservation.model.Customer;
+import hotelreservation.model.IRoom;
+import hotelreservation.model.Money;
+import hotelreservation.model.Room;
+import hotelreservation.model.RoomType;
+import hotelreservation.util.EpochDays;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class Tester {
+  public static void main(String[] args) throws Exception {
+    Tester.checkLinearizabilityChecker();
+    Tester.checkSchedulerReplaysSeeds();
+    Tester.checkSchedulerFindsDoubleBooking();
+  }
+
+  private static void check(boolean condition, String message) {
+    if (!condition) {
+      throw new IllegalStateException(message);
+    }
+    System.out.println(message);
+  }
+
+  private static void checkLinearizabilityChecker() {
+    // Two overlapping reservations of a room, running concurrently: only one may succeed.
+    final History raceLost = new History();
+    final Operation winner = raceLost.invoke(0, Operation.Kind.RESERVE, 0, 10, 12);
+    final Operation loser = raceLost.invoke(1, Operation.Kind.RESERVE, 0, 11, 13);
+    raceLost.respond(loser, false, 0);
+    raceLost.respond(winner, true, 0);
+
+    final History doubleBooking = new History();
+    final Operation first = doubleBooking.invoke(0, Operation.Kind.RESERVE, 0, 10, 12);
+    final Operation second = doubleBooking.invoke(1, Operation.Kind.RESERVE, 0, 11, 13);
+    doubleBooking.respond(first, true, 0);
+    doubleBooking.respond(second, true, 0);
+
+    // A search starting after a reservation responded must not find its room free.
+    final History staleSearch = new History();
+    final Operation reservation = staleSearch.invoke(0, Operation.Kind.RESERVE, 1, 10, 12);
+    staleSearch.respond(reservation, true, 0);
+    final Operation search = staleSearch.invoke(1, Operation.Kind.FIND, 0, 11, 11);
+    staleSearch.respond(search, false, 0b11);
+
+    final List<Operation> linearization = LinearizabilityChecker.findLinearization(raceLost.getOperations(), 2);
+    Tester.check(
+      List.of(winner, loser).equals(linearization)
+        && null == LinearizabilityChecker.findLinearization(doubleBooking.getOperations(), 2)
+        && null == LinearizabilityChecker.findLinearization(staleSearch.getOperations(), 2),
+      "Linearizability checker has ordered a lost race, and rejected a double booking and a stale search!"
+    );
+  }
+
+  private static void checkSchedulerReplaysSeeds() throws InterruptedException {
+    final List<String> firstSteps = Tester.runSteps(7);
+    final List<String> secondSteps = Tester.runSteps(7);
+    Tester.check(
+      firstSteps.equals(secondSteps) && 3 * 20 == firstSteps.size(),
+      "Deterministic scheduler has replayed the interleaving of its seed: " + String.join(" ", firstSteps.subList(0, 8))
+    );
+  }
+
+  private static void checkSchedulerFindsDoubleBooking() throws InterruptedException {
+    long failingSeed = -1;
+    for (long seed = 1; seed <= 100 && failingSeed < 0; seed++) {
+      if (null == LinearizabilityChecker.findLinearization(Tester.reserveConcurrently(seed), 1)) {
+        failingSeed = seed;
+      }
+    }
+    Tester.check(
+      failingSeed > 0
+        && null == LinearizabilityChecker.findLinearization(Tester.reserveConcurrently(failingSeed), 1)
+        && null == LinearizabilityChecker.findLinearization(Tester.reserveConcurrently(failingSeed), 1),
+      "Deterministic scheduler has found a double booking of the check-then-act target with seed " + failingSeed
+        + ", and replayed it!"
+    );
+  }
+
+  /**
+   * @return History of 2 tasks reserving the same room and stay of an unsafe target, interleaved by the seed.
+   */
+  private static List<Operation> reserveConcurrently(long seed) throws InterruptedException {
+    final BookingTarget target = BookingTarget.newUnsafeCheckThenAct();
+    final IRoom room = new Room("U1", Money.ofCents(10_000), RoomType.SINGLE);
+    target.addRoom(room);
+    final History history = new History();
+    final List<Runnable> tasks = new ArrayList<>();
+    for (int i = 0; i < 2; i++) {
+      final int taskIndex = i;
+      final Customer customer = new Customer("Task" + i, "Tester", "task" + i + "@example.com");
+      tasks.add(() -> {
+        DeterministicScheduler.yieldIfScheduled();
+        final Operation operation = history.invoke(taskIndex, Operation.Kind.RESERVE, 0, 20_000, 20_002);
+        final boolean reserved = null != target.reserve(
+          customer, room, EpochDays.toDate(20_000), EpochDays.toDate(20_002)
+        );
+        DeterministicScheduler.yieldIfScheduled();
+        history.respond(operation, reserved, 0);
+      });
+    }
+    new DeterministicScheduler(seed).run(tasks);
+    return history.getOperations();
+  }
+
+  /**
+   * @return Steps of 3 tasks in the order they ran, as TASK.STEP.
+   */
+  private static List<String> runSteps(long seed) throws InterruptedException {
+    final List<String> steps = new ArrayList<>();
+    final List<Runnable> tasks = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      final int taskIndex = i;
+      tasks.add(() -> {
+        for (int step = 0; step < 20; step++) {
+          synchronized (steps) {
+            steps.add(taskIndex + "." + step);
+          }
+          DeterministicScheduler.yieldIfScheduled();
+        }
+      });
+    }
+    new DeterministicScheduler(seed).run(tasks);
+    return steps;
+  }
+}
@@ -0,0 +1,188 @@
+package hotelreservation.event;
+
+import hotelreservation.model.Customer;
+import hotelreservation.model.IRoom;
+import hotelreservation.model.Money;
+import hotelreservation.model.Room;
+import hotelreservation.model.RoomAttributes;
+import hotelreservation.model.RoomType;
+import hotelreservation.model.RoomView;
+
+import java.io.*;
+import java.util.Date;
+import java.util.Objects;
+
+/**
+ * One mutation of the customers or of a property, numbered by the {@link EventBus} in publication order. Offsets
+ * start at 0 and have no gaps.
+ */
+public final class BookingEvent {
+  public enum Type {
+    CUSTOMER_ADDED,
+    ROOM_ADDED,
+    ROOM_RESERVED,
+    RESERVATION_CANCELLED,
+    ROOM_TYPE_RESERVED,
+    ROOM_TYPE_RESERVATION_CANCELLED,
+    /**
+     * A room type reservation turned into a reservation of the room, which is not published as {@link #ROOM_RESERVED}.
+     */
+    ROOM_TYPE_RESERVATION_ASSIGNED
+  }
+
+  private final long offset;
+  private final Type type;
+  // Property and room type are null for CUSTOMER_ADDED events, room is also null for room type reservation events,
+  // customer is null for ROOM_ADDED events, and dates are only set for reservation events.
+  private final String propertyId;
+  private final IRoom room;
+  private final RoomType roomType;
+  private final Customer customer;
+  private final Date checkInDate;
+  private final Date checkOutDate;
+
+  BookingEvent(
+    long offset,
+    Type type,
+    String propertyId,
+    IRoom room,
+    RoomType roomType,
+    Customer customer,
+    Date checkInDate,
+    Date checkOutDate
+  ) {
+    this.offset = offset;
+    this.type = Objects.requireNonNull(type);
+    this.propertyId = propertyId;
+    this.room = room;
+    this.roomType = roomType;
+    this.customer = customer;
+    this.checkInDate = checkInDate;
+    this.checkOutDate = checkOutDate;
+  }
+
+  public long getOffset() {
+    return this.offset;
+  }
+
+  public Type getType() {
+    return this.type;
+  }
+
+  public String getPropertyId() {
+    return this.propertyId;
+  }
+
+  public IRoom getRoom() {
+    return this.room;
+  }
+
+  public RoomType getRoomType() {
+    return this.roomType;
+  }
+
+  public Customer getCustomer() {
+    return this.customer;
+  }
+
+  public Date getCheckInDate() {
+    return this.checkInDate;
+  }
+
+  public Date getCheckOutDate() {
+    return this.checkOutDate;
+  }
+
+  @Override
+  public String toString() {
+    final StringBuilder builder = new StringBuilder().append('#').append(this.offset).append(' ').append(this.type);
+    if (null != this.propertyId) {
+      builder.append(" [").append(this.propertyId).append(']');
+    }
+    if (null != this.room) {
+      builder.append(" - ").append(this.room.getRoomNumber());
+    } else if (null != this.roomType) {
+      builder.append(" - ").append(this.roomType);
+    }
+    if (null != this.customer) {
+      builder.append(" - ").append(this.customer);
+    }
+    return builder.toString();
+  }
+
+  byte[] toBytes() {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (final DataOutputStream output = new DataOutputStream(bytes)) {
+      output.writeLong(this.offset);
+      output.writeByte(this.type.ordinal());
+      if (Type.CUSTOMER_ADDED != this.type) {
+        output.writeUTF(this.propertyId);
+        if (!BookingEvent.isRoomTypeReservation(this.type)) {
+          output.writeUTF(this.room.getRoomNumber());
+          output.writeLong(this.room.getRoomPrice().getCents());
+        }
+        output.writeByte(this.roomType.ordinal());
+      }
+      if (Type.ROOM_ADDED == this.type) {
+        output.writeByte(this.room.getAttributes().getView().ordinal());
+        output.writeInt(this.room.getAttributes().getFloor());
+        output.writeInt(this.room.getAttributes().getBedCount());
+        output.writeInt(this.room.getAttributes().getFeatureMask());
+      }
+      if (Type.ROOM_ADDED != this.type) {
+        output.writeUTF(this.customer.getFirstName());
+        output.writeUTF(this.customer.getLastName());
+        output.writeUTF(this.customer.getEmail());
+      }
+      if (Type.CUSTOMER_ADDED != this.type && Type.ROOM_ADDED != this.type) {
+        output.writeLong(this.checkInDate.getTime());
+        output.writeLong(this.checkOutDate.getTime());
+      }
+    } catch (IOException ioe) {
+      throw new UncheckedIOException(ioe); // Never thrown by in-memory streams
+    }
+    return bytes.toByteArray();
+  }
+
+  static BookingEvent fromBytes(byte[] bytes) throws IllegalArgumentException {
+    try (final DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes))) {
+      final long offset = input.readLong();
+      final Type type = Type.values()[input.readUnsignedByte()];
+      String propertyId = null;
+      IRoom room = null;
+      RoomType roomType = null;
+      Customer customer = null;
+      Date checkInDate = null;
+      Date checkOutDate = null;
+      if (Type.CUSTOMER_ADDED != type) {
+        propertyId = input.readUTF();
+        if (BookingEvent.isRoomTypeReservation(type)) {
+          roomType = RoomType.values()[input.readUnsignedByte()];
+        } else {
+          final String roomNumber = input.readUTF();
+          final Money price = Money.ofCents(input.readLong());
+          roomType = RoomType.values()[input.readUnsignedByte()];
+          room = Type.ROOM_ADDED == type
+            ? new Room(roomNumber, price, roomType, RoomAttributes.of(
+              RoomView.values()[input.readUnsignedByte()], input.readInt(), input.readInt(), input.readInt()
+            ))
+            : new Room(roomNumber, price, roomType);
+        }
+      }
+      if (Type.ROOM_ADDED != type) {
+        customer = new Customer(input.readUTF(), input.readUTF(), input.readUTF());
+      }
+      if (Type.CUSTOMER_ADDED != type && Type.ROOM_ADDED != type) {
+        checkInDate = new Date(input.readLong());
+        checkOutDate = new Date(input.readLong());
+      }
+      return new BookingEvent(offset, type, propertyId, room, roomType, customer, checkInDate, checkOutDate);
+    } catch (IOException | IndexOutOfBoundsException exception) {
+      throw new IllegalArgumentException("Malformed booking event!", exception);
+    }
+  }
+
+  private static boolean isRoomTypeReservation(Type type) {
+    return Type.ROOM_TYPE_RESERVED == type || Type.ROOM_TYPE_RESERVATION_CANCELLED == type;
+  }
+}
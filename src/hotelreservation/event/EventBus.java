@@ -0,0 +1,295 @@
+package hotelreservation.event;
+
+import hotelreservation.model.Customer;
+import hotelreservation.model.IRoom;
+import hotelreservation.model.Reservation;
+import hotelreservation.model.RoomType;
+import hotelreservation.model.RoomTypeReservation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * In-process stream of booking events, backed by a ring buffer of the most recent events.
+ * <p>
+ * Publishing stores the event in its slot and advances the published offset; it never waits for subscribers, and only
+ * wakes up those waiting for events. Every subscription has its own thread and cursor, and takes all the events
+ * published since its last batch at once. A subscription that falls more than a ring's length behind skips the
+ * overwritten events and is told about it, and a batch that the subscriber fails to handle is reported event by event,
+ * then skipped.
+ * <p>
+ * Offsets start at 0, unless the bus is started at the offset where an earlier run stopped (e.g. the next offset of a
+ * {@link FileEventSink}), so that offsets keep increasing across runs.
+ */
+public final class EventBus {
+  private static final int DEFAULT_CAPACITY = 1 << 16;
+  private static final int MAX_BATCH_SIZE = 1024;
+
+  private static final EventBus instance = new EventBus(EventBus.DEFAULT_CAPACITY);
+
+  private final BookingEvent[] slots;
+  private final int mask;
+  // Offset of the next event to publish: every event before it can be read from its slot, unless overwritten.
+  private final AtomicLong publishedOffset = new AtomicLong();
+  private int subscriptionCount = 0;
+  private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+  /**
+   * @param capacity Number of events kept for subscribers, rounded up to a power of two.
+   */
+  public EventBus(int capacity) {
+    if (capacity < 1 || capacity > 1 << 30) {
+      throw new IllegalArgumentException("Event bus capacity must be between 1 and 2^30!");
+    }
+    final int roundedCapacity = Integer.highestOneBit(capacity);
+    this.slots = new BookingEvent[roundedCapacity == capacity ? capacity : roundedCapacity << 1];
+    this.mask = this.slots.length - 1;
+  }
+
+  public static EventBus getInstance() {
+    return EventBus.instance;
+  }
+
+  public int getCapacity() {
+    return this.slots.length;
+  }
+
+  /**
+   * @return Offset of the next event to be published.
+   */
+  public long getPublishedOffset() {
+    return this.publishedOffset.getAcquire();
+  }
+
+  public long publishAddedCustomer(Customer customer) {
+    Objects.requireNonNull(customer);
+    return this.publish(BookingEvent.Type.CUSTOMER_ADDED, null, null, null, customer, null, null);
+  }
+
+  public long publishAddedRoom(String propertyId, IRoom room) {
+    Objects.requireNonNull(propertyId);
+    Objects.requireNonNull(room);
+    return this.publish(BookingEvent.Type.ROOM_ADDED, propertyId, room, room.getRoomType(), null, null, null);
+  }
+
+  public long publishReservation(String propertyId, Reservation reservation) {
+    return this.publishReservation(BookingEvent.Type.ROOM_RESERVED, propertyId, reservation);
+  }
+
+  public long publishCancellation(String propertyId, Reservation reservation) {
+    return this.publishReservation(BookingEvent.Type.RESERVATION_CANCELLED, propertyId, reservation);
+  }
+
+  public long publishRoomTypeReservation(String propertyId, RoomTypeReservation reservation) {
+    return this.publishRoomTypeReservation(BookingEvent.Type.ROOM_TYPE_RESERVED, propertyId, reservation);
+  }
+
+  public long publishRoomTypeCancellation(String propertyId, RoomTypeReservation reservation) {
+    return this.publishRoomTypeReservation(BookingEvent.Type.ROOM_TYPE_RESERVATION_CANCELLED, propertyId, reservation);
+  }
+
+  /**
+   * @param reservation Reservation of the room the room type reservation was assigned to.
+   */
+  public long publishRoomTypeAssignment(String propertyId, Reservation reservation) {
+    return this.publishReservation(BookingEvent.Type.ROOM_TYPE_RESERVATION_ASSIGNED, propertyId, reservation);
+  }
+
+  /**
+   * Numbers the events from the given offset instead of 0.
+   *
+   * @throws IllegalStateException If an event has been published, or a subscription made, already.
+   */
+  public synchronized void startAt(long offset) throws IllegalArgumentException, IllegalStateException {
+    if (offset < 0) {
+      throw new IllegalArgumentException("Event offsets must not be negative!");
+    }
+    if (0 != this.publishedOffset.get() || 0 != this.subscriptionCount) {
+      throw new IllegalStateException("Event offsets must be set before publishing or subscribing!");
+    }
+    this.publishedOffset.setRelease(offset);
+  }
+
+  /**
+   * Starts delivering events to the subscriber, from the next event to be published.
+   */
+  public Subscription subscribe(EventSubscriber subscriber) {
+    return this.subscribe(subscriber, this.getPublishedOffset());
+  }
+
+  /**
+   * Starts delivering events to the subscriber, from the given offset. Events that are no longer in the ring are
+   * reported as missed.
+   */
+  public synchronized Subscription subscribe(EventSubscriber subscriber, long fromOffset) {
+    Objects.requireNonNull(subscriber);
+    if (fromOffset < 0 || fromOffset > this.getPublishedOffset()) {
+      throw new IllegalArgumentException("Subscription offset must be between 0 and the published offset!");
+    }
+    final Subscription subscription = new Subscription(subscriber, fromOffset, this.subscriptionCount++);
+    this.subscriptions.add(subscription);
+    subscription.thread.start();
+    return subscription;
+  }
+
+  private long publishReservation(BookingEvent.Type type, String propertyId, Reservation reservation) {
+    Objects.requireNonNull(propertyId);
+    Objects.requireNonNull(reservation);
+    return this.publish(
+      type,
+      propertyId,
+      reservation.getRoom(),
+      reservation.getRoom().getRoomType(),
+      reservation.getCustomer(),
+      reservation.getCheckInDate(),
+      reservation.getCheckOutDate()
+    );
+  }
+
+  private long publishRoomTypeReservation(BookingEvent.Type type, String propertyId, RoomTypeReservation reservation) {
+    Objects.requireNonNull(propertyId);
+    Objects.requireNonNull(reservation);
+    return this.publish(
+      type,
+      propertyId,
+      null,
+      reservation.getRoomType(),
+      reservation.getCustomer(),
+      reservation.getCheckInDate(),
+      reservation.getCheckOutDate()
+    );
+  }
+
+  /**
+   * Publishers are serialized, so that the ring has a single writer at a time; the critical section is a slot write.
+   */
+  private synchronized long publish(
+    BookingEvent.Type type,
+    String propertyId,
+    IRoom room,
+    RoomType roomType,
+    Customer customer,
+    Date checkInDate,
+    Date checkOutDate
+  ) {
+    final long offset = this.publishedOffset.get();
+    this.slots[(int) (offset & this.mask)] = new BookingEvent(
+      offset, type, propertyId, room, roomType, customer, checkInDate, checkOutDate
+    );
+    this.publishedOffset.setRelease(offset + 1);
+    for (final Subscription subscription : this.subscriptions) {
+      if (subscription.isWaiting) {
+        LockSupport.unpark(subscription.thread);
+      }
+    }
+    return offset;
+  }
+
+  /**
+   * Delivery of the bus' events to one subscriber, on a daemon thread of its own.
+   */
+  public final class Subscription implements AutoCloseable {
+    private final EventSubscriber subscriber;
+    private final Thread thread;
+    private volatile long offset;
+    private volatile boolean isClosed = false;
+    // Set while the thread parks for lack of events, for publishers to unpark it.
+    private volatile boolean isWaiting = false;
+
+    private Subscription(EventSubscriber subscriber, long fromOffset, int number) {
+      this.subscriber = subscriber;
+      this.offset = fromOffset;
+      this.thread = new Thread(this::deliver, "event-subscription-" + number);
+      this.thread.setDaemon(true);
+    }
+
+    /**
+     * @return Offset of the next event to deliver.
+     */
+    public long getOffset() {
+      return this.offset;
+    }
+
+    /**
+     * @return Number of published events not delivered yet.
+     */
+    public long getLag() {
+      return EventBus.this.getPublishedOffset() - this.offset;
+    }
+
+    /**
+     * Stops the delivery, after the batch being delivered if any. If the calling thread is interrupted while waiting
+     * for that batch, it returns right away with its interrupt status set.
+     */
+    @Override
+    public void close() {
+      this.isClosed = true;
+      LockSupport.unpark(this.thread);
+      if (Thread.currentThread() != this.thread) {
+        try {
+          this.thread.join();
+        } catch (InterruptedException ie) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    }
+
+    private void deliver() {
+      try {
+        this.deliverUntilClosed();
+      } finally {
+        EventBus.this.subscriptions.remove(this);
+      }
+    }
+
+    private void deliverUntilClosed() {
+      final BookingEvent[] slots = EventBus.this.slots;
+      long offset = this.offset;
+      while (!this.isClosed) {
+        final long publishedOffset = EventBus.this.getPublishedOffset();
+        if (offset == publishedOffset) {
+          // Publishers advance the offset before reading the flag, so either the offset is seen here or the thread is
+          // unparked.
+          this.isWaiting = true;
+          if (offset == EventBus.this.getPublishedOffset() && !this.isClosed) {
+            LockSupport.park(this);
+          }
+          this.isWaiting = false;
+          continue;
+        }
+
+        final long oldestOffset = publishedOffset - slots.length;
+        if (offset < oldestOffset) {
+          this.subscriber.onMissedEvents(offset, oldestOffset);
+          offset = oldestOffset;
+        }
+
+        final int batchSize = (int) Math.min(publishedOffset - offset, EventBus.MAX_BATCH_SIZE);
+        final List<BookingEvent> batch = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+          final BookingEvent event = slots[(int) ((offset + i) & EventBus.this.mask)];
+          if (event.getOffset() != offset + i) {
+            break; // Overwritten since the published offset was read: reported as missed on the next round.
+          }
+          batch.add(event);
+        }
+
+        if (!batch.isEmpty()) {
+          try {
+            this.subscriber.onEvents(Collections.unmodifiableList(batch));
+          } catch (RuntimeException exception) {
+            batch.forEach(event -> this.subscriber.onFailedEvent(event, exception));
+          }
+          offset += batch.size();
+          this.offset = offset;
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,30 @@
+package hotelreservation.event;
+
+import java.util.List;
+
+/**
+ * Receives the events of an {@link EventBus} on the subscription's own thread, in offset order.
+ */
+public interface EventSubscriber {
+  /**
+   * @param events Consecutive events, at least one: all those published since the previous batch, up to a maximum.
+   */
+  void onEvents(List<BookingEvent> events);
+
+  /**
+   * Called when the subscriber fell so far behind that the bus overwrote events it had not received yet. The bus never
+   * waits for subscribers, so these events are lost to this subscription.
+   *
+   * @param fromOffset First missed offset (inclusive).
+   * @param toOffset   Last missed offset (exclusive), which is the offset of the next event delivered.
+   */
+  default void onMissedEvents(long fromOffset, long toOffset) {}
+
+  /**
+   * Called for each event of a batch that {@link #onEvents} failed to handle: the subscription moves on to the next
+   * events rather than stopping.
+   */
+  default void onFailedEvent(BookingEvent event, RuntimeException exception) {
+    System.err.println("Event " + event + " could not be handled: " + exception);
+  }
+}
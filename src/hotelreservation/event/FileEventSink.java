@@ -0,0 +1,107 @@
+package hotelreservation.event;
+
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Subscriber appending events to a file, as length-prefixed frames, so that they can be replayed later from any
+ * offset. Each batch is flushed as a whole.
+ * <p>
+ * An existing file is appended to, after dropping a frame left incomplete by a crash. To resume where it stopped, start
+ * a new bus at {@link #getNextOffset()} with {@link EventBus#startAt}, and subscribe the sink from there. Missed events
+ * leave a gap in the offsets of the file.
+ */
+public final class FileEventSink implements EventSubscriber, Closeable {
+  private final DataOutputStream output;
+  private long nextOffset;
+
+  public FileEventSink(Path file) throws IOException {
+    Objects.requireNonNull(file);
+    long validLength = 0;
+    long nextOffset = 0;
+    if (Files.exists(file)) {
+      try (final DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+        while (true) {
+          final int length = input.readInt();
+          final long offset = input.readLong();
+          input.skipNBytes(length - Long.BYTES);
+          validLength += Integer.BYTES + length;
+          nextOffset = offset + 1;
+        }
+      } catch (EOFException eofe) {
+        // End of the file, or of its last complete frame.
+      }
+      try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+        channel.truncate(validLength);
+      }
+    }
+
+    this.nextOffset = nextOffset;
+    this.output = new DataOutputStream(new BufferedOutputStream(
+      Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND)
+    ));
+  }
+
+  /**
+   * @return Offset following the last event written to the file, or 0 if the file is empty.
+   */
+  public synchronized long getNextOffset() {
+    return this.nextOffset;
+  }
+
+  @Override
+  public synchronized void onEvents(List<BookingEvent> events) {
+    try {
+      for (final BookingEvent event : events) {
+        final byte[] bytes = event.toBytes();
+        this.output.writeInt(bytes.length);
+        this.output.write(bytes);
+      }
+      this.output.flush();
+    } catch (IOException ioe) {
+      throw new UncheckedIOException(ioe);
+    }
+    this.nextOffset = events.get(events.size() - 1).getOffset() + 1;
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    this.output.close();
+  }
+
+  /**
+   * Reads the events of the file from the given offset, in order.
+   *
+   * @return Offset following the last event read, or the given offset if none was read.
+   */
+  public static long replay(Path file, long fromOffset, Consumer<BookingEvent> consumer) throws IOException {
+    Objects.requireNonNull(consumer);
+    long nextOffset = fromOffset;
+    try (final DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+      while (true) {
+        final int length = input.readInt();
+        input.mark(length);
+        final long offset = input.readLong();
+        if (offset < fromOffset) {
+          input.skipNBytes(length - Long.BYTES);
+          continue;
+        }
+
+        input.reset();
+        final byte[] bytes = new byte[length];
+        input.readFully(bytes);
+        consumer.accept(BookingEvent.fromBytes(bytes));
+        nextOffset = offset + 1;
+      }
+    } catch (EOFException eofe) {
+      // End of the file, or of its last complete frame.
+    }
+    return nextOffset;
+  }
+}
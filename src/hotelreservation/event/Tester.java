@@ -0,0 +1,168 @@
+package hotelreservation.event;
+
+import hotelreservation.model.Customer;
+import hotelreservation.model.InventoryMode;
+import hotelreservation.model.Money;
+import hotelreservation.model.Room;
+import hotelreservation.model.RoomType;
+import hotelreservation.model.RoomTypeReservation;
+import hotelreservation.service.ReservationService;
+import hotelreservation.util.EpochDays;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+public class Tester {
+  public static void main(String[] args) throws Exception {
+    Tester.checkRoomTypeReservationsArePublished();
+    Tester.checkFailedEventsAreReported();
+    Tester.checkFileSinkResumesOffsets();
+  }
+
+  private static void check(boolean condition, String message) {
+    if (!condition) {
+      throw new IllegalStateException(message);
+    }
+    System.out.println(message);
+  }
+
+  private static List<BookingEvent> awaitEvents(EventBus eventBus, List<BookingEvent> events) throws Exception {
+    final long deadline = System.currentTimeMillis() + 10_000;
+    while (System.currentTimeMillis() < deadline) {
+      synchronized (events) {
+        if (events.size() == eventBus.getPublishedOffset()) {
+          return List.copyOf(events);
+        }
+      }
+      Thread.sleep(10);
+    }
+    throw new IllegalStateException("Events have not been delivered in time!");
+  }
+
+  private static void checkRoomTypeReservationsArePublished() throws Exception {
+    final EventBus eventBus = new EventBus(64);
+    final List<BookingEvent> events = new ArrayList<>();
+    final EventBus.Subscription subscription = eventBus.subscribe(batch -> {
+      synchronized (events) {
+        batch.forEach(event -> events.add(BookingEvent.fromBytes(event.toBytes())));
+      }
+    });
+
+    final ReservationService property = new ReservationService("tester", eventBus);
+    property.addRoom(new Room("101", Money.ofCents(10000), RoomType.DOUBLE));
+    property.setInventoryMode(InventoryMode.ROOM_TYPE);
+    final Customer customer = new Customer("first", "second", "j@domain.com");
+    final RoomTypeReservation cancelled = property.reserveARoomType(
+      customer, RoomType.DOUBLE, EpochDays.toDate(EpochDays.today() + 10), EpochDays.toDate(EpochDays.today() + 12)
+    );
+    property.cancelRoomTypeReservation(cancelled);
+    property.reserveARoomType(
+      customer, RoomType.DOUBLE, EpochDays.toDate(EpochDays.today() + 20), EpochDays.toDate(EpochDays.today() + 22)
+    );
+    property.assignRoomTypeReservations();
+
+    final List<BookingEvent.Type> types = Tester.awaitEvents(eventBus, events).stream()
+      .map(BookingEvent::getType)
+      .toList();
+    subscription.close();
+    Tester.check(
+      List.of(
+        BookingEvent.Type.ROOM_ADDED,
+        BookingEvent.Type.ROOM_TYPE_RESERVED,
+        BookingEvent.Type.ROOM_TYPE_RESERVATION_CANCELLED,
+        BookingEvent.Type.ROOM_TYPE_RESERVED,
+        BookingEvent.Type.ROOM_TYPE_RESERVATION_ASSIGNED
+      ).equals(types),
+      "Room type reservations have been published and read back: " + types
+    );
+  }
+
+  private static void checkFailedEventsAreReported() throws Exception {
+    final EventBus eventBus = new EventBus(64);
+    final List<BookingEvent> events = new ArrayList<>();
+    final List<BookingEvent> failedEvents = new ArrayList<>();
+    final EventBus.Subscription subscription = eventBus.subscribe(new EventSubscriber() {
+      @Override
+      public void onEvents(List<BookingEvent> batch) {
+        if (0 == batch.get(0).getOffset()) {
+          throw new UncheckedIOException(new IOException("Disk full"));
+        }
+        synchronized (events) {
+          events.addAll(batch);
+        }
+      }
+
+      @Override
+      public void onFailedEvent(BookingEvent event, RuntimeException exception) {
+        synchronized (events) {
+          failedEvents.add(event);
+          events.add(event);
+        }
+      }
+    });
+
+    final Customer customer = new Customer("first", "second", "j@domain.com");
+    eventBus.publishAddedCustomer(customer);
+    Tester.awaitEvents(eventBus, events);
+    eventBus.publishAddedCustomer(customer);
+    Tester.awaitEvents(eventBus, events);
+    subscription.close();
+    Tester.check(
+      1 == failedEvents.size() && 0 == failedEvents.get(0).getOffset() && 2 == subscription.getOffset(),
+      "Failed event has been reported, and the next events have still been delivered!"
+    );
+  }
+
+  private static void awaitOffset(LongSupplier offset, long expectedOffset) throws Exception {
+    final long deadline = System.currentTimeMillis() + 10_000;
+    while (offset.getAsLong() != expectedOffset) {
+      if (System.currentTimeMillis() > deadline) {
+        throw new IllegalStateException("Events have not been delivered in time!");
+      }
+      Thread.sleep(10);
+    }
+  }
+
+  private static void checkFileSinkResumesOffsets() throws Exception {
+    final Path file = Files.createTempFile("events", ".bin");
+    file.toFile().deleteOnExit();
+    final Customer customer = new Customer("first", "second", "j@domain.com");
+    // Two runs, each with a new bus: the second one numbers its events after those of the first one.
+    for (int run = 0; run < 2; run++) {
+      final EventBus eventBus = new EventBus(64);
+      try (final FileEventSink sink = new FileEventSink(file)) {
+        eventBus.startAt(sink.getNextOffset());
+        final EventBus.Subscription subscription = eventBus.subscribe(sink, sink.getNextOffset());
+        for (int i = 0; i < 3; i++) {
+          eventBus.publishAddedCustomer(customer);
+        }
+        Tester.awaitOffset(sink::getNextOffset, eventBus.getPublishedOffset());
+        subscription.close();
+      }
+    }
+
+    final List<Long> offsets = new ArrayList<>();
+    FileEventSink.replay(file, 0, event -> offsets.add(event.getOffset()));
+    Tester.check(
+      List.of(0L, 1L, 2L, 3L, 4L, 5L).equals(offsets),
+      "Event file has kept increasing offsets across runs: " + offsets
+    );
+
+    final EventBus eventBus = new EventBus(64);
+    eventBus.publishAddedCustomer(customer);
+    try {
+      eventBus.startAt(6);
+      throw new IllegalStateException("Bus has been started at an offset after publishing!");
+    } catch (IllegalStateException ise) {
+      if (!ise.getMessage().equals("Event offsets must be set before publishing or subscribing!")) {
+        throw ise;
+      }
+      System.out.println("Bus start offset after publishing has been correctly rejected!");
+    }
+  }
+}
@@ -0,0 +1,3 @@
+package hotelreservation.exception;
+
+public class PropertyNotFoundException extends Exception {}
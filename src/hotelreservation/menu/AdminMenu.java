@@ -7,6 +7,7 @@ import hotelreservation.exception.CustomerNotFoundException;
 import hotelreservation.exception.RoomAlreadyReservedException;
 import hotelreservation.model.Customer;
 import hotelreservation.model.IRoom;
+import hotelreservation.model.Money;
 import hotelreservation.model.Room;
 import hotelreservation.model.RoomType;
 
@@ -188,18 +189,20 @@ public class AdminMenu {
       }
 
       System.out.println("Enter price (non-negative decimal, 0 for free room):");
-      final double price;
+      final Money price;
       while (true) {
         final String scannedPrice = this.getNextLineOrQuit();
         if (null == scannedPrice) {
           return;
         }
 
-        final double parsedPrice;
+        final Money parsedPrice;
         try {
-          parsedPrice = Double.parseDouble(scannedPrice);
+          parsedPrice = Money.parse(scannedPrice);
         } catch (NumberFormatException nfe) {
-          System.out.println("Your input didn't seem to be a decimal number. Please try again.");
+          System.out.println(
+            "Your input didn't seem to be a decimal number with at most 2 fractional digits. Please try again."
+          );
           continue;
         }
 
@@ -289,7 +292,7 @@ Karil,Rumgay,krumgay9@blog.com""";
           .map(
             roomIndex -> new Room(
               String.format("%d%02d", floor, roomIndex), // e.g. 101, 102
-              random.nextBoolean() ? 0 : ((double) Math.round(random.nextDouble(0, 25600))) / 100,
+              random.nextBoolean() ? Money.ZERO : Money.ofCents(random.nextLong(0, 25600)),
               random.nextBoolean() ? RoomType.SINGLE : RoomType.DOUBLE
             )
           )
@@ -0,0 +1,187 @@
+package hotelreservation.menu;
+
+import hotelreservation.api.AdminResource;
+import hotelreservation.api.HotelResource;
+import hotelreservation.exception.CustomerNotFoundException;
+import hotelreservation.model.Customer;
+import hotelreservation.model.IRoom;
+import hotelreservation.model.Money;
+import hotelreservation.model.Reservation;
+import hotelreservation.model.Room;
+import hotelreservation.model.RoomQuote;
+import hotelreservation.model.RoomType;
+import hotelreservation.util.EpochDays;
+import hotelreservation.util.IsoDates;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Objects;
+
+/**
+ * Non-interactive driver: runs one command per line of a script and writes one result per command, without prompts.
+ * <p>
+ * Commands are whitespace-separated words; dates are {@code yyyy-MM-dd}. Blank lines and lines starting with
+ * {@code #} are skipped.
+ * <pre>
+ * customer EMAIL FIRST_NAME LAST_NAME
+ * room NUMBER PRICE SINGLE|DOUBLE (in any case)
+ * find CHECK_IN CHECK_OUT
+ * quote CHECK_IN CHECK_OUT
+ * book EMAIL ROOM CHECK_IN CHECK_OUT
+ * cancel EMAIL ROOM CHECK_IN CHECK_OUT
+ * reservations EMAIL
+ * </pre>
+ * Each result starts with {@code OK}, or with {@code ERROR} and the line number of the failed command; the
+ * reservations of a customer follow their result line, one per line.
+ */
+public class BatchDriver {
+  private static final String COMMENT_PREFIX = "#";
+
+  private final HotelResource hotelResource = HotelResource.getInstance();
+  private final AdminResource adminResource = AdminResource.getInstance();
+
+  private final BufferedReader reader;
+  private final Writer writer;
+
+  public BatchDriver(BufferedReader reader, Writer writer) {
+    this.reader = Objects.requireNonNull(reader);
+    this.writer = Objects.requireNonNull(writer);
+  }
+
+  /**
+   * Runs the script to its end, then flushes the results.
+   *
+   * @return Number of failed commands.
+   */
+  public int run() throws IOException {
+    int lineNumber = 0;
+    int errors = 0;
+    String line;
+    while (null != (line = this.reader.readLine())) {
+      lineNumber++;
+      final String command = line.strip();
+      if (command.isEmpty() || command.startsWith(BatchDriver.COMMENT_PREFIX)) {
+        continue;
+      }
+
+      try {
+        this.execute(command.split("\\s+"));
+      } catch (Exception exception) {
+        errors++;
+        this.writer
+          .append("ERROR ")
+          .append(Integer.toString(lineNumber))
+          .append(' ')
+          .append(null == exception.getMessage() ? exception.getClass().getSimpleName() : exception.getMessage())
+          .append('\n');
+      }
+    }
+    this.writer.flush();
+    return errors;
+  }
+
+  private void execute(String[] words) throws Exception {
+    switch (words[0]) {
+      case "customer" -> {
+        BatchDriver.requireArguments(words, 3);
+        this.hotelResource.createACustomer(words[1], words[2], words[3]);
+        this.writer.append("OK\n");
+      }
+
+      case "room" -> {
+        BatchDriver.requireArguments(words, 3);
+        this.adminResource.addRoom(new Room(words[1], Money.parse(words[2]), BatchDriver.parseRoomType(words[3])));
+        this.writer.append("OK\n");
+      }
+
+      case "find" -> {
+        BatchDriver.requireArguments(words, 2);
+        final Collection<IRoom> rooms = this.hotelResource.findRooms(
+          BatchDriver.parseDate(words[1]), BatchDriver.parseDate(words[2])
+        );
+        this.writer.append("OK ").append(Integer.toString(rooms.size()));
+        for (final IRoom room : rooms) {
+          this.writer.append(' ').append(room.getRoomNumber());
+        }
+        this.writer.append('\n');
+      }
+
+      case "quote" -> {
+        BatchDriver.requireArguments(words, 2);
+        final Collection<RoomQuote> quotes = this.hotelResource.findRoomQuotes(
+          BatchDriver.parseDate(words[1]), BatchDriver.parseDate(words[2])
+        );
+        this.writer.append("OK ").append(Integer.toString(quotes.size()));
+        for (final RoomQuote quote : quotes) {
+          this.writer
+            .append(' ')
+            .append(quote.getRoom().getRoomNumber())
+            .append('=')
+            .append(quote.getTotalPrice().toString());
+        }
+        this.writer.append('\n');
+      }
+
+      case "book" -> {
+        BatchDriver.requireArguments(words, 4);
+        this.hotelResource.bookARoom(
+          words[1], this.getRoomOrThrow(words[2]), BatchDriver.parseDate(words[3]), BatchDriver.parseDate(words[4])
+        );
+        this.writer.append("OK\n");
+      }
+
+      case "cancel" -> {
+        BatchDriver.requireArguments(words, 4);
+        final Customer customer = this.hotelResource.getCustomer(words[1]);
+        if (null == customer) {
+          throw new CustomerNotFoundException();
+        }
+        this.hotelResource.cancelReservation(words[1], new Reservation(
+          customer, this.getRoomOrThrow(words[2]), BatchDriver.parseDate(words[3]), BatchDriver.parseDate(words[4])
+        ));
+        this.writer.append("OK\n");
+      }
+
+      case "reservations" -> {
+        BatchDriver.requireArguments(words, 1);
+        final Collection<Reservation> reservations = this.hotelResource.getCustomerReservations(words[1]);
+        this.writer.append("OK ").append(Integer.toString(reservations.size())).append('\n');
+        for (final Reservation reservation : reservations) {
+          this.writer.append("  ").append(reservation.toString()).append('\n');
+        }
+      }
+
+      default -> throw new IllegalArgumentException("Unknown command " + words[0] + "!");
+    }
+  }
+
+  private IRoom getRoomOrThrow(String roomNumber) throws IllegalArgumentException {
+    final IRoom room = this.hotelResource.getRoom(roomNumber);
+    if (null == room) {
+      throw new IllegalArgumentException("Room " + roomNumber + " does not exist!");
+    }
+    return room;
+  }
+
+  private static void requireArguments(String[] words, int arguments) throws IllegalArgumentException {
+    if (words.length != arguments + 1) {
+      throw new IllegalArgumentException("Command " + words[0] + " takes " + arguments + " arguments!");
+    }
+  }
+
+  private static RoomType parseRoomType(String text) throws IllegalArgumentException {
+    for (final RoomType roomType : RoomType.values()) {
+      if (roomType.toString().equalsIgnoreCase(text)) {
+        return roomType;
+      }
+    }
+    throw new IllegalArgumentException("Unknown room type " + text + "!");
+  }
+
+  private static Date parseDate(String text) throws IllegalArgumentException {
+    return EpochDays.toDate(IsoDates.parse(text));
+  }
+}
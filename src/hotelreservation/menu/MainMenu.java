@@ -7,15 +7,16 @@ import hotelreservation.exception.RoomAlreadyReservedException;
 import hotelreservation.model.Customer;
 import hotelreservation.model.IRoom;
 import hotelreservation.model.Reservation;
+import hotelreservation.model.RoomQuote;
+import hotelreservation.model.RoomRanking;
+import hotelreservation.model.RoomType;
+import hotelreservation.util.EpochDays;
+import hotelreservation.util.IsoDates;
 
-import java.text.ParsePosition;
-import java.text.SimpleDateFormat;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
 
 public class MainMenu {
-  private static final SimpleDateFormat ISO_8601_SIMPLE_DATE_FORMAT = new SimpleDateFormat("yyyy-MM-dd");
-
   private static final int MENU_CHOICE_FIND_RESERVE_ROOM = 1;
   private static final int MENU_CHOICE_VIEW_MY_RESERVATIONS = 2;
   private static final int MENU_CHOICE_CREATE_ACCOUNT = 3;
@@ -148,10 +149,8 @@ public class MainMenu {
         return null;
       }
 
-      final Date parsedDate = MainMenu.ISO_8601_SIMPLE_DATE_FORMAT.parse(
-        scannedDate, new ParsePosition(0)
-      );
-      if (null == parsedDate) {
+      final long parsedDay = IsoDates.tryParse(scannedDate.strip());
+      if (IsoDates.INVALID == parsedDay) {
         System.out.println(
           "Invalid date format. Please enter a valid date as YYYY-MM-DD or \"" +
             MainMenu.ESCAPE_WORD +
@@ -159,7 +158,7 @@ public class MainMenu {
         );
         continue;
       }
-      return parsedDate;
+      return EpochDays.toDate(parsedDay);
     }
   }
 
@@ -211,24 +210,31 @@ public class MainMenu {
         break;
       }
 
-      Collection<IRoom> foundRooms = this.hotelResource.findRooms(checkInDate, checkOutDate);
+      Collection<RoomQuote> foundRooms = this.hotelResource.findRoomQuotes(
+        checkInDate, checkOutDate, RoomRanking.BEST_FIT
+      );
       if (foundRooms.isEmpty()) {
         System.out.println("There are currently no rooms available for your date range. :(");
 
         final Date newCheckInDate = this.addDaysForRecommendations(checkInDate);
         final Date newCheckOutDate = this.addDaysForRecommendations(checkOutDate);
 
-        foundRooms = this.hotelResource.findRooms(newCheckInDate, newCheckOutDate);
+        foundRooms = this.hotelResource.findRoomQuotes(
+          newCheckInDate, newCheckOutDate, RoomRanking.BEST_FIT
+        );
         if (foundRooms.isEmpty()) {
+          if (this.offerWaitlist(customer, checkInDate, checkOutDate)) {
+            return;
+          }
           System.out.println("Please try another date range instead.");
           continue; // outer loop
         }
 
         System.out.println(
           "Here are some available rooms for you if you choose to reserve from " +
-            MainMenu.ISO_8601_SIMPLE_DATE_FORMAT.format(newCheckInDate) +
+            IsoDates.format(EpochDays.of(newCheckInDate)) +
             " to " +
-            MainMenu.ISO_8601_SIMPLE_DATE_FORMAT.format(newCheckOutDate) +
+            IsoDates.format(EpochDays.of(newCheckOutDate)) +
             ":"
         );
         checkInDate = newCheckInDate;
@@ -236,9 +242,9 @@ public class MainMenu {
       } else {
         System.out.println(
           "Here are some available rooms for your reservation from " +
-            MainMenu.ISO_8601_SIMPLE_DATE_FORMAT.format(checkInDate) +
+            IsoDates.format(EpochDays.of(checkInDate)) +
             " to " +
-            MainMenu.ISO_8601_SIMPLE_DATE_FORMAT.format(checkOutDate) +
+            IsoDates.format(EpochDays.of(checkOutDate)) +
             ":"
         );
       }
@@ -258,6 +264,7 @@ public class MainMenu {
 
         final Optional<IRoom> selectedRoom = foundRooms
           .stream()
+          .map(RoomQuote::getRoom)
           .filter(room -> room.getRoomNumber().equals(roomNumber))
           .findFirst();
 
@@ -288,6 +295,34 @@ public class MainMenu {
     }
   }
 
+  /**
+   * @return Whether the customer has joined the waitlist.
+   */
+  private boolean offerWaitlist(Customer customer, Date checkInDate, Date checkOutDate) {
+    System.out.println(
+      "You can join the waitlist for your dates, and we'll book a room for you as soon as one becomes available. " +
+        "Enter a room type (single or double) to join, or anything else to skip."
+    );
+    final String scannedRoomType = this.getNextLine();
+    final RoomType roomType;
+    if (RoomType.SINGLE.toString().equalsIgnoreCase(scannedRoomType)) {
+      roomType = RoomType.SINGLE;
+    } else if (RoomType.DOUBLE.toString().equalsIgnoreCase(scannedRoomType)) {
+      roomType = RoomType.DOUBLE;
+    } else {
+      return false;
+    }
+
+    try {
+      this.hotelResource.joinWaitlist(customer.getEmail(), roomType, checkInDate, checkOutDate);
+    } catch (CustomerNotFoundException cnfe) {
+      System.out.println("Sorry, your email address is not found in the system. Perhaps it has been deleted.");
+      return false;
+    }
+    System.out.println("You're on the waitlist. We'll let you know once your room has been booked!");
+    return true;
+  }
+
   private Date addDaysForRecommendations(Date date) {
     return Date.from(
       Objects.requireNonNull(date).toInstant().plus(MainMenu.NEXT_DAYS_FOR_ROOM_RECOMMENDATIONS, ChronoUnit.DAYS)
@@ -0,0 +1,30 @@
+package hotelreservation.menu;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+public class Tester {
+  public static void main(String[] args) throws Exception {
+    Tester.checkBatchRoomTypes();
+  }
+
+  private static void check(boolean condition, String message) {
+    if (!condition) {
+      throw new IllegalStateException(message);
+    }
+    System.out.println(message);
+  }
+
+  private static void checkBatchRoomTypes() throws Exception {
+    final StringWriter results = new StringWriter();
+    final int errors = new BatchDriver(
+      new BufferedReader(new StringReader("room 901 100 double\n\nroom 902 100 suite\nroom 903 100 Single\n")),
+      results
+    ).run();
+    Tester.check(
+      1 == errors && "OK\nERROR 3 Unknown room type suite!\nOK\n".equals(results.toString()),
+      "Batch has read room types in any case, and reported the bad line: " + results.toString().replace('\n', '|')
+    );
+  }
+}
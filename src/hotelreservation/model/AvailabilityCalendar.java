@@ -0,0 +1,93 @@
+package hotelreservation.model;
+
+import java.util.*;
+
+/**
+ * Availability of a property's rooms over consecutive nights, from a start day (epoch day).
+ * <p>
+ * Booked nights are a bit matrix with one row of {@code days} bits per room, in the order of {@link #getRooms()}, which
+ * can be sent as is ({@link #toByteArray()}) or as runs of free and booked nights ({@link #getRunLengths(int)}).
+ */
+public class AvailabilityCalendar {
+  private final long fromDay;
+  private final int days;
+  private final List<IRoom> rooms;
+  private final BitSet bookedNights;
+  private final Map<RoomType, int[]> freeRoomsPerNight;
+
+  public AvailabilityCalendar(
+    long fromDay,
+    int days,
+    List<IRoom> rooms,
+    BitSet bookedNights,
+    Map<RoomType, int[]> freeRoomsPerNight
+  ) throws IllegalArgumentException {
+    if (days < 1) {
+      throw new IllegalArgumentException("Calendar must cover at least one night!");
+    }
+    this.fromDay = fromDay;
+    this.days = days;
+    this.rooms = List.copyOf(rooms);
+    this.bookedNights = (BitSet) bookedNights.clone();
+    this.freeRoomsPerNight = new EnumMap<>(freeRoomsPerNight);
+  }
+
+  public long getFromDay() {
+    return this.fromDay;
+  }
+
+  public int getDays() {
+    return this.days;
+  }
+
+  public List<IRoom> getRooms() {
+    return this.rooms;
+  }
+
+  /**
+   * @param night Night offset from the start day.
+   */
+  public boolean isBooked(int roomIndex, int night) {
+    Objects.checkIndex(roomIndex, this.rooms.size());
+    Objects.checkIndex(night, this.days);
+    return this.bookedNights.get(roomIndex * this.days + night);
+  }
+
+  /**
+   * @return Lengths of the alternating runs of free and booked nights of the room, starting with free nights (so the
+   * first run is empty if the first night is booked). The lengths add up to the number of days.
+   */
+  public int[] getRunLengths(int roomIndex) {
+    Objects.checkIndex(roomIndex, this.rooms.size());
+    final int rowStart = roomIndex * this.days;
+    final int rowEnd = rowStart + this.days;
+    final List<Integer> runLengths = new ArrayList<>();
+    int runStart = rowStart;
+    boolean isBookedRun = false;
+    while (runStart < rowEnd) {
+      final int nextRunStart = isBookedRun
+        ? this.bookedNights.nextClearBit(runStart)
+        : this.bookedNights.nextSetBit(runStart);
+      final int runEnd = nextRunStart < 0 ? rowEnd : Math.min(nextRunStart, rowEnd);
+      runLengths.add(runEnd - runStart);
+      runStart = runEnd;
+      isBookedRun = !isBookedRun;
+    }
+    return runLengths.stream().mapToInt(Integer::intValue).toArray();
+  }
+
+  /**
+   * @return Bit matrix of booked nights, little-endian as per {@link BitSet#toByteArray()}.
+   */
+  public byte[] toByteArray() {
+    return this.bookedNights.toByteArray();
+  }
+
+  /**
+   * @return Free rooms of the type on each night. Room type reservations without a room count as booked rooms of their
+   * type, so counts are negative on overbooked nights.
+   */
+  public int[] getFreeRoomsPerNight(RoomType roomType) {
+    return this.freeRoomsPerNight.get(Objects.requireNonNull(roomType)).clone();
+  }
+}
@@ -2,6 +2,10 @@ package hotelreservation.model;
 
 public class FreeRoom extends Room implements IRoom {
   public FreeRoom(String roomNumber, RoomType roomType) throws IllegalArgumentException {
-    super(roomNumber, 0, roomType);
+    super(roomNumber, Money.ZERO, roomType);
+  }
+
+  public FreeRoom(String roomNumber, RoomType roomType, RoomAttributes attributes) throws IllegalArgumentException {
+    super(roomNumber, Money.ZERO, roomType, attributes);
   }
 }
@@ -2,7 +2,11 @@ package hotelreservation.model;
 
 public interface IRoom {
   public String getRoomNumber();
-  public double getRoomPrice();
+  public Money getRoomPrice();
   public RoomType getRoomType();
   public boolean isFree();
+
+  public default RoomAttributes getAttributes() {
+    return RoomAttributes.NONE;
+  }
 }
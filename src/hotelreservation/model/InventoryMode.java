@@ -0,0 +1,16 @@
+package hotelreservation.model;
+
+/**
+ * How a property sells its rooms.
+ */
+public enum InventoryMode {
+  /**
+   * Guests book specific rooms, which can never be booked twice for the same night.
+   */
+  ROOM,
+  /**
+   * Guests book room types, counted per night against the number of rooms of the type plus an overbooking allowance;
+   * specific rooms are assigned later.
+   */
+  ROOM_TYPE
+}
@@ -0,0 +1,82 @@
+package hotelreservation.model;
+
+import java.math.BigDecimal;
+import java.util.Objects;
+
+/**
+ * Immutable amount of money, stored as a whole number of cents.
+ */
+public final class Money implements Comparable<Money> {
+  public static final Money ZERO = new Money(0);
+
+  private static final int CENTS_PER_UNIT = 100;
+
+  private final long cents;
+
+  private Money(long cents) {
+    this.cents = cents;
+  }
+
+  public static Money ofCents(long cents) {
+    return 0 == cents ? Money.ZERO : new Money(cents);
+  }
+
+  /**
+   * @param amount Decimal amount with at most 2 fractional digits, e.g. "12", "12.5" or "12.50".
+   * @throws NumberFormatException If the amount is not a decimal number, or has more than 2 fractional digits.
+   */
+  public static Money parse(String amount) throws NumberFormatException {
+    try {
+      return Money.ofCents(
+        new BigDecimal(Objects.requireNonNull(amount).trim()).movePointRight(2).longValueExact()
+      );
+    } catch (ArithmeticException ae) {
+      throw new NumberFormatException("Amount must not have more than 2 fractional digits!");
+    }
+  }
+
+  public long getCents() {
+    return this.cents;
+  }
+
+  public boolean isZero() {
+    return 0 == this.cents;
+  }
+
+  public boolean isNegative() {
+    return this.cents < 0;
+  }
+
+  public Money plus(Money other) {
+    return Money.ofCents(Math.addExact(this.cents, other.cents));
+  }
+
+  public Money times(long factor) {
+    return Money.ofCents(Math.multiplyExact(this.cents, factor));
+  }
+
+  @Override
+  public int compareTo(Money other) {
+    return Long.compare(this.cents, other.cents);
+  }
+
+  /**
+   * @return Decimal representation with exactly 2 fractional digits, e.g. "12.50".
+   */
+  @Override
+  public String toString() {
+    final long units = Math.abs(this.cents / Money.CENTS_PER_UNIT);
+    final long fraction = Math.abs(this.cents % Money.CENTS_PER_UNIT);
+    return (this.cents < 0 ? "-" : "") + units + (fraction < 10 ? ".0" : ".") + fraction;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    return this == obj || (obj instanceof Money && this.cents == ((Money) obj).cents);
+  }
+
+  @Override
+  public int hashCode() {
+    return Long.hashCode(this.cents);
+  }
+}
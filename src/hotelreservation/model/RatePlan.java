@@ -0,0 +1,96 @@
+package hotelreservation.model;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Per-night pricing rules applied on top of a room's base price. Adjusted nightly rates are rounded to whole cents.
+ * <p>
+ * The nightly rate is the base price multiplied by the weekend multiplier (Friday and Saturday nights), the multiplier
+ * of the first matching season, and the surge multiplier when occupancy of the room type reaches the surge threshold.
+ */
+public class RatePlan {
+  public static final RatePlan FLAT = new RatePlan(1, List.of(), 1, 1);
+
+  private final double weekendMultiplier;
+  private final List<Season> seasons;
+  private final double surgeOccupancyThreshold;
+  private final double surgeMultiplier;
+
+  public RatePlan(
+    double weekendMultiplier,
+    List<Season> seasons,
+    double surgeOccupancyThreshold,
+    double surgeMultiplier
+  ) throws IllegalArgumentException {
+    RatePlan.requireValidMultiplier(weekendMultiplier);
+    RatePlan.requireValidMultiplier(surgeMultiplier);
+    if (!(surgeOccupancyThreshold >= 0 && surgeOccupancyThreshold <= 1)) {
+      throw new IllegalArgumentException("Surge occupancy threshold must be between 0 and 1!");
+    }
+
+    this.weekendMultiplier = weekendMultiplier;
+    this.seasons = List.copyOf(seasons);
+    this.surgeOccupancyThreshold = surgeOccupancyThreshold;
+    this.surgeMultiplier = surgeMultiplier;
+  }
+
+  /**
+   * @param occupancy Fraction (0 to 1) of rooms of the same type already booked on that night.
+   * @return Multiplier to apply to the base price for the given night.
+   */
+  public double getMultiplier(LocalDate night, double occupancy) {
+    double multiplier = 1;
+
+    final DayOfWeek dayOfWeek = Objects.requireNonNull(night).getDayOfWeek();
+    if (DayOfWeek.FRIDAY == dayOfWeek || DayOfWeek.SATURDAY == dayOfWeek) {
+      multiplier *= this.weekendMultiplier;
+    }
+
+    final MonthDay monthDay = MonthDay.from(night);
+    for (final Season season : this.seasons) {
+      if (season.contains(monthDay)) {
+        multiplier *= season.multiplier;
+        break;
+      }
+    }
+
+    if (occupancy >= this.surgeOccupancyThreshold) {
+      multiplier *= this.surgeMultiplier;
+    }
+    return multiplier;
+  }
+
+  private static void requireValidMultiplier(double multiplier) throws IllegalArgumentException {
+    if (!Double.isFinite(multiplier) || multiplier < 0) {
+      throw new IllegalArgumentException("Multiplier must be a non-negative decimal number!");
+    }
+  }
+
+  /**
+   * A recurring yearly date range, inclusive at both ends. A season may wrap around the new year (e.g. Dec 20 to
+   * Jan 5).
+   */
+  public static class Season {
+    private final MonthDay from;
+    private final MonthDay to;
+    private final double multiplier;
+
+    public Season(MonthDay from, MonthDay to, double multiplier) throws IllegalArgumentException {
+      RatePlan.requireValidMultiplier(multiplier);
+      this.from = Objects.requireNonNull(from);
+      this.to = Objects.requireNonNull(to);
+      this.multiplier = multiplier;
+    }
+
+    public boolean contains(MonthDay monthDay) {
+      if (this.from.isAfter(this.to)) {
+        return !monthDay.isBefore(this.from) || !monthDay.isAfter(this.to);
+      }
+      return !monthDay.isBefore(this.from) && !monthDay.isAfter(this.to);
+    }
+  }
+}
@@ -1,12 +1,12 @@
 package hotelreservation.model;
 
-import java.text.SimpleDateFormat;
+import hotelreservation.util.EpochDays;
+import hotelreservation.util.IsoDates;
+
 import java.util.Date;
 import java.util.Objects;
 
 public class Reservation {
-  private static final SimpleDateFormat ISO_8601_SIMPLE_DATE_FORMAT = new SimpleDateFormat("yyyy-MM-dd");
-
   private final Customer customer;
   private final IRoom room;
   private final Date checkInDate;
@@ -42,17 +42,14 @@ public class Reservation {
 
   @Override
   public String toString() {
-    return (
-      "Reservation: " +
-        this.customer +
-        " - " +
-        this.room +
-        " [" +
-        Reservation.ISO_8601_SIMPLE_DATE_FORMAT.format(this.checkInDate) +
-        " to " +
-        Reservation.ISO_8601_SIMPLE_DATE_FORMAT.format(this.checkOutDate) +
-        "]"
-    );
+    final StringBuilder builder = new StringBuilder(128)
+      .append("Reservation: ")
+      .append(this.customer)
+      .append(" - ")
+      .append(this.room)
+      .append(" [");
+    IsoDates.appendTo(builder, EpochDays.of(this.checkInDate)).append(" to ");
+    return IsoDates.appendTo(builder, EpochDays.of(this.checkOutDate)).append(']').toString();
   }
 
   @Override
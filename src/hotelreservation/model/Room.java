@@ -4,17 +4,24 @@ import java.util.Objects;
 
 public class Room implements IRoom {
   private final String roomNumber;
-  private final double price;
+  private final Money price;
   private final RoomType roomType;
+  private final RoomAttributes attributes;
 
-  public Room(String roomNumber, double price, RoomType roomType) throws IllegalArgumentException {
-    if (!Double.isFinite(price) || price < 0) {
-      throw new IllegalArgumentException("Price must be a non-negative decimal number!");
+  public Room(String roomNumber, Money price, RoomType roomType) throws IllegalArgumentException {
+    this(roomNumber, price, roomType, RoomAttributes.NONE);
+  }
+
+  public Room(String roomNumber, Money price, RoomType roomType, RoomAttributes attributes)
+    throws IllegalArgumentException {
+    if (Objects.requireNonNull(price).isNegative()) {
+      throw new IllegalArgumentException("Price must be a non-negative amount!");
     }
     this.price = price;
 
     this.roomNumber = Objects.requireNonNull(roomNumber);
     this.roomType = Objects.requireNonNull(roomType);
+    this.attributes = Objects.requireNonNull(attributes);
   }
 
   @Override
@@ -23,7 +30,7 @@ public class Room implements IRoom {
   }
 
   @Override
-  public double getRoomPrice() {
+  public Money getRoomPrice() {
     return this.price;
   }
 
@@ -32,9 +39,14 @@ public class Room implements IRoom {
     return this.roomType;
   }
 
+  @Override
+  public RoomAttributes getAttributes() {
+    return this.attributes;
+  }
+
   @Override
   public boolean isFree() {
-    return 0. == this.price;
+    return this.price.isZero();
   }
 
   @Override
@@ -45,7 +57,8 @@ public class Room implements IRoom {
         " - " +
         (RoomType.DOUBLE == this.roomType ? "Double" : "Single") +
         " - " +
-        (this.isFree() ? "FREE" : ("$" + this.price))
+        (this.isFree() ? "FREE" : ("$" + this.price)) +
+        (RoomAttributes.NONE.equals(this.attributes) ? "" : " - " + this.attributes)
     );
   }
 
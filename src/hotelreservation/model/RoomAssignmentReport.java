@@ -0,0 +1,86 @@
+package hotelreservation.model;
+
+/**
+ * Outcome of assigning room type reservations to the rooms of one type, with the fragmentation of the free days left
+ * between the stays of each room. Gaps of at most {@code orphanGapDays} days are orphans: too short to be sold.
+ */
+public class RoomAssignmentReport {
+  private final int assignedReservations;
+  private final int unassignedReservations;
+  private final int gaps;
+  private final long gapDays;
+  private final int orphanGaps;
+  private final long orphanDays;
+
+  public RoomAssignmentReport(
+    int assignedReservations,
+    int unassignedReservations,
+    int gaps,
+    long gapDays,
+    int orphanGaps,
+    long orphanDays
+  ) {
+    this.assignedReservations = assignedReservations;
+    this.unassignedReservations = unassignedReservations;
+    this.gaps = gaps;
+    this.gapDays = gapDays;
+    this.orphanGaps = orphanGaps;
+    this.orphanDays = orphanDays;
+  }
+
+  public int getAssignedReservations() {
+    return this.assignedReservations;
+  }
+
+  /**
+   * @return Number of reservations no room could take (overbooking), which are still waiting for a room.
+   */
+  public int getUnassignedReservations() {
+    return this.unassignedReservations;
+  }
+
+  /**
+   * @return Number of runs of free days between two stays of a room.
+   */
+  public int getGaps() {
+    return this.gaps;
+  }
+
+  public long getGapDays() {
+    return this.gapDays;
+  }
+
+  public int getOrphanGaps() {
+    return this.orphanGaps;
+  }
+
+  public long getOrphanDays() {
+    return this.orphanDays;
+  }
+
+  /**
+   * @return Share of free days between stays that are in orphan gaps, from 0 (none) to 1 (all of them).
+   */
+  public double getFragmentation() {
+    return 0 == this.gapDays ? 0 : ((double) this.orphanDays) / this.gapDays;
+  }
+
+  @Override
+  public String toString() {
+    return (
+      this.assignedReservations +
+        " assigned, " +
+        this.unassignedReservations +
+        " unassigned - " +
+        this.gaps +
+        " gaps (" +
+        this.gapDays +
+        " days), " +
+        this.orphanGaps +
+        " orphan gaps (" +
+        this.orphanDays +
+        " days) - fragmentation " +
+        String.format("%.1f%%", 100 * this.getFragmentation())
+    );
+  }
+}
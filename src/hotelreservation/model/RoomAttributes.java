@@ -0,0 +1,109 @@
+package hotelreservation.model;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public class RoomAttributes {
+  /**
+   * Attributes of a room nobody described: ground floor, one bed, no view and no features.
+   */
+  public static final RoomAttributes NONE = new RoomAttributes(RoomView.NONE, 0, 1, Set.of());
+
+  private final RoomView view;
+  private final int floor;
+  private final int bedCount;
+  private final Set<RoomFeature> features;
+
+  public RoomAttributes(RoomView view, int floor, int bedCount, Set<RoomFeature> features)
+    throws IllegalArgumentException {
+    if (bedCount < 1) {
+      throw new IllegalArgumentException("Bed count must be positive!");
+    }
+    this.view = Objects.requireNonNull(view);
+    this.floor = floor;
+    this.bedCount = bedCount;
+    final Set<RoomFeature> featureSet = EnumSet.noneOf(RoomFeature.class);
+    featureSet.addAll(features);
+    this.features = Collections.unmodifiableSet(featureSet);
+  }
+
+  /**
+   * @param featureMask Features as bits by ordinal, as returned by {@link #getFeatureMask()}.
+   */
+  public static RoomAttributes of(RoomView view, int floor, int bedCount, int featureMask)
+    throws IllegalArgumentException {
+    final Set<RoomFeature> features = EnumSet.noneOf(RoomFeature.class);
+    for (final RoomFeature feature : RoomFeature.values()) {
+      if (0 != (featureMask & 1 << feature.ordinal())) {
+        features.add(feature);
+      }
+    }
+    return new RoomAttributes(view, floor, bedCount, features);
+  }
+
+  public RoomView getView() {
+    return this.view;
+  }
+
+  public int getFloor() {
+    return this.floor;
+  }
+
+  public int getBedCount() {
+    return this.bedCount;
+  }
+
+  public Set<RoomFeature> getFeatures() {
+    return this.features;
+  }
+
+  public boolean hasFeature(RoomFeature feature) {
+    return this.features.contains(feature);
+  }
+
+  /**
+   * @return Features as bits by ordinal, e.g. for serialization.
+   */
+  public int getFeatureMask() {
+    int mask = 0;
+    for (final RoomFeature feature : this.features) {
+      mask |= 1 << feature.ordinal();
+    }
+    return mask;
+  }
+
+  @Override
+  public String toString() {
+    return (
+      (RoomView.NONE == this.view ? "No view" : this.view + " view") +
+        ", floor " +
+        this.floor +
+        ", " +
+        this.bedCount +
+        (1 == this.bedCount ? " bed" : " beds") +
+        this.features.stream().map(feature -> ", " + feature).collect(Collectors.joining())
+    );
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) return true;
+    if (null == obj || this.getClass() != obj.getClass()) return false;
+
+    final RoomAttributes that = (RoomAttributes) obj;
+    return (
+      this.view == that.view &&
+        this.floor == that.floor &&
+        this.bedCount == that.bedCount &&
+        this.features.equals(that.features)
+    );
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(this.view, this.floor, this.bedCount, this.features);
+  }
+}
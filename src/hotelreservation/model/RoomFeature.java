@@ -0,0 +1,11 @@
+package hotelreservation.model;
+
+/**
+ * Amenity a room either has or not.
+ */
+public enum RoomFeature {
+  ACCESSIBLE,
+  SMOKING,
+  BALCONY,
+  KITCHENETTE
+}
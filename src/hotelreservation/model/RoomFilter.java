@@ -0,0 +1,121 @@
+package hotelreservation.model;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Attributes a room must have to be found, e.g. accessible rooms with a sea view:
+ * {@code RoomFilter.ANY.withView(RoomView.SEA).withFeature(RoomFeature.ACCESSIBLE)}.
+ */
+public class RoomFilter {
+  public static final RoomFilter ANY = new RoomFilter(
+    null, EnumSet.noneOf(RoomFeature.class), EnumSet.noneOf(RoomFeature.class), Integer.MIN_VALUE, Integer.MAX_VALUE, 1
+  );
+
+  private final RoomView view;
+  private final Set<RoomFeature> requiredFeatures;
+  private final Set<RoomFeature> excludedFeatures;
+  private final int minFloor;
+  private final int maxFloor;
+  private final int minBedCount;
+
+  private RoomFilter(
+    RoomView view,
+    Set<RoomFeature> requiredFeatures,
+    Set<RoomFeature> excludedFeatures,
+    int minFloor,
+    int maxFloor,
+    int minBedCount
+  ) {
+    this.view = view;
+    this.requiredFeatures = Collections.unmodifiableSet(requiredFeatures);
+    this.excludedFeatures = Collections.unmodifiableSet(excludedFeatures);
+    this.minFloor = minFloor;
+    this.maxFloor = maxFloor;
+    this.minBedCount = minBedCount;
+  }
+
+  public RoomFilter withView(RoomView view) {
+    return new RoomFilter(
+      Objects.requireNonNull(view),
+      this.requiredFeatures,
+      this.excludedFeatures,
+      this.minFloor,
+      this.maxFloor,
+      this.minBedCount
+    );
+  }
+
+  public RoomFilter withFeature(RoomFeature feature) {
+    final Set<RoomFeature> requiredFeatures = EnumSet.noneOf(RoomFeature.class);
+    requiredFeatures.addAll(this.requiredFeatures);
+    requiredFeatures.add(Objects.requireNonNull(feature));
+    return new RoomFilter(
+      this.view, requiredFeatures, this.excludedFeatures, this.minFloor, this.maxFloor, this.minBedCount
+    );
+  }
+
+  public RoomFilter withoutFeature(RoomFeature feature) {
+    final Set<RoomFeature> excludedFeatures = EnumSet.noneOf(RoomFeature.class);
+    excludedFeatures.addAll(this.excludedFeatures);
+    excludedFeatures.add(Objects.requireNonNull(feature));
+    return new RoomFilter(
+      this.view, this.requiredFeatures, excludedFeatures, this.minFloor, this.maxFloor, this.minBedCount
+    );
+  }
+
+  public RoomFilter withFloors(int minFloor, int maxFloor) throws IllegalArgumentException {
+    if (minFloor > maxFloor) {
+      throw new IllegalArgumentException("Minimum floor must be same or below maximum floor!");
+    }
+    return new RoomFilter(
+      this.view, this.requiredFeatures, this.excludedFeatures, minFloor, maxFloor, this.minBedCount
+    );
+  }
+
+  public RoomFilter withMinBedCount(int minBedCount) {
+    return new RoomFilter(
+      this.view, this.requiredFeatures, this.excludedFeatures, this.minFloor, this.maxFloor, minBedCount
+    );
+  }
+
+  /**
+   * @return Required view, or null if any view will do.
+   */
+  public RoomView getView() {
+    return this.view;
+  }
+
+  public Set<RoomFeature> getRequiredFeatures() {
+    return this.requiredFeatures;
+  }
+
+  public Set<RoomFeature> getExcludedFeatures() {
+    return this.excludedFeatures;
+  }
+
+  public int getMinFloor() {
+    return this.minFloor;
+  }
+
+  public int getMaxFloor() {
+    return this.maxFloor;
+  }
+
+  public int getMinBedCount() {
+    return this.minBedCount;
+  }
+
+  public boolean matches(RoomAttributes attributes) {
+    return (
+      (null == this.view || this.view == attributes.getView()) &&
+        attributes.getFeatures().containsAll(this.requiredFeatures) &&
+        Collections.disjoint(attributes.getFeatures(), this.excludedFeatures) &&
+        attributes.getFloor() >= this.minFloor &&
+        attributes.getFloor() <= this.maxFloor &&
+        attributes.getBedCount() >= this.minBedCount
+    );
+  }
+}
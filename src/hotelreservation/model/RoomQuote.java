@@ -0,0 +1,44 @@
+package hotelreservation.model;
+
+import java.util.Objects;
+
+public class RoomQuote {
+  private final IRoom room;
+  private final int nights;
+  private final Money totalPrice;
+
+  public RoomQuote(IRoom room, int nights, Money totalPrice) throws IllegalArgumentException {
+    if (nights < 1) {
+      throw new IllegalArgumentException("A quote must cover at least one night!");
+    }
+    if (Objects.requireNonNull(totalPrice).isNegative()) {
+      throw new IllegalArgumentException("Total price must be a non-negative amount!");
+    }
+    this.room = Objects.requireNonNull(room);
+    this.nights = nights;
+    this.totalPrice = totalPrice;
+  }
+
+  public IRoom getRoom() {
+    return this.room;
+  }
+
+  public int getNights() {
+    return this.nights;
+  }
+
+  public Money getTotalPrice() {
+    return this.totalPrice;
+  }
+
+  @Override
+  public String toString() {
+    return (
+      this.room +
+        " - " +
+        this.nights +
+        (1 == this.nights ? " night" : " nights") +
+        (this.totalPrice.isZero() ? "" : (" - total $" + this.totalPrice))
+    );
+  }
+}
@@ -0,0 +1,34 @@
+package hotelreservation.model;
+
+import java.util.Collection;
+import java.util.Objects;
+
+/**
+ * Room quotes found for a stay. Under overload, the quotes of an earlier search for the same stay may be served again:
+ * they are then possibly stale, rooms having been booked or prices having changed since.
+ */
+public class RoomQuoteSearch {
+  private final Collection<RoomQuote> quotes;
+  private final boolean possiblyStale;
+
+  public RoomQuoteSearch(Collection<RoomQuote> quotes, boolean possiblyStale) {
+    this.quotes = Objects.requireNonNull(quotes);
+    this.possiblyStale = possiblyStale;
+  }
+
+  public Collection<RoomQuote> getQuotes() {
+    return this.quotes;
+  }
+
+  /**
+   * @return Whether the quotes come from an earlier search, and should be checked again before booking.
+   */
+  public boolean isPossiblyStale() {
+    return this.possiblyStale;
+  }
+
+  @Override
+  public String toString() {
+    return this.quotes + (this.possiblyStale ? " (possibly stale)" : "");
+  }
+}
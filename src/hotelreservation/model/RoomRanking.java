@@ -0,0 +1,16 @@
+package hotelreservation.model;
+
+/**
+ * Order of the rooms found available for a stay.
+ */
+public enum RoomRanking {
+  /**
+   * Rooms in the order they were added to the property.
+   */
+  ADDITION_ORDER,
+  /**
+   * Rooms where the stay fits best between the room's reservations first: right before or after another stay, and
+   * never leaving a gap of free days too short to be sold.
+   */
+  BEST_FIT
+}
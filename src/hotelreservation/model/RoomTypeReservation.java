@@ -0,0 +1,70 @@
+package hotelreservation.model;
+
+import hotelreservation.util.EpochDays;
+import hotelreservation.util.IsoDates;
+
+import java.util.Date;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Booking of a room type, not assigned to a specific room yet. Every booking is distinct, even from another booking of
+ * the same type and dates by the same customer (e.g. for two rooms), and bookings are numbered in order of creation.
+ */
+public class RoomTypeReservation {
+  private static final AtomicLong nextSequence = new AtomicLong();
+
+  private final Customer customer;
+  private final RoomType roomType;
+  private final Date checkInDate;
+  private final Date checkOutDate;
+  private final long sequence;
+
+  public RoomTypeReservation(Customer customer, RoomType roomType, Date checkInDate, Date checkOutDate)
+    throws IllegalArgumentException {
+    this.customer = Objects.requireNonNull(customer);
+    this.roomType = Objects.requireNonNull(roomType);
+
+    if (Objects.requireNonNull(checkInDate).after(Objects.requireNonNull(checkOutDate))) {
+      throw new IllegalArgumentException("Check-in date must be same or before check-out date!");
+    }
+    this.checkInDate = checkInDate;
+    this.checkOutDate = checkOutDate;
+    this.sequence = RoomTypeReservation.nextSequence.getAndIncrement();
+  }
+
+  public Customer getCustomer() {
+    return this.customer;
+  }
+
+  public RoomType getRoomType() {
+    return this.roomType;
+  }
+
+  public Date getCheckInDate() {
+    return this.checkInDate;
+  }
+
+  public Date getCheckOutDate() {
+    return this.checkOutDate;
+  }
+
+  /**
+   * @return Rank of the booking in order of creation.
+   */
+  public long getSequence() {
+    return this.sequence;
+  }
+
+  @Override
+  public String toString() {
+    final StringBuilder builder = new StringBuilder(128)
+      .append("Reservation: ")
+      .append(this.customer)
+      .append(" - ")
+      .append(this.roomType)
+      .append(" room (unassigned) [");
+    IsoDates.appendTo(builder, EpochDays.of(this.checkInDate)).append(" to ");
+    return IsoDates.appendTo(builder, EpochDays.of(this.checkOutDate)).append(']').toString();
+  }
+}
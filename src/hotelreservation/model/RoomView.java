@@ -0,0 +1,8 @@
+package hotelreservation.model;
+
+public enum RoomView {
+  NONE,
+  CITY,
+  GARDEN,
+  SEA
+}
@@ -14,5 +14,26 @@ public class Tester {
       }
       System.out.println("invalidCustomer has been correctly caught!");
     }
+
+    final Money price = Money.parse("12.5");
+    if (
+      1250 != price.getCents() || !"12.50".equals(price.toString()) || !"-0.05".equals(Money.ofCents(-5).toString())
+    ) {
+      throw new IllegalStateException("Money has not been parsed or formatted as cents!");
+    }
+    if (!Money.parse("0.10").times(3).equals(Money.parse("0.30")) || Money.ZERO != Money.parse("0.00")) {
+      throw new IllegalStateException("Money arithmetic is not exact!");
+    }
+    System.out.println(price + " has been kept as " + price.getCents() + " cents!");
+
+    try {
+      final Money invalidPrice = Money.parse("12.505");
+      System.out.println(invalidPrice);
+    } catch (NumberFormatException nfe) {
+      if (!nfe.getMessage().equals("Amount must not have more than 2 fractional digits!")) {
+        throw nfe;
+      }
+      System.out.println("invalidPrice has been correctly caught!");
+    }
   }
 }
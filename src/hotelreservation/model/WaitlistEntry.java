@@ -0,0 +1,84 @@
+package hotelreservation.model;
+
+import hotelreservation.util.EpochDays;
+import hotelreservation.util.IsoDates;
+
+import java.util.Date;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Customer waiting for a room of the given type to become available for the given stay. Every entry is distinct, and
+ * entries are numbered in order of creation.
+ */
+public class WaitlistEntry {
+  private static final AtomicLong nextSequence = new AtomicLong();
+
+  private final Customer customer;
+  private final RoomType roomType;
+  private final Date checkInDate;
+  private final Date checkOutDate;
+  private final int priority;
+  private final long sequence;
+
+  /**
+   * @param priority Rank among the entries when the waitlist is in {@link WaitlistOrder#PRIORITY} order, highest
+   *                 first.
+   */
+  public WaitlistEntry(Customer customer, RoomType roomType, Date checkInDate, Date checkOutDate, int priority)
+    throws IllegalArgumentException {
+    this.customer = Objects.requireNonNull(customer);
+    this.roomType = Objects.requireNonNull(roomType);
+
+    if (Objects.requireNonNull(checkInDate).after(Objects.requireNonNull(checkOutDate))) {
+      throw new IllegalArgumentException("Check-in date must be same or before check-out date!");
+    }
+    this.checkInDate = checkInDate;
+    this.checkOutDate = checkOutDate;
+    this.priority = priority;
+    this.sequence = WaitlistEntry.nextSequence.getAndIncrement();
+  }
+
+  public Customer getCustomer() {
+    return this.customer;
+  }
+
+  public RoomType getRoomType() {
+    return this.roomType;
+  }
+
+  public Date getCheckInDate() {
+    return this.checkInDate;
+  }
+
+  public Date getCheckOutDate() {
+    return this.checkOutDate;
+  }
+
+  public int getPriority() {
+    return this.priority;
+  }
+
+  /**
+   * @return Rank of the entry in order of creation.
+   */
+  public long getSequence() {
+    return this.sequence;
+  }
+
+  @Override
+  public String toString() {
+    final StringBuilder builder = new StringBuilder(128)
+      .append("Waitlist: ")
+      .append(this.customer)
+      .append(" - ")
+      .append(this.roomType)
+      .append(" room [");
+    IsoDates.appendTo(builder, EpochDays.of(this.checkInDate)).append(" to ");
+    return IsoDates.appendTo(builder, EpochDays.of(this.checkOutDate))
+      .append("] (priority ")
+      .append(this.priority)
+      .append(')')
+      .toString();
+  }
+}
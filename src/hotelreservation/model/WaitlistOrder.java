@@ -0,0 +1,15 @@
+package hotelreservation.model;
+
+/**
+ * Order in which waitlist entries are offered the rooms freed by cancellations or new rooms.
+ */
+public enum WaitlistOrder {
+  /**
+   * First come, first served.
+   */
+  FIFO,
+  /**
+   * Highest priority first, then first come, first served.
+   */
+  PRIORITY
+}
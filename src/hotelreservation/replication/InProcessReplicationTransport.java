@@ -0,0 +1,38 @@
+package hotelreservation.replication;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Delivers entries synchronously, on the thread of the leader. Followers are therefore never behind the leader.
+ * <p>
+ * A receiver throwing an exception is disconnected, and gets no more entries.
+ */
+public class InProcessReplicationTransport implements ReplicationTransport {
+  private final List<Consumer<byte[]>> receivers = new CopyOnWriteArrayList<>();
+
+  @Override
+  public void send(byte[] entry) {
+    Objects.requireNonNull(entry);
+    for (final Consumer<byte[]> receiver : this.receivers) {
+      try {
+        receiver.accept(entry);
+      } catch (RuntimeException re) {
+        // The receiver has failed (e.g. a follower diverging from the leader, which records why).
+        this.receivers.remove(receiver);
+      }
+    }
+  }
+
+  @Override
+  public void connect(Consumer<byte[]> receiver) {
+    this.receivers.add(Objects.requireNonNull(receiver));
+  }
+
+  @Override
+  public void close() {
+    this.receivers.clear();
+  }
+}
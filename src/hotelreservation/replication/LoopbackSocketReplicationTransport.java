@@ -0,0 +1,99 @@
+package hotelreservation.replication;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Delivers entries over TCP sockets on the loopback interface, as length-prefixed frames. Every receiver has its own
+ * connection and its own reader thread, so followers apply entries asynchronously and may lag behind the leader.
+ * <p>
+ * A receiver throwing an exception is disconnected, and gets no more entries.
+ */
+public class LoopbackSocketReplicationTransport implements ReplicationTransport {
+  private final ServerSocket serverSocket;
+  private final List<Socket> sockets = new ArrayList<>();
+  private final List<DataOutputStream> outputs = new ArrayList<>();
+
+  public LoopbackSocketReplicationTransport() throws IOException {
+    this.serverSocket = new ServerSocket(0, 0, InetAddress.getLoopbackAddress());
+  }
+
+  public int getPort() {
+    return this.serverSocket.getLocalPort();
+  }
+
+  @Override
+  public synchronized void send(byte[] entry) {
+    Objects.requireNonNull(entry);
+    for (int i = this.outputs.size() - 1; i >= 0; i--) {
+      final DataOutputStream output = this.outputs.get(i);
+      try {
+        output.writeInt(entry.length);
+        output.write(entry);
+        output.flush();
+      } catch (IOException ioe) {
+        // The follower is gone: stop sending to it.
+        this.outputs.remove(i);
+      }
+    }
+  }
+
+  @Override
+  public synchronized void connect(Consumer<byte[]> receiver) {
+    Objects.requireNonNull(receiver);
+    final Socket followerSocket;
+    final Socket leaderSocket;
+    try {
+      followerSocket = new Socket(this.serverSocket.getInetAddress(), this.getPort());
+      leaderSocket = this.serverSocket.accept();
+      this.outputs.add(new DataOutputStream(new BufferedOutputStream(leaderSocket.getOutputStream())));
+    } catch (IOException ioe) {
+      throw new UncheckedIOException(ioe);
+    }
+    this.sockets.add(followerSocket);
+    this.sockets.add(leaderSocket);
+
+    final Thread readerThread = new Thread(() -> {
+      try (
+        final DataInputStream input = new DataInputStream(new BufferedInputStream(followerSocket.getInputStream()))
+      ) {
+        while (true) {
+          final byte[] entry = new byte[input.readInt()];
+          input.readFully(entry);
+          receiver.accept(entry);
+        }
+      } catch (IOException ioe) {
+        // Connection closed: nothing more to receive.
+      } catch (RuntimeException re) {
+        // The receiver has failed (e.g. a follower diverging from the leader, which records why): closing the input
+        // closes the connection, so the leader stops sending to it.
+      }
+    }, "replication-receiver-" + followerSocket.getLocalPort());
+    readerThread.setDaemon(true);
+    readerThread.start();
+  }
+
+  @Override
+  public synchronized void close() {
+    this.outputs.clear();
+    for (final Socket socket : this.sockets) {
+      try {
+        socket.close();
+      } catch (IOException ioe) {
+        // Already closed.
+      }
+    }
+    this.sockets.clear();
+    try {
+      this.serverSocket.close();
+    } catch (IOException ioe) {
+      // Already closed.
+    }
+  }
+}
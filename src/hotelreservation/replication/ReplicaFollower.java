@@ -0,0 +1,154 @@
+package hotelreservation.replication;
+
+import hotelreservation.exception.ReservationNotFoundException;
+import hotelreservation.exception.RoomAlreadyExistsException;
+import hotelreservation.exception.RoomAlreadyReservedException;
+import hotelreservation.model.Customer;
+import hotelreservation.model.IRoom;
+import hotelreservation.model.Reservation;
+import hotelreservation.model.RoomTypeReservation;
+import hotelreservation.service.ReservationService;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Read-only copy of the leader's property, kept up to date by applying the replication log in order.
+ * Reads may lag behind the leader; use {@link #awaitSequence} to read one's own writes.
+ * <p>
+ * A follower finding a gap in the log, or diverging from the leader, stops applying entries for good and keeps the
+ * reason in {@link #getFailure()}.
+ */
+public class ReplicaFollower {
+  private final ReservationService reservationService;
+  private final Map<String, Customer> customers = new ConcurrentHashMap<>();
+  private volatile long appliedSequence = 0;
+  private volatile IllegalStateException failure = null;
+
+  public ReplicaFollower(String propertyId) {
+    this.reservationService = new ReservationService(propertyId, null);
+  }
+
+  public long getAppliedSequence() {
+    return this.appliedSequence;
+  }
+
+  /**
+   * @return Why the follower has stopped applying entries, or null if it has not.
+   */
+  public IllegalStateException getFailure() {
+    return this.failure;
+  }
+
+  /**
+   * @return Whether the follower has applied the given entry before the timeout elapsed.
+   * @throws IllegalStateException If the follower has stopped applying entries before the given one.
+   */
+  public synchronized boolean awaitSequence(long sequence, long timeoutMillis)
+    throws IllegalStateException, InterruptedException {
+    final long deadline = System.currentTimeMillis() + timeoutMillis;
+    while (this.appliedSequence < sequence) {
+      if (null != this.failure) {
+        throw new IllegalStateException("Replica has stopped applying entries!", this.failure);
+      }
+      final long remainingMillis = deadline - System.currentTimeMillis();
+      if (remainingMillis <= 0) {
+        return false;
+      }
+      this.wait(remainingMillis);
+    }
+    return true;
+  }
+
+  public Collection<IRoom> findRooms(Date checkInDate, Date checkOutDate) {
+    return this.reservationService.findRooms(checkInDate, checkOutDate);
+  }
+
+  public Collection<Reservation> getCustomerReservations(String customerEmail) {
+    final Customer customer = this.customers.get(Objects.requireNonNull(customerEmail));
+    return null == customer ? List.of() : this.reservationService.getCustomerReservations(customer);
+  }
+
+  /**
+   * @throws IllegalStateException If the entry can't be applied, or if the follower has already stopped applying
+   *                               entries.
+   */
+  synchronized void receive(byte[] bytes) throws IllegalStateException {
+    if (null != this.failure) {
+      throw new IllegalStateException("Replica has stopped applying entries!", this.failure);
+    }
+    try {
+      this.applyInOrder(ReplicationEntry.fromBytes(bytes));
+    } catch (RuntimeException re) {
+      this.failure = re instanceof IllegalStateException ise
+        ? ise
+        : new IllegalStateException("Replica has failed to apply an entry!", re);
+      this.notifyAll();
+      throw this.failure;
+    }
+  }
+
+  private void applyInOrder(ReplicationEntry entry) throws IllegalStateException {
+    if (entry.getSequence() <= this.appliedSequence) {
+      return; // Already applied while catching up
+    }
+    if (entry.getSequence() != this.appliedSequence + 1) {
+      throw new IllegalStateException("Replication log has a gap before entry " + entry.getSequence() + "!");
+    }
+
+    try {
+      this.apply(entry);
+    } catch (RoomAlreadyExistsException | RoomAlreadyReservedException | ReservationNotFoundException exception) {
+      throw new IllegalStateException("Replica diverged from leader at entry " + entry.getSequence() + "!", exception);
+    }
+    this.appliedSequence = entry.getSequence();
+    this.notifyAll();
+  }
+
+  private void apply(ReplicationEntry entry)
+    throws RoomAlreadyExistsException, RoomAlreadyReservedException, ReservationNotFoundException {
+    switch (entry.getType()) {
+      case ADD_ROOM -> this.reservationService.addRoom(entry.getRoom());
+      case RESERVE -> this.reservationService.reserveARoom(
+        this.getCustomer(entry), this.getRoom(entry), entry.getCheckInDate(), entry.getCheckOutDate()
+      );
+      case CANCEL -> this.reservationService.cancelReservation(new Reservation(
+        this.getCustomer(entry), this.getRoom(entry), entry.getCheckInDate(), entry.getCheckOutDate()
+      ));
+      case RESERVE_ROOM_TYPE -> this.reservationService.reserveARoomType(
+        this.getCustomer(entry), entry.getRoomType(), entry.getCheckInDate(), entry.getCheckOutDate()
+      );
+      case CANCEL_ROOM_TYPE -> this.reservationService.cancelRoomTypeReservation(this.getRoomTypeReservation(entry));
+      case SET_INVENTORY_MODE -> this.reservationService.setInventoryMode(entry.getInventoryMode());
+      case SET_OVERBOOKING_RATIO -> this.reservationService.setOverbookingRatio(
+        entry.getRoomType(), entry.getOverbookingRatio()
+      );
+      case ASSIGN_ROOM_TYPES -> this.reservationService.assignRoomTypeReservations();
+      default -> throw new IllegalStateException("Unexpected replication entry type " + entry.getType() + "!");
+    }
+  }
+
+  private Customer getCustomer(ReplicationEntry entry) {
+    return this.customers.computeIfAbsent(entry.getCustomer().getEmail(), email -> entry.getCustomer());
+  }
+
+  private IRoom getRoom(ReplicationEntry entry) {
+    return Optional
+      .ofNullable(this.reservationService.getARoom(entry.getRoom().getRoomNumber()))
+      .orElse(entry.getRoom());
+  }
+
+  /**
+   * Room type reservations are only equal to themselves, so a cancelled one is matched by its contents: bookings with
+   * the same contents are interchangeable until assigned.
+   */
+  private RoomTypeReservation getRoomTypeReservation(ReplicationEntry entry) throws ReservationNotFoundException {
+    return this.reservationService.getRoomTypeReservations().stream()
+      .filter(reservation -> entry.getRoomType() == reservation.getRoomType()
+        && entry.getCustomer().getEmail().equals(reservation.getCustomer().getEmail())
+        && entry.getCheckInDate().equals(reservation.getCheckInDate())
+        && entry.getCheckOutDate().equals(reservation.getCheckOutDate()))
+      .findFirst()
+      .orElseThrow(ReservationNotFoundException::new);
+  }
+}
@@ -0,0 +1,98 @@
+package hotelreservation.replication;
+
+import hotelreservation.exception.ReservationNotFoundException;
+import hotelreservation.exception.RoomAlreadyExistsException;
+import hotelreservation.exception.RoomAlreadyReservedException;
+import hotelreservation.model.Customer;
+import hotelreservation.model.IRoom;
+import hotelreservation.model.InventoryMode;
+import hotelreservation.model.Reservation;
+import hotelreservation.model.RoomAssignmentReport;
+import hotelreservation.model.RoomType;
+import hotelreservation.model.RoomTypeReservation;
+import hotelreservation.service.ReservationService;
+
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Replication mode of a property: mutations go to the leader, while reads are spread round-robin over the followers
+ * (or served by the leader while there are none), so read throughput scales with the number of followers.
+ */
+public class ReplicatedReservationService {
+  private final ReplicationLeader leader;
+  private final List<ReplicaFollower> followers = new CopyOnWriteArrayList<>();
+  private final AtomicInteger nextFollower = new AtomicInteger();
+
+  public ReplicatedReservationService(ReservationService leaderService, ReplicationTransport transport) {
+    this.leader = new ReplicationLeader(leaderService, transport);
+  }
+
+  public ReplicationLeader getLeader() {
+    return this.leader;
+  }
+
+  public ReplicaFollower addFollower() {
+    final ReplicaFollower follower = new ReplicaFollower(this.leader.getReservationService().getPropertyId());
+    this.leader.attach(follower);
+    this.followers.add(follower);
+    return follower;
+  }
+
+  public void addRoom(IRoom room) throws RoomAlreadyExistsException {
+    this.leader.addRoom(room);
+  }
+
+  public Reservation reserveARoom(Customer customer, IRoom room, Date checkInDate, Date checkOutDate)
+    throws RoomAlreadyReservedException {
+    return this.leader.reserveARoom(customer, room, checkInDate, checkOutDate);
+  }
+
+  public void cancelReservation(Reservation reservation) throws ReservationNotFoundException {
+    this.leader.cancelReservation(reservation);
+  }
+
+  public RoomTypeReservation reserveARoomType(Customer customer, RoomType roomType, Date checkInDate, Date checkOutDate)
+    throws RoomAlreadyReservedException {
+    return this.leader.reserveARoomType(customer, roomType, checkInDate, checkOutDate);
+  }
+
+  public void cancelRoomTypeReservation(RoomTypeReservation reservation) throws ReservationNotFoundException {
+    this.leader.cancelRoomTypeReservation(reservation);
+  }
+
+  public void setInventoryMode(InventoryMode inventoryMode) {
+    this.leader.setInventoryMode(inventoryMode);
+  }
+
+  public void setOverbookingRatio(RoomType roomType, double ratio) {
+    this.leader.setOverbookingRatio(roomType, ratio);
+  }
+
+  public Map<RoomType, RoomAssignmentReport> assignRoomTypeReservations() {
+    return this.leader.assignRoomTypeReservations();
+  }
+
+  public Collection<IRoom> findRooms(Date checkInDate, Date checkOutDate) {
+    final ReplicaFollower follower = this.pickFollower();
+    return null == follower
+      ? this.leader.getReservationService().findRooms(checkInDate, checkOutDate)
+      : follower.findRooms(checkInDate, checkOutDate);
+  }
+
+  public Collection<Reservation> getCustomerReservations(Customer customer) {
+    final ReplicaFollower follower = this.pickFollower();
+    return null == follower
+      ? this.leader.getReservationService().getCustomerReservations(customer)
+      : follower.getCustomerReservations(customer.getEmail());
+  }
+
+  private ReplicaFollower pickFollower() {
+    final int size = this.followers.size();
+    if (0 == size) {
+      return null;
+    }
+    return this.followers.get(Math.floorMod(this.nextFollower.getAndIncrement(), size));
+  }
+}
@@ -0,0 +1,241 @@
+package hotelreservation.replication;
+
+import hotelreservation.model.Customer;
+import hotelreservation.model.IRoom;
+import hotelreservation.model.InventoryMode;
+import hotelreservation.model.Money;
+import hotelreservation.model.Reservation;
+import hotelreservation.model.Room;
+import hotelreservation.model.RoomAttributes;
+import hotelreservation.model.RoomType;
+import hotelreservation.model.RoomTypeReservation;
+import hotelreservation.model.RoomView;
+
+import java.io.*;
+import java.util.Date;
+import java.util.Objects;
+
+/**
+ * One mutation of the leader, in the order it was applied. Entries are numbered from 1 without gaps.
+ */
+public final class ReplicationEntry {
+  public enum Type {
+    ADD_ROOM,
+    RESERVE,
+    CANCEL,
+    RESERVE_ROOM_TYPE,
+    CANCEL_ROOM_TYPE,
+    SET_INVENTORY_MODE,
+    SET_OVERBOOKING_RATIO,
+    /**
+     * Followers assign their room type reservations like the leader did, as they hold the same ones in the same order.
+     */
+    ASSIGN_ROOM_TYPES
+  }
+
+  private final long sequence;
+  private final Type type;
+  // Room is only set for ADD_ROOM, RESERVE and CANCEL entries, room type for entries about a room type, customer and
+  // dates for bookings, and inventory mode and overbooking ratio for the settings they are named after.
+  private final IRoom room;
+  private final RoomType roomType;
+  private final Customer customer;
+  private final Date checkInDate;
+  private final Date checkOutDate;
+  private final InventoryMode inventoryMode;
+  private final double overbookingRatio;
+
+  private ReplicationEntry(
+    long sequence,
+    Type type,
+    IRoom room,
+    RoomType roomType,
+    Customer customer,
+    Date checkInDate,
+    Date checkOutDate,
+    InventoryMode inventoryMode,
+    double overbookingRatio
+  ) {
+    this.sequence = sequence;
+    this.type = Objects.requireNonNull(type);
+    this.room = room;
+    this.roomType = roomType;
+    this.customer = customer;
+    this.checkInDate = checkInDate;
+    this.checkOutDate = checkOutDate;
+    this.inventoryMode = inventoryMode;
+    this.overbookingRatio = overbookingRatio;
+  }
+
+  static ReplicationEntry ofAddedRoom(long sequence, IRoom room) {
+    return new ReplicationEntry(
+      sequence, Type.ADD_ROOM, Objects.requireNonNull(room), room.getRoomType(), null, null, null, null, 0
+    );
+  }
+
+  static ReplicationEntry ofReservation(long sequence, Type type, Reservation reservation) {
+    return new ReplicationEntry(
+      sequence,
+      type,
+      reservation.getRoom(),
+      reservation.getRoom().getRoomType(),
+      reservation.getCustomer(),
+      reservation.getCheckInDate(),
+      reservation.getCheckOutDate(),
+      null,
+      0
+    );
+  }
+
+  static ReplicationEntry ofRoomTypeReservation(long sequence, Type type, RoomTypeReservation reservation) {
+    return new ReplicationEntry(
+      sequence,
+      type,
+      null,
+      reservation.getRoomType(),
+      reservation.getCustomer(),
+      reservation.getCheckInDate(),
+      reservation.getCheckOutDate(),
+      null,
+      0
+    );
+  }
+
+  static ReplicationEntry ofInventoryMode(long sequence, InventoryMode inventoryMode) {
+    return new ReplicationEntry(
+      sequence, Type.SET_INVENTORY_MODE, null, null, null, null, null, Objects.requireNonNull(inventoryMode), 0
+    );
+  }
+
+  static ReplicationEntry ofOverbookingRatio(long sequence, RoomType roomType, double ratio) {
+    return new ReplicationEntry(
+      sequence, Type.SET_OVERBOOKING_RATIO, null, Objects.requireNonNull(roomType), null, null, null, null, ratio
+    );
+  }
+
+  static ReplicationEntry ofRoomTypeAssignment(long sequence) {
+    return new ReplicationEntry(sequence, Type.ASSIGN_ROOM_TYPES, null, null, null, null, null, null, 0);
+  }
+
+  public long getSequence() {
+    return this.sequence;
+  }
+
+  public Type getType() {
+    return this.type;
+  }
+
+  public IRoom getRoom() {
+    return this.room;
+  }
+
+  public RoomType getRoomType() {
+    return this.roomType;
+  }
+
+  public Customer getCustomer() {
+    return this.customer;
+  }
+
+  public Date getCheckInDate() {
+    return this.checkInDate;
+  }
+
+  public Date getCheckOutDate() {
+    return this.checkOutDate;
+  }
+
+  public InventoryMode getInventoryMode() {
+    return this.inventoryMode;
+  }
+
+  public double getOverbookingRatio() {
+    return this.overbookingRatio;
+  }
+
+  byte[] toBytes() {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (final DataOutputStream output = new DataOutputStream(bytes)) {
+      output.writeLong(this.sequence);
+      output.writeByte(this.type.ordinal());
+      if (null != this.room) {
+        output.writeUTF(this.room.getRoomNumber());
+        output.writeLong(this.room.getRoomPrice().getCents());
+      }
+      if (null != this.roomType) {
+        output.writeByte(this.roomType.ordinal());
+      }
+      if (Type.ADD_ROOM == this.type) {
+        output.writeByte(this.room.getAttributes().getView().ordinal());
+        output.writeInt(this.room.getAttributes().getFloor());
+        output.writeInt(this.room.getAttributes().getBedCount());
+        output.writeInt(this.room.getAttributes().getFeatureMask());
+      }
+      if (null != this.customer) {
+        output.writeUTF(this.customer.getFirstName());
+        output.writeUTF(this.customer.getLastName());
+        output.writeUTF(this.customer.getEmail());
+        output.writeLong(this.checkInDate.getTime());
+        output.writeLong(this.checkOutDate.getTime());
+      }
+      if (Type.SET_INVENTORY_MODE == this.type) {
+        output.writeByte(this.inventoryMode.ordinal());
+      }
+      if (Type.SET_OVERBOOKING_RATIO == this.type) {
+        output.writeDouble(this.overbookingRatio);
+      }
+    } catch (IOException ioe) {
+      throw new UncheckedIOException(ioe); // Never thrown by in-memory streams
+    }
+    return bytes.toByteArray();
+  }
+
+  static ReplicationEntry fromBytes(byte[] bytes) throws IllegalArgumentException {
+    try (final DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes))) {
+      final long sequence = input.readLong();
+      final Type type = Type.values()[input.readUnsignedByte()];
+      switch (type) {
+        case ADD_ROOM -> {
+          final String roomNumber = input.readUTF();
+          final Money price = Money.ofCents(input.readLong());
+          final RoomType roomType = RoomType.values()[input.readUnsignedByte()];
+          return ReplicationEntry.ofAddedRoom(sequence, new Room(roomNumber, price, roomType, RoomAttributes.of(
+            RoomView.values()[input.readUnsignedByte()], input.readInt(), input.readInt(), input.readInt()
+          )));
+        }
+        case RESERVE, CANCEL -> {
+          final String roomNumber = input.readUTF();
+          final Money price = Money.ofCents(input.readLong());
+          final IRoom room = new Room(roomNumber, price, RoomType.values()[input.readUnsignedByte()]);
+          return ReplicationEntry.ofReservation(sequence, type, new Reservation(
+            new Customer(input.readUTF(), input.readUTF(), input.readUTF()),
+            room,
+            new Date(input.readLong()),
+            new Date(input.readLong())
+          ));
+        }
+        case RESERVE_ROOM_TYPE, CANCEL_ROOM_TYPE -> {
+          final RoomType roomType = RoomType.values()[input.readUnsignedByte()];
+          return ReplicationEntry.ofRoomTypeReservation(sequence, type, new RoomTypeReservation(
+            new Customer(input.readUTF(), input.readUTF(), input.readUTF()),
+            roomType,
+            new Date(input.readLong()),
+            new Date(input.readLong())
+          ));
+        }
+        case SET_INVENTORY_MODE -> {
+          return ReplicationEntry.ofInventoryMode(sequence, InventoryMode.values()[input.readUnsignedByte()]);
+        }
+        case SET_OVERBOOKING_RATIO -> {
+          final RoomType roomType = RoomType.values()[input.readUnsignedByte()];
+          return ReplicationEntry.ofOverbookingRatio(sequence, roomType, input.readDouble());
+        }
+        default -> {
+          return ReplicationEntry.ofRoomTypeAssignment(sequence);
+        }
+      }
+    } catch (IOException | IndexOutOfBoundsException exception) {
+      throw new IllegalArgumentException("Malformed replication entry!", exception);
+    }
+  }
+}
@@ -0,0 +1,155 @@
+package hotelreservation.replication;
+
+import hotelreservation.exception.ReservationNotFoundException;
+import hotelreservation.exception.RoomAlreadyExistsException;
+import hotelreservation.exception.RoomAlreadyReservedException;
+import hotelreservation.model.Customer;
+import hotelreservation.model.IRoom;
+import hotelreservation.model.InventoryMode;
+import hotelreservation.model.Reservation;
+import hotelreservation.model.RoomAssignmentReport;
+import hotelreservation.model.RoomType;
+import hotelreservation.model.RoomTypeReservation;
+import hotelreservation.model.WaitlistEntry;
+import hotelreservation.service.ReservationService;
+import hotelreservation.service.WaitlistListener;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.LongFunction;
+
+/**
+ * Applies mutations to its property one at a time, and appends each successful one to the replication log, which is
+ * shipped to the followers through the transport. Followers have no waitlist: the bookings of waitlist entries that a
+ * mutation promotes are appended right after it.
+ * <p>
+ * The log is kept whole in memory, so that followers attached late can replay it from the start: it grows with every
+ * mutation, and is neither truncated nor snapshotted.
+ */
+public class ReplicationLeader {
+  private final ReservationService reservationService;
+  private final ReplicationTransport transport;
+  private final List<byte[]> log = new ArrayList<>();
+  // Entries of the bookings promoted from the waitlist by the current mutation, given their sequence.
+  private final List<LongFunction<ReplicationEntry>> promotions = new ArrayList<>();
+
+  public ReplicationLeader(ReservationService reservationService, ReplicationTransport transport) {
+    this.reservationService = Objects.requireNonNull(reservationService);
+    this.transport = Objects.requireNonNull(transport);
+    this.reservationService.addWaitlistListener(new WaitlistListener() {
+      @Override
+      public void onReservation(WaitlistEntry entry, Reservation reservation) {
+        ReplicationLeader.this.onPromotion(
+          sequence -> ReplicationEntry.ofReservation(sequence, ReplicationEntry.Type.RESERVE, reservation)
+        );
+      }
+
+      @Override
+      public void onRoomTypeReservation(WaitlistEntry entry, RoomTypeReservation reservation) {
+        ReplicationLeader.this.onPromotion(sequence -> ReplicationEntry.ofRoomTypeReservation(
+          sequence, ReplicationEntry.Type.RESERVE_ROOM_TYPE, reservation
+        ));
+      }
+    });
+  }
+
+  public ReservationService getReservationService() {
+    return this.reservationService;
+  }
+
+  public synchronized long getSequence() {
+    return this.log.size();
+  }
+
+  public synchronized void addRoom(IRoom room) throws RoomAlreadyExistsException {
+    this.reservationService.addRoom(room);
+    this.append(ReplicationEntry.ofAddedRoom(this.log.size() + 1, room));
+  }
+
+  public synchronized Reservation reserveARoom(Customer customer, IRoom room, Date checkInDate, Date checkOutDate)
+    throws RoomAlreadyReservedException {
+    final Reservation reservation = this.reservationService.reserveARoom(customer, room, checkInDate, checkOutDate);
+    this.append(ReplicationEntry.ofReservation(this.log.size() + 1, ReplicationEntry.Type.RESERVE, reservation));
+    return reservation;
+  }
+
+  public synchronized void cancelReservation(Reservation reservation) throws ReservationNotFoundException {
+    this.reservationService.cancelReservation(reservation);
+    this.append(ReplicationEntry.ofReservation(this.log.size() + 1, ReplicationEntry.Type.CANCEL, reservation));
+  }
+
+  public synchronized RoomTypeReservation reserveARoomType(
+    Customer customer,
+    RoomType roomType,
+    Date checkInDate,
+    Date checkOutDate
+  ) throws RoomAlreadyReservedException {
+    final RoomTypeReservation reservation = this.reservationService.reserveARoomType(
+      customer, roomType, checkInDate, checkOutDate
+    );
+    this.append(ReplicationEntry.ofRoomTypeReservation(
+      this.log.size() + 1, ReplicationEntry.Type.RESERVE_ROOM_TYPE, reservation
+    ));
+    return reservation;
+  }
+
+  public synchronized void cancelRoomTypeReservation(RoomTypeReservation reservation)
+    throws ReservationNotFoundException {
+    this.reservationService.cancelRoomTypeReservation(reservation);
+    this.append(ReplicationEntry.ofRoomTypeReservation(
+      this.log.size() + 1, ReplicationEntry.Type.CANCEL_ROOM_TYPE, reservation
+    ));
+  }
+
+  public synchronized void setInventoryMode(InventoryMode inventoryMode) {
+    this.reservationService.setInventoryMode(inventoryMode);
+    this.append(ReplicationEntry.ofInventoryMode(this.log.size() + 1, inventoryMode));
+  }
+
+  public synchronized void setOverbookingRatio(RoomType roomType, double ratio) {
+    this.reservationService.setOverbookingRatio(roomType, ratio);
+    this.append(ReplicationEntry.ofOverbookingRatio(this.log.size() + 1, roomType, ratio));
+  }
+
+  public synchronized Map<RoomType, RoomAssignmentReport> assignRoomTypeReservations() {
+    final Map<RoomType, RoomAssignmentReport> reports = this.reservationService.assignRoomTypeReservations();
+    this.append(ReplicationEntry.ofRoomTypeAssignment(this.log.size() + 1));
+    return reports;
+  }
+
+  /**
+   * Brings the follower up to date with the log, then connects it to the transport for the entries to come.
+   */
+  public synchronized void attach(ReplicaFollower follower) {
+    Objects.requireNonNull(follower);
+    this.log.forEach(follower::receive);
+    this.transport.connect(follower::receive);
+  }
+
+  /**
+   * Listeners are notified on the thread of the mutation: only promotions by the leader's own mutations are logged, as
+   * followers never see the others.
+   */
+  private void onPromotion(LongFunction<ReplicationEntry> promotion) {
+    if (Thread.holdsLock(this)) {
+      this.promotions.add(promotion);
+    }
+  }
+
+  private void append(ReplicationEntry entry) {
+    this.send(entry);
+    for (final LongFunction<ReplicationEntry> promotion : this.promotions) {
+      this.send(promotion.apply(this.log.size() + 1));
+    }
+    this.promotions.clear();
+  }
+
+  private void send(ReplicationEntry entry) {
+    final byte[] bytes = entry.toBytes();
+    this.log.add(bytes);
+    this.transport.send(bytes);
+  }
+}
@@ -0,0 +1,21 @@
+package hotelreservation.replication;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries encoded replication entries from the leader to its followers.
+ */
+public interface ReplicationTransport extends AutoCloseable {
+  /**
+   * Delivers an entry to every connected receiver. Each receiver gets entries in the order they were sent.
+   */
+  public void send(byte[] entry);
+
+  /**
+   * Connects a receiver, which gets every entry sent from now on.
+   */
+  public void connect(Consumer<byte[]> receiver);
+
+  @Override
+  public void close();
+}
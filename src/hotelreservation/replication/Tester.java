@@ -0,0 +1,131 @@
+package hotelreservation.replication;
+
+import hotelreservation.model.Customer;
+import hotelreservation.model.IRoom;
+import hotelreservation.model.InventoryMode;
+import hotelreservation.model.Money;
+import hotelreservation.model.Reservation;
+import hotelreservation.model.Room;
+import hotelreservation.model.RoomType;
+import hotelreservation.model.RoomTypeReservation;
+import hotelreservation.service.ReservationService;
+import hotelreservation.util.EpochDays;
+
+import java.util.Date;
+import java.util.List;
+
+public class Tester {
+  public static void main(String[] args) throws Exception {
+    Tester.checkWaitlistPromotionIsReplicated();
+    Tester.checkRoomTypeReservationsAreReplicated();
+    Tester.checkLateFollowerOverSockets();
+    Tester.checkFollowerFailureIsReported();
+  }
+
+  private static void check(boolean condition, String message) {
+    if (!condition) {
+      throw new IllegalStateException(message);
+    }
+    System.out.println(message);
+  }
+
+  private static void checkWaitlistPromotionIsReplicated() throws Exception {
+    final ReservationService leaderService = new ReservationService("tester", null);
+    final ReplicatedReservationService replicated = new ReplicatedReservationService(
+      leaderService, new InProcessReplicationTransport()
+    );
+    final ReplicaFollower follower = replicated.addFollower();
+    final IRoom room = new Room("101", Money.ofCents(10000), RoomType.SINGLE);
+    replicated.addRoom(room);
+
+    final Date checkInDate = EpochDays.toDate(EpochDays.today() + 10);
+    final Date checkOutDate = EpochDays.toDate(EpochDays.today() + 12);
+    final Reservation reservation = replicated.reserveARoom(
+      new Customer("first", "second", "j@domain.com"), room, checkInDate, checkOutDate
+    );
+    final Customer waitingCustomer = new Customer("other", "second", "o@domain.com");
+    leaderService.joinWaitlist(waitingCustomer, RoomType.SINGLE, checkInDate, checkOutDate, 0);
+    replicated.cancelReservation(reservation);
+
+    Tester.check(
+      leaderService.findRooms(checkInDate, checkOutDate).isEmpty(),
+      "Leader has booked the waitlisted customer into the freed room!"
+    );
+    Tester.check(
+      follower.findRooms(checkInDate, checkOutDate).isEmpty() && 4 == follower.getAppliedSequence(),
+      "Follower has replicated the booking of the waitlisted customer!"
+    );
+  }
+
+  private static void checkRoomTypeReservationsAreReplicated() throws Exception {
+    final ReplicatedReservationService replicated = new ReplicatedReservationService(
+      new ReservationService("tester", null), new InProcessReplicationTransport()
+    );
+    final ReplicaFollower follower = replicated.addFollower();
+    replicated.addRoom(new Room("101", Money.ofCents(10000), RoomType.DOUBLE));
+    replicated.addRoom(new Room("102", Money.ofCents(10000), RoomType.DOUBLE));
+    replicated.setInventoryMode(InventoryMode.ROOM_TYPE);
+    replicated.setOverbookingRatio(RoomType.DOUBLE, 0.5);
+
+    final Customer customer = new Customer("first", "second", "j@domain.com");
+    final Date checkInDate = EpochDays.toDate(EpochDays.today() + 10);
+    final Date checkOutDate = EpochDays.toDate(EpochDays.today() + 12);
+    replicated.reserveARoomType(customer, RoomType.DOUBLE, checkInDate, checkOutDate);
+    final RoomTypeReservation cancelled = replicated.reserveARoomType(
+      customer, RoomType.DOUBLE, checkInDate, checkOutDate
+    );
+    replicated.reserveARoomType(customer, RoomType.DOUBLE, checkInDate, checkOutDate);
+    replicated.cancelRoomTypeReservation(cancelled);
+    replicated.assignRoomTypeReservations();
+
+    Tester.check(
+      follower.findRooms(checkInDate, checkOutDate).isEmpty()
+        && replicated.getLeader().getSequence() == follower.getAppliedSequence(),
+      "Follower has replicated the room type reservations and their assignment!"
+    );
+  }
+
+  private static void checkLateFollowerOverSockets() throws Exception {
+    try (final LoopbackSocketReplicationTransport transport = new LoopbackSocketReplicationTransport()) {
+      final ReplicatedReservationService replicated = new ReplicatedReservationService(
+        new ReservationService("tester", null), transport
+      );
+      final IRoom room = new Room("101", Money.ofCents(10000), RoomType.SINGLE);
+      replicated.addRoom(room);
+      final Customer customer = new Customer("first", "second", "j@domain.com");
+      final Date checkInDate = EpochDays.toDate(EpochDays.today() + 10);
+      final Date checkOutDate = EpochDays.toDate(EpochDays.today() + 12);
+      final Reservation cancelled = replicated.reserveARoom(customer, room, checkInDate, checkOutDate);
+
+      // Catches up with the log, then receives the next entries from its socket.
+      final ReplicaFollower follower = replicated.addFollower();
+      replicated.cancelReservation(cancelled);
+      final Reservation reservation = replicated.reserveARoom(
+        customer, room, EpochDays.toDate(EpochDays.today() + 20), EpochDays.toDate(EpochDays.today() + 22)
+      );
+      Tester.check(
+        follower.awaitSequence(replicated.getLeader().getSequence(), 10_000)
+          && List.of(reservation).equals(List.copyOf(follower.getCustomerReservations(customer.getEmail())))
+          && !follower.findRooms(checkInDate, checkOutDate).isEmpty(),
+        "Late follower has caught up with the log and applied the entries sent over its socket!"
+      );
+    }
+  }
+
+  private static void checkFollowerFailureIsReported() throws Exception {
+    try (final LoopbackSocketReplicationTransport transport = new LoopbackSocketReplicationTransport()) {
+      final ReplicaFollower follower = new ReplicaFollower("tester");
+      transport.connect(follower::receive);
+      transport.send(ReplicationEntry.ofAddedRoom(2, new Room("101", Money.ofCents(10000), RoomType.SINGLE)).toBytes());
+      try {
+        follower.awaitSequence(2, 10_000);
+        throw new IllegalStateException("Follower has not reported the gap in the log!");
+      } catch (IllegalStateException ise) {
+        Tester.check(
+          follower.getFailure() == ise.getCause() && 0 == follower.getAppliedSequence(),
+          "Follower has stopped at a gap in the log, and reported it: " + follower.getFailure().getMessage()
+        );
+      }
+    }
+  }
+}
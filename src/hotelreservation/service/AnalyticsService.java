@@ -0,0 +1,190 @@
+package hotelreservation.service;
+
+import hotelreservation.exception.PropertyNotFoundException;
+import hotelreservation.model.Money;
+import hotelreservation.model.RoomType;
+
+import java.util.*;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * Occupancy and revenue queries, computed with parallel scans over the columnar projection of reservations.
+ * Reservations of room types only count once assigned to a room: their revenue depends on the room.
+ * <p>
+ * Queries either cover a single property, or the whole chain, summing the loaded properties (unloaded properties are
+ * not counted). Each property is scanned under its own read lock, so a chain-wide result may mix states of different
+ * properties taken at slightly different times.
+ * <p>
+ * Periods are given as epoch days, from {@code fromDay} (inclusive) to {@code toDay} (exclusive). Nightly results are
+ * indexed by night offset from {@code fromDay}.
+ */
+public final class AnalyticsService {
+  private static final AnalyticsService instance = new AnalyticsService(
+    HotelChainService.getInstance()::getLoadedProperties
+  );
+
+  private final Supplier<Collection<ReservationService>> properties;
+
+  AnalyticsService(ReservationService property) {
+    this(() -> List.of(property));
+    Objects.requireNonNull(property);
+  }
+
+  AnalyticsService(Supplier<Collection<ReservationService>> properties) {
+    this.properties = Objects.requireNonNull(properties);
+  }
+
+  /**
+   * @return The analytics of the whole chain.
+   */
+  public static AnalyticsService getInstance() {
+    return AnalyticsService.instance;
+  }
+
+  /**
+   * @return The analytics of a property, loading the property first if needed.
+   */
+  public static AnalyticsService forProperty(String propertyId) throws PropertyNotFoundException {
+    return new AnalyticsService(HotelChainService.getInstance().getProperty(propertyId));
+  }
+
+  /**
+   * @return Number of booked rooms on each night of the period.
+   */
+  public int[] getOccupancyPerNight(long fromDay, long toDay) {
+    final int nights = AnalyticsService.requireValidPeriod(fromDay, toDay);
+    final int[] differences = new int[nights + 1];
+    for (final ReservationService property : this.properties.get()) {
+      AnalyticsService.addInto(differences, property.readReservationColumns(columns -> {
+        final int[] startDays = columns.startDays;
+        final int[] endDays = columns.endDays;
+
+        // Each chunk collects +1/-1 boundaries into its own difference array; these are summed, then prefix-summed.
+        return IntStream.range(0, columns.size).parallel().collect(
+          () -> new int[nights + 1],
+          (chunkDifferences, i) -> AnalyticsService.addStay(
+            chunkDifferences, 0, fromDay, nights, startDays[i], endDays[i]
+          ),
+          AnalyticsService::addInto
+        );
+      }));
+    }
+    return AnalyticsService.toRunningTotals(differences, nights);
+  }
+
+  /**
+   * @return Number of booked rooms of each type on each night of the period.
+   */
+  public Map<RoomType, int[]> getOccupancyPerRoomType(long fromDay, long toDay) {
+    final int nights = AnalyticsService.requireValidPeriod(fromDay, toDay);
+    final int types = RoomType.values().length;
+    final int[] differences = new int[types * (nights + 1)];
+    for (final ReservationService property : this.properties.get()) {
+      AnalyticsService.addInto(differences, property.readReservationColumns(columns -> {
+        final int[] roomIds = columns.roomIds;
+        final int[] startDays = columns.startDays;
+        final int[] endDays = columns.endDays;
+        final int[] roomTypeOrdinals = columns.roomTypeOrdinals;
+
+        // Difference arrays of all room types are laid out back to back in a single array.
+        return IntStream.range(0, columns.size).parallel().collect(
+          () -> new int[types * (nights + 1)],
+          (chunkDifferences, i) -> AnalyticsService.addStay(
+            chunkDifferences, roomTypeOrdinals[roomIds[i]] * (nights + 1), fromDay, nights, startDays[i], endDays[i]
+          ),
+          AnalyticsService::addInto
+        );
+      }));
+    }
+
+    final Map<RoomType, int[]> occupancy = new EnumMap<>(RoomType.class);
+    for (final RoomType roomType : RoomType.values()) {
+      final int offset = roomType.ordinal() * (nights + 1);
+      occupancy.put(
+        roomType,
+        AnalyticsService.toRunningTotals(Arrays.copyOfRange(differences, offset, offset + nights + 1), nights)
+      );
+    }
+    return occupancy;
+  }
+
+  /**
+   * @return Revenue of the nights booked within the period, at the rooms' base prices.
+   */
+  public Money getRevenue(long fromDay, long toDay) {
+    final int nights = AnalyticsService.requireValidPeriod(fromDay, toDay);
+    long revenueCents = 0;
+    for (final ReservationService property : this.properties.get()) {
+      revenueCents += property.readReservationColumns(columns -> {
+        final int[] roomIds = columns.roomIds;
+        final int[] startDays = columns.startDays;
+        final int[] endDays = columns.endDays;
+        final long[] roomPriceCents = columns.roomPriceCents;
+
+        return IntStream.range(0, columns.size).parallel().mapToLong(i -> {
+          final int from = AnalyticsService.clamp(startDays[i] - fromDay, nights);
+          final int to = AnalyticsService.clamp(endDays[i] - fromDay, nights);
+          return from < to ? (to - from) * roomPriceCents[roomIds[i]] : 0;
+        }).sum();
+      });
+    }
+    return Money.ofCents(revenueCents);
+  }
+
+  /**
+   * @return Average number of nights per reservation, or 0 if there are no reservations.
+   */
+  public double getAverageLengthOfStay() {
+    long totalNights = 0;
+    long reservations = 0;
+    for (final ReservationService property : this.properties.get()) {
+      final long[] nightsAndSize = property.readReservationColumns(columns -> {
+        final int[] startDays = columns.startDays;
+        final int[] endDays = columns.endDays;
+        return new long[] {
+          IntStream.range(0, columns.size).parallel().mapToLong(i -> endDays[i] - startDays[i]).sum(), columns.size
+        };
+      });
+      totalNights += nightsAndSize[0];
+      reservations += nightsAndSize[1];
+    }
+    return 0 == reservations ? 0. : ((double) totalNights) / reservations;
+  }
+
+  private static int requireValidPeriod(long fromDay, long toDay) throws IllegalArgumentException {
+    if (fromDay > toDay) {
+      throw new IllegalArgumentException("Start of period must be same or before end of period!");
+    }
+    return Math.toIntExact(toDay - fromDay);
+  }
+
+  private static int clamp(long night, int nights) {
+    return (int) Math.max(0, Math.min(nights, night));
+  }
+
+  private static void addStay(int[] differences, int offset, long fromDay, int nights, int startDay, int endDay) {
+    final int from = AnalyticsService.clamp(startDay - fromDay, nights);
+    final int to = AnalyticsService.clamp(endDay - fromDay, nights);
+    if (from < to) {
+      differences[offset + from] += 1;
+      differences[offset + to] -= 1;
+    }
+  }
+
+  private static void addInto(int[] target, int[] source) {
+    for (int i = 0; i < target.length; i++) {
+      target[i] += source[i];
+    }
+  }
+
+  private static int[] toRunningTotals(int[] differences, int nights) {
+    final int[] totals = new int[nights];
+    int running = 0;
+    for (int night = 0; night < nights; night++) {
+      running += differences[night];
+      totals[night] = running;
+    }
+    return totals;
+  }
+}
@@ -0,0 +1,453 @@
+package hotelreservation.service;
+
+import hotelreservation.model.Customer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * Every customer known to the services, kept on disk with only the recently used ones on the heap, so that memory
+ * grows with active customers rather than with registrations.
+ * <p>
+ * Customers are appended to a records file and given dense IDs in order. Two memory-mapped tables index the records:
+ * by ID, an array of record offsets; by email address, an open-addressing hash table of (email hash, ID) slots with
+ * linear probing, doubled into a new file once half full. Customers looked up by email address go through a bounded
+ * LRU cache. Lookups by ID always read the record, so that scans (searches, listings) do not evict active customers.
+ * <p>
+ * Only the records file is kept when the directory is reopened: customers are recovered from it, dropping a record cut
+ * short by a crash, and the tables are rebuilt. Directories made by {@link #openTemporary} are deleted on exit.
+ */
+final class CustomerDirectory {
+  static final int NO_ID = -1;
+
+  private static final int SLOT_BYTES = 16; // Email hash (long), ID + 1 (int, 0 for an empty slot), padding (int)
+  private static final int INITIAL_SLOTS = 1 << 12;
+  private static final int OFFSET_BYTES = Long.BYTES;
+  private static final int INITIAL_IDS = 1 << 12;
+
+  private static final class CachedCustomer {
+    private final Customer customer;
+    private final int id;
+    private final boolean registered;
+
+    private CachedCustomer(Customer customer, int id, boolean registered) {
+      this.customer = customer;
+      this.id = id;
+      this.registered = registered;
+    }
+  }
+
+  private final Path directory;
+  private final FileChannel records;
+  private long recordsSize;
+  private MappedByteBuffer offsets;
+  private MappedByteBuffer slots;
+  private int slotCount;
+  private int indexGeneration;
+  private int customerCount;
+  private int registeredCount;
+  private final Map<String, CachedCustomer> cache;
+
+  /**
+   * @param cacheCapacity Maximum number of customers kept on the heap.
+   */
+  CustomerDirectory(Path directory, int cacheCapacity) throws IOException {
+    if (cacheCapacity < 1) {
+      throw new IllegalArgumentException("Cache capacity must be positive!");
+    }
+    this.directory = Files.createDirectories(directory);
+    this.records = FileChannel.open(
+      directory.resolve("customers.bin"), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE
+    );
+    // Tables left by a previous run are rebuilt from the records.
+    Files.deleteIfExists(directory.resolve("customer-offsets.bin"));
+    try (final DirectoryStream<Path> slotFiles = Files.newDirectoryStream(directory, "customer-emails-*.bin")) {
+      for (final Path slotFile : slotFiles) {
+        Files.delete(slotFile);
+      }
+    }
+    this.offsets = CustomerDirectory.map(
+      directory.resolve("customer-offsets.bin"), (long) CustomerDirectory.INITIAL_IDS * CustomerDirectory.OFFSET_BYTES
+    );
+    this.slotCount = CustomerDirectory.INITIAL_SLOTS;
+    this.slots = CustomerDirectory.map(this.slotsPath(), (long) this.slotCount * CustomerDirectory.SLOT_BYTES);
+    this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, CachedCustomer> eldest) {
+        return this.size() > cacheCapacity;
+      }
+    };
+    this.recover();
+  }
+
+  /**
+   * @return Directory in a new temporary folder, deleted when the JVM exits: its customers are not kept across runs.
+   */
+  static CustomerDirectory openTemporary(int cacheCapacity) {
+    try {
+      // Files are deleted on exit in reverse order of registration, so the folder is registered first.
+      final Path directory = Files.createTempDirectory("hotel-customers-");
+      directory.toFile().deleteOnExit();
+      directory.resolve("customers.bin").toFile().deleteOnExit();
+      return new CustomerDirectory(directory, cacheCapacity);
+    } catch (IOException ioe) {
+      throw new UncheckedIOException(ioe);
+    }
+  }
+
+  /**
+   * Registers the customer, who may already be known unregistered (e.g. from replicated reservations).
+   *
+   * @return ID of the customer, or {@link #NO_ID} if a customer with this email address is already
+   * registered.
+   */
+  synchronized int addRegistered(Customer customer) {
+    final CachedCustomer known = this.lookUp(customer.getEmail());
+    if (null == known) {
+      return this.append(customer, true).id;
+    }
+    if (known.registered) {
+      return CustomerDirectory.NO_ID;
+    }
+    // Registration details replace the known ones: the ID points to a new record, the old one is left unused.
+    this.offsets.putLong(CustomerDirectory.offsetPosition(known.id), this.appendRecord(customer, true));
+    this.cache.put(customer.getEmail(), new CachedCustomer(customer, known.id, true));
+    this.registeredCount++;
+    return known.id;
+  }
+
+  /**
+   * @return ID of the customer, who is added unregistered if unknown.
+   */
+  synchronized int getOrAddId(Customer customer) {
+    final CachedCustomer known = this.lookUp(customer.getEmail());
+    return null == known ? this.append(customer, false).id : known.id;
+  }
+
+  /**
+   * @return ID of the customer, or {@link #NO_ID} if unknown: unlike {@link #getOrAddId}, nothing is added.
+   */
+  synchronized int findId(Customer customer) {
+    final CachedCustomer known = this.lookUp(customer.getEmail());
+    return null == known ? CustomerDirectory.NO_ID : known.id;
+  }
+
+  /**
+   * @return The registered customer with this email address, or null if none.
+   */
+  synchronized Customer getRegistered(String email) {
+    final CachedCustomer known = this.lookUp(email);
+    return null == known || !known.registered ? null : known.customer;
+  }
+
+  /**
+   * @return Customer with this ID, registered or not, read from disk.
+   */
+  synchronized Customer get(int id) {
+    Objects.checkIndex(id, this.customerCount);
+    return this.read(id).customer;
+  }
+
+  /**
+   * @return Registered customers in order of IDs, read from disk while iterating.
+   */
+  Collection<Customer> getRegisteredCustomers() {
+    return new AbstractCollection<>() {
+      @Override
+      public Iterator<Customer> iterator() {
+        return new Iterator<>() {
+          private int nextId = 0;
+          private CachedCustomer next = this.findRegistered();
+
+          @Override
+          public boolean hasNext() {
+            return null != this.next;
+          }
+
+          @Override
+          public Customer next() {
+            if (!this.hasNext()) {
+              throw new NoSuchElementException();
+            }
+            final Customer customer = this.next.customer;
+            this.next = this.findRegistered();
+            return customer;
+          }
+
+          private CachedCustomer findRegistered() {
+            synchronized (CustomerDirectory.this) {
+              while (this.nextId < CustomerDirectory.this.customerCount) {
+                final CachedCustomer stored = CustomerDirectory.this.read(this.nextId++);
+                if (stored.registered) {
+                  return stored;
+                }
+              }
+              return null;
+            }
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        synchronized (CustomerDirectory.this) {
+          return CustomerDirectory.this.registeredCount;
+        }
+      }
+    };
+  }
+
+  /**
+   * @return Number of customers on the heap.
+   */
+  synchronized int getCachedCount() {
+    return this.cache.size();
+  }
+
+  /**
+   * @return The customer with this email address from the cache, or from disk into the cache; null if unknown.
+   */
+  private CachedCustomer lookUp(String email) {
+    final CachedCustomer cached = this.cache.get(email);
+    if (null != cached) {
+      return cached;
+    }
+
+    final long hash = CustomerDirectory.hash(email);
+    for (int slot = this.firstSlot(hash); ; slot = (slot + 1) & (this.slotCount - 1)) {
+      final int idPlusOne = this.slots.getInt(CustomerDirectory.slotPosition(slot) + Long.BYTES);
+      if (0 == idPlusOne) {
+        return null;
+      }
+      if (hash != this.slots.getLong(CustomerDirectory.slotPosition(slot))) {
+        continue;
+      }
+      final CachedCustomer stored = this.read(idPlusOne - 1);
+      if (stored.customer.getEmail().equals(email)) {
+        this.cache.put(email, stored);
+        return stored;
+      }
+    }
+  }
+
+  private CachedCustomer append(Customer customer, boolean registered) {
+    return this.index(customer, registered, this.appendRecord(customer, registered));
+  }
+
+  /**
+   * Gives the next ID to the customer of the record at the offset.
+   */
+  private CachedCustomer index(Customer customer, boolean registered, long offset) {
+    final int id = this.customerCount;
+    if ((long) (id + 1) * CustomerDirectory.OFFSET_BYTES > this.offsets.capacity()) {
+      this.offsets = CustomerDirectory.map(
+        this.directory.resolve("customer-offsets.bin"), 2L * this.offsets.capacity()
+      );
+    }
+    this.offsets.putLong(CustomerDirectory.offsetPosition(id), offset);
+    this.customerCount++;
+    if (registered) {
+      this.registeredCount++;
+    }
+
+    if (2L * this.customerCount > this.slotCount) {
+      this.growSlots();
+    }
+    this.insertSlot(CustomerDirectory.hash(customer.getEmail()), id);
+
+    final CachedCustomer cached = new CachedCustomer(customer, id, registered);
+    this.cache.put(customer.getEmail(), cached);
+    return cached;
+  }
+
+  /**
+   * @return Offset of the record, made of its length and the customer's registration, names and email address.
+   */
+  private long appendRecord(Customer customer, boolean registered) {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (final DataOutputStream output = new DataOutputStream(bytes)) {
+      output.writeInt(0); // Length, set below
+      output.writeBoolean(registered);
+      output.writeUTF(customer.getFirstName());
+      output.writeUTF(customer.getLastName());
+      output.writeUTF(customer.getEmail());
+    } catch (IOException ioe) {
+      throw new UncheckedIOException(ioe); // Never thrown by in-memory streams
+    }
+    final ByteBuffer record = ByteBuffer.wrap(bytes.toByteArray());
+    record.putInt(0, record.capacity() - Integer.BYTES);
+    final long offset = this.recordsSize;
+    this.write(record, offset);
+    this.recordsSize += record.capacity();
+    return offset;
+  }
+
+  private void insertSlot(long hash, int id) {
+    int slot = this.firstSlot(hash);
+    while (0 != this.slots.getInt(CustomerDirectory.slotPosition(slot) + Long.BYTES)) {
+      slot = (slot + 1) & (this.slotCount - 1);
+    }
+    this.slots.putLong(CustomerDirectory.slotPosition(slot), hash);
+    this.slots.putInt(CustomerDirectory.slotPosition(slot) + Long.BYTES, id + 1);
+  }
+
+  /**
+   * Rehashes the slots into a table of twice the size, in a new file. Slots hold the hashes, so no record is read.
+   */
+  private void growSlots() {
+    final MappedByteBuffer oldSlots = this.slots;
+    final int oldSlotCount = this.slotCount;
+    final Path oldPath = this.slotsPath();
+
+    this.indexGeneration++;
+    this.slotCount = 2 * oldSlotCount;
+    this.slots = CustomerDirectory.map(this.slotsPath(), (long) this.slotCount * CustomerDirectory.SLOT_BYTES);
+    for (int slot = 0; slot < oldSlotCount; slot++) {
+      final int idPlusOne = oldSlots.getInt(CustomerDirectory.slotPosition(slot) + Long.BYTES);
+      if (0 != idPlusOne) {
+        this.insertSlot(oldSlots.getLong(CustomerDirectory.slotPosition(slot)), idPlusOne - 1);
+      }
+    }
+    try {
+      Files.deleteIfExists(oldPath); // Unmapped once garbage collected
+    } catch (IOException ioe) {
+      throw new UncheckedIOException(ioe);
+    }
+  }
+
+  /**
+   * Indexes the records of the file, in order. A customer registered after being known has a second record, which
+   * replaces the first one.
+   */
+  private void recover() throws IOException {
+    final long size = this.records.size();
+    long offset = 0;
+    final ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+    while (offset + Integer.BYTES <= size) {
+      this.readFully(length.clear(), offset);
+      final long nextOffset = offset + Integer.BYTES + length.getInt(0);
+      if (nextOffset > size) {
+        break;
+      }
+
+      final CachedCustomer stored = this.read(offset, CustomerDirectory.NO_ID);
+      final CachedCustomer known = this.lookUp(stored.customer.getEmail());
+      if (null == known) {
+        this.index(stored.customer, stored.registered, offset);
+      } else {
+        this.offsets.putLong(CustomerDirectory.offsetPosition(known.id), offset);
+        this.cache.put(stored.customer.getEmail(), new CachedCustomer(stored.customer, known.id, stored.registered));
+        if (stored.registered && !known.registered) {
+          this.registeredCount++;
+        }
+      }
+      offset = nextOffset;
+    }
+    this.records.truncate(offset);
+    this.recordsSize = offset;
+  }
+
+  private CachedCustomer read(int id) {
+    return this.read(this.offsetOf(id), id);
+  }
+
+  private CachedCustomer read(long offset, int id) {
+    try {
+      final ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+      this.readFully(length, offset);
+      final ByteBuffer payload = ByteBuffer.allocate(length.getInt(0));
+      this.readFully(payload, offset + Integer.BYTES);
+      try (final DataInputStream input = new DataInputStream(new ByteArrayInputStream(payload.array()))) {
+        final boolean registered = input.readBoolean();
+        final Customer customer = new Customer(input.readUTF(), input.readUTF(), input.readUTF());
+        return new CachedCustomer(customer, id, registered);
+      }
+    } catch (IOException ioe) {
+      throw new UncheckedIOException(ioe);
+    }
+  }
+
+  private void readFully(ByteBuffer buffer, long position) throws IOException {
+    while (buffer.hasRemaining()) {
+      if (this.records.read(buffer, position + buffer.position()) < 0) {
+        throw new EOFException();
+      }
+    }
+  }
+
+  private void write(ByteBuffer buffer, long position) {
+    try {
+      while (buffer.hasRemaining()) {
+        this.records.write(buffer, position + buffer.position());
+      }
+    } catch (IOException ioe) {
+      throw new UncheckedIOException(ioe);
+    }
+  }
+
+  private long offsetOf(int id) {
+    return this.offsets.getLong(CustomerDirectory.offsetPosition(id));
+  }
+
+  private int firstSlot(long hash) {
+    return (int) (hash ^ hash >>> 32) & (this.slotCount - 1);
+  }
+
+  private Path slotsPath() {
+    return this.directory.resolve("customer-emails-" + this.indexGeneration + ".bin");
+  }
+
+  private static MappedByteBuffer map(Path path, long size) {
+    try (final FileChannel channel = FileChannel.open(
+      path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE
+    )) {
+      path.toFile().deleteOnExit();
+      return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+    } catch (IOException ioe) {
+      throw new UncheckedIOException(ioe);
+    }
+  }
+
+  /**
+   * Positions are computed in longs: past the 2 GiB a buffer can map, the table fails to grow rather than wrapping
+   * around.
+   */
+  private static int offsetPosition(int id) {
+    return Math.toIntExact((long) id * CustomerDirectory.OFFSET_BYTES);
+  }
+
+  private static int slotPosition(int slot) {
+    return Math.toIntExact((long) slot * CustomerDirectory.SLOT_BYTES);
+  }
+
+  /**
+   * @return 64-bit FNV-1a hash of the email address, so that slots rarely need their record read to be told apart.
+   */
+  private static long hash(String email) {
+    long hash = 0xCBF29CE484222325L;
+    for (int i = 0; i < email.length(); i++) {
+      hash ^= email.charAt(i);
+      hash *= 0x100000001B3L;
+    }
+    return hash;
+  }
+}
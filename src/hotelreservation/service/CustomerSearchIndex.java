@@ -0,0 +1,314 @@
+package hotelreservation.service;
+
+import hotelreservation.model.Customer;
+
+import java.util.*;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Incrementally updated search index over customers' first names, last names and email addresses.
+ * <p>
+ * Terms (lowercased words of the names, the email address and its local part) are kept in a sorted dictionary for
+ * prefix queries, and in a trigram inverted index for queries with typos: terms sharing enough trigrams with a query
+ * word are candidates, which are then checked with a bounded edit distance.
+ * <p>
+ * The terms of each customer are kept too, so that every candidate is ranked from the index alone: only the customers
+ * returned are loaded.
+ */
+final class CustomerSearchIndex {
+  private static final int SCORE_EXACT = 3;
+  private static final int SCORE_PREFIX = 2;
+  private static final int SCORE_FUZZY = 1;
+
+  private final IntFunction<Customer> customerLoader;
+  private final NavigableMap<String, Term> terms = new TreeMap<>();
+  private final List<Term> termsById = new ArrayList<>();
+  private final Map<String, IntList> termIdsByTrigram = new HashMap<>();
+  private int[] sharedTrigramCounts = new int[0];
+  // Term IDs of each customer, the email address first; null for customers not added.
+  private int[][] termIdsByCustomerId = new int[0][];
+
+  /**
+   * @param customerLoader Customer by ID, for checking candidates: the index itself only holds IDs.
+   */
+  CustomerSearchIndex(IntFunction<Customer> customerLoader) {
+    this.customerLoader = Objects.requireNonNull(customerLoader);
+  }
+
+  synchronized void add(int customerId, Customer customer) {
+    final String email = customer.getEmail().toLowerCase(Locale.ROOT);
+    final Set<String> otherWords = CustomerSearchIndex.termsOf(customer);
+    otherWords.remove(email);
+    final int[] termIds = new int[1 + otherWords.size()];
+    termIds[0] = this.addTerm(email, customerId);
+    int i = 1;
+    for (final String word : otherWords) {
+      termIds[i++] = this.addTerm(word, customerId);
+    }
+
+    if (customerId >= this.termIdsByCustomerId.length) {
+      this.termIdsByCustomerId = Arrays.copyOf(
+        this.termIdsByCustomerId, Math.max(customerId + 1, 2 * this.termIdsByCustomerId.length)
+      );
+    }
+    this.termIdsByCustomerId[customerId] = termIds;
+  }
+
+  /**
+   * Every query word must match a term of the customer: exactly, as a prefix, or within a small edit distance.
+   *
+   * @return Up to {@code limit} customers, best matches first (exact, then prefix, then fuzzy matches).
+   */
+  synchronized List<Customer> search(String query, int limit) {
+    final List<String> words = CustomerSearchIndex.wordsOf(Objects.requireNonNull(query));
+    if (words.isEmpty() || limit <= 0) {
+      return List.of();
+    }
+
+    // Candidates come from the most selective (longest) word, with their score for it; the other words are checked on
+    // the terms of each candidate.
+    final int longestWordIndex = IntStream.range(0, words.size())
+      .reduce((first, second) -> words.get(second).length() > words.get(first).length() ? second : first)
+      .orElseThrow();
+    final PriorityQueue<Match> topMatches = new PriorityQueue<>();
+    this.findCandidates(words.get(longestWordIndex)).forEach((customerId, longestWordScore) -> {
+      final int[] customerTermIds = this.termIdsByCustomerId[customerId];
+      int score = longestWordScore;
+      for (int i = 0; i < words.size(); i++) {
+        if (i == longestWordIndex) {
+          continue;
+        }
+        final int wordScore = this.score(words.get(i), customerTermIds);
+        if (0 == wordScore) {
+          return;
+        }
+        score += wordScore;
+      }
+
+      topMatches.add(new Match(customerId, this.termsById.get(customerTermIds[0]).word, score));
+      if (topMatches.size() > limit) {
+        topMatches.poll();
+      }
+    });
+
+    final List<Customer> results = new ArrayList<>(topMatches.size());
+    while (!topMatches.isEmpty()) {
+      results.add(this.customerLoader.apply(topMatches.poll().customerId));
+    }
+    Collections.reverse(results);
+    return results;
+  }
+
+  /**
+   * @return Score of the word for each customer having a matching term: the best of its matching terms.
+   */
+  private Map<Integer, Integer> findCandidates(String word) {
+    final Map<Integer, Integer> candidates = new HashMap<>();
+    for (final Term term : this.terms.subMap(word, true, word + Character.MAX_VALUE, false).values()) {
+      final int score = term.word.equals(word) ? CustomerSearchIndex.SCORE_EXACT : CustomerSearchIndex.SCORE_PREFIX;
+      term.customerIds.forEach(customerId -> candidates.merge(customerId, score, Math::max));
+    }
+
+    final int maxEdits = CustomerSearchIndex.maxEditsOf(word);
+    if (0 == maxEdits) {
+      return candidates;
+    }
+
+    // Each edit changes at most 3 trigrams of the word. Shared trigrams are counted per term in a reused array, since
+    // the posting lists of common trigrams can hold most of the terms.
+    final Set<String> trigrams = CustomerSearchIndex.trigramsOf(word);
+    final int minSharedTrigrams = Math.max(1, trigrams.size() - 3 * maxEdits);
+    if (this.sharedTrigramCounts.length < this.termsById.size()) {
+      this.sharedTrigramCounts = new int[Math.max(this.termsById.size(), 2 * this.sharedTrigramCounts.length)];
+    }
+    final int[] sharedTrigramCounts = this.sharedTrigramCounts;
+    final IntList matchingTermIds = new IntList();
+    for (final String trigram : trigrams) {
+      this.termIdsByTrigram.getOrDefault(trigram, IntList.EMPTY).forEach(termId -> {
+        if (++sharedTrigramCounts[termId] == minSharedTrigrams) {
+          matchingTermIds.add(termId);
+        }
+      });
+    }
+
+    for (final String trigram : trigrams) {
+      this.termIdsByTrigram.getOrDefault(trigram, IntList.EMPTY).forEach(termId -> sharedTrigramCounts[termId] = 0);
+    }
+
+    for (int i = 0; i < matchingTermIds.size(); i++) {
+      final Term term = this.termsById.get(matchingTermIds.get(i));
+      if (CustomerSearchIndex.isWithinEditDistance(word, term.word, maxEdits)) {
+        term.customerIds.forEach(customerId -> candidates.putIfAbsent(customerId, CustomerSearchIndex.SCORE_FUZZY));
+      }
+    }
+    return candidates;
+  }
+
+  /**
+   * @return ID of the term, to which the customer is added.
+   */
+  private int addTerm(String word, int customerId) {
+    final Term term = this.terms.computeIfAbsent(word, this::newTerm);
+    term.customerIds.addIfNotLast(customerId);
+    return term.id;
+  }
+
+  private Term newTerm(String word) {
+    final Term term = new Term(this.termsById.size(), word);
+    this.termsById.add(term);
+    for (final String trigram : CustomerSearchIndex.trigramsOf(word)) {
+      this.termIdsByTrigram.computeIfAbsent(trigram, key -> new IntList()).addIfNotLast(term.id);
+    }
+    return term;
+  }
+
+  private int score(String word, int[] customerTermIds) {
+    final int maxEdits = CustomerSearchIndex.maxEditsOf(word);
+    int score = 0;
+    for (final int termId : customerTermIds) {
+      final String term = this.termsById.get(termId).word;
+      if (term.equals(word)) {
+        return CustomerSearchIndex.SCORE_EXACT;
+      }
+      if (term.startsWith(word)) {
+        score = CustomerSearchIndex.SCORE_PREFIX;
+      } else if (0 == score && maxEdits > 0 && CustomerSearchIndex.isWithinEditDistance(word, term, maxEdits)) {
+        score = CustomerSearchIndex.SCORE_FUZZY;
+      }
+    }
+    return score;
+  }
+
+  private static int maxEditsOf(String word) {
+    if (word.length() >= 8) {
+      return 2;
+    }
+    return word.length() >= 4 ? 1 : 0;
+  }
+
+  private static Set<String> termsOf(Customer customer) {
+    final Set<String> terms = new HashSet<>();
+    terms.addAll(CustomerSearchIndex.wordsOf(customer.getFirstName()));
+    terms.addAll(CustomerSearchIndex.wordsOf(customer.getLastName()));
+    final String email = customer.getEmail().toLowerCase(Locale.ROOT);
+    terms.add(email);
+    terms.add(email.substring(0, email.indexOf('@')));
+    return terms;
+  }
+
+  private static List<String> wordsOf(String text) {
+    return Arrays.stream(text.toLowerCase(Locale.ROOT).split("[\\s\\-']+")).filter(word -> !word.isEmpty()).toList();
+  }
+
+  private static Set<String> trigramsOf(String word) {
+    final String padded = "  " + word + " ";
+    final Set<String> trigrams = new HashSet<>();
+    for (int i = 0; i + 3 <= padded.length(); i++) {
+      trigrams.add(padded.substring(i, i + 3));
+    }
+    return trigrams;
+  }
+
+  /**
+   * Levenshtein distance, computed row by row and abandoned as soon as a whole row exceeds the maximum.
+   */
+  private static boolean isWithinEditDistance(String first, String second, int maxEdits) {
+    if (Math.abs(first.length() - second.length()) > maxEdits) {
+      return false;
+    }
+
+    int[] previousRow = new int[second.length() + 1];
+    int[] currentRow = new int[second.length() + 1];
+    for (int j = 0; j <= second.length(); j++) {
+      previousRow[j] = j;
+    }
+    for (int i = 1; i <= first.length(); i++) {
+      currentRow[0] = i;
+      int rowMinimum = i;
+      for (int j = 1; j <= second.length(); j++) {
+        final int substitutionCost = first.charAt(i - 1) == second.charAt(j - 1) ? 0 : 1;
+        currentRow[j] = Math.min(
+          previousRow[j - 1] + substitutionCost,
+          Math.min(previousRow[j], currentRow[j - 1]) + 1
+        );
+        rowMinimum = Math.min(rowMinimum, currentRow[j]);
+      }
+      if (rowMinimum > maxEdits) {
+        return false;
+      }
+      final int[] swappedRow = previousRow;
+      previousRow = currentRow;
+      currentRow = swappedRow;
+    }
+    return previousRow[second.length()] <= maxEdits;
+  }
+
+  private static final class Term {
+    private final int id;
+    private final String word;
+    private final IntList customerIds = new IntList();
+
+    private Term(int id, String word) {
+      this.id = id;
+      this.word = word;
+    }
+  }
+
+  private static final class Match implements Comparable<Match> {
+    private final int customerId;
+    private final String email;
+    private final int score;
+
+    private Match(int customerId, String email, int score) {
+      this.customerId = customerId;
+      this.email = email;
+      this.score = score;
+    }
+
+    @Override
+    public int compareTo(Match other) {
+      // Better matches are greater: higher score, then alphabetically smaller (lowercased) email.
+      final int byScore = Integer.compare(this.score, other.score);
+      return 0 != byScore ? byScore : other.email.compareTo(this.email);
+    }
+  }
+
+  /**
+   * Growable array of ints, appended in increasing order.
+   */
+  private static final class IntList {
+    private static final IntList EMPTY = new IntList();
+
+    private int[] values = new int[2];
+    private int size = 0;
+
+    private int size() {
+      return this.size;
+    }
+
+    private int get(int index) {
+      return this.values[index];
+    }
+
+    private void add(int value) {
+      if (this.size == this.values.length) {
+        this.values = Arrays.copyOf(this.values, this.size * 2);
+      }
+      this.values[this.size++] = value;
+    }
+
+    private void addIfNotLast(int value) {
+      if (0 == this.size || this.values[this.size - 1] != value) {
+        this.add(value);
+      }
+    }
+
+    private void forEach(IntConsumer consumer) {
+      for (int i = 0; i < this.size; i++) {
+        consumer.accept(this.values[i]);
+      }
+    }
+  }
+}
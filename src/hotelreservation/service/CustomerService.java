@@ -1,5 +1,6 @@
 package hotelreservation.service;
 
+import hotelreservation.event.EventBus;
 import hotelreservation.exception.CustomerAlreadyExistsException;
 import hotelreservation.model.Customer;
 
@@ -7,9 +8,19 @@ import java.util.*;
 
 public final class CustomerService {
   private static final CustomerService instance = new CustomerService();
-  private CustomerService() {}
 
-  private final Set<Customer> customers = new HashSet<>();
+  /**
+   * Creates customers of their own, e.g. for synthetic bookings: use {@link #getInstance()} for the real ones.
+   */
+  CustomerService() {}
+
+  private static final int ACTIVE_CUSTOMERS_CAPACITY = 10_000;
+
+  // Only recently active customers are kept on the heap, the others are loaded from disk on demand.
+  private final CustomerDirectory customers = CustomerDirectory.openTemporary(
+    CustomerService.ACTIVE_CUSTOMERS_CAPACITY
+  );
+  private final CustomerSearchIndex searchIndex = new CustomerSearchIndex(this.customers::get);
 
   public static CustomerService getInstance() {
     return CustomerService.instance;
@@ -17,25 +28,53 @@ public final class CustomerService {
 
   public void addCustomer(String firstName, String lastName, String email)
     throws IllegalArgumentException, CustomerAlreadyExistsException {
-    if (
-      !this.customers.add(
-        new Customer(firstName, lastName, email)
-      )
-    ) {
+    final Customer customer = new Customer(firstName, lastName, email);
+    final int customerId = this.customers.addRegistered(customer);
+    if (CustomerDirectory.NO_ID == customerId) {
       throw new CustomerAlreadyExistsException();
     }
+    this.searchIndex.add(customerId, customer);
+    EventBus.getInstance().publishAddedCustomer(customer);
   }
 
   public Customer getCustomer(String customerEmail) {
     Objects.requireNonNull(customerEmail);
-    return this.customers
-      .stream()
-      .filter(customer -> customer.getEmail().equals(customerEmail))
-      .findFirst()
-      .orElse(null);
+    return this.customers.getRegistered(customerEmail);
+  }
+
+  /**
+   * @return Dense ID of the customer. Customers are given an ID on registration, or on first use if they reach the
+   * services without being registered (e.g. on replicas).
+   */
+  public int getCustomerId(Customer customer) {
+    return this.customers.getOrAddId(Objects.requireNonNull(customer));
+  }
+
+  /**
+   * @return Dense ID of the customer, or {@link CustomerDirectory#NO_ID} if the customer has none yet. Lookups use this
+   * rather than {@link #getCustomerId}, so that they never add customers.
+   */
+  public int findCustomerId(Customer customer) {
+    return this.customers.findId(Objects.requireNonNull(customer));
+  }
+
+  public Customer getCustomerById(int customerId) {
+    return this.customers.get(customerId);
+  }
+
+  /**
+   * Type-ahead search over names and email addresses of registered customers, tolerating small typos.
+   *
+   * @return Up to {@code limit} customers, best matches first.
+   */
+  public List<Customer> searchCustomers(String query, int limit) {
+    return this.searchIndex.search(query, limit);
   }
 
+  /**
+   * @return Registered customers in order of registration, loaded from disk while iterating.
+   */
   public Collection<Customer> getAllCustomers() {
-    return Collections.unmodifiableCollection(this.customers);
+    return Collections.unmodifiableCollection(this.customers.getRegisteredCustomers());
   }
 }
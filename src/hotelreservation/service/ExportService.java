@@ -0,0 +1,307 @@
+package hotelreservation.service;
+
+import hotelreservation.model.Customer;
+import hotelreservation.model.IRoom;
+import hotelreservation.util.IsoDates;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IntSummaryStatistics;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+/**
+ * Streaming CSV extracts of reservations with their room and customer fields, encoded from the columnar projection of
+ * reservations straight into reused byte buffers written to file channels, without building a string per row.
+ * <p>
+ * An export reads a consistent state of the property: its columns are copied while bookings and cancellations wait,
+ * then encoded and written without holding them up. The copy costs 20 bytes per reservation (five int columns) for the
+ * length of the export, and holds the read lock for five array copies. It is taken in one go rather than in chunks
+ * under separate lock holds, because a removed row is replaced by the last row: chunks copied around a cancellation
+ * would skip or repeat reservations.
+ * <p>
+ * Rows are in no particular order. Text fields are quoted as by RFC 4180 when needed, and encoded once per room and per
+ * recently seen customer rather than once per row.
+ */
+public final class ExportService {
+  private static final ExportService instance = new ExportService(ReservationService.getInstance());
+
+  private static final byte[] HEADER = (
+    "check_in,check_out,nights,room_number,room_type,room_price,customer_email,customer_first_name,customer_last_name\n"
+  ).getBytes(StandardCharsets.UTF_8);
+  private static final int BUFFER_SIZE = 1 << 20;
+  private static final int MAX_FIXED_FIELDS_BYTES = 64; // Dates, nights and separators of a row
+  private static final int CUSTOMER_CACHE_SIZE = 1 << 16;
+  private static final String FILE_PREFIX = "reservations-";
+  private static final String FILE_SUFFIX = ".csv";
+
+  private final ReservationService reservationService;
+  private final CustomerService customerService = CustomerService.getInstance();
+
+  ExportService(ReservationService reservationService) {
+    this.reservationService = Objects.requireNonNull(reservationService);
+  }
+
+  /**
+   * @return The exports of the default property.
+   */
+  public static ExportService getInstance() {
+    return ExportService.instance;
+  }
+
+  /**
+   * Writes every reservation as a row of a CSV file, which is replaced if it exists.
+   *
+   * @return Number of reservations written.
+   */
+  public long exportReservations(Path file) throws IOException {
+    Objects.requireNonNull(file);
+    return this.export(columns -> this.writeRows(columns, this.encodeRooms(columns), file, null, 0, columns.size));
+  }
+
+  /**
+   * Writes the reservations checking in each month in a CSV file of their own in the directory, named after the month
+   * (e.g. {@code reservations-2024-10.csv}), and writes these files in parallel. Months without reservations have no
+   * file.
+   *
+   * @return Number of reservations written.
+   */
+  public long exportReservationsByMonth(Path directory) throws IOException {
+    Files.createDirectories(Objects.requireNonNull(directory));
+    return this.export(columns -> {
+      if (0 == columns.size) {
+        return 0L;
+      }
+
+      final int[] startDays = columns.startDays;
+      final IntSummaryStatistics checkInDays = IntStream.range(0, columns.size)
+        .parallel()
+        .map(i -> startDays[i])
+        .summaryStatistics();
+      final int firstDay = checkInDays.getMin();
+      final List<LocalDate> months = new ArrayList<>();
+      final int[] monthByDay = new int[checkInDays.getMax() - firstDay + 1];
+      for (LocalDate month = LocalDate.ofEpochDay(firstDay).withDayOfMonth(1); ; month = month.plusMonths(1)) {
+        final int monthStart = Math.max(firstDay, (int) month.toEpochDay());
+        if (monthStart > checkInDays.getMax()) {
+          break;
+        }
+        final int monthEnd = Math.min(checkInDays.getMax() + 1, (int) month.plusMonths(1).toEpochDay());
+        Arrays.fill(monthByDay, monthStart - firstDay, monthEnd - firstDay, months.size());
+        months.add(month);
+      }
+
+      // Rows are grouped by month with a counting sort, so that each file only visits the rows of its month.
+      final int[] monthOffsets = new int[months.size() + 1];
+      for (int i = 0; i < columns.size; i++) {
+        monthOffsets[monthByDay[startDays[i] - firstDay] + 1]++;
+      }
+      for (int month = 0; month < months.size(); month++) {
+        monthOffsets[month + 1] += monthOffsets[month];
+      }
+      final int[] rowsByMonth = new int[columns.size];
+      final int[] nextPositions = Arrays.copyOf(monthOffsets, months.size());
+      for (int i = 0; i < columns.size; i++) {
+        rowsByMonth[nextPositions[monthByDay[startDays[i] - firstDay]]++] = i;
+      }
+
+      final byte[][] rooms = this.encodeRooms(columns);
+      return IntStream.range(0, months.size()).parallel().mapToLong(month -> {
+        if (monthOffsets[month] == monthOffsets[month + 1]) {
+          return 0L;
+        }
+        final Path file = directory.resolve(
+          ExportService.FILE_PREFIX +
+            IsoDates.format(months.get(month).toEpochDay()).substring(0, 7) +
+            ExportService.FILE_SUFFIX
+        );
+        return this.writeRows(columns, rooms, file, rowsByMonth, monthOffsets[month], monthOffsets[month + 1]);
+      }).sum();
+    });
+  }
+
+  private long export(Function<ReservationColumns, Long> export) throws IOException {
+    final ReservationColumns columns = this.reservationService.readReservationColumns(ReservationColumns::copyRows);
+    try {
+      return export.apply(columns);
+    } catch (UncheckedIOException uioe) {
+      throw uioe.getCause();
+    }
+  }
+
+  /**
+   * @return Number, type and price fields of each room by room ID, ending with a separator. Rooms are never removed,
+   * so the rooms of the copied columns are still the first ones.
+   */
+  private byte[][] encodeRooms(ReservationColumns columns) {
+    final List<IRoom> rooms = List.copyOf(this.reservationService.getAllRooms());
+    final byte[][] encodedRooms = new byte[columns.roomCount][];
+    final StringBuilder fields = new StringBuilder();
+    for (int roomId = 0; roomId < columns.roomCount; roomId++) {
+      final IRoom room = rooms.get(roomId);
+      fields.setLength(0);
+      ExportService.appendField(fields, room.getRoomNumber()).append(',');
+      fields.append(room.getRoomType()).append(',').append(room.getRoomPrice()).append(',');
+      encodedRooms[roomId] = fields.toString().getBytes(StandardCharsets.UTF_8);
+    }
+    return encodedRooms;
+  }
+
+  /**
+   * Writes the header and the rows from {@code from} (inclusive) to {@code to} (exclusive), either of the columns or,
+   * if given, of the array of row indexes.
+   *
+   * @return Number of rows written.
+   */
+  private long writeRows(ReservationColumns columns, byte[][] rooms, Path file, int[] rowIndexes, int from, int to)
+    throws UncheckedIOException {
+    final int[] roomIds = columns.roomIds;
+    final int[] customerIds = columns.customerIds;
+    final int[] startDays = columns.startDays;
+    final int[] endDays = columns.endDays;
+    final int[] checkOutDays = columns.checkOutDays;
+    final CustomerCache customers = new CustomerCache();
+
+    try (
+      final CsvChannelWriter writer = new CsvChannelWriter(
+        FileChannel.open(
+          file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING
+        )
+      )
+    ) {
+      writer.putBytes(ExportService.HEADER);
+      for (int i = from; i < to; i++) {
+        final int row = null == rowIndexes ? i : rowIndexes[i];
+        writer.putFixedFields(startDays[row], checkOutDays[row], endDays[row] - startDays[row]);
+        writer.putBytes(rooms[roomIds[row]]);
+        writer.putBytes(customers.get(customerIds[row]));
+      }
+    } catch (IOException ioe) {
+      throw new UncheckedIOException(ioe);
+    }
+    return to - from;
+  }
+
+  /**
+   * Appends the text, quoted if it has a separator, a quote or a line break.
+   */
+  private static StringBuilder appendField(StringBuilder builder, String text) {
+    if (text.chars().noneMatch(c -> ',' == c || '"' == c || '\n' == c || '\r' == c)) {
+      return builder.append(text);
+    }
+    return builder.append('"').append(text.replace("\"", "\"\"")).append('"');
+  }
+
+  /**
+   * Email and name fields of recently seen customers, in a direct-mapped cache: customers are loaded from
+   * {@link CustomerService}, possibly from disk, only when their ID is not the one cached in its slot.
+   */
+  private final class CustomerCache {
+    private final int[] customerIds = new int[ExportService.CUSTOMER_CACHE_SIZE];
+    private final byte[][] fields = new byte[ExportService.CUSTOMER_CACHE_SIZE][];
+    private final StringBuilder builder = new StringBuilder();
+
+    private CustomerCache() {
+      Arrays.fill(this.customerIds, -1);
+    }
+
+    private byte[] get(int customerId) {
+      final int slot = customerId & (ExportService.CUSTOMER_CACHE_SIZE - 1);
+      if (this.customerIds[slot] != customerId) {
+        final Customer customer = ExportService.this.customerService.getCustomerById(customerId);
+        this.builder.setLength(0);
+        ExportService.appendField(this.builder, customer.getEmail()).append(',');
+        ExportService.appendField(this.builder, customer.getFirstName()).append(',');
+        ExportService.appendField(this.builder, customer.getLastName()).append('\n');
+        this.customerIds[slot] = customerId;
+        this.fields[slot] = this.builder.toString().getBytes(StandardCharsets.UTF_8);
+      }
+      return this.fields[slot];
+    }
+  }
+
+  /**
+   * Encodes rows into a reused buffer, written to the channel whenever full.
+   */
+  private static final class CsvChannelWriter implements AutoCloseable {
+    private final FileChannel channel;
+    private final byte[] buffer = new byte[ExportService.BUFFER_SIZE];
+    private final ByteBuffer wrappedBuffer = ByteBuffer.wrap(this.buffer);
+    private int position = 0;
+
+    private CsvChannelWriter(FileChannel channel) {
+      this.channel = channel;
+    }
+
+    /**
+     * Puts the check-in and check-out dates and the number of nights, each followed by a separator.
+     */
+    private void putFixedFields(int checkInDay, int checkOutDay, int nights) throws IOException {
+      this.ensureRemaining(ExportService.MAX_FIXED_FIELDS_BYTES);
+      this.position = IsoDates.format(checkInDay, this.buffer, this.position);
+      this.buffer[this.position++] = ',';
+      this.position = IsoDates.format(checkOutDay, this.buffer, this.position);
+      this.buffer[this.position++] = ',';
+
+      // Digits are written backwards from the end of the number.
+      int end = this.position + 1;
+      for (int rest = nights / 10; rest > 0; rest /= 10) {
+        end++;
+      }
+      for (int i = end - 1, rest = nights; i >= this.position; i--, rest /= 10) {
+        this.buffer[i] = (byte) ('0' + rest % 10);
+      }
+      this.position = end;
+      this.buffer[this.position++] = ',';
+    }
+
+    private void putBytes(byte[] bytes) throws IOException {
+      if (bytes.length > this.buffer.length) {
+        this.flush();
+        ExportService.writeFully(this.channel, ByteBuffer.wrap(bytes));
+        return;
+      }
+      this.ensureRemaining(bytes.length);
+      System.arraycopy(bytes, 0, this.buffer, this.position, bytes.length);
+      this.position += bytes.length;
+    }
+
+    private void ensureRemaining(int length) throws IOException {
+      if (this.position + length > this.buffer.length) {
+        this.flush();
+      }
+    }
+
+    private void flush() throws IOException {
+      this.wrappedBuffer.clear().limit(this.position);
+      ExportService.writeFully(this.channel, this.wrappedBuffer);
+      this.position = 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+      try {
+        this.flush();
+      } finally {
+        this.channel.close();
+      }
+    }
+  }
+
+  private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+  }
+}
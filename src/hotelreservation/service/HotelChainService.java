@@ -0,0 +1,152 @@
+package hotelreservation.service;
+
+import hotelreservation.event.EventBus;
+import hotelreservation.exception.PropertyAlreadyExistsException;
+import hotelreservation.exception.PropertyNotFoundException;
+import hotelreservation.exception.ReservationNotFoundException;
+import hotelreservation.model.Customer;
+import hotelreservation.model.IRoom;
+import hotelreservation.model.Reservation;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Properties (hotels) of the chain. Each property is a shard with its own {@link ReservationService}; customers are
+ * shared by all properties through {@link CustomerService}.
+ * <p>
+ * Properties other than the default one are loaded from their {@link PropertyStore} on first access, and can be
+ * unloaded (saved to their store, then dropped from memory) independently of each other.
+ */
+public final class HotelChainService {
+  private static final HotelChainService instance = new HotelChainService();
+
+  private final Map<String, PropertyStore> propertyStores = new ConcurrentHashMap<>();
+  private final Map<String, ReservationService> loadedProperties = new ConcurrentHashMap<>();
+
+  private HotelChainService() {
+    this.loadedProperties.put(ReservationService.DEFAULT_PROPERTY_ID, ReservationService.getInstance());
+  }
+
+  public static HotelChainService getInstance() {
+    return HotelChainService.instance;
+  }
+
+  public void registerProperty(String propertyId, PropertyStore propertyStore) throws PropertyAlreadyExistsException {
+    Objects.requireNonNull(propertyStore);
+    if (
+      ReservationService.DEFAULT_PROPERTY_ID.equals(Objects.requireNonNull(propertyId)) ||
+        null != this.propertyStores.putIfAbsent(propertyId, propertyStore)
+    ) {
+      throw new PropertyAlreadyExistsException();
+    }
+  }
+
+  /**
+   * @return The service of the property, loading the property first if needed.
+   */
+  public ReservationService getProperty(String propertyId) throws PropertyNotFoundException {
+    Objects.requireNonNull(propertyId);
+    final ReservationService loadedProperty = this.loadedProperties.get(propertyId);
+    if (null != loadedProperty && !loadedProperty.isUnloaded()) {
+      return loadedProperty;
+    }
+
+    final PropertyStore propertyStore = this.propertyStores.get(propertyId);
+    if (null == propertyStore) {
+      throw new PropertyNotFoundException();
+    }
+    // Waits for an unloading of the property to be done, as both hold the lock of its entry.
+    return this.loadedProperties.computeIfAbsent(propertyId, key -> {
+      // Loading restores mutations that were published when first made.
+      final ReservationService property = new ReservationService(key, null);
+      propertyStore.load(property);
+      property.setEventBus(EventBus.getInstance());
+      return property;
+    });
+  }
+
+  /**
+   * Saves the property to its store and drops it from memory. The default property is never unloaded.
+   * <p>
+   * The property is saved while its mutations are locked out, and rejects them from then on with an
+   * {@link IllegalStateException}: a mutation racing with the unloading either is saved, or fails.
+   */
+  public void unloadProperty(String propertyId) throws PropertyNotFoundException {
+    Objects.requireNonNull(propertyId);
+    final PropertyStore propertyStore = this.propertyStores.get(propertyId);
+    if (null == propertyStore) {
+      throw new PropertyNotFoundException();
+    }
+
+    this.loadedProperties.computeIfPresent(propertyId, (key, property) -> {
+      property.unload(propertyStore);
+      return null;
+    });
+  }
+
+  public Collection<String> getPropertyIds() {
+    final SortedSet<String> propertyIds = new TreeSet<>(this.propertyStores.keySet());
+    propertyIds.add(ReservationService.DEFAULT_PROPERTY_ID);
+    return Collections.unmodifiableSortedSet(propertyIds);
+  }
+
+  public Collection<ReservationService> getLoadedProperties() {
+    return List.copyOf(this.loadedProperties.values());
+  }
+
+  public Collection<String> getLoadedPropertyIds() {
+    return Collections.unmodifiableSortedSet(new TreeSet<>(this.loadedProperties.keySet()));
+  }
+
+  /**
+   * Searches all loaded properties in parallel. Unloaded properties are not searched.
+   *
+   * @return Available rooms by property ID, for properties having at least one available room.
+   */
+  public SortedMap<String, Collection<IRoom>> findRooms(Date checkInDate, Date checkOutDate) {
+    Objects.requireNonNull(checkInDate);
+    Objects.requireNonNull(checkOutDate);
+    return this.loadedProperties.values()
+      .parallelStream()
+      .map(property -> Map.entry(property.getPropertyId(), property.findRooms(checkInDate, checkOutDate)))
+      .filter(entry -> !entry.getValue().isEmpty())
+      .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (first, second) -> first, TreeMap::new));
+  }
+
+  /**
+   * Searches all loaded properties in parallel. Unloaded properties are not searched.
+   *
+   * @return Reservations of the customer by property ID, for properties having at least one.
+   */
+  public SortedMap<String, Collection<Reservation>> getCustomerReservations(Customer customer) {
+    Objects.requireNonNull(customer);
+    return this.loadedProperties.values()
+      .parallelStream()
+      .map(property -> Map.entry(property.getPropertyId(), property.getCustomerReservations(customer)))
+      .filter(entry -> !entry.getValue().isEmpty())
+      .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (first, second) -> first, TreeMap::new));
+  }
+
+  /**
+   * Cancels the reservation in the loaded property holding it. Rooms of different properties may share a number, so
+   * the property the reservation's room belongs to is tried first.
+   */
+  public void cancelReservation(Reservation reservation) throws ReservationNotFoundException {
+    Objects.requireNonNull(reservation);
+    final String roomNumber = reservation.getRoom().getRoomNumber();
+    final List<ReservationService> properties = this.loadedProperties.values().stream()
+      .sorted(Comparator.comparing(property -> reservation.getRoom() != property.getARoom(roomNumber)))
+      .toList();
+    for (final ReservationService property : properties) {
+      try {
+        property.cancelReservation(reservation);
+        return;
+      } catch (ReservationNotFoundException rnfe) {
+        // Held by another property, if any.
+      }
+    }
+    throw new ReservationNotFoundException();
+  }
+}
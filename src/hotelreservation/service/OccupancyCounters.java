@@ -0,0 +1,129 @@
+package hotelreservation.service;
+
+import hotelreservation.model.RoomType;
+import hotelreservation.util.EpochDays;
+
+/**
+ * Number of rooms and of booked rooms of each type, per night.
+ * <p>
+ * Booked rooms are kept in one Fenwick tree per room type over epoch days, holding the differences between consecutive
+ * nights: a stay is a range update of 2 point updates, and the booked rooms on a night are a prefix sum. Both are
+ * logarithmic in the number of nights covered, which grows (by doubling, up to {@link #MAX_DAYS}) as stays outside of
+ * the covered nights are recorded.
+ */
+final class OccupancyCounters {
+  private static final int INITIAL_DAYS = 1024;
+  private static final int DAYS_BEFORE_TODAY = 31;
+  static final int MAX_DAYS = 1 << 16;
+
+  private final int[] roomsPerType = new int[RoomType.values().length];
+
+  private long originDay = EpochDays.today() - OccupancyCounters.DAYS_BEFORE_TODAY;
+  private int[][] trees = new int[RoomType.values().length][OccupancyCounters.INITIAL_DAYS + 1];
+
+  void addRoom(RoomType roomType) {
+    this.roomsPerType[roomType.ordinal()] += 1;
+  }
+
+  int getRoomCount(RoomType roomType) {
+    return this.roomsPerType[roomType.ordinal()];
+  }
+
+  /**
+   * @param delta 1 to record the stay, -1 to release it.
+   * @throws IllegalArgumentException If covering the stay would cover more than {@link #MAX_DAYS} nights.
+   */
+  void addStay(RoomType roomType, long startDay, long endDay, int delta) throws IllegalArgumentException {
+    this.ensureCovered(startDay, endDay);
+    final int[] tree = this.trees[roomType.ordinal()];
+    OccupancyCounters.add(tree, (int) (startDay - this.originDay), delta);
+    OccupancyCounters.add(tree, (int) (endDay - this.originDay), -delta);
+  }
+
+  int getBookedRooms(RoomType roomType, long epochDay) {
+    final long night = epochDay - this.originDay;
+    if (night < 0) {
+      return 0;
+    }
+    final int[] tree = this.trees[roomType.ordinal()];
+    return OccupancyCounters.prefixSum(tree, (int) Math.min(night, tree.length - 2));
+  }
+
+  int getFreeRooms(RoomType roomType, long epochDay) {
+    return this.getRoomCount(roomType) - this.getBookedRooms(roomType, epochDay);
+  }
+
+  /**
+   * @return Number of free rooms of the given type on each night from {@code fromDay} (inclusive) to {@code toDay}
+   * (exclusive).
+   */
+  int[] getFreeRoomsPerNight(RoomType roomType, long fromDay, long toDay) {
+    final int[] freeRooms = new int[Math.toIntExact(toDay - fromDay)];
+    for (int night = 0; night < freeRooms.length; night++) {
+      freeRooms[night] = this.getFreeRooms(roomType, fromDay + night);
+    }
+    return freeRooms;
+  }
+
+  /**
+   * @return Largest number of booked rooms of the given type on a night from {@code fromDay} (inclusive) to
+   * {@code toDay} (exclusive), or 0 if there are no such nights.
+   */
+  int getMaxBookedRooms(RoomType roomType, long fromDay, long toDay) {
+    int maxBookedRooms = 0;
+    for (long day = fromDay; day < toDay; day++) {
+      maxBookedRooms = Math.max(maxBookedRooms, this.getBookedRooms(roomType, day));
+    }
+    return maxBookedRooms;
+  }
+
+  private void ensureCovered(long startDay, long endDay) throws IllegalArgumentException {
+    final int days = this.trees[0].length - 1;
+    if (startDay >= this.originDay && endDay < this.originDay + days) {
+      return;
+    }
+
+    // Growing towards the past moves the origin back by the covered nights at least, so that it is amortized too.
+    final long newOriginDay = startDay < this.originDay ? Math.min(startDay, this.originDay - days) : this.originDay;
+    int newDays = days;
+    while (Math.max(endDay, this.originDay + days) >= newOriginDay + newDays) {
+      if (newDays >= OccupancyCounters.MAX_DAYS) {
+        throw new IllegalArgumentException(
+          "Occupancy counters can't cover more than " + OccupancyCounters.MAX_DAYS + " nights!"
+        );
+      }
+      newDays *= 2;
+    }
+
+    for (int type = 0; type < this.trees.length; type++) {
+      final int[] tree = this.trees[type];
+      final int[] newTree = new int[newDays + 1];
+      final int shift = (int) (this.originDay - newOriginDay);
+      int previous = 0;
+      for (int night = 0; night < days; night++) {
+        final int booked = OccupancyCounters.prefixSum(tree, night);
+        if (booked != previous) {
+          OccupancyCounters.add(newTree, night + shift, booked - previous);
+          previous = booked;
+        }
+      }
+      OccupancyCounters.add(newTree, days + shift, -previous);
+      this.trees[type] = newTree;
+    }
+    this.originDay = newOriginDay;
+  }
+
+  private static void add(int[] tree, int index, int delta) {
+    for (int i = index + 1; i < tree.length; i += i & -i) {
+      tree[i] += delta;
+    }
+  }
+
+  private static int prefixSum(int[] tree, int index) {
+    int sum = 0;
+    for (int i = index + 1; i > 0; i -= i & -i) {
+      sum += tree[i];
+    }
+    return sum;
+  }
+}
@@ -0,0 +1,93 @@
+package hotelreservation.service;
+
+import hotelreservation.exception.RoomAlreadyExistsException;
+import hotelreservation.exception.RoomAlreadyReservedException;
+import hotelreservation.model.IRoom;
+import hotelreservation.model.InventoryMode;
+import hotelreservation.model.RatePlan;
+import hotelreservation.model.RoomType;
+import hotelreservation.model.RoomTypeReservation;
+import hotelreservation.model.WaitlistEntry;
+import hotelreservation.model.WaitlistOrder;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps unloaded properties in an {@link OffHeapReservationStore}, so that their reservations take no heap space
+ * until the property is loaded again. The rest of the state of a property (settings, room type reservations waiting
+ * for a room and the waitlist) is small, and stays on the heap.
+ * <p>
+ * Only unloaded properties are kept off heap: a loaded property keeps its reservations as objects, indexed on the
+ * heap.
+ */
+public class OffHeapPropertyStore implements PropertyStore {
+  private static final int INITIAL_CAPACITY = 1024;
+
+  private final Map<String, List<IRoom>> roomsByProperty = new ConcurrentHashMap<>();
+  private final Map<String, OffHeapReservationStore> reservationsByProperty = new ConcurrentHashMap<>();
+  private final Map<String, PropertyState> statesByProperty = new ConcurrentHashMap<>();
+
+  private static final class PropertyState {
+    private final InventoryMode inventoryMode;
+    private final Map<RoomType, RatePlan> ratePlans = new EnumMap<>(RoomType.class);
+    private final Map<RoomType, Double> overbookingRatios = new EnumMap<>(RoomType.class);
+    private final WaitlistOrder waitlistOrder;
+    private final List<RoomTypeReservation> roomTypeReservations;
+    private final List<WaitlistEntry> waitlist;
+
+    private PropertyState(ReservationService property) {
+      this.inventoryMode = property.getInventoryMode();
+      for (final RoomType roomType : RoomType.values()) {
+        this.ratePlans.put(roomType, property.getRatePlan(roomType));
+        this.overbookingRatios.put(roomType, property.getOverbookingRatio(roomType));
+      }
+      this.waitlistOrder = property.getWaitlistOrder();
+      this.roomTypeReservations = List.copyOf(property.getRoomTypeReservations());
+      this.waitlist = List.copyOf(property.getWaitlist());
+    }
+  }
+
+  @Override
+  public void load(ReservationService property) {
+    final String propertyId = property.getPropertyId();
+    try {
+      for (final IRoom room : this.roomsByProperty.getOrDefault(propertyId, List.of())) {
+        property.addRoom(room);
+      }
+
+      final OffHeapReservationStore reservations = this.reservationsByProperty.get(propertyId);
+      if (null == reservations) {
+        return;
+      }
+      // Rooms are booked before the inventory mode is restored, as their capacity was checked when they were booked.
+      for (int i = 0; i < reservations.size(); i++) {
+        property.restoreReservation(reservations.get(i));
+      }
+
+      final PropertyState state = this.statesByProperty.get(propertyId);
+      state.roomTypeReservations.forEach(property::restoreRoomTypeReservation);
+      state.waitlist.forEach(property::restoreWaitlistEntry);
+      state.ratePlans.forEach(property::setRatePlan);
+      state.overbookingRatios.forEach(property::setOverbookingRatio);
+      property.setWaitlistOrder(state.waitlistOrder);
+      property.setInventoryMode(state.inventoryMode);
+    } catch (RoomAlreadyExistsException | RoomAlreadyReservedException exception) {
+      throw new IllegalStateException("Property " + propertyId + " must be empty before being loaded!", exception);
+    }
+  }
+
+  @Override
+  public void save(ReservationService property) {
+    // Rooms are listed by room ID.
+    final List<IRoom> rooms = List.copyOf(property.getAllRooms());
+    final OffHeapReservationStore store = new OffHeapReservationStore(
+      OffHeapPropertyStore.INITIAL_CAPACITY, rooms::get, property.getCustomerService()::getCustomerById
+    );
+    property.copyReservationsTo(store);
+
+    this.roomsByProperty.put(property.getPropertyId(), rooms);
+    this.reservationsByProperty.put(property.getPropertyId(), store);
+    this.statesByProperty.put(property.getPropertyId(), new PropertyState(property));
+  }
+}
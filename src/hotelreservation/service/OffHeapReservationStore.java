@@ -0,0 +1,127 @@
+package hotelreservation.service;
+
+import hotelreservation.model.Customer;
+import hotelreservation.model.IRoom;
+import hotelreservation.model.Reservation;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Reservations stored outside of the Java heap, as fixed-width records in a direct buffer:
+ * room ID (int), customer ID (int), check-in time (long) and check-out time (long), in epoch milliseconds.
+ * <p>
+ * Rooms and customers are referred to by the dense IDs they already have (room IDs of their property, and customer
+ * IDs), and only looked up when read. {@link Reservation} objects are only created when read, so a stored reservation
+ * costs {@value #RECORD_BYTES} bytes and nothing for the garbage collector to trace. Records are unordered: a removed
+ * record is replaced by the last record.
+ */
+public final class OffHeapReservationStore {
+  public static final int RECORD_BYTES = 24;
+
+  private static final int ROOM_ID_OFFSET = 0;
+  private static final int CUSTOMER_ID_OFFSET = 4;
+  private static final int CHECK_IN_OFFSET = 8;
+  private static final int CHECK_OUT_OFFSET = 16;
+
+  private final IntFunction<IRoom> roomsById;
+  private final IntFunction<Customer> customersById;
+
+  private ByteBuffer records;
+  private int size = 0;
+
+  /**
+   * @param roomsById     Room of each room ID stored.
+   * @param customersById Customer of each customer ID stored.
+   */
+  public OffHeapReservationStore(
+    int initialCapacity,
+    IntFunction<IRoom> roomsById,
+    IntFunction<Customer> customersById
+  ) {
+    if (initialCapacity < 1) {
+      throw new IllegalArgumentException("Initial capacity must be positive!");
+    }
+    this.roomsById = Objects.requireNonNull(roomsById);
+    this.customersById = Objects.requireNonNull(customersById);
+    this.records = ByteBuffer.allocateDirect(Math.multiplyExact(initialCapacity, OffHeapReservationStore.RECORD_BYTES));
+  }
+
+  public synchronized int size() {
+    return this.size;
+  }
+
+  public synchronized long getOffHeapBytes() {
+    return this.records.capacity();
+  }
+
+  /**
+   * @return Index of the stored reservation.
+   */
+  public synchronized int add(int roomId, int customerId, Date checkInDate, Date checkOutDate) {
+    Objects.requireNonNull(checkInDate);
+    Objects.requireNonNull(checkOutDate);
+    if ((this.size + 1) * OffHeapReservationStore.RECORD_BYTES > this.records.capacity()) {
+      this.grow();
+    }
+
+    final int offset = this.size * OffHeapReservationStore.RECORD_BYTES;
+    this.records.putInt(offset + OffHeapReservationStore.ROOM_ID_OFFSET, roomId);
+    this.records.putInt(offset + OffHeapReservationStore.CUSTOMER_ID_OFFSET, customerId);
+    this.records.putLong(offset + OffHeapReservationStore.CHECK_IN_OFFSET, checkInDate.getTime());
+    this.records.putLong(offset + OffHeapReservationStore.CHECK_OUT_OFFSET, checkOutDate.getTime());
+    return this.size++;
+  }
+
+  /**
+   * @return A new reservation object built from the stored record.
+   */
+  public synchronized Reservation get(int index) {
+    Objects.checkIndex(index, this.size);
+    return this.toReservation(this.records, index * OffHeapReservationStore.RECORD_BYTES);
+  }
+
+  public synchronized void remove(int index) {
+    Objects.checkIndex(index, this.size);
+    this.size -= 1;
+    if (index != this.size) {
+      final ByteBuffer lastRecord = this.records
+        .slice(this.size * OffHeapReservationStore.RECORD_BYTES, OffHeapReservationStore.RECORD_BYTES);
+      this.records
+        .put(index * OffHeapReservationStore.RECORD_BYTES, lastRecord, 0, OffHeapReservationStore.RECORD_BYTES);
+    }
+  }
+
+  public synchronized void clear() {
+    this.size = 0;
+  }
+
+  /**
+   * @return Lazily built reservations of the records stored when this method was called, which are copied (off heap)
+   * so that later removals do not move them.
+   */
+  public synchronized Stream<Reservation> stream() {
+    final ByteBuffer records = ByteBuffer.allocateDirect(Math.max(1, this.size * OffHeapReservationStore.RECORD_BYTES))
+      .put(0, this.records, 0, this.size * OffHeapReservationStore.RECORD_BYTES);
+    return IntStream.range(0, this.size)
+      .mapToObj(index -> this.toReservation(records, index * OffHeapReservationStore.RECORD_BYTES));
+  }
+
+  private Reservation toReservation(ByteBuffer records, int offset) {
+    return new Reservation(
+      this.customersById.apply(records.getInt(offset + OffHeapReservationStore.CUSTOMER_ID_OFFSET)),
+      this.roomsById.apply(records.getInt(offset + OffHeapReservationStore.ROOM_ID_OFFSET)),
+      new Date(records.getLong(offset + OffHeapReservationStore.CHECK_IN_OFFSET)),
+      new Date(records.getLong(offset + OffHeapReservationStore.CHECK_OUT_OFFSET))
+    );
+  }
+
+  private void grow() {
+    final ByteBuffer grownRecords = ByteBuffer.allocateDirect(Math.multiplyExact(this.records.capacity(), 2));
+    grownRecords.put(0, this.records, 0, this.size * OffHeapReservationStore.RECORD_BYTES);
+    this.records = grownRecords;
+  }
+}
@@ -0,0 +1,16 @@
+package hotelreservation.service;
+
+/**
+ * Where the rooms, reservations, waitlist and settings of a property are kept while the property is not loaded.
+ */
+public interface PropertyStore {
+  /**
+   * Populates a freshly created, empty property with its saved state.
+   */
+  public void load(ReservationService property);
+
+  /**
+   * Persists a property right before it is unloaded.
+   */
+  public void save(ReservationService property);
+}
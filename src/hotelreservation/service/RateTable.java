@@ -0,0 +1,179 @@
+package hotelreservation.service;
+
+import hotelreservation.model.IRoom;
+import hotelreservation.model.RatePlan;
+import hotelreservation.model.RoomType;
+import hotelreservation.util.EpochDays;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.LongSupplier;
+
+/**
+ * Precomputed nightly rates of every room over a fixed horizon of nights.
+ * <p>
+ * Rates are laid out night-major ({@code rates[night * width + roomId]}), so quoting all rooms for a stay is a sum of
+ * contiguous rows, which the JIT can vectorize. Rules of the {@link RatePlan}s are only evaluated when rows are
+ * (re)built: on room addition, on plan changes, and on bookings and cancellations (for the rooms of the booked type
+ * on the nights of the stay, since surge pricing depends on the occupancy of the room type).
+ * <p>
+ * Quotes lazily rebuild stale rows while only holding the read lock of the property, hence the synchronized methods.
+ * The horizon starts {@link #DAYS_BEFORE_TODAY} days before today: it is moved forward, and the table rebuilt, by the
+ * first quote of each day.
+ */
+final class RateTable {
+  static final int DAYS_BEFORE_TODAY = 31;
+  static final int HORIZON_DAYS = 400;
+
+  private final LongSupplier today;
+  private long originDay;
+
+  // Indexed by room ID
+  private final List<IRoom> rooms = new ArrayList<>();
+  // Indexed by room type ordinal, each filled up to the number of rooms of the type
+  private int[][] roomIdsByType = new int[RoomType.values().length][8];
+  private final int[] roomCountsByType = new int[RoomType.values().length];
+  private final Map<RoomType, RatePlan> ratePlans = new EnumMap<>(RoomType.class);
+  private final OccupancyCounters occupancyCounters;
+
+  private long[] rates = new long[0];
+  private boolean stale = false;
+
+  RateTable(OccupancyCounters occupancyCounters) {
+    this(occupancyCounters, EpochDays::today);
+  }
+
+  /**
+   * @param today Supplier of the current epoch day.
+   */
+  RateTable(OccupancyCounters occupancyCounters, LongSupplier today) {
+    this.occupancyCounters = Objects.requireNonNull(occupancyCounters);
+    this.today = Objects.requireNonNull(today);
+    this.originDay = today.getAsLong() - RateTable.DAYS_BEFORE_TODAY;
+  }
+
+  synchronized void addRoom(int roomId, IRoom room) {
+    if (roomId != this.rooms.size()) {
+      throw new IllegalArgumentException("Rooms must be added in order of their IDs!");
+    }
+    this.rooms.add(room);
+    final int type = room.getRoomType().ordinal();
+    if (this.roomCountsByType[type] == this.roomIdsByType[type].length) {
+      this.roomIdsByType[type] = Arrays.copyOf(this.roomIdsByType[type], 2 * this.roomIdsByType[type].length);
+    }
+    this.roomIdsByType[type][this.roomCountsByType[type]++] = roomId;
+    this.stale = true;
+  }
+
+  synchronized RatePlan getRatePlan(RoomType roomType) {
+    return this.ratePlans.getOrDefault(Objects.requireNonNull(roomType), RatePlan.FLAT);
+  }
+
+  synchronized void setRatePlan(RoomType roomType, RatePlan ratePlan) {
+    this.ratePlans.put(Objects.requireNonNull(roomType), Objects.requireNonNull(ratePlan));
+    this.stale = true;
+  }
+
+  /**
+   * Rebuilds the rates of the rooms of a type on the nights of a stay, after occupancy of the type on these nights has
+   * changed.
+   */
+  synchronized void refreshStay(RoomType roomType, long startDay, long endDay) {
+    if (!this.stale) {
+      this.buildRows(roomType, this.clampToHorizon(startDay), this.clampToHorizon(endDay));
+    }
+  }
+
+  /**
+   * @return Total prices in cents of each given room for the stay, in the same order as the given room IDs.
+   */
+  synchronized long[] quote(int[] roomIds, Date checkInDate, Date checkOutDate) {
+    final long originDay = this.today.getAsLong() - RateTable.DAYS_BEFORE_TODAY;
+    if (originDay != this.originDay) {
+      this.originDay = originDay;
+      this.stale = true;
+    }
+    this.rebuildIfStale();
+
+    final long checkInDay = EpochDays.of(checkInDate);
+    final long endDay = EpochDays.endOfStay(checkInDay, EpochDays.of(checkOutDate));
+    final int from = this.clampToHorizon(checkInDay);
+    final int to = this.clampToHorizon(endDay);
+
+    final int width = this.rooms.size();
+    final long[] totalsByRoomId = new long[width];
+    for (int night = from; night < to; night++) {
+      final int rowStart = night * width;
+      for (int roomId = 0; roomId < width; roomId++) {
+        totalsByRoomId[roomId] += this.rates[rowStart + roomId];
+      }
+    }
+
+    final long[] totals = new long[roomIds.length];
+    for (int i = 0; i < totals.length; i++) {
+      final IRoom room = this.rooms.get(roomIds[i]);
+      long total = totalsByRoomId[roomIds[i]];
+      // Nights outside of the horizon are rare, so their rules are evaluated on the fly.
+      for (long day = checkInDay; day < endDay; day++) {
+        if (day < this.originDay + from || day >= this.originDay + to) {
+          total += this.computeRate(room, day);
+        }
+      }
+      totals[i] = total;
+    }
+    return totals;
+  }
+
+  private void rebuildIfStale() {
+    if (!this.stale) {
+      return;
+    }
+    this.rates = new long[RateTable.HORIZON_DAYS * this.rooms.size()];
+    this.buildRows(0, RateTable.HORIZON_DAYS);
+    this.stale = false;
+  }
+
+  private void buildRows(int from, int to) {
+    final int width = this.rooms.size();
+    for (int night = from; night < to; night++) {
+      final int rowStart = night * width;
+      for (int roomId = 0; roomId < width; roomId++) {
+        this.rates[rowStart + roomId] = this.computeRate(this.rooms.get(roomId), this.originDay + night);
+      }
+    }
+  }
+
+  private void buildRows(RoomType roomType, int from, int to) {
+    final int width = this.rooms.size();
+    final int[] roomIds = this.roomIdsByType[roomType.ordinal()];
+    final int roomCount = this.roomCountsByType[roomType.ordinal()];
+    for (int night = from; night < to; night++) {
+      final int rowStart = night * width;
+      for (int i = 0; i < roomCount; i++) {
+        this.rates[rowStart + roomIds[i]] = this.computeRate(this.rooms.get(roomIds[i]), this.originDay + night);
+      }
+    }
+  }
+
+  private long computeRate(IRoom room, long epochDay) {
+    final long basePrice = room.getRoomPrice().getCents();
+    if (0 == basePrice) {
+      return 0;
+    }
+
+    final int roomCount = this.occupancyCounters.getRoomCount(room.getRoomType());
+    final double occupancy = 0 == roomCount
+      ? 0
+      : ((double) this.occupancyCounters.getBookedRooms(room.getRoomType(), epochDay)) / roomCount;
+
+    return Math.round(
+      basePrice * this.ratePlans
+        .getOrDefault(room.getRoomType(), RatePlan.FLAT)
+        .getMultiplier(LocalDate.ofEpochDay(epochDay), occupancy)
+    );
+  }
+
+  private int clampToHorizon(long epochDay) {
+    return (int) Math.max(0, Math.min(RateTable.HORIZON_DAYS, epochDay - this.originDay));
+  }
+}
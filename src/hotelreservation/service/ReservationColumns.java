@@ -0,0 +1,115 @@
+package hotelreservation.service;
+
+import hotelreservation.model.IRoom;
+import hotelreservation.model.Reservation;
+import hotelreservation.util.EpochDays;
+
+import java.util.*;
+
+/**
+ * Columnar projection of reservations of rooms: one primitive array per field, indexed by row. Room type reservations
+ * have no room to refer to, so they only get a row once assigned to one. Rooms and customers are referred to by their
+ * dense IDs, and room attributes are arrays indexed by room ID. Stays are stored as the nights they cover, from
+ * {@code startDays[i]} (inclusive) to {@code endDays[i]} (exclusive); {@code checkOutDays[i]} is the check-out day as
+ * booked, which is the start day for same-day stays.
+ * <p>
+ * Rows are unordered: a removed row is replaced by the last row.
+ */
+final class ReservationColumns {
+  private static final int INITIAL_CAPACITY = 64;
+
+  int size = 0;
+  int[] roomIds = new int[ReservationColumns.INITIAL_CAPACITY];
+  int[] customerIds = new int[ReservationColumns.INITIAL_CAPACITY];
+  int[] startDays = new int[ReservationColumns.INITIAL_CAPACITY];
+  int[] endDays = new int[ReservationColumns.INITIAL_CAPACITY];
+  int[] checkOutDays = new int[ReservationColumns.INITIAL_CAPACITY];
+
+  int roomCount = 0;
+  int[] roomTypeOrdinals = new int[ReservationColumns.INITIAL_CAPACITY];
+  long[] roomPriceCents = new long[ReservationColumns.INITIAL_CAPACITY];
+
+  private final List<Reservation> reservationByRow = new ArrayList<>();
+  private final Map<Reservation, Integer> rowByReservation = new HashMap<>();
+
+  void addRoom(int roomId, IRoom room) {
+    if (roomId != this.roomCount) {
+      throw new IllegalArgumentException("Rooms must be added in order of their IDs!");
+    }
+
+    if (this.roomCount == this.roomTypeOrdinals.length) {
+      final int capacity = this.roomCount * 2;
+      this.roomTypeOrdinals = Arrays.copyOf(this.roomTypeOrdinals, capacity);
+      this.roomPriceCents = Arrays.copyOf(this.roomPriceCents, capacity);
+    }
+    this.roomTypeOrdinals[this.roomCount] = room.getRoomType().ordinal();
+    this.roomPriceCents[this.roomCount] = room.getRoomPrice().getCents();
+    this.roomCount += 1;
+  }
+
+  /**
+   * @return Copy of the rows and room attributes, without their reservations, to be read after releasing the lock.
+   */
+  ReservationColumns copyRows() {
+    final ReservationColumns copy = new ReservationColumns();
+    copy.size = this.size;
+    copy.roomIds = Arrays.copyOf(this.roomIds, this.size);
+    copy.customerIds = Arrays.copyOf(this.customerIds, this.size);
+    copy.startDays = Arrays.copyOf(this.startDays, this.size);
+    copy.endDays = Arrays.copyOf(this.endDays, this.size);
+    copy.checkOutDays = Arrays.copyOf(this.checkOutDays, this.size);
+    copy.roomCount = this.roomCount;
+    copy.roomTypeOrdinals = Arrays.copyOf(this.roomTypeOrdinals, this.roomCount);
+    copy.roomPriceCents = Arrays.copyOf(this.roomPriceCents, this.roomCount);
+    return copy;
+  }
+
+  /**
+   * @return Row of the reservation, or -1 if it has none.
+   */
+  int getRow(Reservation reservation) {
+    return this.rowByReservation.getOrDefault(reservation, -1);
+  }
+
+  void add(Reservation reservation, int roomId, int customerId) {
+    if (this.size == this.startDays.length) {
+      final int capacity = this.size * 2;
+      this.roomIds = Arrays.copyOf(this.roomIds, capacity);
+      this.customerIds = Arrays.copyOf(this.customerIds, capacity);
+      this.startDays = Arrays.copyOf(this.startDays, capacity);
+      this.endDays = Arrays.copyOf(this.endDays, capacity);
+      this.checkOutDays = Arrays.copyOf(this.checkOutDays, capacity);
+    }
+
+    this.roomIds[this.size] = roomId;
+    this.customerIds[this.size] = customerId;
+    final long startDay = EpochDays.of(reservation.getCheckInDate());
+    this.startDays[this.size] = Math.toIntExact(startDay);
+    final long checkOutDay = EpochDays.of(reservation.getCheckOutDate());
+    this.endDays[this.size] = Math.toIntExact(EpochDays.endOfStay(startDay, checkOutDay));
+    this.checkOutDays[this.size] = Math.toIntExact(checkOutDay);
+    this.reservationByRow.add(reservation);
+    this.rowByReservation.put(reservation, this.size);
+    this.size += 1;
+  }
+
+  void remove(Reservation reservation) {
+    final Integer row = this.rowByReservation.remove(reservation);
+    if (null == row) {
+      return;
+    }
+
+    final int lastRow = this.size - 1;
+    final Reservation lastReservation = this.reservationByRow.remove(lastRow);
+    if (row != lastRow) {
+      this.roomIds[row] = this.roomIds[lastRow];
+      this.customerIds[row] = this.customerIds[lastRow];
+      this.startDays[row] = this.startDays[lastRow];
+      this.endDays[row] = this.endDays[lastRow];
+      this.checkOutDays[row] = this.checkOutDays[lastRow];
+      this.reservationByRow.set(row, lastReservation);
+      this.rowByReservation.put(lastReservation, row);
+    }
+    this.size = lastRow;
+  }
+}
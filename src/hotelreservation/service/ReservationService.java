@@ -1,116 +1,1079 @@
 package hotelreservation.service;
 
+import hotelreservation.event.EventBus;
 import hotelreservation.exception.RoomAlreadyExistsException;
+import hotelreservation.exception.ReservationNotFoundException;
 import hotelreservation.exception.RoomAlreadyReservedException;
+import hotelreservation.model.AvailabilityCalendar;
 import hotelreservation.model.Customer;
 import hotelreservation.model.IRoom;
+import hotelreservation.model.InventoryMode;
+import hotelreservation.model.Money;
+import hotelreservation.model.RatePlan;
+import hotelreservation.model.RoomAssignmentReport;
+import hotelreservation.model.RoomFilter;
 import hotelreservation.model.Reservation;
+import hotelreservation.model.RoomQuote;
+import hotelreservation.model.RoomRanking;
+import hotelreservation.model.RoomTypeReservation;
+import hotelreservation.model.RoomType;
+import hotelreservation.model.WaitlistEntry;
+import hotelreservation.model.WaitlistOrder;
+import hotelreservation.util.EpochDays;
 
 import java.util.*;
-import java.util.function.BiFunction;
-import java.util.function.Predicate;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.IntStream;
 
+/**
+ * Rooms and reservations of one property (hotel) of the chain. Every property has its own indexes and its own lock;
+ * see {@link HotelChainService} for the other properties.
+ * <p>
+ * Rooms are given dense IDs in order of addition, and customers have the dense IDs of {@link CustomerService}: every
+ * internal index is an array or list indexed by these IDs. Room numbers are only used to look rooms up.
+ * <p>
+ * In {@link InventoryMode#ROOM_TYPE} mode, room types are also booked without a room, against the number of booked
+ * rooms of the type per night: such bookings wait for a room in {@link #getRoomTypeReservations()}, and count in the
+ * occupancy of their type like reservations of rooms.
+ * <p>
+ * Every mutation is published to the property's {@link EventBus} while the write lock is held, so events of a property
+ * are in the order of its mutations.
+ * <p>
+ * Customers finding no room may join the waitlist of a room type for their stay. Whenever a cancellation or a new room
+ * frees some nights, the waitlist entries overlapping them are found in a {@link StayIndex} and offered the freed
+ * inventory in {@link WaitlistOrder}; entries booked that way leave the waitlist, and {@link WaitlistListener}s are
+ * notified.
+ */
 public final class ReservationService {
-  private static final ReservationService instance = new ReservationService();
-  private ReservationService() {}
+  public static final String DEFAULT_PROPERTY_ID = "main";
+  /**
+   * Stays must start and end within this number of days of today, which bounds the nights covered by the occupancy
+   * counters.
+   */
+  public static final int MAX_DAYS_FROM_TODAY = 3660;
+  private static final int NO_ROOM_ID = -1;
 
-  private final List<Reservation> reservations = new LinkedList<>();
-  private final Set<IRoom> rooms = new HashSet<>();
+  private static final ReservationService instance = new ReservationService(ReservationService.DEFAULT_PROPERTY_ID);
 
+  /**
+   * Creates a standalone property, which is not registered in {@link HotelChainService}, publishing to the shared
+   * event bus.
+   */
+  public ReservationService(String propertyId) {
+    this(propertyId, EventBus.getInstance());
+  }
+
+  /**
+   * @param eventBus Bus to publish mutations to, or null not to publish them (e.g. replicas, whose leader does).
+   */
+  public ReservationService(String propertyId, EventBus eventBus) {
+    this(propertyId, eventBus, CustomerService.getInstance());
+  }
+
+  /**
+   * @param customerService Customers to give customer IDs to the customers booking rooms.
+   */
+  ReservationService(String propertyId, EventBus eventBus, CustomerService customerService) {
+    this.propertyId = Objects.requireNonNull(propertyId);
+    this.eventBus = eventBus;
+    this.customerService = Objects.requireNonNull(customerService);
+  }
+
+  private final String propertyId;
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private EventBus eventBus;
+
+  private final CustomerService customerService;
+
+  private final Set<Reservation> reservations = new LinkedHashSet<>();
+  private final Map<String, Integer> roomIdsByNumber = new HashMap<>();
+  private final List<IRoom> roomsById = new ArrayList<>();
+  // Reservations of a room never overlap, so ordering them by check-in date also orders them by check-out date.
+  private final List<NavigableMap<Date, Reservation>> reservationsByRoomId = new ArrayList<>();
+  // Customer IDs are global, so a property only has the reservations of some of them (null for the others).
+  private final List<List<Reservation>> reservationsByCustomerId = new ArrayList<>();
+  private final OccupancyCounters occupancyCounters = new OccupancyCounters();
+  // Stays counted on every day from check-in to check-out, both included, as rooms can't take two stays sharing a day.
+  private final OccupancyCounters stayDayCounters = new OccupancyCounters();
+  private final RateTable rateTable = new RateTable(this.occupancyCounters);
+  private final ReservationColumns reservationColumns = new ReservationColumns();
+  private final RoomAttributeIndex roomAttributeIndex = new RoomAttributeIndex();
+  private final Set<RoomTypeReservation> roomTypeReservations = new LinkedHashSet<>();
+  // Room type reservations by type, over their nights, for the calendar.
+  private final List<StayIndex<RoomTypeReservation>> roomTypeReservationIndexes = Arrays.stream(RoomType.values())
+    .map(roomType -> new StayIndex<>(RoomTypeReservation::getSequence))
+    .toList();
+  private final Map<RoomType, Double> overbookingRatios = new EnumMap<>(RoomType.class);
+  private InventoryMode inventoryMode = InventoryMode.ROOM;
+  private final Set<WaitlistEntry> waitlist = new LinkedHashSet<>();
+  private final List<StayIndex<WaitlistEntry>> waitlistIndexes = Arrays.stream(RoomType.values())
+    .map(roomType -> new StayIndex<>(WaitlistEntry::getSequence))
+    .toList();
+  private WaitlistOrder waitlistOrder = WaitlistOrder.FIFO;
+  // Set once saved to the property store, under the write lock: mutations of an unloaded property would be lost.
+  private volatile boolean isUnloaded = false;
+  private final List<WaitlistListener> waitlistListeners = new CopyOnWriteArrayList<>();
+
+  /**
+   * @return The service of the default property.
+   */
   public static ReservationService getInstance() {
     return ReservationService.instance;
   }
 
+  public String getPropertyId() {
+    return this.propertyId;
+  }
+
   public void addRoom(IRoom room) throws RoomAlreadyExistsException {
-    if (!this.rooms.add(Objects.requireNonNull(room))) {
-      throw new RoomAlreadyExistsException();
+    Objects.requireNonNull(room);
+    final List<Runnable> notifications;
+    this.lock.writeLock().lock();
+    try {
+      this.requireLoaded();
+      final int roomId = this.roomsById.size();
+      if (null != this.roomIdsByNumber.putIfAbsent(room.getRoomNumber(), roomId)) {
+        throw new RoomAlreadyExistsException();
+      }
+      this.roomsById.add(room);
+      this.reservationsByRoomId.add(new TreeMap<>());
+      this.occupancyCounters.addRoom(room.getRoomType());
+      this.stayDayCounters.addRoom(room.getRoomType());
+      this.rateTable.addRoom(roomId, room);
+      this.reservationColumns.addRoom(roomId, room);
+      this.roomAttributeIndex.addRoom(roomId, room);
+      if (null != this.eventBus) {
+        this.eventBus.publishAddedRoom(this.propertyId, room);
+      }
+      notifications = this.promoteWaitlist(room.getRoomType(), Long.MIN_VALUE, Long.MAX_VALUE, roomId);
+    } finally {
+      this.lock.writeLock().unlock();
+    }
+    notifications.forEach(Runnable::run);
+  }
+
+  boolean isUnloaded() {
+    return this.isUnloaded;
+  }
+
+  /**
+   * Saves the property to the store, then rejects every mutation: callers still holding the property must get it again
+   * from {@link HotelChainService}, which loads it back.
+   */
+  void unload(PropertyStore propertyStore) {
+    this.lock.writeLock().lock();
+    try {
+      this.requireLoaded();
+      propertyStore.save(this);
+      this.isUnloaded = true;
+    } finally {
+      this.lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * @param eventBus Bus to publish the next mutations to, or null not to publish them.
+   */
+  void setEventBus(EventBus eventBus) {
+    this.lock.writeLock().lock();
+    try {
+      this.eventBus = eventBus;
+    } finally {
+      this.lock.writeLock().unlock();
+    }
+  }
+
+  public RatePlan getRatePlan(RoomType roomType) {
+    this.lock.readLock().lock();
+    try {
+      return this.rateTable.getRatePlan(roomType);
+    } finally {
+      this.lock.readLock().unlock();
+    }
+  }
+
+  public void setRatePlan(RoomType roomType, RatePlan ratePlan) {
+    this.lock.writeLock().lock();
+    try {
+      this.requireLoaded();
+      this.rateTable.setRatePlan(roomType, ratePlan);
+    } finally {
+      this.lock.writeLock().unlock();
+    }
+  }
+
+  public InventoryMode getInventoryMode() {
+    this.lock.readLock().lock();
+    try {
+      return this.inventoryMode;
+    } finally {
+      this.lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * @throws IllegalStateException If switching back to {@link InventoryMode#ROOM} while room types are booked without
+   *                               a room.
+   */
+  public void setInventoryMode(InventoryMode inventoryMode) throws IllegalStateException {
+    Objects.requireNonNull(inventoryMode);
+    this.lock.writeLock().lock();
+    try {
+      this.requireLoaded();
+      if (InventoryMode.ROOM == inventoryMode && !this.roomTypeReservations.isEmpty()) {
+        throw new IllegalStateException("Room type reservations must be assigned to rooms before selling rooms!");
+      }
+      this.inventoryMode = inventoryMode;
+    } finally {
+      this.lock.writeLock().unlock();
+    }
+  }
+
+  public double getOverbookingRatio(RoomType roomType) {
+    Objects.requireNonNull(roomType);
+    this.lock.readLock().lock();
+    try {
+      return this.overbookingRatios.getOrDefault(roomType, 0.);
+    } finally {
+      this.lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * In {@link InventoryMode#ROOM_TYPE} mode, up to {@code rooms * (1 + ratio)} (rounded down) rooms of the type can be
+   * booked per night. The ratio is 0 by default.
+   */
+  public void setOverbookingRatio(RoomType roomType, double ratio) throws IllegalArgumentException {
+    Objects.requireNonNull(roomType);
+    if (!(ratio >= 0)) {
+      throw new IllegalArgumentException("Overbooking ratio must not be negative!");
+    }
+    this.lock.writeLock().lock();
+    try {
+      this.requireLoaded();
+      this.overbookingRatios.put(roomType, ratio);
+    } finally {
+      this.lock.writeLock().unlock();
     }
   }
 
   public IRoom getARoom(String roomId) {
     Objects.requireNonNull(roomId);
-    return this.rooms
-      .stream()
-      .filter(room -> room.getRoomNumber().equals(roomId))
-      .findFirst()
-      .orElse(null);
+    this.lock.readLock().lock();
+    try {
+      final Integer id = this.roomIdsByNumber.get(roomId);
+      return null == id ? null : this.roomsById.get(id);
+    } finally {
+      this.lock.readLock().unlock();
+    }
   }
 
+  /**
+   * @throws IllegalArgumentException If the room has not been added to this property, or if the stay is too far from
+   *                                  today.
+   */
   public Reservation reserveARoom(Customer customer, IRoom room, Date checkInDate, Date checkOutDate)
-    throws RoomAlreadyReservedException {
-    final BiFunction<Date, Date, Boolean> isOverlappingDate = this.getOverlappingDatePredicate(
-      Objects.requireNonNull(checkInDate),
-      Objects.requireNonNull(checkOutDate)
+    throws IllegalArgumentException, RoomAlreadyReservedException {
+    ReservationService.requireWithinHorizon(checkInDate, checkOutDate);
+    return this.book(customer, room, checkInDate, checkOutDate);
+  }
+
+  /**
+   * Adds back a reservation saved by a {@link PropertyStore}, which may be older than the horizon of new stays.
+   */
+  void restoreReservation(Reservation reservation) throws RoomAlreadyReservedException {
+    this.book(
+      reservation.getCustomer(), reservation.getRoom(), reservation.getCheckInDate(), reservation.getCheckOutDate()
     );
+  }
 
-    final Predicate<Reservation> isReserved = reservation ->
-      reservation.getRoom().equals(room) &&
-        isOverlappingDate.apply(
-          reservation.getCheckInDate(), reservation.getCheckOutDate()
-        );
+  private Reservation book(Customer customer, IRoom room, Date checkInDate, Date checkOutDate)
+    throws IllegalArgumentException, RoomAlreadyReservedException {
+    Objects.requireNonNull(checkInDate);
+    Objects.requireNonNull(checkOutDate);
+    final int customerId = this.customerService.getCustomerId(Objects.requireNonNull(customer));
 
-    if (this.reservations.stream().anyMatch(isReserved)) {
-      throw new RoomAlreadyReservedException();
+    this.lock.writeLock().lock();
+    try {
+      this.requireLoaded();
+      final int roomId = this.getRoomIdOrThrow(room);
+      if (
+        this.isReserved(roomId, checkInDate, checkOutDate) ||
+          !this.hasRoomTypeCapacity(room.getRoomType(), checkInDate, checkOutDate)
+      ) {
+        throw new RoomAlreadyReservedException();
+      }
+
+      final Reservation reservation = new Reservation(customer, room, checkInDate, checkOutDate);
+      this.addReservation(reservation, roomId, customerId);
+      this.updateOccupancy(room.getRoomType(), checkInDate, checkOutDate, 1);
+      if (null != this.eventBus) {
+        this.eventBus.publishReservation(this.propertyId, reservation);
+      }
+      return reservation;
+    } finally {
+      this.lock.writeLock().unlock();
     }
+  }
 
-    final Reservation reservation = new Reservation(customer, room, checkInDate, checkOutDate);
-    this.reservations.add(reservation);
-    return reservation;
+  public void cancelReservation(Reservation reservation) throws ReservationNotFoundException {
+    Objects.requireNonNull(reservation);
+    final List<Runnable> notifications;
+    this.lock.writeLock().lock();
+    try {
+      this.requireLoaded();
+      if (!this.reservations.remove(reservation)) {
+        throw new ReservationNotFoundException();
+      }
+      final int roomId = this.getRoomIdOrThrow(reservation.getRoom());
+      this.reservationsByRoomId.get(roomId).remove(reservation.getCheckInDate());
+      this.reservationsByCustomerId
+        .get(this.customerService.findCustomerId(reservation.getCustomer()))
+        .remove(reservation);
+      this.reservationColumns.remove(reservation);
+      this.updateOccupancy(
+        reservation.getRoom().getRoomType(), reservation.getCheckInDate(), reservation.getCheckOutDate(), -1
+      );
+      if (null != this.eventBus) {
+        this.eventBus.publishCancellation(this.propertyId, reservation);
+      }
+      notifications = this.promoteWaitlist(
+        reservation.getRoom().getRoomType(),
+        EpochDays.of(reservation.getCheckInDate()),
+        EpochDays.of(reservation.getCheckOutDate()),
+        roomId
+      );
+    } finally {
+      this.lock.writeLock().unlock();
+    }
+    notifications.forEach(Runnable::run);
+  }
+
+  /**
+   * Books a room of the given type, to be assigned a specific room later: this only checks and updates the number of
+   * booked rooms of the type on each night of the stay.
+   *
+   * @throws IllegalArgumentException     If the stay is too far from today.
+   * @throws IllegalStateException        If the property is not in {@link InventoryMode#ROOM_TYPE} mode.
+   * @throws RoomAlreadyReservedException If the type is sold out (overbooking included) on a night of the stay.
+   */
+  public RoomTypeReservation reserveARoomType(Customer customer, RoomType roomType, Date checkInDate, Date checkOutDate)
+    throws IllegalArgumentException, IllegalStateException, RoomAlreadyReservedException {
+    ReservationService.requireWithinHorizon(checkInDate, checkOutDate);
+    final RoomTypeReservation reservation = new RoomTypeReservation(customer, roomType, checkInDate, checkOutDate);
+
+    this.lock.writeLock().lock();
+    try {
+      this.requireLoaded();
+      if (InventoryMode.ROOM_TYPE != this.inventoryMode) {
+        throw new IllegalStateException("Property " + this.propertyId + " does not sell room types!");
+      }
+      if (!this.hasRoomTypeCapacity(roomType, checkInDate, checkOutDate)) {
+        throw new RoomAlreadyReservedException();
+      }
+
+      this.addRoomTypeReservation(reservation);
+      this.updateOccupancy(roomType, checkInDate, checkOutDate, 1);
+      if (null != this.eventBus) {
+        this.eventBus.publishRoomTypeReservation(this.propertyId, reservation);
+      }
+      return reservation;
+    } finally {
+      this.lock.writeLock().unlock();
+    }
+  }
+
+  public void cancelRoomTypeReservation(RoomTypeReservation reservation) throws ReservationNotFoundException {
+    Objects.requireNonNull(reservation);
+    final List<Runnable> notifications;
+    this.lock.writeLock().lock();
+    try {
+      this.requireLoaded();
+      if (!this.removeRoomTypeReservation(reservation)) {
+        throw new ReservationNotFoundException();
+      }
+      this.updateOccupancy(reservation.getRoomType(), reservation.getCheckInDate(), reservation.getCheckOutDate(), -1);
+      if (null != this.eventBus) {
+        this.eventBus.publishRoomTypeCancellation(this.propertyId, reservation);
+      }
+      notifications = this.promoteWaitlist(
+        reservation.getRoomType(),
+        EpochDays.of(reservation.getCheckInDate()),
+        EpochDays.of(reservation.getCheckOutDate()),
+        ReservationService.NO_ROOM_ID
+      );
+    } finally {
+      this.lock.writeLock().unlock();
+    }
+    notifications.forEach(Runnable::run);
+  }
+
+  /**
+   * Adds back a room type reservation saved by a {@link PropertyStore}: its capacity was checked when it was booked.
+   */
+  void restoreRoomTypeReservation(RoomTypeReservation reservation) {
+    Objects.requireNonNull(reservation);
+    this.lock.writeLock().lock();
+    try {
+      this.requireLoaded();
+      this.addRoomTypeReservation(reservation);
+      this.updateOccupancy(reservation.getRoomType(), reservation.getCheckInDate(), reservation.getCheckOutDate(), 1);
+    } finally {
+      this.lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Puts the customer on the waitlist of the room type, to be booked automatically once a room of the type is freed
+   * for the whole stay.
+   *
+   * @param priority Rank among the waiting customers in {@link WaitlistOrder#PRIORITY} order, highest first.
+   */
+  public WaitlistEntry joinWaitlist(
+    Customer customer,
+    RoomType roomType,
+    Date checkInDate,
+    Date checkOutDate,
+    int priority
+  ) throws IllegalArgumentException {
+    ReservationService.requireWithinHorizon(checkInDate, checkOutDate);
+    final WaitlistEntry entry = new WaitlistEntry(customer, roomType, checkInDate, checkOutDate, priority);
+    this.restoreWaitlistEntry(entry);
+    return entry;
+  }
+
+  /**
+   * Adds back a waitlist entry saved by a {@link PropertyStore}, keeping its place in line.
+   */
+  void restoreWaitlistEntry(WaitlistEntry entry) {
+    final long checkInDay = EpochDays.of(entry.getCheckInDate());
+    final long checkOutDay = EpochDays.of(entry.getCheckOutDate());
+    this.lock.writeLock().lock();
+    try {
+      this.requireLoaded();
+      this.waitlist.add(entry);
+      this.waitlistIndexes.get(entry.getRoomType().ordinal()).add(entry, checkInDay, checkOutDay);
+    } finally {
+      this.lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * @return Whether the entry was still waiting.
+   */
+  public boolean leaveWaitlist(WaitlistEntry entry) {
+    Objects.requireNonNull(entry);
+    this.lock.writeLock().lock();
+    try {
+      this.requireLoaded();
+      return this.removeFromWaitlist(entry);
+    } finally {
+      this.lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * @return Waiting entries, in order of joining.
+   */
+  public Collection<WaitlistEntry> getWaitlist() {
+    this.lock.readLock().lock();
+    try {
+      return List.copyOf(this.waitlist);
+    } finally {
+      this.lock.readLock().unlock();
+    }
+  }
+
+  public WaitlistOrder getWaitlistOrder() {
+    this.lock.readLock().lock();
+    try {
+      return this.waitlistOrder;
+    } finally {
+      this.lock.readLock().unlock();
+    }
+  }
+
+  public void setWaitlistOrder(WaitlistOrder waitlistOrder) {
+    Objects.requireNonNull(waitlistOrder);
+    this.lock.writeLock().lock();
+    try {
+      this.requireLoaded();
+      this.waitlistOrder = waitlistOrder;
+    } finally {
+      this.lock.writeLock().unlock();
+    }
+  }
+
+  public void addWaitlistListener(WaitlistListener listener) {
+    this.waitlistListeners.add(Objects.requireNonNull(listener));
+  }
+
+  public void removeWaitlistListener(WaitlistListener listener) {
+    this.waitlistListeners.remove(listener);
+  }
+
+  /**
+   * Assigns room type reservations to rooms of their type, around the reservations of rooms, which never move: see
+   * {@link RoomAssignmentOptimizer}. Room types are optimized in parallel while the property is locked. Reservations
+   * that no room can take (overbooking) keep waiting for a room.
+   *
+   * @return Outcome of the assignment for each room type.
+   */
+  public Map<RoomType, RoomAssignmentReport> assignRoomTypeReservations() {
+    this.lock.writeLock().lock();
+    try {
+      this.requireLoaded();
+      final List<RoomType> roomTypes = List.of(RoomType.values());
+      final Map<RoomType, List<RoomTypeReservation>> pendingByType = new EnumMap<>(RoomType.class);
+      final Map<RoomType, int[]> roomIdsByType = new EnumMap<>(RoomType.class);
+      for (final RoomType roomType : roomTypes) {
+        pendingByType.put(roomType, new ArrayList<>());
+        roomIdsByType.put(roomType, IntStream.range(0, this.roomsById.size())
+          .filter(roomId -> roomType == this.roomsById.get(roomId).getRoomType())
+          .toArray());
+      }
+      this.roomTypeReservations.forEach(reservation -> pendingByType.get(reservation.getRoomType()).add(reservation));
+
+      // Workers only read the indexes, which this thread keeps from changing by holding the write lock.
+      final List<RoomAssignmentOptimizer> optimizers = roomTypes.parallelStream()
+        .map(roomType -> this.newRoomAssignmentOptimizer(roomIdsByType.get(roomType), pendingByType.get(roomType)))
+        .toList();
+      final List<int[]> assignedRooms = optimizers.parallelStream().map(RoomAssignmentOptimizer::assign).toList();
+
+      final Map<RoomType, RoomAssignmentReport> reports = new EnumMap<>(RoomType.class);
+      for (int type = 0; type < roomTypes.size(); type++) {
+        final List<RoomTypeReservation> pending = pendingByType.get(roomTypes.get(type));
+        final int[] roomIds = roomIdsByType.get(roomTypes.get(type));
+        final int[] rooms = assignedRooms.get(type);
+        for (int i = 0; i < rooms.length; i++) {
+          if (RoomAssignmentOptimizer.NO_ROOM != rooms[i]) {
+            this.assignRoom(pending.get(i), roomIds[rooms[i]]);
+          }
+        }
+        reports.put(roomTypes.get(type), optimizers.get(type).getReport());
+      }
+      return reports;
+    } finally {
+      this.lock.writeLock().unlock();
+    }
   }
 
   public Collection<IRoom> findRooms(Date checkInDate, Date checkOutDate) {
-    final BiFunction<Date, Date, Boolean> isOverlappingDate = this.getOverlappingDatePredicate(
-      Objects.requireNonNull(checkInDate),
-      Objects.requireNonNull(checkOutDate)
+    return this.findRooms(checkInDate, checkOutDate, RoomRanking.ADDITION_ORDER);
+  }
+
+  public Collection<IRoom> findRooms(Date checkInDate, Date checkOutDate, RoomRanking ranking) {
+    return this.findRooms(checkInDate, checkOutDate, RoomFilter.ANY, ranking);
+  }
+
+  /**
+   * @return Available rooms having the attributes required by the filter.
+   * @throws IllegalArgumentException If the stay is too far from today.
+   */
+  public Collection<IRoom> findRooms(Date checkInDate, Date checkOutDate, RoomFilter filter, RoomRanking ranking)
+    throws IllegalArgumentException {
+    ReservationService.requireWithinHorizon(checkInDate, checkOutDate);
+    Objects.requireNonNull(filter);
+    Objects.requireNonNull(ranking);
+
+    this.lock.readLock().lock();
+    try {
+      return Arrays.stream(this.findRoomIds(checkInDate, checkOutDate, filter, ranking))
+        .mapToObj(this.roomsById::get)
+        .toList();
+    } finally {
+      this.lock.readLock().unlock();
+    }
+  }
+
+  public Collection<RoomQuote> findRoomQuotes(Date checkInDate, Date checkOutDate) {
+    return this.findRoomQuotes(checkInDate, checkOutDate, RoomRanking.ADDITION_ORDER);
+  }
+
+  public Collection<RoomQuote> findRoomQuotes(Date checkInDate, Date checkOutDate, RoomRanking ranking) {
+    return this.findRoomQuotes(checkInDate, checkOutDate, RoomFilter.ANY, ranking);
+  }
+
+  public Collection<RoomQuote> findRoomQuotes(
+    Date checkInDate,
+    Date checkOutDate,
+    RoomFilter filter,
+    RoomRanking ranking
+  ) throws IllegalArgumentException {
+    ReservationService.requireWithinHorizon(checkInDate, checkOutDate);
+    Objects.requireNonNull(filter);
+    Objects.requireNonNull(ranking);
+
+    final int nights = (int) (
+      EpochDays.endOfStay(EpochDays.of(checkInDate), EpochDays.of(checkOutDate)) - EpochDays.of(checkInDate)
     );
+    this.lock.readLock().lock();
+    try {
+      final int[] foundRoomIds = this.findRoomIds(checkInDate, checkOutDate, filter, ranking);
+      final long[] totals = this.rateTable.quote(foundRoomIds, checkInDate, checkOutDate);
+      final List<RoomQuote> quotes = new ArrayList<>(foundRoomIds.length);
+      for (int i = 0; i < totals.length; i++) {
+        quotes.add(new RoomQuote(this.roomsById.get(foundRoomIds[i]), nights, Money.ofCents(totals[i])));
+      }
+      return quotes;
+    } finally {
+      this.lock.readLock().unlock();
+    }
+  }
 
-    return this.rooms.stream()
-      .filter(
-        room -> this.reservations
-          .stream()
-          .filter(reservation -> reservation.getRoom().equals(room))
-          .noneMatch(
-            reservation ->
-              isOverlappingDate.apply(reservation.getCheckInDate(), reservation.getCheckOutDate())
-          )
-      )
-      .toList();
+  /**
+   * @return Number of free rooms of the given type on each night from the start day (inclusive) to the end day
+   * (exclusive).
+   */
+  public int[] getFreeRoomsPerNight(RoomType roomType, long fromDay, long toDay) {
+    if (fromDay > toDay) {
+      throw new IllegalArgumentException("Start of period must be same or before end of period!");
+    }
+
+    this.lock.readLock().lock();
+    try {
+      return this.occupancyCounters.getFreeRoomsPerNight(Objects.requireNonNull(roomType), fromDay, toDay);
+    } finally {
+      this.lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Builds the calendar in one pass over the reservations of each room that overlap the period, which are found in
+   * order from the room's index: booked nights are set in the room's row of bits, and counted per room type in
+   * difference arrays. Room type reservations overlapping the period are found in their own index.
+   *
+   * @return Availability of every room on each of the {@code days} nights from the start day.
+   */
+  public AvailabilityCalendar getAvailabilityCalendar(long fromDay, int days) throws IllegalArgumentException {
+    if (days < 1 || days > ReservationService.MAX_DAYS_FROM_TODAY) {
+      throw new IllegalArgumentException(
+        "Calendar must cover from 1 to " + ReservationService.MAX_DAYS_FROM_TODAY + " nights!"
+      );
+    }
+    final long toDay = fromDay + days;
+    final Date fromDate = EpochDays.toDate(fromDay);
+    final Date toDate = EpochDays.toDate(toDay);
+
+    this.lock.readLock().lock();
+    try {
+      // Bits are indexed by ints: rows of all rooms must fit.
+      if ((long) this.roomsById.size() * days > Integer.MAX_VALUE) {
+        throw new IllegalArgumentException("Calendar of " + this.roomsById.size() + " rooms must cover fewer nights!");
+      }
+      final BitSet bookedNights = new BitSet(this.roomsById.size() * days);
+      final int[][] differences = new int[RoomType.values().length][days + 1];
+      for (int roomId = 0; roomId < this.roomsById.size(); roomId++) {
+        final NavigableMap<Date, Reservation> roomReservations = this.reservationsByRoomId.get(roomId);
+        // Of the reservations checking in before the period, only the last one may overlap it.
+        final Date firstCheckInDate = Objects.requireNonNullElse(roomReservations.floorKey(fromDate), fromDate);
+        final int[] roomTypeDifferences = differences[this.roomsById.get(roomId).getRoomType().ordinal()];
+        for (final Reservation reservation : roomReservations.subMap(firstCheckInDate, true, toDate, false).values()) {
+          final long startDay = EpochDays.of(reservation.getCheckInDate());
+          final long endDay = EpochDays.endOfStay(startDay, EpochDays.of(reservation.getCheckOutDate()));
+          final int from = (int) Math.max(0, startDay - fromDay);
+          final int to = (int) Math.min(days, endDay - fromDay);
+          if (from < to) {
+            bookedNights.set(roomId * days + from, roomId * days + to);
+            roomTypeDifferences[from] += 1;
+            roomTypeDifferences[to] -= 1;
+          }
+        }
+      }
+      for (final RoomType roomType : RoomType.values()) {
+        final int[] roomTypeDifferences = differences[roomType.ordinal()];
+        for (final RoomTypeReservation reservation :
+          this.roomTypeReservationIndexes.get(roomType.ordinal()).findOverlapping(fromDay, toDay - 1)) {
+          final long startDay = EpochDays.of(reservation.getCheckInDate());
+          final long endDay = EpochDays.endOfStay(startDay, EpochDays.of(reservation.getCheckOutDate()));
+          roomTypeDifferences[(int) Math.max(0, startDay - fromDay)] += 1;
+          roomTypeDifferences[(int) Math.min(days, endDay - fromDay)] -= 1;
+        }
+      }
+
+      final Map<RoomType, int[]> freeRoomsPerNight = new EnumMap<>(RoomType.class);
+      for (final RoomType roomType : RoomType.values()) {
+        final int[] freeRooms = new int[days];
+        int bookedRooms = 0;
+        for (int night = 0; night < days; night++) {
+          bookedRooms += differences[roomType.ordinal()][night];
+          freeRooms[night] = this.occupancyCounters.getRoomCount(roomType) - bookedRooms;
+        }
+        freeRoomsPerNight.put(roomType, freeRooms);
+      }
+      return new AvailabilityCalendar(fromDay, days, this.roomsById, bookedNights, freeRoomsPerNight);
+    } finally {
+      this.lock.readLock().unlock();
+    }
   }
 
   public Collection<IRoom> getAllRooms() {
-    return Collections.unmodifiableCollection(this.rooms);
+    this.lock.readLock().lock();
+    try {
+      return List.copyOf(this.roomsById);
+    } finally {
+      this.lock.readLock().unlock();
+    }
+  }
+
+  public Collection<Reservation> getAllReservations() {
+    this.lock.readLock().lock();
+    try {
+      return List.copyOf(this.reservations);
+    } finally {
+      this.lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Copies every reservation into the store, in booking order, referring to its room and customer by their IDs.
+   */
+  void copyReservationsTo(OffHeapReservationStore store) {
+    this.lock.readLock().lock();
+    try {
+      for (final Reservation reservation : this.reservations) {
+        final int row = this.reservationColumns.getRow(reservation);
+        store.add(
+          this.reservationColumns.roomIds[row],
+          this.reservationColumns.customerIds[row],
+          reservation.getCheckInDate(),
+          reservation.getCheckOutDate()
+        );
+      }
+    } finally {
+      this.lock.readLock().unlock();
+    }
+  }
+
+  CustomerService getCustomerService() {
+    return this.customerService;
+  }
+
+  /**
+   * @return Room type reservations not assigned to a room yet, in booking order.
+   */
+  public Collection<RoomTypeReservation> getRoomTypeReservations() {
+    this.lock.readLock().lock();
+    try {
+      return List.copyOf(this.roomTypeReservations);
+    } finally {
+      this.lock.readLock().unlock();
+    }
   }
 
   public Collection<Reservation> getCustomerReservations(Customer customer) {
     Objects.requireNonNull(customer);
-    return this.reservations.stream().filter(
-      reservation -> reservation.getCustomer().equals(customer)
-    ).toList();
+    this.lock.readLock().lock();
+    try {
+      final int customerId = this.customerService.findCustomerId(customer);
+      return CustomerDirectory.NO_ID != customerId && customerId < this.reservationsByCustomerId.size()
+        && null != this.reservationsByCustomerId.get(customerId)
+        ? List.copyOf(this.reservationsByCustomerId.get(customerId))
+        : List.of();
+    } finally {
+      this.lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Runs a reader over the columnar projection of reservations, which is not modified until the reader returns.
+   */
+  <T> T readReservationColumns(Function<ReservationColumns, T> reader) {
+    this.lock.readLock().lock();
+    try {
+      return reader.apply(this.reservationColumns);
+    } finally {
+      this.lock.readLock().unlock();
+    }
   }
 
   public void printAllReservations() {
-    if (this.reservations.isEmpty()) {
-      System.out.println("There are currently no reservations.\n");
-      return;
-    }
-
-    System.out.println("Current reservations:");
-    this.reservations.forEach(System.out::println);
-    System.out.println();
-  }
-
-  private BiFunction<Date, Date, Boolean> getOverlappingDatePredicate(Date startDate, Date endDate) {
-    Objects.requireNonNull(startDate);
-    Objects.requireNonNull(endDate);
-    return (Date lowerBound, Date upperBound) -> {
-      Objects.requireNonNull(lowerBound);
-      Objects.requireNonNull(upperBound);
-      return (
-        (startDate.compareTo(lowerBound) >= 0 && startDate.compareTo(upperBound) <= 0) ||
-          (endDate.compareTo(lowerBound) >= 0 && endDate.compareTo(upperBound) <= 0) ||
-          (lowerBound.compareTo(startDate) >= 0 && lowerBound.compareTo(endDate) <= 0) ||
-          (upperBound.compareTo(startDate) >= 0 && upperBound.compareTo(endDate) <= 0)
+    this.lock.readLock().lock();
+    try {
+      if (this.reservations.isEmpty() && this.roomTypeReservations.isEmpty()) {
+        System.out.println("There are currently no reservations.\n");
+        return;
+      }
+
+      System.out.println("Current reservations:");
+      this.reservations.forEach(System.out::println);
+      this.roomTypeReservations.forEach(System.out::println);
+      System.out.println();
+    } finally {
+      this.lock.readLock().unlock();
+    }
+  }
+
+  private static void requireWithinHorizon(Date checkInDate, Date checkOutDate) throws IllegalArgumentException {
+    final long today = EpochDays.today();
+    for (final long day : new long[] {EpochDays.of(checkInDate), EpochDays.of(checkOutDate)}) {
+      if (Math.abs(day - today) > ReservationService.MAX_DAYS_FROM_TODAY) {
+        throw new IllegalArgumentException(
+          "Stay must be within " + ReservationService.MAX_DAYS_FROM_TODAY + " days of today!"
+        );
+      }
+    }
+  }
+
+  private int getRoomIdOrThrow(IRoom room) throws IllegalArgumentException {
+    final Integer roomId = this.roomIdsByNumber.get(Objects.requireNonNull(room).getRoomNumber());
+    if (null == roomId) {
+      throw new IllegalArgumentException(
+        "Room " + room.getRoomNumber() + " does not belong to property " + this.propertyId + "!"
+      );
+    }
+    return roomId;
+  }
+
+  private int[] findRoomIds(Date checkInDate, Date checkOutDate, RoomFilter filter, RoomRanking ranking) {
+    final int[] foundRoomIds = this.findRoomIds(checkInDate, checkOutDate, filter);
+    return RoomRanking.BEST_FIT == ranking ? this.rankByFit(foundRoomIds, checkInDate, checkOutDate) : foundRoomIds;
+  }
+
+  /**
+   * Only the rooms matching the filter, as found by bitmap operations on the attribute index, are checked for
+   * availability.
+   */
+  private int[] findRoomIds(Date checkInDate, Date checkOutDate, RoomFilter filter) {
+    final boolean[] hasCapacityByType = new boolean[RoomType.values().length];
+    for (final RoomType roomType : RoomType.values()) {
+      hasCapacityByType[roomType.ordinal()] = this.hasRoomTypeCapacity(roomType, checkInDate, checkOutDate);
+    }
+
+    final int[] foundRoomIds = this.roomAttributeIndex.getRoomIds(filter).toArray();
+    int foundRooms = 0;
+    for (final int roomId : foundRoomIds) {
+      if (
+        hasCapacityByType[this.roomsById.get(roomId).getRoomType().ordinal()] &&
+          !this.isReserved(roomId, checkInDate, checkOutDate)
+      ) {
+        foundRoomIds[foundRooms++] = roomId;
+      }
+    }
+    return Arrays.copyOf(foundRoomIds, foundRooms);
+  }
+
+  /**
+   * Ranks rooms free for the stay by the cost of the gaps the stay would leave before and after it, as
+   * {@link RoomAssignmentOptimizer} does; ties go to the tightest fit, then to the order of addition. Only the
+   * reservations right before and after the stay are looked up in each room.
+   */
+  private int[] rankByFit(int[] roomIds, Date checkInDate, Date checkOutDate) {
+    final long inDay = EpochDays.of(checkInDate);
+    final long outDay = EpochDays.of(checkOutDate);
+    final int[] costs = new int[roomIds.length];
+    final long[] gapDays = new long[roomIds.length];
+    for (int i = 0; i < roomIds.length; i++) {
+      final NavigableMap<Date, Reservation> roomReservations = this.reservationsByRoomId.get(roomIds[i]);
+      final Map.Entry<Date, Reservation> previous = roomReservations.lowerEntry(checkInDate);
+      final Map.Entry<Date, Reservation> next = roomReservations.higherEntry(checkOutDate);
+      // A side with no reservation is an open gap, neither as good as a tight fit nor as bad as an orphan gap.
+      costs[i] = 2 * RoomAssignmentOptimizer.GAP_COST;
+      if (null != previous) {
+        final long gap = Math.max(0, inDay - EpochDays.of(previous.getValue().getCheckOutDate()) - 1);
+        costs[i] += RoomAssignmentOptimizer.gapCost(gap) - RoomAssignmentOptimizer.GAP_COST;
+        gapDays[i] += gap;
+      }
+      if (null != next) {
+        final long gap = Math.max(0, EpochDays.of(next.getKey()) - outDay - 1);
+        costs[i] += RoomAssignmentOptimizer.gapCost(gap) - RoomAssignmentOptimizer.GAP_COST;
+        gapDays[i] += gap;
+      }
+    }
+
+    final Integer[] order = new Integer[roomIds.length];
+    for (int i = 0; i < order.length; i++) {
+      order[i] = i;
+    }
+    Arrays.sort(
+      order,
+      Comparator.<Integer>comparingInt(i -> costs[i])
+        .thenComparingLong(i -> gapDays[i])
+        .thenComparingInt(i -> roomIds[i])
+    );
+    return Arrays.stream(order).mapToInt(i -> roomIds[i]).toArray();
+  }
+
+  /**
+   * Stays are compared as closed date ranges: a stay checking in on the check-out date of another one overlaps it.
+   */
+  private boolean isReserved(int roomId, Date checkInDate, Date checkOutDate) {
+    final NavigableMap<Date, Reservation> roomReservations = this.reservationsByRoomId.get(roomId);
+
+    // Among the reservations checking in before this stay ends, the last one is the only one that may overlap it.
+    final Map.Entry<Date, Reservation> lastEntry = roomReservations.floorEntry(checkOutDate);
+    return null != lastEntry && lastEntry.getValue().getCheckOutDate().compareTo(checkInDate) >= 0;
+  }
+
+  private void addReservation(Reservation reservation, int roomId, int customerId) {
+    this.reservations.add(reservation);
+    this.reservationsByRoomId.get(roomId).put(reservation.getCheckInDate(), reservation);
+    while (this.reservationsByCustomerId.size() <= customerId) {
+      this.reservationsByCustomerId.add(null);
+    }
+    if (null == this.reservationsByCustomerId.get(customerId)) {
+      this.reservationsByCustomerId.set(customerId, new ArrayList<>());
+    }
+    this.reservationsByCustomerId.get(customerId).add(reservation);
+    this.reservationColumns.add(reservation, roomId, customerId);
+  }
+
+  private RoomAssignmentOptimizer newRoomAssignmentOptimizer(int[] roomIds, List<RoomTypeReservation> pending) {
+    int fixedCount = 0;
+    for (final int roomId : roomIds) {
+      fixedCount += this.reservationsByRoomId.get(roomId).size();
+    }
+    final int[] fixedRooms = new int[fixedCount];
+    final long[] fixedInDays = new long[fixedCount];
+    final long[] fixedOutDays = new long[fixedCount];
+    int fixed = 0;
+    for (int room = 0; room < roomIds.length; room++) {
+      for (final Reservation reservation : this.reservationsByRoomId.get(roomIds[room]).values()) {
+        fixedRooms[fixed] = room;
+        fixedInDays[fixed] = EpochDays.of(reservation.getCheckInDate());
+        fixedOutDays[fixed] = EpochDays.of(reservation.getCheckOutDate());
+        fixed++;
+      }
+    }
+
+    final long[] inDays = new long[pending.size()];
+    final long[] outDays = new long[pending.size()];
+    for (int i = 0; i < pending.size(); i++) {
+      inDays[i] = EpochDays.of(pending.get(i).getCheckInDate());
+      outDays[i] = EpochDays.of(pending.get(i).getCheckOutDate());
+    }
+    return new RoomAssignmentOptimizer(roomIds.length, fixedRooms, fixedInDays, fixedOutDays, inDays, outDays);
+  }
+
+  /**
+   * Turns a room type reservation into a reservation of the room. Occupancy is unchanged: both count for the type.
+   */
+  private void assignRoom(RoomTypeReservation pending, int roomId) {
+    final IRoom room = this.roomsById.get(roomId);
+    if (this.isReserved(roomId, pending.getCheckInDate(), pending.getCheckOutDate())) {
+      return; // Not expected: stays of a room are at least a day apart, which is stricter than isReserved.
+    }
+    this.removeRoomTypeReservation(pending);
+    final Reservation reservation = new Reservation(
+      pending.getCustomer(), room, pending.getCheckInDate(), pending.getCheckOutDate()
+    );
+    this.addReservation(reservation, roomId, this.customerService.getCustomerId(pending.getCustomer()));
+    if (null != this.eventBus) {
+      this.eventBus.publishRoomTypeAssignment(this.propertyId, reservation);
+    }
+  }
+
+  /**
+   * Books the waitlist entries of the room type overlapping the freed days, in waitlist order, as long as there is
+   * inventory for their whole stays: the freed room in {@link InventoryMode#ROOM} mode, where no other room can have
+   * become available, or rooms of the type in {@link InventoryMode#ROOM_TYPE} mode.
+   *
+   * @param freedRoomId Room which was freed, or {@link #NO_ROOM_ID} if none.
+   * @return Notifications of the listeners, to run once the property is unlocked.
+   */
+  private List<Runnable> promoteWaitlist(RoomType roomType, long fromDay, long toDay, int freedRoomId) {
+    final List<WaitlistEntry> candidates = this.waitlistIndexes.get(roomType.ordinal()).findOverlapping(fromDay, toDay);
+    if (candidates.isEmpty()) {
+      return List.of();
+    }
+    candidates.sort(WaitlistOrder.PRIORITY == this.waitlistOrder
+      ? Comparator.comparingInt(WaitlistEntry::getPriority).reversed().thenComparingLong(WaitlistEntry::getSequence)
+      : Comparator.comparingLong(WaitlistEntry::getSequence)
+    );
+
+    final List<Runnable> notifications = new ArrayList<>();
+    for (final WaitlistEntry entry : candidates) {
+      final Date checkInDate = entry.getCheckInDate();
+      final Date checkOutDate = entry.getCheckOutDate();
+      if (InventoryMode.ROOM_TYPE == this.inventoryMode) {
+        if (!this.hasRoomTypeCapacity(roomType, checkInDate, checkOutDate)) {
+          continue;
+        }
+        final RoomTypeReservation reservation = new RoomTypeReservation(
+          entry.getCustomer(), roomType, checkInDate, checkOutDate
+        );
+        this.addRoomTypeReservation(reservation);
+        this.updateOccupancy(roomType, checkInDate, checkOutDate, 1);
+        if (null != this.eventBus) {
+          this.eventBus.publishRoomTypeReservation(this.propertyId, reservation);
+        }
+        this.removeFromWaitlist(entry);
+        this.waitlistListeners.forEach(listener -> notifications.add(
+          () -> listener.onRoomTypeReservation(entry, reservation)
+        ));
+        continue;
+      }
+
+      if (ReservationService.NO_ROOM_ID == freedRoomId || this.isReserved(freedRoomId, checkInDate, checkOutDate)) {
+        continue;
+      }
+      final Reservation reservation = new Reservation(
+        entry.getCustomer(), this.roomsById.get(freedRoomId), checkInDate, checkOutDate
       );
-    };
+      this.addReservation(reservation, freedRoomId, this.customerService.getCustomerId(entry.getCustomer()));
+      this.updateOccupancy(roomType, checkInDate, checkOutDate, 1);
+      if (null != this.eventBus) {
+        this.eventBus.publishReservation(this.propertyId, reservation);
+      }
+      this.removeFromWaitlist(entry);
+      this.waitlistListeners.forEach(listener -> notifications.add(() -> listener.onReservation(entry, reservation)));
+    }
+    return notifications;
+  }
+
+  private void addRoomTypeReservation(RoomTypeReservation reservation) {
+    this.roomTypeReservations.add(reservation);
+    final long startDay = EpochDays.of(reservation.getCheckInDate());
+    final long endDay = EpochDays.endOfStay(startDay, EpochDays.of(reservation.getCheckOutDate()));
+    this.roomTypeReservationIndexes.get(reservation.getRoomType().ordinal()).add(reservation, startDay, endDay - 1);
+  }
+
+  private boolean removeRoomTypeReservation(RoomTypeReservation reservation) {
+    if (!this.roomTypeReservations.remove(reservation)) {
+      return false;
+    }
+    this.roomTypeReservationIndexes.get(reservation.getRoomType().ordinal())
+      .remove(reservation, EpochDays.of(reservation.getCheckInDate()));
+    return true;
+  }
+
+  private boolean removeFromWaitlist(WaitlistEntry entry) {
+    if (!this.waitlist.remove(entry)) {
+      return false;
+    }
+    this.waitlistIndexes.get(entry.getRoomType().ordinal()).remove(entry, EpochDays.of(entry.getCheckInDate()));
+    return true;
+  }
+
+  private void requireLoaded() throws IllegalStateException {
+    if (this.isUnloaded) {
+      throw new IllegalStateException("Property " + this.propertyId + " has been unloaded!");
+    }
+  }
+
+  /**
+   * Rooms of a type are only counted in {@link InventoryMode#ROOM_TYPE} mode: otherwise, a free room is enough.
+   */
+  private boolean hasRoomTypeCapacity(RoomType roomType, Date checkInDate, Date checkOutDate) {
+    if (InventoryMode.ROOM_TYPE != this.inventoryMode) {
+      return true;
+    }
+    final long startDay = EpochDays.of(checkInDate);
+    final long endDay = Math.max(startDay, EpochDays.of(checkOutDate)) + 1;
+    final int bookableRooms = (int) Math.floor(
+      this.stayDayCounters.getRoomCount(roomType) * (1 + this.overbookingRatios.getOrDefault(roomType, 0.))
+    );
+    return this.stayDayCounters.getMaxBookedRooms(roomType, startDay, endDay) < bookableRooms;
+  }
+
+  private void updateOccupancy(RoomType roomType, Date checkInDate, Date checkOutDate, int delta) {
+    final long startDay = EpochDays.of(checkInDate);
+    final long endDay = EpochDays.endOfStay(startDay, EpochDays.of(checkOutDate));
+    this.occupancyCounters.addStay(roomType, startDay, endDay, delta);
+    this.stayDayCounters.addStay(roomType, startDay, Math.max(startDay, EpochDays.of(checkOutDate)) + 1, delta);
+    this.rateTable.refreshStay(roomType, startDay, endDay);
   }
 }
@@ -0,0 +1,298 @@
+package hotelreservation.service;
+
+import hotelreservation.model.RoomAssignmentReport;
+
+import java.util.*;
+
+/**
+ * Assigns stays to the rooms of one type, around fixed stays that already have a room, so that each stay keeps one room
+ * for all its days and few short gaps are left between stays.
+ * <p>
+ * Stays are given as closed ranges of epoch days (from check-in day to check-out day, both included), as two stays of a
+ * room must not share a day. Rooms are given local indexes from 0.
+ * <ol>
+ *   <li>A sweep over stays by check-in day places each stay in the free room that got free last (best fit), among the
+ *   rooms whose next fixed stay starts after it ends; stays that fit in no room are left unassigned.</li>
+ *   <li>Local search then moves stays, one at a time, to a room where they fit closer to another stay, as long as this
+ *   lowers the cost of the gaps around them (orphan gaps cost most).</li>
+ * </ol>
+ */
+final class RoomAssignmentOptimizer {
+  static final int NO_ROOM = -1;
+  static final int ORPHAN_GAP_DAYS = 2;
+
+  private static final int MAX_PASSES = 4;
+  static final int GAP_COST = 1;
+  static final int ORPHAN_GAP_COST = 3;
+
+  private final int roomCount;
+  // Fixed stays come first, then the stays to assign.
+  private final int fixedCount;
+  private final long[] inDays;
+  private final long[] outDays;
+  private final int[] roomOfStay;
+  private final List<NavigableMap<Long, Integer>> staysByRoom = new ArrayList<>();
+
+  RoomAssignmentOptimizer(
+    int roomCount,
+    int[] fixedRooms,
+    long[] fixedInDays,
+    long[] fixedOutDays,
+    long[] inDays,
+    long[] outDays
+  ) {
+    this.roomCount = roomCount;
+    this.fixedCount = fixedRooms.length;
+    this.inDays = RoomAssignmentOptimizer.concat(fixedInDays, inDays);
+    this.outDays = RoomAssignmentOptimizer.concat(fixedOutDays, outDays);
+    this.roomOfStay = new int[this.inDays.length];
+    Arrays.fill(this.roomOfStay, RoomAssignmentOptimizer.NO_ROOM);
+
+    for (int room = 0; room < roomCount; room++) {
+      this.staysByRoom.add(new TreeMap<>());
+    }
+    for (int stay = 0; stay < this.fixedCount; stay++) {
+      this.roomOfStay[stay] = fixedRooms[stay];
+      this.staysByRoom.get(fixedRooms[stay]).put(this.inDays[stay], stay);
+    }
+  }
+
+  /**
+   * @return Room of each stay to assign, in the order they were given, or {@link #NO_ROOM}.
+   */
+  int[] assign() {
+    this.assignGreedily();
+    for (int pass = 0; pass < RoomAssignmentOptimizer.MAX_PASSES; pass++) {
+      if (0 == this.relocateStays()) {
+        break;
+      }
+    }
+    return Arrays.copyOfRange(this.roomOfStay, this.fixedCount, this.roomOfStay.length);
+  }
+
+  RoomAssignmentReport getReport() {
+    int assigned = 0;
+    for (int stay = this.fixedCount; stay < this.roomOfStay.length; stay++) {
+      if (RoomAssignmentOptimizer.NO_ROOM != this.roomOfStay[stay]) {
+        assigned++;
+      }
+    }
+
+    int gaps = 0;
+    long gapDays = 0;
+    int orphanGaps = 0;
+    long orphanDays = 0;
+    for (final NavigableMap<Long, Integer> stays : this.staysByRoom) {
+      int previousStay = RoomAssignmentOptimizer.NO_ROOM;
+      for (final int stay : stays.values()) {
+        if (RoomAssignmentOptimizer.NO_ROOM != previousStay) {
+          final long gap = this.gapBetween(previousStay, stay);
+          if (gap > 0) {
+            gaps++;
+            gapDays += gap;
+          }
+          if (gap > 0 && gap <= RoomAssignmentOptimizer.ORPHAN_GAP_DAYS) {
+            orphanGaps++;
+            orphanDays += gap;
+          }
+        }
+        previousStay = stay;
+      }
+    }
+    return new RoomAssignmentReport(
+      assigned, this.roomOfStay.length - this.fixedCount - assigned, gaps, gapDays, orphanGaps, orphanDays
+    );
+  }
+
+  private void assignGreedily() {
+    // Fixed stays are swept along with the others, to know when each room gets free and when it is next needed.
+    final long[] lastOutDays = new long[this.roomCount];
+    final long[] nextFixedInDays = new long[this.roomCount];
+    Arrays.fill(lastOutDays, Long.MIN_VALUE);
+    for (int room = 0; room < this.roomCount; room++) {
+      final Long firstInDay = this.staysByRoom.get(room).isEmpty() ? null : this.staysByRoom.get(room).firstKey();
+      nextFixedInDays[room] = null == firstInDay ? Long.MAX_VALUE : firstInDay;
+    }
+
+    // Rooms by the day they got free; among those, the first room is the one needed last.
+    final Comparator<Integer> byNextFixedInDay = Comparator
+      .<Integer>comparingLong(room -> nextFixedInDays[room])
+      .reversed()
+      .thenComparingInt(room -> room);
+    final NavigableMap<Long, NavigableSet<Integer>> roomsByLastOutDay = new TreeMap<>();
+    for (int room = 0; room < this.roomCount; room++) {
+      roomsByLastOutDay.computeIfAbsent(Long.MIN_VALUE, day -> new TreeSet<>(byNextFixedInDay)).add(room);
+    }
+
+    final Integer[] stays = new Integer[this.inDays.length];
+    for (int stay = 0; stay < stays.length; stay++) {
+      stays[stay] = stay;
+    }
+    Arrays.sort(
+      stays,
+      Comparator.<Integer>comparingLong(stay -> this.inDays[stay])
+        .thenComparing(stay -> stay >= this.fixedCount)
+        .thenComparing(Comparator.<Integer>comparingLong(stay -> this.outDays[stay]).reversed())
+    );
+
+    for (final int stay : stays) {
+      final long inDay = this.inDays[stay];
+      final long outDay = this.outDays[stay];
+      int room = RoomAssignmentOptimizer.NO_ROOM;
+      if (stay < this.fixedCount) {
+        room = this.roomOfStay[stay];
+      } else {
+        for (final NavigableSet<Integer> rooms : roomsByLastOutDay.headMap(inDay, false).descendingMap().values()) {
+          if (nextFixedInDays[rooms.first()] > outDay) {
+            room = rooms.first();
+            break;
+          }
+        }
+        if (RoomAssignmentOptimizer.NO_ROOM == room) {
+          continue;
+        }
+        this.roomOfStay[stay] = room;
+        this.staysByRoom.get(room).put(inDay, stay);
+      }
+
+      final NavigableSet<Integer> rooms = roomsByLastOutDay.get(lastOutDays[room]);
+      rooms.remove(room);
+      if (rooms.isEmpty()) {
+        roomsByLastOutDay.remove(lastOutDays[room]);
+      }
+      lastOutDays[room] = Math.max(lastOutDays[room], outDay);
+      if (stay < this.fixedCount) {
+        final Long nextInDay = this.staysByRoom.get(room).higherKey(inDay);
+        nextFixedInDays[room] = null == nextInDay ? Long.MAX_VALUE : nextInDay;
+      }
+      roomsByLastOutDay.computeIfAbsent(lastOutDays[room], day -> new TreeSet<>(byNextFixedInDay)).add(room);
+    }
+  }
+
+  /**
+   * Tries to move each assigned stay to a room with a stay ending right before it or starting right after it.
+   *
+   * @return Number of stays moved.
+   */
+  private int relocateStays() {
+    final Map<Long, Set<Integer>> roomsByOutDay = new HashMap<>();
+    final Map<Long, Set<Integer>> roomsByInDay = new HashMap<>();
+    for (int stay = 0; stay < this.roomOfStay.length; stay++) {
+      if (RoomAssignmentOptimizer.NO_ROOM != this.roomOfStay[stay]) {
+        roomsByOutDay.computeIfAbsent(this.outDays[stay], day -> new HashSet<>()).add(this.roomOfStay[stay]);
+        roomsByInDay.computeIfAbsent(this.inDays[stay], day -> new HashSet<>()).add(this.roomOfStay[stay]);
+      }
+    }
+
+    int moves = 0;
+    for (int stay = this.fixedCount; stay < this.roomOfStay.length; stay++) {
+      final int room = this.roomOfStay[stay];
+      if (RoomAssignmentOptimizer.NO_ROOM == room) {
+        continue;
+      }
+      final long inDay = this.inDays[stay];
+      final long outDay = this.outDays[stay];
+      final NavigableMap<Long, Integer> roomStays = this.staysByRoom.get(room);
+      final Map.Entry<Long, Integer> previous = roomStays.lowerEntry(inDay);
+      final Map.Entry<Long, Integer> next = roomStays.higherEntry(inDay);
+      final int removalGain = (
+        this.costBetween(previous, stay) + this.costBetween(stay, next) - this.costBetween(previous, next)
+      );
+      if (removalGain <= 0) {
+        continue;
+      }
+
+      final Set<Integer> candidateRooms = new HashSet<>();
+      for (int gap = 0; gap <= RoomAssignmentOptimizer.ORPHAN_GAP_DAYS; gap++) {
+        candidateRooms.addAll(roomsByOutDay.getOrDefault(inDay - 1 - gap, Set.of()));
+        candidateRooms.addAll(roomsByInDay.getOrDefault(outDay + 1 + gap, Set.of()));
+      }
+      candidateRooms.remove(room);
+
+      int bestRoom = RoomAssignmentOptimizer.NO_ROOM;
+      int bestCost = removalGain;
+      for (final int candidateRoom : candidateRooms) {
+        final int insertionCost = this.insertionCost(candidateRoom, stay);
+        if (insertionCost < bestCost) {
+          bestRoom = candidateRoom;
+          bestCost = insertionCost;
+        }
+      }
+      if (RoomAssignmentOptimizer.NO_ROOM == bestRoom) {
+        continue;
+      }
+
+      roomStays.remove(inDay);
+      RoomAssignmentOptimizer.removeRoom(roomsByOutDay, outDay, room);
+      RoomAssignmentOptimizer.removeRoom(roomsByInDay, inDay, room);
+      this.staysByRoom.get(bestRoom).put(inDay, stay);
+      roomsByOutDay.computeIfAbsent(outDay, day -> new HashSet<>()).add(bestRoom);
+      roomsByInDay.computeIfAbsent(inDay, day -> new HashSet<>()).add(bestRoom);
+      this.roomOfStay[stay] = bestRoom;
+      moves++;
+    }
+    return moves;
+  }
+
+  /**
+   * @return Change in gap cost if the stay is added to the room, or {@link Integer#MAX_VALUE} if it does not fit.
+   */
+  private int insertionCost(int room, int stay) {
+    final NavigableMap<Long, Integer> roomStays = this.staysByRoom.get(room);
+    final Map.Entry<Long, Integer> previous = roomStays.floorEntry(this.inDays[stay]);
+    final Map.Entry<Long, Integer> next = roomStays.higherEntry(this.inDays[stay]);
+    if (
+      (null != previous && this.outDays[previous.getValue()] >= this.inDays[stay]) ||
+        (null != next && next.getKey() <= this.outDays[stay])
+    ) {
+      return Integer.MAX_VALUE;
+    }
+    return this.costBetween(previous, stay) + this.costBetween(stay, next) - this.costBetween(previous, next);
+  }
+
+  private int costBetween(Map.Entry<Long, Integer> previous, Map.Entry<Long, Integer> next) {
+    if (null == previous || null == next) {
+      return 0;
+    }
+    return RoomAssignmentOptimizer.gapCost(this.gapBetween(previous.getValue(), next.getValue()));
+  }
+
+  private int costBetween(Map.Entry<Long, Integer> previous, int stay) {
+    return null == previous ? 0 : RoomAssignmentOptimizer.gapCost(this.gapBetween(previous.getValue(), stay));
+  }
+
+  private int costBetween(int stay, Map.Entry<Long, Integer> next) {
+    return null == next ? 0 : RoomAssignmentOptimizer.gapCost(this.gapBetween(stay, next.getValue()));
+  }
+
+  private long gapBetween(int previousStay, int nextStay) {
+    return this.inDays[nextStay] - this.outDays[previousStay] - 1;
+  }
+
+  /**
+   * @return Cost of a run of free days between two stays of a room: none if the stays are back to back, most if the
+   * gap is an orphan.
+   */
+  static int gapCost(long gap) {
+    if (0 == gap) {
+      return 0;
+    }
+    return gap <= RoomAssignmentOptimizer.ORPHAN_GAP_DAYS
+      ? RoomAssignmentOptimizer.ORPHAN_GAP_COST
+      : RoomAssignmentOptimizer.GAP_COST;
+  }
+
+  private static void removeRoom(Map<Long, Set<Integer>> roomsByDay, long day, int room) {
+    final Set<Integer> rooms = roomsByDay.get(day);
+    rooms.remove(room);
+    if (rooms.isEmpty()) {
+      roomsByDay.remove(day);
+    }
+  }
+
+  private static long[] concat(long[] first, long[] second) {
+    final long[] concatenated = Arrays.copyOf(first, first.length + second.length);
+    System.arraycopy(second, 0, concatenated, first.length, second.length);
+    return concatenated;
+  }
+}
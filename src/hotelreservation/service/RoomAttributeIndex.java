@@ -0,0 +1,82 @@
+package hotelreservation.service;
+
+import hotelreservation.model.IRoom;
+import hotelreservation.model.RoomAttributes;
+import hotelreservation.model.RoomFeature;
+import hotelreservation.model.RoomFilter;
+import hotelreservation.model.RoomView;
+import hotelreservation.util.RoaringBitmap;
+
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Bitmaps of the room IDs having each view, feature, floor and bed count, so that the rooms matching a filter are a
+ * few bitmap operations rather than a scan of all rooms. Ranges of floors and bed counts are the union of the bitmaps
+ * of their values, of which a property has few.
+ */
+final class RoomAttributeIndex {
+  private final RoaringBitmap allRooms = new RoaringBitmap();
+  private final RoaringBitmap[] roomsByView = RoomAttributeIndex.newBitmaps(RoomView.values().length);
+  private final RoaringBitmap[] roomsByFeature = RoomAttributeIndex.newBitmaps(RoomFeature.values().length);
+  private final NavigableMap<Integer, RoaringBitmap> roomsByFloor = new TreeMap<>();
+  private final NavigableMap<Integer, RoaringBitmap> roomsByBedCount = new TreeMap<>();
+
+  void addRoom(int roomId, IRoom room) {
+    final RoomAttributes attributes = room.getAttributes();
+    this.allRooms.add(roomId);
+    this.roomsByView[attributes.getView().ordinal()].add(roomId);
+    for (final RoomFeature feature : attributes.getFeatures()) {
+      this.roomsByFeature[feature.ordinal()].add(roomId);
+    }
+    this.roomsByFloor.computeIfAbsent(attributes.getFloor(), floor -> new RoaringBitmap()).add(roomId);
+    this.roomsByBedCount.computeIfAbsent(attributes.getBedCount(), bedCount -> new RoaringBitmap()).add(roomId);
+  }
+
+  /**
+   * @return IDs of the rooms matching the filter, not to be modified.
+   */
+  RoaringBitmap getRoomIds(RoomFilter filter) {
+    if (this.allRooms.isEmpty()) {
+      return this.allRooms;
+    }
+
+    RoaringBitmap roomIds = null == filter.getView()
+      ? this.allRooms
+      : this.roomsByView[filter.getView().ordinal()];
+    for (final RoomFeature feature : filter.getRequiredFeatures()) {
+      roomIds = roomIds.and(this.roomsByFeature[feature.ordinal()]);
+    }
+    for (final RoomFeature feature : filter.getExcludedFeatures()) {
+      roomIds = roomIds.andNot(this.roomsByFeature[feature.ordinal()]);
+    }
+    if (
+      filter.getMinFloor() > this.roomsByFloor.firstKey() ||
+        filter.getMaxFloor() < this.roomsByFloor.lastKey()
+    ) {
+      roomIds = roomIds.and(RoomAttributeIndex.union(
+        this.roomsByFloor.subMap(filter.getMinFloor(), true, filter.getMaxFloor(), true)
+      ));
+    }
+    if (filter.getMinBedCount() > this.roomsByBedCount.firstKey()) {
+      roomIds = roomIds.and(RoomAttributeIndex.union(this.roomsByBedCount.tailMap(filter.getMinBedCount(), true)));
+    }
+    return roomIds;
+  }
+
+  private static RoaringBitmap union(NavigableMap<Integer, RoaringBitmap> bitmaps) {
+    RoaringBitmap union = new RoaringBitmap();
+    for (final RoaringBitmap bitmap : bitmaps.values()) {
+      union = union.or(bitmap);
+    }
+    return union;
+  }
+
+  private static RoaringBitmap[] newBitmaps(int count) {
+    final RoaringBitmap[] bitmaps = new RoaringBitmap[count];
+    for (int i = 0; i < count; i++) {
+      bitmaps[i] = new RoaringBitmap();
+    }
+    return bitmaps;
+  }
+}
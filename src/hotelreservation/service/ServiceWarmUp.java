@@ -0,0 +1,120 @@
+package hotelreservation.service;
+
+import hotelreservation.exception.ReservationNotFoundException;
+import hotelreservation.exception.RoomAlreadyExistsException;
+import hotelreservation.exception.RoomAlreadyReservedException;
+import hotelreservation.model.*;
+import hotelreservation.util.EpochDays;
+import hotelreservation.util.IsoDates;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Runs the hot paths of the services (finding, quoting, booking and cancelling rooms, searching customers) on
+ * synthetic data before the application accepts traffic, so that the first requests after startup find classes
+ * loaded and methods compiled instead of running interpreted.
+ * <p>
+ * The warm-up is opt-in, with the system property {@value #ROUNDS_PROPERTY}. Its synthetic property is standalone,
+ * publishes no events and has customers of its own: nothing of it is visible to the services afterwards.
+ */
+public final class ServiceWarmUp {
+  public static final int RECOMMENDED_ROUNDS = 1_000;
+  public static final String ROUNDS_PROPERTY = "hotelreservation.warmUpRounds";
+
+  private static final String PROPERTY_ID = "warm-up";
+  private static final int ROOMS = 200;
+  private static final int CUSTOMERS = 16;
+  private static final int BOOKING_DAYS = 60;
+  private static final String EMAIL_DOMAIN = "@warm-up.invalid";
+
+  private ServiceWarmUp() {}
+
+  /**
+   * @return Number of rounds set by the system property {@value #ROUNDS_PROPERTY} (e.g. {@link #RECOMMENDED_ROUNDS}),
+   * or 0 if unset.
+   */
+  public static int getConfiguredRounds() {
+    return Integer.getInteger(ServiceWarmUp.ROUNDS_PROPERTY, 0);
+  }
+
+  /**
+   * @param rounds Number of times each hot path is run; 0 to skip the warm-up.
+   * @return Time taken in milliseconds.
+   */
+  public static long run(int rounds) throws IllegalArgumentException {
+    if (rounds < 0) {
+      throw new IllegalArgumentException("Warm-up rounds must not be negative!");
+    }
+    final long startNanos = System.nanoTime();
+    if (rounds > 0) {
+      ServiceWarmUp.warmUp(rounds);
+    }
+    return (System.nanoTime() - startNanos) / 1_000_000;
+  }
+
+  private static void warmUp(int rounds) {
+    final ReservationService property = new ReservationService(ServiceWarmUp.PROPERTY_ID, null, new CustomerService());
+    final RoomView[] views = RoomView.values();
+    for (int i = 0; i < ServiceWarmUp.ROOMS; i++) {
+      try {
+        property.addRoom(
+          new Room(
+            "W" + i,
+            Money.ofCents(10_000 + 100L * (i % 20)),
+            i % 2 == 0 ? RoomType.SINGLE : RoomType.DOUBLE,
+            RoomAttributes.of(views[i % views.length], 1 + i % 10, 1 + i % 3, i % (1 << RoomFeature.values().length))
+          )
+        );
+      } catch (RoomAlreadyExistsException raee) {
+        throw new IllegalStateException(raee); // Room numbers are unique
+      }
+    }
+
+    final List<Customer> customers = new ArrayList<>(ServiceWarmUp.CUSTOMERS);
+    for (int i = 0; i < ServiceWarmUp.CUSTOMERS; i++) {
+      customers.add(new Customer("Warm" + i, "Up" + i, "customer" + i + ServiceWarmUp.EMAIL_DOMAIN));
+    }
+    final CustomerSearchIndex searchIndex = new CustomerSearchIndex(customers::get);
+    for (int i = 0; i < customers.size(); i++) {
+      searchIndex.add(i, customers.get(i));
+    }
+
+    final long today = EpochDays.today();
+    final RoomFilter filter = RoomFilter.ANY.withView(RoomView.SEA).withFeature(RoomFeature.BALCONY);
+    final StringBuilder dates = new StringBuilder(2 * IsoDates.LENGTH);
+    for (int round = 0; round < rounds; round++) {
+      final long checkInDay = today + round % ServiceWarmUp.BOOKING_DAYS;
+      final long checkOutDay = checkInDay + 1 + round % 5;
+      dates.setLength(0);
+      IsoDates.appendTo(dates, checkInDay);
+      final Date checkInDate = EpochDays.toDate(IsoDates.parse(dates));
+      final Date checkOutDate = EpochDays.toDate(checkOutDay);
+
+      property.findRooms(checkInDate, checkOutDate, RoomRanking.BEST_FIT);
+      property.findRooms(checkInDate, checkOutDate, filter, RoomRanking.ADDITION_ORDER);
+      final Customer customer = customers.get(round % customers.size());
+      for (final RoomQuote quote : property.findRoomQuotes(checkInDate, checkOutDate, RoomRanking.BEST_FIT)) {
+        final Reservation reservation;
+        try {
+          reservation = property.reserveARoom(customer, quote.getRoom(), checkInDate, checkOutDate);
+        } catch (RoomAlreadyReservedException rare) {
+          continue;
+        }
+        property.getCustomerReservations(customer);
+        // Every other booking is kept, so that later rounds search rooms having reservations.
+        if (round % 2 == 0) {
+          try {
+            property.cancelReservation(reservation);
+          } catch (ReservationNotFoundException rnfe) {
+            throw new IllegalStateException(rnfe); // Just booked
+          }
+        }
+        break;
+      }
+      property.getFreeRoomsPerNight(RoomType.SINGLE, checkInDay, checkOutDay);
+      searchIndex.search(round % 2 == 0 ? "warm" : "wrm up", 10);
+    }
+  }
+}
@@ -0,0 +1,194 @@
+package hotelreservation.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.ToLongFunction;
+
+/**
+ * Interval tree of stays (waitlist entries, room type reservations) over their days, as closed ranges of epoch days.
+ * <p>
+ * Stays are kept in a treap ordered by start day (then by the sequence of the stay), where every node also holds the
+ * latest end day of its subtree. Finding the stays overlapping a range then skips every subtree ending before the range
+ * and every stay starting after it: it costs O(log n + k) for k stays found, instead of a scan of all stays.
+ */
+final class StayIndex<T> {
+  private static final class Node<T> {
+    private final T stay;
+    private final long startDay;
+    private final long endDay;
+    private final long sequence;
+    private final int heapPriority;
+    private long maxEndDay;
+    private Node<T> left;
+    private Node<T> right;
+
+    private Node(T stay, long startDay, long endDay, long sequence, int heapPriority) {
+      this.stay = stay;
+      this.startDay = startDay;
+      this.endDay = endDay;
+      this.sequence = sequence;
+      this.heapPriority = heapPriority;
+      this.maxEndDay = endDay;
+    }
+  }
+
+  private final ToLongFunction<T> sequenceOf;
+  private Node<T> root;
+  private int size;
+  private int randomState = 0x9E3779B9;
+
+  /**
+   * @param sequenceOf Number of each stay, distinct among stays starting on the same day.
+   */
+  StayIndex(ToLongFunction<T> sequenceOf) {
+    this.sequenceOf = Objects.requireNonNull(sequenceOf);
+  }
+
+  void add(T stay, long startDay, long endDay) {
+    this.root = StayIndex.insert(
+      this.root, new Node<>(stay, startDay, endDay, this.sequenceOf.applyAsLong(stay), this.nextHeapPriority())
+    );
+    this.size++;
+  }
+
+  /**
+   * @return Whether the stay, added with the given start day, was found and removed.
+   */
+  boolean remove(T stay, long startDay) {
+    final int sizeBefore = this.size;
+    this.root = this.remove(this.root, startDay, this.sequenceOf.applyAsLong(stay));
+    return this.size < sizeBefore;
+  }
+
+  /**
+   * @return Stays overlapping the closed range of days, in order of start day.
+   */
+  List<T> findOverlapping(long fromDay, long toDay) {
+    final List<T> stays = new ArrayList<>();
+    StayIndex.collectOverlapping(this.root, fromDay, toDay, stays);
+    return stays;
+  }
+
+  int size() {
+    return this.size;
+  }
+
+  private static <T> Node<T> insert(Node<T> node, Node<T> newNode) {
+    if (null == node) {
+      return newNode;
+    }
+    if (StayIndex.compare(newNode.startDay, newNode.sequence, node) < 0) {
+      node.left = StayIndex.insert(node.left, newNode);
+      if (node.left.heapPriority > node.heapPriority) {
+        node = StayIndex.rotateRight(node);
+      }
+    } else {
+      node.right = StayIndex.insert(node.right, newNode);
+      if (node.right.heapPriority > node.heapPriority) {
+        node = StayIndex.rotateLeft(node);
+      }
+    }
+    StayIndex.update(node);
+    return node;
+  }
+
+  private Node<T> remove(Node<T> node, long startDay, long sequence) {
+    if (null == node) {
+      return null;
+    }
+    final int comparison = StayIndex.compare(startDay, sequence, node);
+    if (comparison < 0) {
+      node.left = this.remove(node.left, startDay, sequence);
+    } else if (comparison > 0) {
+      node.right = this.remove(node.right, startDay, sequence);
+    } else {
+      this.size--;
+      node = StayIndex.merge(node.left, node.right);
+    }
+    if (null != node) {
+      StayIndex.update(node);
+    }
+    return node;
+  }
+
+  /**
+   * @return Treap of the nodes of both treaps, all nodes of the left one being ordered before those of the right one.
+   */
+  private static <T> Node<T> merge(Node<T> left, Node<T> right) {
+    if (null == left) {
+      return right;
+    }
+    if (null == right) {
+      return left;
+    }
+    if (left.heapPriority > right.heapPriority) {
+      left.right = StayIndex.merge(left.right, right);
+      StayIndex.update(left);
+      return left;
+    }
+    right.left = StayIndex.merge(left, right.left);
+    StayIndex.update(right);
+    return right;
+  }
+
+  private static <T> void collectOverlapping(Node<T> node, long fromDay, long toDay, List<T> stays) {
+    if (null == node || node.maxEndDay < fromDay) {
+      return;
+    }
+    StayIndex.collectOverlapping(node.left, fromDay, toDay, stays);
+    if (node.startDay > toDay) {
+      return;
+    }
+    if (node.endDay >= fromDay) {
+      stays.add(node.stay);
+    }
+    StayIndex.collectOverlapping(node.right, fromDay, toDay, stays);
+  }
+
+  private static <T> Node<T> rotateRight(Node<T> node) {
+    final Node<T> left = node.left;
+    node.left = left.right;
+    left.right = node;
+    StayIndex.update(node);
+    StayIndex.update(left);
+    return left;
+  }
+
+  private static <T> Node<T> rotateLeft(Node<T> node) {
+    final Node<T> right = node.right;
+    node.right = right.left;
+    right.left = node;
+    StayIndex.update(node);
+    StayIndex.update(right);
+    return right;
+  }
+
+  private static void update(Node<?> node) {
+    long maxEndDay = node.endDay;
+    if (null != node.left) {
+      maxEndDay = Math.max(maxEndDay, node.left.maxEndDay);
+    }
+    if (null != node.right) {
+      maxEndDay = Math.max(maxEndDay, node.right.maxEndDay);
+    }
+    node.maxEndDay = maxEndDay;
+  }
+
+  private static int compare(long startDay, long sequence, Node<?> node) {
+    final int comparison = Long.compare(startDay, node.startDay);
+    return 0 != comparison ? comparison : Long.compare(sequence, node.sequence);
+  }
+
+  /**
+   * @return Next value of a xorshift generator: heap priorities only need to be spread evenly, not unpredictable.
+   */
+  private int nextHeapPriority() {
+    int state = this.randomState;
+    state ^= state << 13;
+    state ^= state >>> 17;
+    state ^= state << 5;
+    this.randomState = state;
+    return state;
+  }
+}
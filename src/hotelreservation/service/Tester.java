@@ -0,0 +1,812 @@
+package hotelreservation.service;
+
+import hotelreservation.exception.RoomAlreadyExistsException;
+import hotelreservation.exception.RoomAlreadyReservedException;
+import hotelreservation.model.AvailabilityCalendar;
+import hotelreservation.model.Customer;
+import hotelreservation.model.IRoom;
+import hotelreservation.model.InventoryMode;
+import hotelreservation.model.Money;
+import hotelreservation.model.RatePlan;
+import hotelreservation.model.Reservation;
+import hotelreservation.model.Room;
+import hotelreservation.model.RoomAssignmentReport;
+import hotelreservation.model.RoomAttributes;
+import hotelreservation.model.RoomFeature;
+import hotelreservation.model.RoomFilter;
+import hotelreservation.model.RoomRanking;
+import hotelreservation.model.RoomType;
+import hotelreservation.model.RoomView;
+import hotelreservation.model.WaitlistEntry;
+import hotelreservation.model.WaitlistOrder;
+import hotelreservation.util.EpochDays;
+import hotelreservation.util.IsoDates;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+public class Tester {
+  private static final Customer CUSTOMER = new Customer("first", "second", "j@domain.com");
+
+  public static void main(String[] args) throws Exception {
+    Tester.checkBackToBackRoomTypeStays();
+    Tester.checkRoomTypeReservationsAreAllAssigned();
+    Tester.checkOffHeapPropertyStoreKeepsFullState();
+    Tester.checkUnloadedPropertyRejectsMutations();
+    Tester.checkCustomerReservationsAcrossProperties();
+    Tester.checkRateTableFollowsToday();
+    Tester.checkWarmUpIsIsolated();
+    Tester.checkCustomerDirectory();
+    Tester.checkCustomerDirectoryIsRecovered();
+    Tester.checkExport();
+    Tester.checkAnalytics();
+    Tester.checkOccupancyCounters();
+    Tester.checkStaysAreWithinHorizon();
+    Tester.checkCustomerSearch();
+    Tester.checkRoomAssignmentOptimizer();
+    Tester.checkBestFitRanking();
+    Tester.checkAvailabilityCalendar();
+    Tester.checkRoomAttributeIndex();
+    Tester.checkWaitlistIndex();
+    Tester.checkWaitlistPromotionByPriority();
+    Tester.checkOffHeapReservationStore();
+    Tester.checkExportByMonth();
+  }
+
+  private static void check(boolean condition, String message) {
+    if (!condition) {
+      throw new IllegalStateException(message);
+    }
+    System.out.println(message);
+  }
+
+  private static ReservationService newRoomTypeProperty(int rooms) throws RoomAlreadyExistsException {
+    final ReservationService property = new ReservationService("tester", null);
+    for (int i = 0; i < rooms; i++) {
+      property.addRoom(new Room(String.valueOf(100 + i), Money.ofCents(10000), RoomType.DOUBLE));
+    }
+    property.setInventoryMode(InventoryMode.ROOM_TYPE);
+    return property;
+  }
+
+  private static void checkBackToBackRoomTypeStays() throws Exception {
+    final ReservationService property = Tester.newRoomTypeProperty(1);
+    final long day = EpochDays.today() + 10;
+    property.reserveARoomType(Tester.CUSTOMER, RoomType.DOUBLE, EpochDays.toDate(day), EpochDays.toDate(day + 2));
+    try {
+      property.reserveARoomType(Tester.CUSTOMER, RoomType.DOUBLE, EpochDays.toDate(day + 2), EpochDays.toDate(day + 4));
+      throw new IllegalStateException("Stay starting on the check-out day of the only room has been accepted!");
+    } catch (RoomAlreadyReservedException rare) {
+      System.out.println("Stay starting on the check-out day of the only room has been correctly rejected!");
+    }
+  }
+
+  private static void checkRoomTypeReservationsAreAllAssigned() throws Exception {
+    final Random random = new Random(42);
+    final ReservationService property = Tester.newRoomTypeProperty(5);
+    final long today = EpochDays.today();
+    int booked = 0;
+    for (int i = 0; i < 2000; i++) {
+      final long checkInDay = today + random.nextInt(120);
+      final long checkOutDay = checkInDay + random.nextInt(8);
+      try {
+        property.reserveARoomType(
+          Tester.CUSTOMER, RoomType.DOUBLE, EpochDays.toDate(checkInDay), EpochDays.toDate(checkOutDay)
+        );
+        booked++;
+      } catch (RoomAlreadyReservedException rare) {
+        // Sold out: without overbooking, accepted stays must still fit in the rooms.
+      }
+    }
+    final RoomAssignmentReport report = property.assignRoomTypeReservations().get(RoomType.DOUBLE);
+    Tester.check(
+      booked == report.getAssignedReservations() && 0 == report.getUnassignedReservations(),
+      "All " + booked + " room type reservations have been assigned without overbooking!"
+    );
+  }
+
+  private static void checkOffHeapPropertyStoreKeepsFullState() throws Exception {
+    final ReservationService property = Tester.newRoomTypeProperty(2);
+    final RatePlan ratePlan = new RatePlan(1.5, List.of(), 0.8, 1.2);
+    property.setRatePlan(RoomType.DOUBLE, ratePlan);
+    property.setOverbookingRatio(RoomType.DOUBLE, 0.5);
+    property.setWaitlistOrder(WaitlistOrder.PRIORITY);
+    final Date checkInDate = EpochDays.toDate(EpochDays.today() + 10);
+    final Date checkOutDate = EpochDays.toDate(EpochDays.today() + 12);
+    for (int i = 0; i < 3; i++) {
+      property.reserveARoomType(Tester.CUSTOMER, RoomType.DOUBLE, checkInDate, checkOutDate);
+    }
+    property.joinWaitlist(Tester.CUSTOMER, RoomType.DOUBLE, checkInDate, checkOutDate, 1);
+
+    final OffHeapPropertyStore store = new OffHeapPropertyStore();
+    store.save(property);
+    final ReservationService loadedProperty = new ReservationService("tester", null);
+    store.load(loadedProperty);
+    Tester.check(
+      InventoryMode.ROOM_TYPE == loadedProperty.getInventoryMode()
+        && ratePlan == loadedProperty.getRatePlan(RoomType.DOUBLE)
+        && 0.5 == loadedProperty.getOverbookingRatio(RoomType.DOUBLE)
+        && WaitlistOrder.PRIORITY == loadedProperty.getWaitlistOrder()
+        && List.copyOf(property.getRoomTypeReservations()).equals(List.copyOf(loadedProperty.getRoomTypeReservations()))
+        && List.copyOf(property.getWaitlist()).equals(List.copyOf(loadedProperty.getWaitlist())),
+      "Off-heap property store has kept the settings, room type reservations and waitlist of the property!"
+    );
+  }
+
+  private static void checkUnloadedPropertyRejectsMutations() throws Exception {
+    final HotelChainService hotelChainService = HotelChainService.getInstance();
+    hotelChainService.registerProperty("tester-unload", new OffHeapPropertyStore());
+    final ReservationService property = hotelChainService.getProperty("tester-unload");
+    final IRoom room = new Room("101", Money.ofCents(10000), RoomType.SINGLE);
+    property.addRoom(room);
+    final Date checkInDate = EpochDays.toDate(EpochDays.today() + 10);
+    property.reserveARoom(Tester.CUSTOMER, room, checkInDate, EpochDays.toDate(EpochDays.today() + 12));
+
+    hotelChainService.unloadProperty("tester-unload");
+    try {
+      property.reserveARoom(
+        Tester.CUSTOMER, room, EpochDays.toDate(EpochDays.today() + 20), EpochDays.toDate(EpochDays.today() + 22)
+      );
+      throw new IllegalStateException("Unloaded property has accepted a reservation, which has been lost!");
+    } catch (IllegalStateException ise) {
+      if (!ise.getMessage().equals("Property tester-unload has been unloaded!")) {
+        throw ise;
+      }
+      System.out.println("Reservation of an unloaded property has been correctly rejected!");
+    }
+    Tester.check(
+      1 == hotelChainService.getProperty("tester-unload").getAllReservations().size(),
+      "Reloaded property has the reservation made before unloading!"
+    );
+  }
+
+  private static void checkCustomerReservationsAcrossProperties() throws Exception {
+    final HotelChainService hotelChainService = HotelChainService.getInstance();
+    final Customer customer = new Customer("chain", "second", "chain@domain.com");
+    final Date checkInDate = EpochDays.toDate(EpochDays.today() + 10);
+    final Date checkOutDate = EpochDays.toDate(EpochDays.today() + 12);
+    Reservation lastReservation = null;
+    for (final String propertyId : List.of("tester-east", "tester-west")) {
+      hotelChainService.registerProperty(propertyId, new OffHeapPropertyStore());
+      final ReservationService property = hotelChainService.getProperty(propertyId);
+      final IRoom room = new Room("101", Money.ofCents(10000), RoomType.SINGLE);
+      property.addRoom(room);
+      lastReservation = property.reserveARoom(customer, room, checkInDate, checkOutDate);
+    }
+    Tester.check(
+      List.of("tester-east", "tester-west").equals(
+        List.copyOf(hotelChainService.getCustomerReservations(customer).keySet())
+      ),
+      "Reservations of the customer have been found in every property!"
+    );
+
+    hotelChainService.cancelReservation(lastReservation);
+    Tester.check(
+      List.of("tester-east").equals(List.copyOf(hotelChainService.getCustomerReservations(customer).keySet())),
+      "Reservation has been cancelled in the property of its room, which shares its number with another property!"
+    );
+  }
+
+  private static void checkRateTableFollowsToday() {
+    final long[] today = {EpochDays.today()};
+    final OccupancyCounters occupancyCounters = new OccupancyCounters();
+    final RateTable rateTable = new RateTable(occupancyCounters, () -> today[0]);
+    occupancyCounters.addRoom(RoomType.SINGLE);
+    occupancyCounters.addRoom(RoomType.DOUBLE);
+    rateTable.addRoom(0, new Room("101", Money.ofCents(10000), RoomType.SINGLE));
+    rateTable.addRoom(1, new Room("102", Money.ofCents(10000), RoomType.DOUBLE));
+    final RatePlan ratePlan = new RatePlan(1.5, List.of(), 0.5, 2);
+    rateTable.setRatePlan(RoomType.SINGLE, ratePlan);
+    rateTable.setRatePlan(RoomType.DOUBLE, ratePlan);
+
+    for (final long daysLater : new long[] {0, 500, 1000}) {
+      today[0] += daysLater;
+      final long checkInDay = today[0] + 3;
+      occupancyCounters.addStay(RoomType.SINGLE, checkInDay + 1, checkInDay + 2, 1);
+      rateTable.refreshStay(RoomType.SINGLE, checkInDay + 1, checkInDay + 2);
+      long expectedTotal = 0;
+      long expectedDoubleTotal = 0;
+      for (long day = checkInDay; day < checkInDay + 7; day++) {
+        final double occupancy = occupancyCounters.getBookedRooms(RoomType.SINGLE, day);
+        expectedTotal += Math.round(10000 * ratePlan.getMultiplier(LocalDate.ofEpochDay(day), occupancy));
+        expectedDoubleTotal += Math.round(10000 * ratePlan.getMultiplier(LocalDate.ofEpochDay(day), 0));
+      }
+      final long[] totals = rateTable.quote(
+        new int[] {0, 1}, EpochDays.toDate(checkInDay), EpochDays.toDate(checkInDay + 7)
+      );
+      Tester.check(
+        expectedTotal == totals[0] && expectedDoubleTotal == totals[1],
+        "Rate table has quoted " + totals[0] + " cents for a week, " + daysLater + " days later!"
+      );
+    }
+  }
+
+  private static void checkWarmUpIsIsolated() {
+    final CustomerService customerService = CustomerService.getInstance();
+    final int customerId = customerService.getCustomerId(new Customer("before", "warm-up", "before@domain.com"));
+    ServiceWarmUp.run(20);
+    // Looking up the reservations of an unknown customer gives it no ID either.
+    new ReservationService("tester-lookups", null)
+      .getCustomerReservations(new Customer("never", "booked", "never-booked@domain.com"));
+    Tester.check(
+      customerId + 1 == customerService.getCustomerId(new Customer("after", "warm-up", "after@domain.com")),
+      "Warm-up and lookups have given no customer IDs to customers who have not booked!"
+    );
+  }
+
+  private static void checkCustomerDirectory() {
+    final CustomerDirectory directory = CustomerDirectory.openTemporary(16);
+    final int customers = 20_000; // Beyond the initial tables, so that both grow
+    for (int i = 0; i < customers; i++) {
+      final Customer customer = new Customer("First" + i, "Last" + i, "customer" + i + "@domain.com");
+      if (i != (0 == i % 2 ? directory.addRegistered(customer) : directory.getOrAddId(customer))) {
+        throw new IllegalStateException("Customer " + i + " has not been given the next ID!");
+      }
+    }
+    final Customer registered = new Customer("Later", "Registered", "customer1@domain.com");
+    Tester.check(
+      1 == directory.addRegistered(registered)
+        && CustomerDirectory.NO_ID == directory.addRegistered(registered)
+        && registered.equals(directory.get(1))
+        && 1 == directory.findId(registered)
+        && CustomerDirectory.NO_ID == directory.findId(
+          new Customer("Never", "Seen", "customer" + customers + "@domain.com")
+        )
+        && "First19998".equals(directory.getRegistered("customer19998@domain.com").getFirstName())
+        && null == directory.getRegistered("customer19999@domain.com")
+        && customers / 2 + 1 == directory.getRegisteredCustomers().size()
+        && directory.getCachedCount() <= 16,
+      "Customer directory has kept " + customers + " customers with a bounded cache!"
+    );
+  }
+
+  private static void checkCustomerDirectoryIsRecovered() throws Exception {
+    final Path path = Files.createTempDirectory("customers");
+    path.toFile().deleteOnExit();
+    path.resolve("customers.bin").toFile().deleteOnExit();
+    final CustomerDirectory directory = new CustomerDirectory(path, 4);
+    for (int i = 0; i < 100; i++) {
+      directory.getOrAddId(new Customer("First" + i, "Last" + i, "customer" + i + "@domain.com"));
+    }
+    final Customer registered = new Customer("Later", "Registered", "customer7@domain.com");
+    directory.addRegistered(registered);
+    // Record cut short by a crash
+    try (final FileChannel records = FileChannel.open(path.resolve("customers.bin"), StandardOpenOption.APPEND)) {
+      records.write(ByteBuffer.allocate(Integer.BYTES + 2).putInt(0, 1000));
+    }
+
+    final CustomerDirectory reopened = new CustomerDirectory(path, 4);
+    Tester.check(
+      7 == reopened.getOrAddId(registered)
+        && registered.equals(reopened.get(7))
+        && "First99".equals(reopened.get(99).getFirstName())
+        && List.of(registered).equals(List.copyOf(reopened.getRegisteredCustomers()))
+        && 100 == reopened.getOrAddId(new Customer("New", "Customer", "new@domain.com")),
+      "Customer directory has recovered its customers when reopened!"
+    );
+  }
+
+  private static void checkExport() throws Exception {
+    final ReservationService property = new ReservationService("tester-export", null);
+    final IRoom room = new Room("1,01", Money.ofCents(10050), RoomType.DOUBLE);
+    property.addRoom(room);
+    final Customer customer = new Customer("Jo \"JJ\"", "Smith, Jr", "export@domain.com");
+    final long checkInDay = EpochDays.today() + 10;
+    property.reserveARoom(customer, room, EpochDays.toDate(checkInDay), EpochDays.toDate(checkInDay + 2));
+
+    final ExportService exportService = new ExportService(property);
+    final Path file = Files.createTempFile("reservations", ".csv");
+    file.toFile().deleteOnExit();
+    final long rows = exportService.exportReservations(file);
+    final List<String> lines = Files.readAllLines(file);
+    Tester.check(
+      1 == rows
+        && 2 == lines.size()
+        && lines.get(1).equals(
+          IsoDates.format(checkInDay) + "," + IsoDates.format(checkInDay + 2) + ",2,\"1,01\",DOUBLE,"
+            + Money.ofCents(10050) + ",export@domain.com,\"Jo \"\"JJ\"\"\",\"Smith, Jr\""
+        ),
+      "Export has quoted the fields of its row: " + lines.get(1)
+    );
+  }
+
+  private static void checkAnalytics() throws Exception {
+    final ReservationService property = new ReservationService("tester-analytics", null);
+    final IRoom single = new Room("101", Money.ofCents(10000), RoomType.SINGLE);
+    final IRoom doubleRoom = new Room("102", Money.ofCents(15000), RoomType.DOUBLE);
+    property.addRoom(single);
+    property.addRoom(doubleRoom);
+    final long day = EpochDays.today() + 10;
+    final Reservation cancelled = property.reserveARoom(
+      Tester.CUSTOMER, doubleRoom, EpochDays.toDate(day + 3), EpochDays.toDate(day + 4)
+    );
+    property.reserveARoom(Tester.CUSTOMER, single, EpochDays.toDate(day), EpochDays.toDate(day + 3));
+    property.reserveARoom(Tester.CUSTOMER, doubleRoom, EpochDays.toDate(day + 1), EpochDays.toDate(day + 2));
+    property.cancelReservation(cancelled);
+
+    final AnalyticsService analyticsService = new AnalyticsService(property);
+    final Map<RoomType, int[]> occupancyPerRoomType = analyticsService.getOccupancyPerRoomType(day, day + 4);
+    Tester.check(
+      Arrays.equals(new int[] {1, 2, 1, 0}, analyticsService.getOccupancyPerNight(day, day + 4))
+        && Arrays.equals(new int[] {1, 1, 1, 0}, occupancyPerRoomType.get(RoomType.SINGLE))
+        && Arrays.equals(new int[] {0, 1, 0, 0}, occupancyPerRoomType.get(RoomType.DOUBLE))
+        && Money.ofCents(45000).equals(analyticsService.getRevenue(day, day + 4))
+        && Money.ofCents(25000).equals(analyticsService.getRevenue(day + 1, day + 2))
+        && 2 == analyticsService.getAverageLengthOfStay(),
+      "Analytics have counted occupancy and revenue of the remaining reservations!"
+    );
+
+    final ReservationService otherProperty = new ReservationService("tester-analytics-other", null);
+    final IRoom otherRoom = new Room("101", Money.ofCents(20000), RoomType.SINGLE);
+    otherProperty.addRoom(otherRoom);
+    otherProperty.reserveARoom(Tester.CUSTOMER, otherRoom, EpochDays.toDate(day), EpochDays.toDate(day));
+    final AnalyticsService chainAnalytics = new AnalyticsService(() -> List.of(property, otherProperty));
+    final Map<RoomType, int[]> chainOccupancyPerRoomType = chainAnalytics.getOccupancyPerRoomType(day, day + 4);
+    Tester.check(
+      Arrays.equals(new int[] {2, 2, 1, 0}, chainAnalytics.getOccupancyPerNight(day, day + 4))
+        && Arrays.equals(new int[] {2, 1, 1, 0}, chainOccupancyPerRoomType.get(RoomType.SINGLE))
+        && Money.ofCents(65000).equals(chainAnalytics.getRevenue(day, day + 4))
+        && 5. / 3 == chainAnalytics.getAverageLengthOfStay(),
+      "Analytics have summed occupancy and revenue of the properties!"
+    );
+  }
+
+  private static void checkOccupancyCounters() {
+    final Random random = new Random(42);
+    final OccupancyCounters occupancyCounters = new OccupancyCounters();
+    occupancyCounters.addRoom(RoomType.DOUBLE);
+    occupancyCounters.addRoom(RoomType.DOUBLE);
+    // Stays before and far after the initial nights, so that the trees grow both ways.
+    final long firstDay = EpochDays.today() - 200;
+    final int[] bookedRooms = new int[5000];
+    final List<long[]> stays = new ArrayList<>();
+    for (int i = 0; i < 3000; i++) {
+      final boolean release = !stays.isEmpty() && 0 == random.nextInt(3);
+      final long[] stay = release
+        ? stays.remove(random.nextInt(stays.size()))
+        : new long[] {firstDay + random.nextInt(4900), 0};
+      if (!release) {
+        stay[1] = stay[0] + 1 + random.nextInt(30);
+        stays.add(stay);
+      }
+      occupancyCounters.addStay(RoomType.DOUBLE, stay[0], stay[1], release ? -1 : 1);
+      for (long day = stay[0]; day < stay[1]; day++) {
+        bookedRooms[(int) (day - firstDay)] += release ? -1 : 1;
+      }
+    }
+
+    int maxBookedRooms = 0;
+    for (int night = 0; night < bookedRooms.length; night++) {
+      if (bookedRooms[night] != occupancyCounters.getBookedRooms(RoomType.DOUBLE, firstDay + night)) {
+        throw new IllegalStateException("Occupancy counters are wrong on night " + night + "!");
+      }
+      maxBookedRooms = Math.max(maxBookedRooms, bookedRooms[night]);
+    }
+    Tester.check(
+      maxBookedRooms == occupancyCounters.getMaxBookedRooms(RoomType.DOUBLE, firstDay, firstDay + bookedRooms.length)
+        && 2 - bookedRooms[100] == occupancyCounters.getFreeRooms(RoomType.DOUBLE, firstDay + 100)
+        && 0 == occupancyCounters.getBookedRooms(RoomType.SINGLE, firstDay + 100),
+      "Occupancy counters have matched " + stays.size() + " stays over " + bookedRooms.length + " nights!"
+    );
+  }
+
+  private static void checkStaysAreWithinHorizon() throws Exception {
+    final ReservationService property = new ReservationService("tester-horizon", null);
+    final IRoom room = new Room("101", Money.ofCents(10000), RoomType.SINGLE);
+    property.addRoom(room);
+    final long farDay = EpochDays.today() + ReservationService.MAX_DAYS_FROM_TODAY + 1;
+    try {
+      property.reserveARoom(Tester.CUSTOMER, room, EpochDays.toDate(farDay), EpochDays.toDate(farDay + 1));
+      throw new IllegalStateException("Stay too far from today has been accepted!");
+    } catch (IllegalArgumentException iae) {
+      System.out.println("Stay too far from today has been correctly rejected!");
+    }
+
+    final OccupancyCounters occupancyCounters = new OccupancyCounters();
+    try {
+      occupancyCounters.addStay(RoomType.SINGLE, Long.MAX_VALUE / 4, Long.MAX_VALUE / 4 + 1, 1);
+      throw new IllegalStateException("Stay beyond the occupancy counters has been accepted!");
+    } catch (IllegalArgumentException iae) {
+      System.out.println("Stay beyond the occupancy counters has been correctly rejected!");
+    }
+  }
+
+  private static void checkCustomerSearch() {
+    final List<Customer> customers = List.of(
+      new Customer("Margaret", "Hamilton", "margaret@domain.com"),
+      new Customer("Mark", "Hamill", "mark@domain.com"),
+      new Customer("Grace", "Hopper", "grace@domain.com")
+    );
+    final CustomerSearchIndex searchIndex = new CustomerSearchIndex(customers::get);
+    for (int i = 0; i < customers.size(); i++) {
+      searchIndex.add(i, customers.get(i));
+    }
+    Tester.check(
+      List.of(customers.get(1)).equals(searchIndex.search("hamill", 10))
+        && List.of(customers.get(0), customers.get(1)).equals(searchIndex.search("hamil marg", 10))
+        && List.of(customers.get(0)).equals(searchIndex.search("Hamiltin", 10))
+        && List.of(customers.get(2)).equals(searchIndex.search("grace@domain.com", 10))
+        && 1 == searchIndex.search("ham", 1).size()
+        && searchIndex.search("turing", 10).isEmpty(),
+      "Customer search has ranked exact, prefix and fuzzy matches!"
+    );
+
+    // Candidates are ranked from the index: a strong match among many weaker ones is found, and only the results are
+    // loaded.
+    final List<Customer> namesakes = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      namesakes.add(new Customer("Ada", "Smithson", "ada" + i + "@domain.com"));
+    }
+    namesakes.add(new Customer("Ada", "Smith", "zoe@domain.com"));
+    final int[] loads = {0};
+    final CustomerSearchIndex namesakeIndex = new CustomerSearchIndex(customerId -> {
+      loads[0]++;
+      return namesakes.get(customerId);
+    });
+    for (int i = 0; i < namesakes.size(); i++) {
+      namesakeIndex.add(i, namesakes.get(i));
+    }
+    Tester.check(
+      List.of(namesakes.get(1000)).equals(namesakeIndex.search("ada smith", 1)) && 1 == loads[0],
+      "Customer search has ranked " + namesakes.size() + " candidates and loaded only the best one!"
+    );
+  }
+
+  private static void checkRoomAssignmentOptimizer() {
+    // Room 1 gets free last, right before the stay: best fit leaves no gap there.
+    final RoomAssignmentOptimizer bestFit = new RoomAssignmentOptimizer(
+      2, new int[] {0, 1}, new long[] {0, 0}, new long[] {2, 5}, new long[] {6}, new long[] {8}
+    );
+    Tester.check(
+      Arrays.equals(new int[] {1}, bestFit.assign()) && 0 == bestFit.getReport().getGaps(),
+      "Room assignment optimizer has put the stay right after the stay of room 1!"
+    );
+
+    final Random random = new Random(42);
+    final int rooms = 10;
+    final int fixedCount = 20;
+    final int stayCount = 400;
+    final int[] fixedRooms = new int[fixedCount];
+    final long[] fixedInDays = new long[fixedCount];
+    final long[] fixedOutDays = new long[fixedCount];
+    for (int stay = 0; stay < fixedCount; stay++) {
+      fixedRooms[stay] = stay % rooms;
+      fixedInDays[stay] = (stay / rooms) * 60 + random.nextInt(30);
+      fixedOutDays[stay] = fixedInDays[stay] + random.nextInt(10);
+    }
+    final long[] inDays = new long[stayCount];
+    final long[] outDays = new long[stayCount];
+    for (int stay = 0; stay < stayCount; stay++) {
+      inDays[stay] = random.nextInt(120);
+      outDays[stay] = inDays[stay] + random.nextInt(7);
+    }
+    final RoomAssignmentOptimizer optimizer = new RoomAssignmentOptimizer(
+      rooms, fixedRooms, fixedInDays, fixedOutDays, inDays, outDays
+    );
+    final int[] roomOfStay = optimizer.assign();
+
+    // Every day of a room is taken by at most one stay, fixed or assigned.
+    final int[][] staysByRoomDay = new int[rooms][200];
+    for (int stay = 0; stay < fixedCount; stay++) {
+      for (long day = fixedInDays[stay]; day <= fixedOutDays[stay]; day++) {
+        staysByRoomDay[fixedRooms[stay]][(int) day]++;
+      }
+    }
+    int assigned = 0;
+    for (int stay = 0; stay < stayCount; stay++) {
+      if (RoomAssignmentOptimizer.NO_ROOM != roomOfStay[stay]) {
+        assigned++;
+        for (long day = inDays[stay]; day <= outDays[stay]; day++) {
+          staysByRoomDay[roomOfStay[stay]][(int) day]++;
+        }
+      }
+    }
+    final RoomAssignmentReport report = optimizer.getReport();
+    Tester.check(
+      Arrays.stream(staysByRoomDay).flatMapToInt(Arrays::stream).allMatch(stays -> stays <= 1)
+        && assigned == report.getAssignedReservations()
+        && stayCount - assigned == report.getUnassignedReservations(),
+      "Room assignment optimizer has given no day of a room to two stays: " + report
+    );
+  }
+
+  private static void checkBestFitRanking() throws Exception {
+    final ReservationService property = new ReservationService("tester-best-fit", null);
+    final IRoom orphanGapRoom = new Room("101", Money.ofCents(10000), RoomType.SINGLE);
+    final IRoom emptyRoom = new Room("102", Money.ofCents(10000), RoomType.SINGLE);
+    final IRoom backToBackRoom = new Room("103", Money.ofCents(10000), RoomType.SINGLE);
+    property.addRoom(orphanGapRoom);
+    property.addRoom(emptyRoom);
+    property.addRoom(backToBackRoom);
+    final long day = EpochDays.today() + 10;
+    property.reserveARoom(Tester.CUSTOMER, orphanGapRoom, EpochDays.toDate(day - 7), EpochDays.toDate(day - 3));
+    property.reserveARoom(Tester.CUSTOMER, backToBackRoom, EpochDays.toDate(day - 5), EpochDays.toDate(day - 1));
+
+    final Date checkInDate = EpochDays.toDate(day);
+    final Date checkOutDate = EpochDays.toDate(day + 2);
+    Tester.check(
+      List.of(orphanGapRoom, emptyRoom, backToBackRoom).equals(
+        List.copyOf(property.findRooms(checkInDate, checkOutDate, RoomRanking.ADDITION_ORDER))
+      )
+        && List.of(backToBackRoom, emptyRoom, orphanGapRoom).equals(
+          List.copyOf(property.findRooms(checkInDate, checkOutDate, RoomRanking.BEST_FIT))
+        ),
+      "Best fit ranking has put the back to back room first and the orphan gap room last!"
+    );
+  }
+
+  private static void checkAvailabilityCalendar() throws Exception {
+    final ReservationService property = new ReservationService("tester-calendar", null);
+    final IRoom first = new Room("101", Money.ofCents(10000), RoomType.SINGLE);
+    final IRoom second = new Room("102", Money.ofCents(10000), RoomType.SINGLE);
+    property.addRoom(first);
+    property.addRoom(second);
+    final long day = EpochDays.today() + 10;
+    property.reserveARoom(Tester.CUSTOMER, first, EpochDays.toDate(day - 2), EpochDays.toDate(day + 1));
+    property.reserveARoom(Tester.CUSTOMER, first, EpochDays.toDate(day + 10), EpochDays.toDate(day + 12));
+    property.reserveARoom(Tester.CUSTOMER, second, EpochDays.toDate(day + 2), EpochDays.toDate(day + 4));
+
+    final AvailabilityCalendar calendar = property.getAvailabilityCalendar(day, 5);
+    Tester.check(
+      calendar.isBooked(0, 0) && !calendar.isBooked(0, 1) && calendar.isBooked(1, 3)
+        && Arrays.equals(new int[] {0, 1, 4}, calendar.getRunLengths(0))
+        && Arrays.equals(new int[] {2, 2, 1}, calendar.getRunLengths(1))
+        && Arrays.equals(new int[] {1, 2, 1, 1, 2}, calendar.getFreeRoomsPerNight(RoomType.SINGLE))
+        && Arrays.equals(new int[] {0, 0, 0, 0, 0}, calendar.getFreeRoomsPerNight(RoomType.DOUBLE)),
+      "Availability calendar has marked the booked nights of each room, including a stay started before it!"
+    );
+
+    final ReservationService roomTypeProperty = Tester.newRoomTypeProperty(2);
+    for (final long[] stay : new long[][] {{day - 30, day - 25}, {day - 3, day + 1}, {day + 3, day + 20}}) {
+      roomTypeProperty.reserveARoomType(
+        Tester.CUSTOMER, RoomType.DOUBLE, EpochDays.toDate(stay[0]), EpochDays.toDate(stay[1])
+      );
+    }
+    final AvailabilityCalendar roomTypeCalendar = roomTypeProperty.getAvailabilityCalendar(day, 5);
+    Tester.check(
+      Arrays.equals(new int[] {1, 2, 2, 1, 1}, roomTypeCalendar.getFreeRoomsPerNight(RoomType.DOUBLE)),
+      "Availability calendar has counted the room type reservations overlapping it!"
+    );
+    try {
+      property.getAvailabilityCalendar(day, ReservationService.MAX_DAYS_FROM_TODAY + 1);
+      throw new IllegalStateException("Calendar beyond the booking horizon has been built!");
+    } catch (IllegalArgumentException iae) {
+      System.out.println("Calendar beyond the booking horizon has been correctly rejected!");
+    }
+  }
+
+  private static void checkRoomAttributeIndex() {
+    final Random random = new Random(42);
+    final RoomAttributeIndex roomAttributeIndex = new RoomAttributeIndex();
+    final List<RoomAttributes> attributesById = new ArrayList<>();
+    for (int roomId = 0; roomId < 5000; roomId++) {
+      final RoomAttributes attributes = RoomAttributes.of(
+        RoomView.values()[random.nextInt(RoomView.values().length)],
+        random.nextInt(20),
+        1 + random.nextInt(4),
+        random.nextInt(1 << RoomFeature.values().length)
+      );
+      attributesById.add(attributes);
+      roomAttributeIndex.addRoom(
+        roomId, new Room(String.valueOf(roomId), Money.ofCents(10000), RoomType.DOUBLE, attributes)
+      );
+    }
+
+    for (int i = 0; i < 200; i++) {
+      RoomFilter filter = RoomFilter.ANY;
+      if (random.nextBoolean()) {
+        filter = filter.withView(RoomView.values()[random.nextInt(RoomView.values().length)]);
+      }
+      final RoomFeature feature = RoomFeature.values()[random.nextInt(RoomFeature.values().length)];
+      filter = switch (random.nextInt(3)) {
+        case 0 -> filter.withFeature(feature);
+        case 1 -> filter.withoutFeature(feature);
+        default -> filter;
+      };
+      if (random.nextBoolean()) {
+        final int minFloor = random.nextInt(20);
+        filter = filter.withFloors(minFloor, minFloor + random.nextInt(5));
+      }
+      if (random.nextBoolean()) {
+        filter = filter.withMinBedCount(1 + random.nextInt(4));
+      }
+
+      final RoomFilter roomFilter = filter;
+      final int[] expectedRoomIds = IntStream.range(0, attributesById.size())
+        .filter(roomId -> roomFilter.matches(attributesById.get(roomId)))
+        .toArray();
+      if (!Arrays.equals(expectedRoomIds, roomAttributeIndex.getRoomIds(roomFilter).toArray())) {
+        throw new IllegalStateException("Room attribute index has not found the rooms matching filter " + i + "!");
+      }
+    }
+    System.out.println("Room attribute index has found the rooms matching 200 random filters!");
+  }
+
+  private static void checkWaitlistIndex() {
+    final Random random = new Random(42);
+    final StayIndex<WaitlistEntry> waitlistIndex = new StayIndex<>(WaitlistEntry::getSequence);
+    final List<WaitlistEntry> entries = new ArrayList<>();
+    final long firstDay = EpochDays.today();
+    for (int i = 0; i < 5000; i++) {
+      if (!entries.isEmpty() && 0 == random.nextInt(3)) {
+        final WaitlistEntry entry = entries.remove(random.nextInt(entries.size()));
+        if (!waitlistIndex.remove(entry, EpochDays.of(entry.getCheckInDate()))) {
+          throw new IllegalStateException("Waitlist entry " + entry + " has not been removed!");
+        }
+        continue;
+      }
+      final long checkInDay = firstDay + random.nextInt(365);
+      final WaitlistEntry entry = new WaitlistEntry(
+        Tester.CUSTOMER,
+        RoomType.SINGLE,
+        EpochDays.toDate(checkInDay),
+        EpochDays.toDate(checkInDay + random.nextInt(14)),
+        0
+      );
+      entries.add(entry);
+      waitlistIndex.add(entry, checkInDay, EpochDays.of(entry.getCheckOutDate()));
+    }
+
+    for (int i = 0; i < 500; i++) {
+      final long fromDay = firstDay + random.nextInt(380);
+      final long toDay = fromDay + random.nextInt(10);
+      final List<WaitlistEntry> expectedEntries = entries.stream()
+        .filter(
+          entry -> EpochDays.of(entry.getCheckInDate()) <= toDay && EpochDays.of(entry.getCheckOutDate()) >= fromDay
+        )
+        .sorted(
+          Comparator.<WaitlistEntry>comparingLong(entry -> EpochDays.of(entry.getCheckInDate()))
+            .thenComparingLong(WaitlistEntry::getSequence)
+        )
+        .toList();
+      if (!expectedEntries.equals(waitlistIndex.findOverlapping(fromDay, toDay))) {
+        throw new IllegalStateException("Waitlist index has not found the entries overlapping query " + i + "!");
+      }
+    }
+    Tester.check(
+      entries.size() == waitlistIndex.size() && !waitlistIndex.remove(Tester.newWaitlistEntry(), firstDay),
+      "Waitlist index has found the entries overlapping 500 random stays among " + entries.size() + " entries!"
+    );
+  }
+
+  private static WaitlistEntry newWaitlistEntry() {
+    return new WaitlistEntry(
+      Tester.CUSTOMER, RoomType.SINGLE, EpochDays.toDate(EpochDays.today()), EpochDays.toDate(EpochDays.today()), 0
+    );
+  }
+
+  private static void checkWaitlistPromotionByPriority() throws Exception {
+    final ReservationService property = new ReservationService("tester-waitlist", null);
+    final IRoom room = new Room("101", Money.ofCents(10000), RoomType.SINGLE);
+    property.addRoom(room);
+    property.setWaitlistOrder(WaitlistOrder.PRIORITY);
+    final Date checkInDate = EpochDays.toDate(EpochDays.today() + 10);
+    final Date checkOutDate = EpochDays.toDate(EpochDays.today() + 12);
+    final Reservation reservation = property.reserveARoom(Tester.CUSTOMER, room, checkInDate, checkOutDate);
+    final List<Customer> waitingCustomers = List.of(
+      new Customer("first", "waiting", "first@domain.com"),
+      new Customer("second", "waiting", "second@domain.com"),
+      new Customer("third", "waiting", "third@domain.com")
+    );
+    final int[] priorities = {0, 5, 5};
+    for (int i = 0; i < waitingCustomers.size(); i++) {
+      property.joinWaitlist(waitingCustomers.get(i), RoomType.SINGLE, checkInDate, checkOutDate, priorities[i]);
+    }
+
+    property.cancelReservation(reservation);
+    Tester.check(
+      1 == property.getCustomerReservations(waitingCustomers.get(1)).size()
+        && property.getCustomerReservations(waitingCustomers.get(0)).isEmpty()
+        && property.getCustomerReservations(waitingCustomers.get(2)).isEmpty()
+        && 2 == property.getWaitlist().size(),
+      "Freed room has been offered to the first of the highest priority waiting customers!"
+    );
+  }
+
+  private static void checkOffHeapReservationStore() {
+    final Random random = new Random(42);
+    final List<IRoom> rooms = List.of(
+      new Room("101", Money.ofCents(10000), RoomType.SINGLE), new Room("102", Money.ofCents(15000), RoomType.DOUBLE)
+    );
+    final List<Customer> customers = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      customers.add(new Customer("first", "second", "customer" + i + "@domain.com"));
+    }
+    final OffHeapReservationStore store = new OffHeapReservationStore(1, rooms::get, customers::get);
+    final List<Reservation> reservations = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      final long checkInDay = EpochDays.today() + random.nextInt(365);
+      final int roomId = random.nextInt(rooms.size());
+      final int customerId = random.nextInt(customers.size());
+      final Reservation reservation = new Reservation(
+        customers.get(customerId),
+        rooms.get(roomId),
+        EpochDays.toDate(checkInDay),
+        EpochDays.toDate(checkInDay + random.nextInt(7))
+      );
+      final int storedIndex = store.add(
+        roomId, customerId, reservation.getCheckInDate(), reservation.getCheckOutDate()
+      );
+      if (reservations.size() != storedIndex) {
+        throw new IllegalStateException("Reservation " + i + " has not been stored last!");
+      }
+      reservations.add(reservation);
+      if (0 == random.nextInt(4)) {
+        // Removed records are replaced by the last one.
+        final int index = random.nextInt(reservations.size());
+        store.remove(index);
+        final Reservation lastReservation = reservations.remove(reservations.size() - 1);
+        if (index < reservations.size()) {
+          reservations.set(index, lastReservation);
+        }
+      }
+    }
+    Tester.check(
+      reservations.equals(store.stream().toList())
+        && (long) reservations.size() * OffHeapReservationStore.RECORD_BYTES <= store.getOffHeapBytes(),
+      "Off-heap reservation store has kept " + reservations.size() + " reservations in "
+        + store.getOffHeapBytes() + " bytes!"
+    );
+
+    final Stream<Reservation> snapshot = store.stream();
+    store.remove(0);
+    Tester.check(
+      reservations.equals(snapshot.toList()),
+      "Off-heap reservation stream has kept the records stored when it was opened!"
+    );
+    store.clear();
+    Tester.check(
+      0 == store.size() && 0 == store.stream().count(),
+      "Off-heap reservation store has been cleared!"
+    );
+  }
+
+  private static void checkExportByMonth() throws Exception {
+    final ReservationService property = new ReservationService("tester-export-months", null);
+    final IRoom room = new Room("101", Money.ofCents(10000), RoomType.SINGLE);
+    property.addRoom(room);
+    final LocalDate firstMonth = LocalDate.ofEpochDay(EpochDays.today()).withDayOfMonth(1).plusMonths(1);
+    // Two stays checking in the first month, one in the third; none in the second.
+    for (final LocalDate checkInDate : List.of(firstMonth, firstMonth.plusDays(10), firstMonth.plusMonths(2))) {
+      property.reserveARoom(
+        Tester.CUSTOMER,
+        room,
+        EpochDays.toDate(checkInDate.toEpochDay()),
+        EpochDays.toDate(checkInDate.toEpochDay() + 2)
+      );
+    }
+
+    final Path directory = Files.createTempDirectory("reservations");
+    directory.toFile().deleteOnExit();
+    final long rows = new ExportService(property).exportReservationsByMonth(directory);
+    final List<Path> paths;
+    try (final Stream<Path> listedPaths = Files.list(directory)) {
+      paths = listedPaths.sorted().toList();
+    }
+    paths.forEach(path -> path.toFile().deleteOnExit());
+    final List<String> files = paths.stream().map(path -> path.getFileName().toString()).toList();
+    final String firstFile = "reservations-" + IsoDates.format(firstMonth.toEpochDay()).substring(0, 7) + ".csv";
+    final String thirdFile = "reservations-"
+      + IsoDates.format(firstMonth.plusMonths(2).toEpochDay()).substring(0, 7) + ".csv";
+    Tester.check(
+      3 == rows
+        && List.of(firstFile, thirdFile).equals(files)
+        && 3 == Files.readAllLines(directory.resolve(firstFile)).size()
+        && 2 == Files.readAllLines(directory.resolve(thirdFile)).size(),
+      "Export by month has written one file per month with check-ins: " + files
+    );
+  }
+}
@@ -0,0 +1,21 @@
+package hotelreservation.service;
+
+import hotelreservation.model.Reservation;
+import hotelreservation.model.RoomTypeReservation;
+import hotelreservation.model.WaitlistEntry;
+
+/**
+ * Notified when waitlist entries are booked, once the property has been unlocked: listeners may call the property.
+ */
+public interface WaitlistListener {
+  /**
+   * Called when the entry has been booked into a room, in {@link hotelreservation.model.InventoryMode#ROOM} mode.
+   */
+  default void onReservation(WaitlistEntry entry, Reservation reservation) {}
+
+  /**
+   * Called when the entry has been booked as a room type, in {@link hotelreservation.model.InventoryMode#ROOM_TYPE}
+   * mode.
+   */
+  default void onRoomTypeReservation(WaitlistEntry entry, RoomTypeReservation reservation) {}
+}
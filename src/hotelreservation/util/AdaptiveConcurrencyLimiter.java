@@ -0,0 +1,143 @@
+package hotelreservation.util;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Limits the number of calls in flight to a limit adapted to their latency, so that excess load is rejected at once
+ * instead of queueing until everything times out.
+ * <p>
+ * The limit follows the gradient between the long-term and the recent average latency: it grows while recent calls
+ * are as fast as usual, and shrinks as soon as they slow down, i.e. as soon as calls start to queue for resources.
+ * Acquiring is a compare-and-set on the in-flight count; releasing updates the limit unless another release is
+ * updating it already, in which case its sample is skipped rather than waited for.
+ */
+public final class AdaptiveConcurrencyLimiter {
+  /**
+   * Right to run one call; closing it releases the call and records its latency.
+   */
+  public final class Permit implements AutoCloseable {
+    private final long startNanos;
+    private boolean closed;
+
+    private Permit(long startNanos) {
+      this.startNanos = startNanos;
+    }
+
+    @Override
+    public void close() {
+      if (this.closed) {
+        return;
+      }
+      this.closed = true;
+      AdaptiveConcurrencyLimiter.this.release(this.startNanos);
+    }
+  }
+
+  private static final double LONG_WINDOW_SAMPLES = 600;
+  private static final double SHORT_WINDOW_SAMPLES = 10;
+  // Recent latency may exceed the long-term average by this factor before the limit shrinks.
+  private static final double LATENCY_TOLERANCE = 1.5;
+  private static final double MIN_GRADIENT = 0.5;
+  private static final double SMOOTHING = 0.2;
+
+  private final int minLimit;
+  private final int maxLimit;
+  private final LongSupplier clock;
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final AtomicBoolean updating = new AtomicBoolean();
+  private volatile int limit;
+
+  // Guarded by updating
+  private double estimatedLimit;
+  private double longRttNanos = -1;
+  private double shortRttNanos = -1;
+
+  public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit) {
+    this(initialLimit, minLimit, maxLimit, System::nanoTime);
+  }
+
+  /**
+   * @param clock Current time in nanoseconds, e.g. {@link System#nanoTime()}.
+   */
+  public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, LongSupplier clock)
+    throws IllegalArgumentException {
+    if (minLimit < 1 || minLimit > initialLimit || initialLimit > maxLimit) {
+      throw new IllegalArgumentException("Limits must be positive, with the initial one between the others!");
+    }
+    this.minLimit = minLimit;
+    this.maxLimit = maxLimit;
+    this.clock = Objects.requireNonNull(clock);
+    this.limit = initialLimit;
+    this.estimatedLimit = initialLimit;
+  }
+
+  /**
+   * @return A permit to close once the call is done, or null if the limit has been reached.
+   */
+  public Permit tryAcquire() {
+    while (true) {
+      final int current = this.inFlight.get();
+      if (current >= this.limit) {
+        return null;
+      }
+      if (this.inFlight.compareAndSet(current, current + 1)) {
+        return new Permit(this.clock.getAsLong());
+      }
+    }
+  }
+
+  public int getLimit() {
+    return this.limit;
+  }
+
+  public int getInFlight() {
+    return this.inFlight.get();
+  }
+
+  private void release(long startNanos) {
+    final int inFlightBefore = this.inFlight.getAndDecrement();
+    final double rttNanos = Math.max(1, this.clock.getAsLong() - startNanos);
+    if (!this.updating.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      this.update(rttNanos, inFlightBefore);
+    } finally {
+      this.updating.set(false);
+    }
+  }
+
+  private void update(double rttNanos, int inFlightBefore) {
+    if (this.longRttNanos < 0) {
+      this.longRttNanos = rttNanos;
+      this.shortRttNanos = rttNanos;
+      return;
+    }
+    this.shortRttNanos += (rttNanos - this.shortRttNanos) / AdaptiveConcurrencyLimiter.SHORT_WINDOW_SAMPLES;
+    this.longRttNanos += (rttNanos - this.longRttNanos) / AdaptiveConcurrencyLimiter.LONG_WINDOW_SAMPLES;
+
+    // After an overload, let the long-term average recover quickly once latency is back to normal.
+    if (this.longRttNanos > 2 * this.shortRttNanos) {
+      this.longRttNanos *= 0.95;
+    }
+    // Calls do not use the limit, so their latency says nothing about a higher one.
+    if (inFlightBefore < this.estimatedLimit / 2) {
+      return;
+    }
+
+    final double gradient = Math.max(
+      AdaptiveConcurrencyLimiter.MIN_GRADIENT,
+      Math.min(1.0, AdaptiveConcurrencyLimiter.LATENCY_TOLERANCE * this.longRttNanos / this.shortRttNanos)
+    );
+    // Headroom for growth, and to keep some queueing when latency is stable.
+    final double queueSize = Math.sqrt(this.estimatedLimit);
+    final double newLimit = this.estimatedLimit * gradient + queueSize;
+    final double smoothedLimit = this.estimatedLimit * (1 - AdaptiveConcurrencyLimiter.SMOOTHING) +
+      newLimit * AdaptiveConcurrencyLimiter.SMOOTHING;
+    this.estimatedLimit = Math.max(this.minLimit, Math.min(this.maxLimit, smoothedLimit));
+    this.limit = (int) this.estimatedLimit;
+  }
+}
@@ -0,0 +1,43 @@
+package hotelreservation.util;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.zone.ZoneRules;
+import java.util.Date;
+import java.util.Objects;
+
+/**
+ * Conversions between {@link Date} objects and epoch days (days since 1970-01-01) in the system time zone.
+ * <p>
+ * The zone is read once: {@link java.util.TimeZone#getDefault} clones the zone on every call, which conversions on hot
+ * paths cannot afford. Changing the default zone afterwards does not affect these conversions.
+ */
+public final class EpochDays {
+  private static final long MILLIS_PER_DAY = 86_400_000L;
+  private static final ZoneId ZONE = ZoneId.systemDefault();
+  private static final ZoneRules ZONE_RULES = EpochDays.ZONE.getRules();
+
+  private EpochDays() {}
+
+  public static long of(Date date) {
+    final long millis = Objects.requireNonNull(date).getTime();
+    final long offsetMillis = 1000L * EpochDays.ZONE_RULES.getOffset(Instant.ofEpochMilli(millis)).getTotalSeconds();
+    return Math.floorDiv(millis + offsetMillis, EpochDays.MILLIS_PER_DAY);
+  }
+
+  public static Date toDate(long epochDay) {
+    return Date.from(LocalDate.ofEpochDay(epochDay).atStartOfDay(EpochDays.ZONE).toInstant());
+  }
+
+  public static long today() {
+    return EpochDays.of(new Date());
+  }
+
+  /**
+   * @return Exclusive end of the nights covered by a stay. A same-day stay still occupies (and is billed as) one night.
+   */
+  public static long endOfStay(long checkInDay, long checkOutDay) {
+    return Math.max(checkOutDay, checkInDay + 1);
+  }
+}
@@ -0,0 +1,166 @@
+package hotelreservation.util;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.LongSupplier;
+
+/**
+ * Remembers the results of requests by idempotency key, so that a replayed request returns the original result instead
+ * of being executed again. A replay arriving while the original is still running waits for it.
+ * <p>
+ * Only successful results are kept: after a failure the key may be used again. Results are forgotten once they are
+ * older than the time to live, or oldest first once there are more than the capacity. Requests still running are never
+ * forgotten, so that replays keep waiting for them rather than executing again.
+ */
+public final class IdempotencyCache<V> {
+  @FunctionalInterface
+  public interface Request<V, E extends Exception> {
+    V execute() throws E;
+  }
+
+  private static final class Entry<V> {
+    private final String key;
+    private final Object fingerprint;
+    private final long expiresAtMillis;
+    private final CompletableFuture<V> result = new CompletableFuture<>();
+
+    private Entry(String key, Object fingerprint, long expiresAtMillis) {
+      this.key = key;
+      this.fingerprint = fingerprint;
+      this.expiresAtMillis = expiresAtMillis;
+    }
+  }
+
+  private final int capacity;
+  private final long timeToLiveMillis;
+  private final LongSupplier clock;
+  private final Map<String, Entry<V>> entries = new ConcurrentHashMap<>();
+  // Entries in creation order, hence in expiry order too, except running entries queued again by evict.
+  private final Queue<Entry<V>> evictionQueue = new ConcurrentLinkedQueue<>();
+
+  public IdempotencyCache(int capacity, long timeToLiveMillis) {
+    this(capacity, timeToLiveMillis, System::currentTimeMillis);
+  }
+
+  /**
+   * @param clock Current time in milliseconds.
+   */
+  public IdempotencyCache(int capacity, long timeToLiveMillis, LongSupplier clock) throws IllegalArgumentException {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("Capacity must be positive!");
+    }
+    if (timeToLiveMillis < 1) {
+      throw new IllegalArgumentException("Time to live must be positive!");
+    }
+    this.capacity = capacity;
+    this.timeToLiveMillis = timeToLiveMillis;
+    this.clock = Objects.requireNonNull(clock);
+  }
+
+  /**
+   * Executes the request, unless a request with the same key has already succeeded or is running.
+   *
+   * @param fingerprint Parameters of the request, which a replay must equal.
+   * @return Result of the request, or of the original request with the same key.
+   * @throws IllegalArgumentException If the key was used for a request with another fingerprint.
+   */
+  public <E extends Exception> V execute(String key, Object fingerprint, Request<V, E> request)
+    throws E, IllegalArgumentException {
+    Objects.requireNonNull(key);
+    Objects.requireNonNull(fingerprint);
+    Objects.requireNonNull(request);
+    final long nowMillis = this.clock.getAsLong();
+    this.evict(nowMillis);
+
+    while (true) {
+      final Entry<V> existingEntry = this.entries.get(key);
+      if (null != existingEntry && existingEntry.expiresAtMillis <= nowMillis && existingEntry.result.isDone()) {
+        this.entries.remove(key, existingEntry);
+        continue;
+      }
+      if (null != existingEntry) {
+        if (!existingEntry.fingerprint.equals(fingerprint)) {
+          throw new IllegalArgumentException("Idempotency key " + key + " was used for another request!");
+        }
+        return IdempotencyCache.<V, E>join(existingEntry.result);
+      }
+
+      final Entry<V> entry = new Entry<>(key, fingerprint, nowMillis + this.timeToLiveMillis);
+      if (null != this.entries.putIfAbsent(key, entry)) {
+        continue;
+      }
+      this.evictionQueue.add(entry);
+
+      final V result;
+      try {
+        result = request.execute();
+      } catch (Exception | Error throwable) {
+        this.entries.remove(key, entry);
+        entry.result.completeExceptionally(throwable);
+        throw throwable;
+      }
+      entry.result.complete(result);
+      return result;
+    }
+  }
+
+  /**
+   * @return Number of remembered requests, including expired ones not evicted yet.
+   */
+  public int size() {
+    return this.entries.size();
+  }
+
+  private void evict(long nowMillis) {
+    int requeuedCount = 0;
+    while (true) {
+      final Entry<V> oldestEntry = this.evictionQueue.peek();
+      if (
+        null == oldestEntry ||
+          (oldestEntry.expiresAtMillis > nowMillis && this.entries.size() <= this.capacity)
+      ) {
+        return;
+      }
+      // Another thread may have evicted the peeked entry already; then evict the next one.
+      final Entry<V> evictedEntry = this.evictionQueue.poll();
+      if (null == evictedEntry) {
+        continue;
+      }
+      if (!evictedEntry.result.isDone()) {
+        // Running requests are queued again, behind newer entries; once all of them have been, none is left to evict.
+        this.evictionQueue.add(evictedEntry);
+        if (++requeuedCount > this.entries.size()) {
+          return;
+        }
+        continue;
+      }
+      this.entries.remove(evictedEntry.key, evictedEntry);
+    }
+  }
+
+  /**
+   * @return Result of the original request, or rethrows what it threw.
+   */
+  @SuppressWarnings("unchecked")
+  private static <V, E extends Exception> V join(CompletableFuture<V> result) throws E {
+    try {
+      return result.join();
+    } catch (CompletionException | CancellationException exception) {
+      final Throwable cause = null == exception.getCause() ? exception : exception.getCause();
+      if (cause instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      if (cause instanceof Error error) {
+        throw error;
+      }
+      // The original request had the same fingerprint, so it came from the same caller and threw the same type.
+      throw (E) cause;
+    }
+  }
+}
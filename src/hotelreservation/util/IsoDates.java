@@ -0,0 +1,168 @@
+package hotelreservation.util;
+
+import java.util.Objects;
+
+/**
+ * Thread-safe ISO 8601 {@code yyyy-MM-dd} codec working on epoch days, for years 0000 to 9999.
+ * <p>
+ * Parsing, and formatting into a caller-supplied buffer or builder, do not allocate; only {@link #format(long)}
+ * creates its result. Calendar arithmetic follows Howard Hinnant's proleptic Gregorian "days from civil" algorithms.
+ */
+public final class IsoDates {
+  /** Number of characters of a formatted date. */
+  public static final int LENGTH = 10;
+
+  /** Returned by {@link #tryParse(CharSequence)} for text which is not a valid date. */
+  public static final long INVALID = Long.MIN_VALUE;
+
+  private static final long MIN_EPOCH_DAY = -719_528L; // 0000-01-01
+  private static final long MAX_EPOCH_DAY = 2_932_896L; // 9999-12-31
+
+  /** Divisor of the decimal date yyyyMMdd giving each character as its last digit, 0 for a dash. */
+  private static final int[] DIVISORS = {10_000_000, 1_000_000, 100_000, 10_000, 0, 1000, 100, 0, 10, 1};
+
+  private static final int DAYS_PER_ERA = 146_097; // 400 years
+  private static final int DAYS_FROM_ERA_TO_EPOCH = 719_468; // 0000-03-01 to 1970-01-01
+
+  private IsoDates() {}
+
+  /**
+   * Writes the date into the buffer, taking {@link #LENGTH} characters.
+   *
+   * @return Offset after the written date.
+   */
+  public static int format(long epochDay, char[] buffer, int offset) throws IllegalArgumentException {
+    Objects.checkFromIndexSize(offset, IsoDates.LENGTH, buffer.length);
+    final int date = IsoDates.toDecimalDate(epochDay);
+    for (int i = 0; i < IsoDates.LENGTH; i++) {
+      buffer[offset + i] = IsoDates.charAt(date, i);
+    }
+    return offset + IsoDates.LENGTH;
+  }
+
+  /**
+   * Writes the date into the buffer as ASCII bytes, taking {@link #LENGTH} bytes.
+   *
+   * @return Offset after the written date.
+   */
+  public static int format(long epochDay, byte[] buffer, int offset) throws IllegalArgumentException {
+    Objects.checkFromIndexSize(offset, IsoDates.LENGTH, buffer.length);
+    final int date = IsoDates.toDecimalDate(epochDay);
+    for (int i = 0; i < IsoDates.LENGTH; i++) {
+      buffer[offset + i] = (byte) IsoDates.charAt(date, i);
+    }
+    return offset + IsoDates.LENGTH;
+  }
+
+  public static StringBuilder appendTo(StringBuilder builder, long epochDay) throws IllegalArgumentException {
+    final int date = IsoDates.toDecimalDate(epochDay);
+    for (int i = 0; i < IsoDates.LENGTH; i++) {
+      builder.append(IsoDates.charAt(date, i));
+    }
+    return builder;
+  }
+
+  public static String format(long epochDay) throws IllegalArgumentException {
+    final char[] buffer = new char[IsoDates.LENGTH];
+    IsoDates.format(epochDay, buffer, 0);
+    return new String(buffer);
+  }
+
+  /**
+   * @return Epoch day of the date, which must span the whole text.
+   */
+  public static long parse(CharSequence text) throws IllegalArgumentException {
+    final long epochDay = IsoDates.tryParse(text);
+    if (IsoDates.INVALID == epochDay) {
+      throw new IllegalArgumentException("Date " + text + " is not in yyyy-MM-dd format!");
+    }
+    return epochDay;
+  }
+
+  /**
+   * @return Epoch day of the date, which must span the whole text, or {@link #INVALID}.
+   */
+  public static long tryParse(CharSequence text) {
+    return null == text || text.length() != IsoDates.LENGTH ? IsoDates.INVALID : IsoDates.tryParse(text, 0);
+  }
+
+  /**
+   * @return Epoch day of the date taking {@link #LENGTH} characters from the offset, or {@link #INVALID}.
+   */
+  public static long tryParse(CharSequence text, int offset) {
+    if (offset < 0 || offset > text.length() - IsoDates.LENGTH) {
+      return IsoDates.INVALID;
+    }
+    if ('-' != text.charAt(offset + 4) || '-' != text.charAt(offset + 7)) {
+      return IsoDates.INVALID;
+    }
+
+    final int year = IsoDates.parseDigits(text, offset, 4);
+    final int month = IsoDates.parseDigits(text, offset + 5, 2);
+    final int day = IsoDates.parseDigits(text, offset + 8, 2);
+    if (year < 0 || month < 1 || month > 12 || day < 1 || day > IsoDates.lengthOfMonth(year, month)) {
+      return IsoDates.INVALID;
+    }
+
+    // Years start on March 1st, so that the leap day ends the year.
+    final int marchYear = month <= 2 ? year - 1 : year;
+    final int era = Math.floorDiv(marchYear, 400);
+    final int yearOfEra = marchYear - era * 400;
+    final int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+    final int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+    return (long) era * IsoDates.DAYS_PER_ERA + dayOfEra - IsoDates.DAYS_FROM_ERA_TO_EPOCH;
+  }
+
+  /**
+   * @return The date as the decimal number yyyyMMdd.
+   */
+  private static int toDecimalDate(long epochDay) throws IllegalArgumentException {
+    if (epochDay < IsoDates.MIN_EPOCH_DAY || epochDay > IsoDates.MAX_EPOCH_DAY) {
+      throw new IllegalArgumentException("Epoch day " + epochDay + " is out of range!");
+    }
+
+    // Years start on March 1st, so that the leap day ends the year.
+    final long days = epochDay + IsoDates.DAYS_FROM_ERA_TO_EPOCH;
+    final int era = (int) Math.floorDiv(days, IsoDates.DAYS_PER_ERA);
+    final int dayOfEra = (int) (days - (long) era * IsoDates.DAYS_PER_ERA);
+    final int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+    final int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+    final int marchMonth = (5 * dayOfYear + 2) / 153;
+    final int day = dayOfYear - (153 * marchMonth + 2) / 5 + 1;
+    final int month = marchMonth < 10 ? marchMonth + 3 : marchMonth - 9;
+    final int year = era * 400 + yearOfEra + (month <= 2 ? 1 : 0);
+    return year * 10_000 + month * 100 + day;
+  }
+
+  /**
+   * @return Character at the index of the formatted date, given as the decimal number yyyyMMdd. Every formatting
+   * method writes its characters from here.
+   */
+  private static char charAt(int date, int index) {
+    final int divisor = IsoDates.DIVISORS[index];
+    return 0 == divisor ? '-' : (char) ('0' + date / divisor % 10);
+  }
+
+  /**
+   * @return Value of the decimal digits, or -1 if a character is not a digit.
+   */
+  private static int parseDigits(CharSequence text, int offset, int count) {
+    int value = 0;
+    for (int i = offset; i < offset + count; i++) {
+      final int digit = text.charAt(i) - '0';
+      if (digit < 0 || digit > 9) {
+        return -1;
+      }
+      value = value * 10 + digit;
+    }
+    return value;
+  }
+
+  private static int lengthOfMonth(int year, int month) {
+    return switch (month) {
+      case 2 -> 0 == year % 4 && (0 != year % 100 || 0 == year % 400) ? 29 : 28;
+      case 4, 6, 9, 11 -> 30;
+      default -> 31;
+    };
+  }
+}
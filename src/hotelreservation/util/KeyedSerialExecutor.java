@@ -0,0 +1,49 @@
+package hotelreservation.util;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Runs tasks on a shared executor, one at a time and in submission order for tasks of the same key, concurrently for
+ * tasks of different keys. No thread waits for its turn: each task is chained after the previous task of its key.
+ */
+public final class KeyedSerialExecutor<K> {
+  private final Executor executor;
+  // Last task submitted for each key, removed once it completes with no task chained after it.
+  private final Map<K, CompletableFuture<Void>> lastTasks = new ConcurrentHashMap<>();
+
+  public KeyedSerialExecutor(Executor executor) {
+    this.executor = Objects.requireNonNull(executor);
+  }
+
+  /**
+   * @return Future of the task's result, completed exceptionally with whatever the task throws.
+   */
+  public <T> CompletableFuture<T> submit(K key, Callable<T> task) {
+    Objects.requireNonNull(key);
+    Objects.requireNonNull(task);
+    final CompletableFuture<T> result = new CompletableFuture<>();
+    final CompletableFuture<Void> lastTask = this.lastTasks.compute(key, (sameKey, previousTask) ->
+      (null == previousTask ? CompletableFuture.<Void>completedFuture(null) : previousTask).thenRunAsync(() -> {
+        try {
+          result.complete(task.call());
+        } catch (Throwable throwable) {
+          result.completeExceptionally(throwable);
+        }
+      }, this.executor)
+    );
+    lastTask.thenRun(() -> this.lastTasks.remove(key, lastTask));
+    return result;
+  }
+
+  /**
+   * @return Number of keys having a task queued or running.
+   */
+  public int getActiveKeyCount() {
+    return this.lastTasks.size();
+  }
+}
@@ -0,0 +1,403 @@
+package hotelreservation.util;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Set of non-negative ints in the layout of Roaring bitmaps: values are grouped by their 16 high bits into containers
+ * of their 16 low bits, each kept as a sorted array while sparse (up to 4096 values, i.e. 8 KiB) and as a 65536-bit
+ * bitmap once dense. Set operations go container by container, with the cheapest algorithm for each pair of
+ * representations, so that a dense set costs one machine word per 64 values and a sparse one two bytes per value.
+ * <p>
+ * Not thread-safe. Set operations return new bitmaps, leaving their operands unchanged.
+ */
+public final class RoaringBitmap {
+  private static final int MAX_ARRAY_CARDINALITY = 4096;
+  private static final int BITMAP_WORDS = 1024;
+  private static final int INITIAL_CONTAINERS = 4;
+  private static final int INITIAL_ARRAY_CAPACITY = 4;
+
+  // High bits of the values of each container, ascending.
+  private char[] keys = new char[RoaringBitmap.INITIAL_CONTAINERS];
+  // Either a char[] of low bits, ascending in its first cardinality slots, or a long[] bitmap of low bits.
+  private Object[] containers = new Object[RoaringBitmap.INITIAL_CONTAINERS];
+  private int[] cardinalities = new int[RoaringBitmap.INITIAL_CONTAINERS];
+  private int containerCount;
+
+  public void add(int value) throws IllegalArgumentException {
+    if (value < 0) {
+      throw new IllegalArgumentException("Value must be non-negative!");
+    }
+    final char key = (char) (value >>> 16);
+    final char low = (char) value;
+
+    // Values are mostly added in ascending order, i.e. to the last container.
+    int index = this.containerCount > 0 && this.keys[this.containerCount - 1] == key
+      ? this.containerCount - 1
+      : Arrays.binarySearch(this.keys, 0, this.containerCount, key);
+    if (index < 0) {
+      index = -index - 1;
+      this.insertContainer(index, key, new char[RoaringBitmap.INITIAL_ARRAY_CAPACITY], 0);
+    }
+
+    final int cardinality = this.cardinalities[index];
+    if (this.containers[index] instanceof long[] bitmap) {
+      if (0 == (bitmap[low >>> 6] & 1L << low)) {
+        bitmap[low >>> 6] |= 1L << low;
+        this.cardinalities[index] = cardinality + 1;
+      }
+      return;
+    }
+
+    char[] array = (char[]) this.containers[index];
+    int position = cardinality > 0 && array[cardinality - 1] < low
+      ? -cardinality - 1
+      : Arrays.binarySearch(array, 0, cardinality, low);
+    if (position >= 0) {
+      return;
+    }
+    position = -position - 1;
+
+    if (RoaringBitmap.MAX_ARRAY_CARDINALITY == cardinality) {
+      final long[] bitmap = RoaringBitmap.toBitmap(array, cardinality);
+      bitmap[low >>> 6] |= 1L << low;
+      this.containers[index] = bitmap;
+      this.cardinalities[index] = cardinality + 1;
+      return;
+    }
+    if (array.length == cardinality) {
+      array = Arrays.copyOf(array, Math.min(RoaringBitmap.MAX_ARRAY_CARDINALITY, 2 * cardinality));
+      this.containers[index] = array;
+    }
+    System.arraycopy(array, position, array, position + 1, cardinality - position);
+    array[position] = low;
+    this.cardinalities[index] = cardinality + 1;
+  }
+
+  public boolean contains(int value) {
+    if (value < 0) {
+      return false;
+    }
+    final int index = Arrays.binarySearch(this.keys, 0, this.containerCount, (char) (value >>> 16));
+    if (index < 0) {
+      return false;
+    }
+    final char low = (char) value;
+    if (this.containers[index] instanceof long[] bitmap) {
+      return 0 != (bitmap[low >>> 6] & 1L << low);
+    }
+    return Arrays.binarySearch((char[]) this.containers[index], 0, this.cardinalities[index], low) >= 0;
+  }
+
+  public int getCardinality() {
+    int cardinality = 0;
+    for (int i = 0; i < this.containerCount; i++) {
+      cardinality += this.cardinalities[i];
+    }
+    return cardinality;
+  }
+
+  public boolean isEmpty() {
+    return 0 == this.containerCount;
+  }
+
+  /**
+   * @return Values in both bitmaps.
+   */
+  public RoaringBitmap and(RoaringBitmap other) {
+    final RoaringBitmap result = new RoaringBitmap();
+    int i = 0;
+    int j = 0;
+    while (i < this.containerCount && j < other.containerCount) {
+      if (this.keys[i] < other.keys[j]) {
+        i++;
+      } else if (this.keys[i] > other.keys[j]) {
+        j++;
+      } else {
+        result.appendContainer(this.keys[i], RoaringBitmap.and(
+          this.containers[i], this.cardinalities[i], other.containers[j], other.cardinalities[j]
+        ));
+        i++;
+        j++;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * @return Values in either bitmap.
+   */
+  public RoaringBitmap or(RoaringBitmap other) {
+    final RoaringBitmap result = new RoaringBitmap();
+    int i = 0;
+    int j = 0;
+    while (i < this.containerCount || j < other.containerCount) {
+      if (j == other.containerCount || (i < this.containerCount && this.keys[i] < other.keys[j])) {
+        result.appendContainer(this.keys[i], RoaringBitmap.copy(this.containers[i], this.cardinalities[i]));
+        i++;
+      } else if (i == this.containerCount || this.keys[i] > other.keys[j]) {
+        result.appendContainer(other.keys[j], RoaringBitmap.copy(other.containers[j], other.cardinalities[j]));
+        j++;
+      } else {
+        result.appendContainer(this.keys[i], RoaringBitmap.or(
+          this.containers[i], this.cardinalities[i], other.containers[j], other.cardinalities[j]
+        ));
+        i++;
+        j++;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * @return Values in this bitmap but not in the other.
+   */
+  public RoaringBitmap andNot(RoaringBitmap other) {
+    final RoaringBitmap result = new RoaringBitmap();
+    int j = 0;
+    for (int i = 0; i < this.containerCount; i++) {
+      while (j < other.containerCount && other.keys[j] < this.keys[i]) {
+        j++;
+      }
+      result.appendContainer(this.keys[i], j < other.containerCount && other.keys[j] == this.keys[i]
+        ? RoaringBitmap.andNot(this.containers[i], this.cardinalities[i], other.containers[j], other.cardinalities[j])
+        : RoaringBitmap.copy(this.containers[i], this.cardinalities[i])
+      );
+    }
+    return result;
+  }
+
+  /**
+   * @return Values in ascending order.
+   */
+  public int[] toArray() {
+    final int[] values = new int[this.getCardinality()];
+    final int[] count = new int[1];
+    this.forEach(value -> values[count[0]++] = value);
+    return values;
+  }
+
+  /**
+   * Passes the values to the consumer in ascending order.
+   */
+  public void forEach(IntConsumer consumer) {
+    for (int i = 0; i < this.containerCount; i++) {
+      final int high = this.keys[i] << 16;
+      if (this.containers[i] instanceof long[] bitmap) {
+        for (int word = 0; word < RoaringBitmap.BITMAP_WORDS; word++) {
+          for (long bits = bitmap[word]; 0 != bits; bits &= bits - 1) {
+            consumer.accept(high | word << 6 | Long.numberOfTrailingZeros(bits));
+          }
+        }
+      } else {
+        final char[] array = (char[]) this.containers[i];
+        for (int k = 0; k < this.cardinalities[i]; k++) {
+          consumer.accept(high | array[k]);
+        }
+      }
+    }
+  }
+
+  private void insertContainer(int index, char key, Object container, int cardinality) {
+    if (this.keys.length == this.containerCount) {
+      final int capacity = 2 * this.containerCount;
+      this.keys = Arrays.copyOf(this.keys, capacity);
+      this.containers = Arrays.copyOf(this.containers, capacity);
+      this.cardinalities = Arrays.copyOf(this.cardinalities, capacity);
+    }
+    final int moved = this.containerCount - index;
+    System.arraycopy(this.keys, index, this.keys, index + 1, moved);
+    System.arraycopy(this.containers, index, this.containers, index + 1, moved);
+    System.arraycopy(this.cardinalities, index, this.cardinalities, index + 1, moved);
+    this.keys[index] = key;
+    this.containers[index] = container;
+    this.cardinalities[index] = cardinality;
+    this.containerCount++;
+  }
+
+  /**
+   * Appends a container with a key greater than all others, unless it is empty.
+   *
+   * @param container An array sized to its cardinality, or a bitmap.
+   */
+  private void appendContainer(char key, Object container) {
+    final int cardinality = container instanceof long[] bitmap
+      ? RoaringBitmap.cardinality(bitmap)
+      : ((char[]) container).length;
+    if (cardinality > 0) {
+      this.insertContainer(this.containerCount, key, container, cardinality);
+    }
+  }
+
+  private static Object copy(Object container, int cardinality) {
+    return container instanceof long[] bitmap
+      ? bitmap.clone()
+      : Arrays.copyOf((char[]) container, cardinality);
+  }
+
+  private static Object and(Object left, int leftCardinality, Object right, int rightCardinality) {
+    if (left instanceof long[] leftBitmap && right instanceof long[] rightBitmap) {
+      final long[] bitmap = new long[RoaringBitmap.BITMAP_WORDS];
+      for (int word = 0; word < RoaringBitmap.BITMAP_WORDS; word++) {
+        bitmap[word] = leftBitmap[word] & rightBitmap[word];
+      }
+      return RoaringBitmap.shrink(bitmap);
+    }
+    if (left instanceof long[] leftBitmap) {
+      return RoaringBitmap.filter((char[]) right, rightCardinality, leftBitmap, true);
+    }
+    if (right instanceof long[] rightBitmap) {
+      return RoaringBitmap.filter((char[]) left, leftCardinality, rightBitmap, true);
+    }
+
+    final char[] leftArray = (char[]) left;
+    final char[] rightArray = (char[]) right;
+    final char[] array = new char[Math.min(leftCardinality, rightCardinality)];
+    int count = 0;
+    for (int i = 0, j = 0; i < leftCardinality && j < rightCardinality; ) {
+      if (leftArray[i] < rightArray[j]) {
+        i++;
+      } else if (leftArray[i] > rightArray[j]) {
+        j++;
+      } else {
+        array[count++] = leftArray[i];
+        i++;
+        j++;
+      }
+    }
+    return Arrays.copyOf(array, count);
+  }
+
+  private static Object or(Object left, int leftCardinality, Object right, int rightCardinality) {
+    if (left instanceof long[] leftBitmap && right instanceof long[] rightBitmap) {
+      final long[] bitmap = new long[RoaringBitmap.BITMAP_WORDS];
+      for (int word = 0; word < RoaringBitmap.BITMAP_WORDS; word++) {
+        bitmap[word] = leftBitmap[word] | rightBitmap[word];
+      }
+      return bitmap;
+    }
+    if (left instanceof long[] || right instanceof long[]) {
+      final boolean leftIsBitmap = left instanceof long[];
+      final long[] bitmap = ((long[]) (leftIsBitmap ? left : right)).clone();
+      final char[] array = (char[]) (leftIsBitmap ? right : left);
+      final int arrayCardinality = leftIsBitmap ? rightCardinality : leftCardinality;
+      for (int i = 0; i < arrayCardinality; i++) {
+        bitmap[array[i] >>> 6] |= 1L << array[i];
+      }
+      return bitmap;
+    }
+
+    final char[] leftArray = (char[]) left;
+    final char[] rightArray = (char[]) right;
+    if (leftCardinality + rightCardinality > RoaringBitmap.MAX_ARRAY_CARDINALITY) {
+      final long[] bitmap = RoaringBitmap.toBitmap(leftArray, leftCardinality);
+      for (int j = 0; j < rightCardinality; j++) {
+        bitmap[rightArray[j] >>> 6] |= 1L << rightArray[j];
+      }
+      return RoaringBitmap.shrink(bitmap);
+    }
+    final char[] array = new char[leftCardinality + rightCardinality];
+    int count = 0;
+    int i = 0;
+    int j = 0;
+    while (i < leftCardinality && j < rightCardinality) {
+      if (leftArray[i] < rightArray[j]) {
+        array[count++] = leftArray[i++];
+      } else if (leftArray[i] > rightArray[j]) {
+        array[count++] = rightArray[j++];
+      } else {
+        array[count++] = leftArray[i++];
+        j++;
+      }
+    }
+    while (i < leftCardinality) {
+      array[count++] = leftArray[i++];
+    }
+    while (j < rightCardinality) {
+      array[count++] = rightArray[j++];
+    }
+    return Arrays.copyOf(array, count);
+  }
+
+  private static Object andNot(Object left, int leftCardinality, Object right, int rightCardinality) {
+    if (left instanceof long[] leftBitmap) {
+      final long[] bitmap = leftBitmap.clone();
+      if (right instanceof long[] rightBitmap) {
+        for (int word = 0; word < RoaringBitmap.BITMAP_WORDS; word++) {
+          bitmap[word] &= ~rightBitmap[word];
+        }
+      } else {
+        final char[] rightArray = (char[]) right;
+        for (int j = 0; j < rightCardinality; j++) {
+          bitmap[rightArray[j] >>> 6] &= ~(1L << rightArray[j]);
+        }
+      }
+      return RoaringBitmap.shrink(bitmap);
+    }
+    if (right instanceof long[] rightBitmap) {
+      return RoaringBitmap.filter((char[]) left, leftCardinality, rightBitmap, false);
+    }
+
+    final char[] leftArray = (char[]) left;
+    final char[] rightArray = (char[]) right;
+    final char[] array = new char[leftCardinality];
+    int count = 0;
+    for (int i = 0, j = 0; i < leftCardinality; i++) {
+      while (j < rightCardinality && rightArray[j] < leftArray[i]) {
+        j++;
+      }
+      if (j == rightCardinality || rightArray[j] != leftArray[i]) {
+        array[count++] = leftArray[i];
+      }
+    }
+    return Arrays.copyOf(array, count);
+  }
+
+  /**
+   * @return Values of the array which are (or are not) in the bitmap.
+   */
+  private static char[] filter(char[] array, int cardinality, long[] bitmap, boolean inBitmap) {
+    final char[] filtered = new char[cardinality];
+    int count = 0;
+    for (int i = 0; i < cardinality; i++) {
+      if (inBitmap == (0 != (bitmap[array[i] >>> 6] & 1L << array[i]))) {
+        filtered[count++] = array[i];
+      }
+    }
+    return Arrays.copyOf(filtered, count);
+  }
+
+  private static long[] toBitmap(char[] array, int cardinality) {
+    final long[] bitmap = new long[RoaringBitmap.BITMAP_WORDS];
+    for (int i = 0; i < cardinality; i++) {
+      bitmap[array[i] >>> 6] |= 1L << array[i];
+    }
+    return bitmap;
+  }
+
+  /**
+   * @return The bitmap, or an array of its values if sparse enough.
+   */
+  private static Object shrink(long[] bitmap) {
+    final int cardinality = RoaringBitmap.cardinality(bitmap);
+    if (cardinality > RoaringBitmap.MAX_ARRAY_CARDINALITY) {
+      return bitmap;
+    }
+    final char[] array = new char[cardinality];
+    int count = 0;
+    for (int word = 0; word < RoaringBitmap.BITMAP_WORDS; word++) {
+      for (long bits = bitmap[word]; 0 != bits; bits &= bits - 1) {
+        array[count++] = (char) (word << 6 | Long.numberOfTrailingZeros(bits));
+      }
+    }
+    return array;
+  }
+
+  private static int cardinality(long[] bitmap) {
+    int cardinality = 0;
+    for (final long word : bitmap) {
+      cardinality += Long.bitCount(word);
+    }
+    return cardinality;
+  }
+}
@@ -0,0 +1,271 @@
+package hotelreservation.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+public class Tester {
+  public static void main(String[] args) throws Exception {
+    Tester.checkKeyedSerialExecutor();
+    Tester.checkIsoDates();
+    Tester.checkIdempotencyCache();
+    Tester.checkTokenBucketRateLimiter();
+    Tester.checkAdaptiveConcurrencyLimiter();
+    Tester.checkRoaringBitmap();
+  }
+
+  private static void check(boolean condition, String message) {
+    if (!condition) {
+      throw new IllegalStateException(message);
+    }
+    System.out.println(message);
+  }
+
+  private static void checkKeyedSerialExecutor() throws Exception {
+    final ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      final KeyedSerialExecutor<String> serialExecutor = new KeyedSerialExecutor<>(executor);
+      final Map<String, List<Integer>> runsByKey = new ConcurrentHashMap<>();
+      final Map<String, AtomicBoolean> runningByKey = new ConcurrentHashMap<>();
+      final List<CompletableFuture<Integer>> results = new ArrayList<>();
+      for (int i = 0; i < 2000; i++) {
+        final String key = "room-" + (i % 4);
+        final int task = i;
+        results.add(serialExecutor.submit(key, () -> {
+          if (!runningByKey.computeIfAbsent(key, newKey -> new AtomicBoolean()).compareAndSet(false, true)) {
+            throw new IllegalStateException("Tasks of " + key + " have overlapped!");
+          }
+          runsByKey.computeIfAbsent(key, newKey -> new ArrayList<>()).add(task);
+          runningByKey.get(key).set(false);
+          return task;
+        }));
+      }
+      for (int i = 0; i < results.size(); i++) {
+        if (i != results.get(i).get()) {
+          throw new IllegalStateException("Task " + i + " has not returned its result!");
+        }
+      }
+
+      final long deadline = System.currentTimeMillis() + 10_000;
+      while (0 != serialExecutor.getActiveKeyCount() && System.currentTimeMillis() < deadline) {
+        Thread.sleep(10);
+      }
+      Tester.check(
+        4 == runsByKey.size()
+          && runsByKey.values().stream().allMatch(runs -> runs.equals(runs.stream().sorted().toList()))
+          && 0 == serialExecutor.getActiveKeyCount(),
+        "Keyed serial executor has run the tasks of each key in order, one at a time!"
+      );
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  private static void checkIsoDates() {
+    final char[] chars = new char[IsoDates.LENGTH + 2];
+    final byte[] bytes = new byte[IsoDates.LENGTH + 2];
+    final StringBuilder builder = new StringBuilder();
+    final long lastDay = LocalDate.of(9999, 12, 31).toEpochDay();
+    for (long day = LocalDate.of(0, 1, 1).toEpochDay(); day <= lastDay; day += 7) {
+      final String expected = LocalDate.ofEpochDay(day).toString();
+      IsoDates.format(day, chars, 1);
+      IsoDates.format(day, bytes, 2);
+      builder.setLength(0);
+      if (
+        !expected.equals(IsoDates.format(day))
+          || !expected.equals(new String(chars, 1, IsoDates.LENGTH))
+          || !expected.equals(new String(bytes, 2, IsoDates.LENGTH, StandardCharsets.US_ASCII))
+          || !expected.contentEquals(IsoDates.appendTo(builder, day))
+          || day != IsoDates.parse(expected)
+          || day != IsoDates.tryParse("x" + expected, 1)
+      ) {
+        throw new IllegalStateException("Date " + expected + " has not been formatted or parsed back!");
+      }
+    }
+    Tester.check(
+      Stream.of("1900-02-29", "2023-13-01", "2023-04-31", "2023-4-1", "2023/04/01", "2023-04-0a", "", "2023-04-011")
+        .allMatch(text -> IsoDates.INVALID == IsoDates.tryParse(text))
+        && LocalDate.of(2000, 2, 29).toEpochDay() == IsoDates.parse("2000-02-29"),
+      "ISO dates have matched java.time from year 0 to 9999, and invalid dates have been rejected!"
+    );
+
+    try {
+      final long invalidDay = IsoDates.parse("2023-02-29");
+      System.out.println(invalidDay);
+    } catch (IllegalArgumentException iae) {
+      if (!iae.getMessage().equals("Date 2023-02-29 is not in yyyy-MM-dd format!")) {
+        throw iae;
+      }
+      System.out.println("invalidDay has been correctly caught!");
+    }
+  }
+
+  private static void checkIdempotencyCache() throws Exception {
+    final long[] nowMillis = {0};
+    final IdempotencyCache<Integer> cache = new IdempotencyCache<>(2, 1000, () -> nowMillis[0]);
+    final AtomicInteger executions = new AtomicInteger();
+    final IdempotencyCache.Request<Integer, RuntimeException> request = executions::incrementAndGet;
+
+    final boolean replayed = 1 == cache.execute("a", "booking", request) && 1 == cache.execute("a", "booking", request);
+    try {
+      cache.execute("b", "booking", () -> {
+        throw new IllegalStateException("Room already reserved");
+      });
+    } catch (IllegalStateException ise) {
+      // Failures are not remembered.
+    }
+    final boolean retried = 2 == cache.execute("b", "booking", request);
+    cache.execute("c", "booking", request); // Over capacity: "a" is evicted on the next request
+    final boolean evicted = 4 == cache.execute("a", "booking", request);
+    nowMillis[0] += 1000;
+    final boolean expired = 5 == cache.execute("a", "booking", request);
+    Tester.check(
+      replayed && retried && evicted && expired,
+      "Idempotency cache has replayed results, forgotten failures, and evicted old and expired results!"
+    );
+
+    try {
+      cache.execute("a", "other booking", request);
+      throw new IllegalStateException("Idempotency key has been used for another request!");
+    } catch (IllegalArgumentException iae) {
+      if (!iae.getMessage().equals("Idempotency key a was used for another request!")) {
+        throw iae;
+      }
+      System.out.println("Reuse of an idempotency key for another request has been correctly rejected!");
+    }
+
+    // A replay arriving while the original request runs waits for its result, even once the original is old enough to
+    // be evicted or expired.
+    final CountDownLatch started = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    final ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      final Future<Integer> original = executor.submit(() -> cache.execute("d", "booking", () -> {
+        started.countDown();
+        release.await();
+        return 42;
+      }));
+      started.await();
+      nowMillis[0] += 1000;
+      cache.execute("e", "booking", request);
+      cache.execute("f", "booking", request);
+      final Future<Integer> replay = executor.submit(() -> cache.execute("d", "booking", request));
+      Thread.sleep(50);
+      final boolean waited = !replay.isDone();
+      release.countDown();
+      Tester.check(
+        waited && 42 == original.get() && 42 == replay.get(),
+        "Concurrent replay has waited for the result of the original request, which has been kept while running!"
+      );
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  private static void checkTokenBucketRateLimiter() {
+    final long[] nowNanos = {0};
+    final TokenBucketRateLimiter<Integer> rateLimiter = new TokenBucketRateLimiter<>(3, 2, () -> nowNanos[0]);
+    int acquired = 0;
+    while (rateLimiter.tryAcquire(1)) {
+      acquired++;
+    }
+    final boolean burst = 3 == acquired && 0 == rateLimiter.getAvailableTokens(1) && rateLimiter.tryAcquire(2);
+    nowNanos[0] += 500_000_000L; // One token at 2 per second
+    final boolean refilled = rateLimiter.tryAcquire(1) && !rateLimiter.tryAcquire(1);
+    nowNanos[0] += 10_000_000_000L;
+    final boolean capped = 3 == rateLimiter.getAvailableTokens(1);
+    rateLimiter.tryAcquire(3); // Prunes the full buckets
+    Tester.check(
+      burst && refilled && capped && 1 == rateLimiter.getTrackedKeyCount(),
+      "Token buckets have allowed a burst per key, refilled at their rate, and been pruned once full!"
+    );
+  }
+
+  private static void checkAdaptiveConcurrencyLimiter() {
+    final long[] nowNanos = {0};
+    final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(4, 2, 64, () -> nowNanos[0]);
+    final int initialLimit = limiter.getLimit();
+    final int fastLimit = Tester.runAtLimit(limiter, nowNanos, 1_000_000L, 300);
+    final int slowLimit = Tester.runAtLimit(limiter, nowNanos, 10_000_000L, 5);
+    Tester.check(
+      fastLimit > initialLimit && slowLimit < fastLimit / 2 && slowLimit >= 2,
+      "Concurrency limit has grown from " + initialLimit + " to " + fastLimit
+        + " while calls were fast, then shrunk to " + slowLimit + " as soon as they slowed down!"
+    );
+  }
+
+  /**
+   * Runs rounds of as many calls as the limit allows, all taking the given latency.
+   *
+   * @return Limit after the rounds.
+   */
+  private static int runAtLimit(AdaptiveConcurrencyLimiter limiter, long[] nowNanos, long latencyNanos, int rounds) {
+    for (int round = 0; round < rounds; round++) {
+      final List<AdaptiveConcurrencyLimiter.Permit> permits = new ArrayList<>();
+      for (AdaptiveConcurrencyLimiter.Permit permit; null != (permit = limiter.tryAcquire()); ) {
+        permits.add(permit);
+      }
+      if (permits.size() != limiter.getLimit() || limiter.getInFlight() != permits.size()) {
+        throw new IllegalStateException("Concurrency limiter has not admitted calls up to its limit!");
+      }
+      nowNanos[0] += latencyNanos;
+      permits.forEach(AdaptiveConcurrencyLimiter.Permit::close);
+    }
+    return limiter.getLimit();
+  }
+
+  private static void checkRoaringBitmap() {
+    final Random random = new Random(42);
+    final RoaringBitmap[] bitmaps = new RoaringBitmap[2];
+    final BitSet[] bitSets = new BitSet[2];
+    for (int i = 0; i < 2; i++) {
+      bitmaps[i] = new RoaringBitmap();
+      bitSets[i] = new BitSet();
+      // Dense, sparse and empty containers, and a container turning dense
+      for (int value = 0; value < 65_536; value += 1 + random.nextInt(4)) {
+        Tester.add(bitmaps[i], bitSets[i], value);
+      }
+      for (int j = 0; j < 3000 + 2000 * i; j++) {
+        Tester.add(bitmaps[i], bitSets[i], 3 * 65_536 + random.nextInt(65_536));
+      }
+      Tester.add(bitmaps[i], bitSets[i], 1000 * 65_536 + i);
+    }
+
+    final BitSet and = (BitSet) bitSets[0].clone();
+    and.and(bitSets[1]);
+    final BitSet or = (BitSet) bitSets[0].clone();
+    or.or(bitSets[1]);
+    final BitSet andNot = (BitSet) bitSets[0].clone();
+    andNot.andNot(bitSets[1]);
+    Tester.check(
+      Arrays.equals(bitSets[0].stream().toArray(), bitmaps[0].toArray())
+        && bitSets[1].cardinality() == bitmaps[1].getCardinality()
+        && Arrays.equals(and.stream().toArray(), bitmaps[0].and(bitmaps[1]).toArray())
+        && Arrays.equals(or.stream().toArray(), bitmaps[0].or(bitmaps[1]).toArray())
+        && Arrays.equals(andNot.stream().toArray(), bitmaps[0].andNot(bitmaps[1]).toArray())
+        && IntStream.range(0, 5 * 65_536).allMatch(value -> bitSets[0].get(value) == bitmaps[0].contains(value))
+        && Arrays.equals(bitSets[0].stream().toArray(), bitmaps[0].toArray()),
+      "Roaring bitmaps have matched bit sets, and been left unchanged by set operations!"
+    );
+  }
+
+  private static void add(RoaringBitmap bitmap, BitSet bitSet, int value) {
+    bitmap.add(value);
+    bitSet.set(value);
+  }
+}
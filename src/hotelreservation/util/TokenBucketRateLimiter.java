@@ -0,0 +1,103 @@
+package hotelreservation.util;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket per key: each key may make a burst of up to {@code capacity} calls, refilled at a steady rate.
+ * <p>
+ * Implemented as the generic cell rate algorithm: a bucket is a single "theoretical arrival time" (the time at which
+ * the bucket will be full again), advanced by one token's worth of time per call with a compare-and-set, so acquiring
+ * never locks. Full buckets carry no information and are pruned periodically.
+ */
+public final class TokenBucketRateLimiter<K> {
+  private final long nanosPerToken;
+  private final long capacityNanos;
+  private final LongSupplier clock;
+  // Time at which the bucket of each key is full again, in clock nanoseconds.
+  private final Map<K, AtomicLong> fullAtNanos = new ConcurrentHashMap<>();
+  private final AtomicLong nextPruneNanos;
+
+  public TokenBucketRateLimiter(int capacity, double tokensPerSecond) {
+    this(capacity, tokensPerSecond, System::nanoTime);
+  }
+
+  /**
+   * @param clock Current time in nanoseconds, e.g. {@link System#nanoTime()}.
+   */
+  public TokenBucketRateLimiter(int capacity, double tokensPerSecond, LongSupplier clock)
+    throws IllegalArgumentException {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("Capacity must be positive!");
+    }
+    if (!(tokensPerSecond > 0)) {
+      throw new IllegalArgumentException("Rate must be positive!");
+    }
+    this.nanosPerToken = Math.max(1L, Math.round(1e9 / tokensPerSecond));
+    this.capacityNanos = Math.multiplyExact(this.nanosPerToken, (long) capacity);
+    this.clock = Objects.requireNonNull(clock);
+    this.nextPruneNanos = new AtomicLong(this.clock.getAsLong() + this.capacityNanos);
+  }
+
+  /**
+   * @return Whether the key had a token, which is then taken.
+   */
+  public boolean tryAcquire(K key) {
+    final long nowNanos = this.clock.getAsLong();
+    this.pruneIfDue(nowNanos);
+
+    AtomicLong bucket = this.fullAtNanos.get(Objects.requireNonNull(key));
+    if (null == bucket) {
+      bucket = this.fullAtNanos.computeIfAbsent(key, newKey -> new AtomicLong(nowNanos));
+    }
+    while (true) {
+      final long fullAt = bucket.get();
+      final long newFullAt = (fullAt - nowNanos > 0 ? fullAt : nowNanos) + this.nanosPerToken;
+      if (newFullAt - nowNanos > this.capacityNanos) {
+        return false;
+      }
+      if (bucket.compareAndSet(fullAt, newFullAt)) {
+        return true;
+      }
+    }
+  }
+
+  /**
+   * @return Whether the key has a bucket, i.e. has taken a token since its bucket was last found full.
+   */
+  public boolean isTracked(K key) {
+    return this.fullAtNanos.containsKey(Objects.requireNonNull(key));
+  }
+
+  /**
+   * @return Number of tokens the key has now.
+   */
+  public int getAvailableTokens(K key) {
+    final AtomicLong bucket = this.fullAtNanos.get(Objects.requireNonNull(key));
+    final long nowNanos = this.clock.getAsLong();
+    final long backlogNanos = null == bucket ? 0 : Math.max(0, bucket.get() - nowNanos);
+    return (int) ((this.capacityNanos - backlogNanos) / this.nanosPerToken);
+  }
+
+  /**
+   * @return Number of keys whose buckets are not known to be full.
+   */
+  public int getTrackedKeyCount() {
+    return this.fullAtNanos.size();
+  }
+
+  /**
+   * Forgets full buckets, once per time to fill an empty bucket, so that every untouched bucket is full by then.
+   */
+  private void pruneIfDue(long nowNanos) {
+    final long pruneAt = this.nextPruneNanos.get();
+    if (nowNanos - pruneAt < 0 || !this.nextPruneNanos.compareAndSet(pruneAt, nowNanos + this.capacityNanos)) {
+      return;
+    }
+    // A call racing with the removal of its full bucket may get one extra token at most.
+    this.fullAtNanos.values().removeIf(bucket -> bucket.get() - nowNanos <= 0);
+  }
+}